@@ -28,7 +28,9 @@ import org.slf4j.LoggerFactory;
 import org.wso2.apk.enforcer.analytics.publisher.exception.ConnectionRecoverableException;
 import org.wso2.apk.enforcer.analytics.publisher.exception.ConnectionUnrecoverableException;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.DefaultAnalyticsThreadFactory;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.EventHubPublisherStats;
 import org.wso2.apk.enforcer.analytics.publisher.util.BackoffRetryCounter;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -36,8 +38,10 @@ import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Condition;
@@ -48,34 +52,52 @@ import javax.xml.bind.DatatypeConverter;
 /**
  * Event Hub client is responsible for sending events to
  * Azure Event Hub.
+ * <p>
+ * Events are added to the current {@link EventDataBatch} by a single batching thread. Full batches are sent
+ * asynchronously on the sender threads of the client, with a bounded number of batches in flight. A failed send is
+ * retried by scheduling it again after a delay, so neither the batching thread nor the sender threads sleep.
  */
 public class EventHubClient implements Cloneable {
     private static final Logger log = LoggerFactory.getLogger(EventHubClient.class);
     private static final String TOKEN_HASH_USER_PROP = "token-hash";
+    private static final long RESOURCE_LIMIT_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_BATCH_CREATION_ATTEMPTS = 3;
     private final String authEndpoint;
     private final String authToken;
     private final String authTokenHash;
-    private final Lock publishingLock;
     private final BackoffRetryCounter producerRetryCounter;
-    private final BackoffRetryCounter eventBatchRetryCounter;
     private final Lock threadBarrier;
     private final AmqpRetryOptions retryOptions;
     private final Condition waitCondition;
     private final ScheduledExecutorService scheduledExecutorService;
-    private EventHubProducerClient producer;
+    private final ExecutorService senderExecutorService;
+    private final Semaphore inFlightBatches;
+    private final EventHubPublisherStats stats = EventHubPublisherStats.getInstance();
+    private volatile EventHubProducerClient producer;
+    // Batch created along with the producer, taken over by the batching thread.
+    private volatile EventDataBatch createdBatch;
+    // Current batch and its event count. Only accessed by the batching thread.
     private EventDataBatch batch;
-    private ClientStatus clientStatus;
+    private int batchEventCount;
+    // Events dropped as no batch could be created. Only accessed by the batching thread.
+    private long batchCreationFailures;
+    private volatile ClientStatus clientStatus;
     private Map<String, String> properties = new HashMap<>();
 
     public EventHubClient(String authEndpoint, String authToken, AmqpRetryOptions retryOptions,
                           Map<String, String> properties) {
         threadBarrier = new ReentrantLock();
         waitCondition = threadBarrier.newCondition();
-        publishingLock = new ReentrantLock();
         scheduledExecutorService = Executors.newScheduledThreadPool(2, new DefaultAnalyticsThreadFactory(
                 "Reconnection-Service"));
+        int maxInFlightBatches = Constants.DEFAULT_MAX_IN_FLIGHT_BATCHES;
+        if (properties != null && properties.get(Constants.MAX_IN_FLIGHT_BATCHES) != null) {
+            maxInFlightBatches = Math.max(1, Integer.parseInt(properties.get(Constants.MAX_IN_FLIGHT_BATCHES)));
+        }
+        inFlightBatches = new Semaphore(maxInFlightBatches);
+        senderExecutorService = Executors.newFixedThreadPool(maxInFlightBatches,
+                new DefaultAnalyticsThreadFactory("Batch-Sender"));
         producerRetryCounter = new BackoffRetryCounter();
-        eventBatchRetryCounter = new BackoffRetryCounter();
         this.authEndpoint = authEndpoint;
         this.authToken = authToken;
         this.authTokenHash = toHash(authToken);
@@ -96,8 +118,9 @@ public class EventHubClient implements Cloneable {
         producerRetryCounter.increment();
     }
 
-    private void createProducerWithRetry(String authEndpoint, String authToken, AmqpRetryOptions retryOptions,
-                                         boolean createBatch, Map<String, String> properties) {
+    private synchronized void createProducerWithRetry(String authEndpoint, String authToken,
+                                                      AmqpRetryOptions retryOptions, boolean createBatch,
+                                                      Map<String, String> properties) {
         log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
                           + "- Creating Eventhub client instance.");
         try {
@@ -107,7 +130,7 @@ public class EventHubClient implements Cloneable {
             producer = EventHubProducerClientFactory.create(authEndpoint, authToken, retryOptions, properties);
             try {
                 if (createBatch) {
-                    batch = producer.createBatch();
+                    createdBatch = producer.createBatch();
                 }
             } catch (IllegalStateException e) {
                 throw new ConnectionRecoverableException("Event batch creation failed. " + e.getMessage()
@@ -157,185 +180,281 @@ public class EventHubClient implements Cloneable {
         }
     }
 
-    public void sendEvent(String event) {
+    /**
+     * Waits until the client is connected to Event Hub.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true if the client is connected
+     */
+    public boolean awaitConnection(long timeoutMillis) {
         if (clientStatus == ClientStatus.CONNECTED) {
-            EventData eventData = new EventData(event);
-            eventData.getProperties().put(TOKEN_HASH_USER_PROP, this.authTokenHash);
-            try {
-                publishingLock.lock();
-                boolean isAdded = batch.tryAdd(eventData);
-                if (!isAdded) {
-                    try {
-                        int size = 0;
-                        if (log.isDebugEnabled()) {
-                            size = batch.getCount();
-                        }
-                        producer.send(batch);
-                        batch = createBatchWithRetry();
-                        isAdded = batch.tryAdd(eventData);
-                        log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                          + "- Published " + size + " events to Analytics cluster.");
-
-                    } catch (AmqpException e) {
-                        if (isAuthenticationFailure(e)) {
-                            //if authentication error try to reinitialize publisher. Retrying will deal with any
-                            // network or revocation failures.
-                            log.error("Authentication issue happened. Producer client will be re-initialized "
-                                              + "retaining the Event Data Batch");
-                            this.clientStatus = ClientStatus.RETRYING;
-                            createProducerWithRetry(authEndpoint, authToken, retryOptions, false, properties);
-                            sendEvent(event);
-                        } else if (e.getErrorCondition() == AmqpErrorCondition.RESOURCE_LIMIT_EXCEEDED) {
-                            //If resource limit is exceeded we will retry after a constant delay
-                            log.error("Resource limit exceeded when publishing Event Data Batch. Operation will be "
-                                              + "retried after constant delay");
-                            try {
-                                Thread.sleep(1000 * 60);
-                            } catch (InterruptedException interruptedException) {
-                                Thread.currentThread().interrupt();
-                            }
-                            sendEvent(event);
-                        } else {
-                            //For any other exception
-                            log.error("AMQP error occurred while publishing Event Data Batch. Producer client will "
-                                              + "be re-initialized. Events may be lost in the process.");
-                            log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                              + "- AMQP error occurred while "
-                                              + "publishing Event Data Batch. Producer client will "
-                                              + "be re-initialized. Events may be lost in the process.", e);
-                            this.clientStatus = ClientStatus.RETRYING;
-                            createProducerWithRetry(authEndpoint, authToken, retryOptions, true, properties);
-                            sendEvent(event);
-                        }
-                    } catch (Exception e) {
-                        if (e.getCause() instanceof TimeoutException) {
-                            log.error("Timeout occurred after retrying " + retryOptions.getMaxRetries() + " "
-                                              + "times with an timeout of " + retryOptions.getTryTimeout().getSeconds()
-                                              + " seconds while trying to publish Event Data Batch. Next retry cycle "
-                                              + "will begin shortly.");
-                            sendEvent(event);
-                        } else {
-                            //For any other exception
-                            log.error("Unknown error occurred while publishing Event Data Batch. Producer client will "
-                                              + "be re-initialized. Events may be lost in the process.");
-                            log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                              + "- Unknown error occurred while publishing Event Data Batch. "
-                                              + "Producer client will "
-                                              + "be re-initialized. Events may be lost in the process.", e);
-                            this.clientStatus = ClientStatus.RETRYING;
-                            createProducerWithRetry(authEndpoint, authToken, retryOptions, true, properties);
-                            sendEvent(event);
-                        }
-                    }
+            return true;
+        }
+        try {
+            threadBarrier.lock();
+            if (clientStatus != ClientStatus.CONNECTED) {
+                if (log.isDebugEnabled()) {
+                    log.debug(Thread.currentThread().getName().replaceAll("[\r\n]", "") + " will be parked as "
+                                      + "EventHub Client is inactive.");
                 }
-                if (isAdded) {
-                    if (log.isTraceEnabled()) {
-                        log.trace("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                          + "- Adding event: " + event.replaceAll("[\r\n]", ""));
-                    }
-                } else {
-                    if (log.isTraceEnabled()) {
-                        log.trace("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                          + "- Failed to add event: " + event.replaceAll("[\r\n]", ""));
-                    }
+                if (waitCondition.await(timeoutMillis, TimeUnit.MILLISECONDS) && log.isDebugEnabled()) {
+                    log.debug(Thread.currentThread().getName().replaceAll("[\r\n]", "") + " will be resumes as "
+                                      + "EventHub Client is active.");
                 }
-            } finally {
-                publishingLock.unlock();
             }
-        } else if (clientStatus == ClientStatus.FLUSHING_FAILED) {
-            log.debug("client status is FLUSHING_FAILED. Producer client will be re-initialized "
-                    + "retaining the Event Data Batch");
-            this.clientStatus = ClientStatus.RETRYING;
-            createProducerWithRetry(authEndpoint, authToken, retryOptions, false, properties);
-            sendEvent(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            threadBarrier.unlock();
+        }
+        return clientStatus == ClientStatus.CONNECTED;
+    }
+
+    public void sendEvent(String event) {
+        sendEvent(event.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds the given UTF-8 encoded event to the current batch. A full batch is handed over to the sender threads and
+     * a new batch is started. Must only be called by the batching thread of this client, which is blocked only when
+     * the maximum number of batches are already in flight. An event for which no batch can be created is counted as
+     * failed and dropped.
+     *
+     * @param event UTF-8 encoded event, which must not be modified by the caller afterwards
+     * @return number of events in the current batch
+     */
+    public int sendEvent(byte[] event) {
+        try {
+            return addEvent(event);
+        } catch (IllegalStateException e) {
+            stats.eventsFailed(1);
+            batchCreationFailures++;
+            if (batchCreationFailures == 1) {
+                log.error("Event Data Batch could not be created. Starting to drop analytics events.", e);
+            } else if (batchCreationFailures % 1000 == 0) {
+                log.error("Event Data Batch could not be created. " + batchCreationFailures
+                                  + " events dropped so far");
+            }
+            return batchEventCount;
+        }
+    }
+
+    /**
+     * Same as {@link #sendEvent(byte[])}, except that an event for which no batch can be created is left with the
+     * caller.
+     *
+     * @param event UTF-8 encoded event, which must not be modified by the caller afterwards
+     * @return number of events in the current batch
+     * @throws IllegalStateException if no Event Data Batch can be created
+     */
+    public int addEvent(byte[] event) {
+        EventData eventData = new EventData(event);
+        eventData.getProperties().put(TOKEN_HASH_USER_PROP, this.authTokenHash);
+        if (batch == null) {
+            batch = nextBatch();
+        }
+        boolean isAdded = batch.tryAdd(eventData);
+        if (!isAdded) {
+            dispatchBatch();
+            batch = nextBatch();
+            isAdded = batch.tryAdd(eventData);
+        }
+        if (isAdded) {
+            batchEventCount++;
+            if (log.isTraceEnabled()) {
+                log.trace("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                                  + "- Adding event: "
+                                  + new String(event, StandardCharsets.UTF_8).replaceAll("[\r\n]", ""));
+            }
         } else {
-            try {
-                threadBarrier.lock();
-                if (log.isDebugEnabled()) {
-                    log.debug(Thread.currentThread().getName().replaceAll("[\r\n]", "") + " will be parked as EventHub "
-                                      + "Client is inactive.");
+            stats.eventsFailed(1);
+            log.error("Event of " + event.length + " bytes exceeds the maximum size of an Event Data Batch and is "
+                              + "dropped.");
+            if (log.isTraceEnabled()) {
+                log.trace("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                                  + "- Failed to add event: "
+                                  + new String(event, StandardCharsets.UTF_8).replaceAll("[\r\n]", ""));
+            }
+        }
+        return batchEventCount;
+    }
+
+    /**
+     * Hands the current batch over to the sender threads if it has any events. Must only be called by the batching
+     * thread of this client.
+     */
+    public void flushEvents() {
+        if (batch != null && batch.getCount() > 0) {
+            int size = batch.getCount();
+            dispatchBatch();
+            log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                              + "Flushed " + size + " events to Analytics cluster.");
+        } else if (log.isDebugEnabled()) {
+            log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] Event flushing "
+                              + "is aborted as Event Data Batch is empty");
+        }
+    }
+
+    private EventDataBatch nextBatch() {
+        EventDataBatch created = createdBatch;
+        if (created != null) {
+            createdBatch = null;
+            return created;
+        }
+        return createBatchWithRetry();
+    }
+
+    private void dispatchBatch() {
+        EventDataBatch fullBatch = batch;
+        batch = null;
+        batchEventCount = 0;
+        if (fullBatch == null || fullBatch.getCount() == 0) {
+            return;
+        }
+        int eventCount = fullBatch.getCount();
+        // Blocks the batching thread while the maximum number of batches are in flight. Events keep being queued,
+        // and dropped once the queue is full, meanwhile.
+        inFlightBatches.acquireUninterruptibly();
+        stats.batchDispatched(fullBatch.getSizeInBytes(), fullBatch.getMaxSizeInBytes());
+        senderExecutorService.execute(() -> send(fullBatch, eventCount, null));
+    }
+
+    private void send(EventDataBatch eventBatch, int eventCount, BackoffRetryCounter retryCounter) {
+        EventHubProducerClient sendingProducer = producer;
+        long startTime = System.nanoTime();
+        try {
+            sendingProducer.send(eventBatch);
+            stats.batchPublished(eventCount, System.nanoTime() - startTime);
+            completeSend();
+            log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                              + "- Published " + eventCount + " events to Analytics cluster.");
+        } catch (AmqpException e) {
+            if (isAuthenticationFailure(e)) {
+                //if authentication error try to reinitialize publisher. Retrying will deal with any
+                // network or revocation failures.
+                log.error("Authentication issue happened. Producer client will be re-initialized "
+                                  + "retaining the Event Data Batch");
+                recreateProducer(sendingProducer);
+                if (retryCounter == null) {
+                    retryCounter = new BackoffRetryCounter();
                 }
-                waitCondition.await();
-                if (log.isDebugEnabled()) {
-                    log.debug(Thread.currentThread().getName().replaceAll("[\r\n]", "") + " will be resumes as "
-                                      + "EventHub Client is active.");
+                long delay = retryCounter.getTimeIntervalMillis();
+                retryCounter.increment();
+                retrySend(eventBatch, eventCount, retryCounter, delay);
+            } else if (e.getErrorCondition() == AmqpErrorCondition.RESOURCE_LIMIT_EXCEEDED) {
+                //If resource limit is exceeded we will retry after a constant delay
+                log.error("Resource limit exceeded when publishing Event Data Batch. Operation will be "
+                                  + "retried after constant delay");
+                retrySend(eventBatch, eventCount, retryCounter, RESOURCE_LIMIT_RETRY_DELAY_MILLIS);
+            } else {
+                //For any other exception
+                log.error("AMQP error occurred while publishing Event Data Batch. Producer client will "
+                                  + "be re-initialized. Events may be lost in the process.");
+                log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                                  + "- AMQP error occurred while "
+                                  + "publishing Event Data Batch. Producer client will "
+                                  + "be re-initialized. Events may be lost in the process.", e);
+                recreateProducer(sendingProducer);
+                dropBatch(eventCount);
+            }
+        } catch (Exception e) {
+            if (e.getCause() instanceof TimeoutException) {
+                if (retryCounter == null) {
+                    retryCounter = new BackoffRetryCounter();
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } finally {
-                threadBarrier.unlock();
+                log.error("Timeout occurred after retrying " + retryOptions.getMaxRetries() + " "
+                                  + "times with an timeout of " + retryOptions.getTryTimeout().getSeconds()
+                                  + " seconds while trying to publish Event Data Batch. Next retry cycle "
+                                  + "will begin shortly.");
+                long delay = retryCounter.getTimeIntervalMillis();
+                retryCounter.increment();
+                retrySend(eventBatch, eventCount, retryCounter, delay);
+            } else if (e.getCause() instanceof ConnectionUnrecoverableException) {
+                this.clientStatus = ClientStatus.NOT_CONNECTED;
+                log.error("Unrecoverable error occurred when event flushing. Analytics event flushing will be"
+                                  + " disabled until issue is rectified. Reason: "
+                                  + e.getMessage().replaceAll("[\r\n]", ""));
+                dropBatch(eventCount);
+            } else {
+                //For any other exception
+                log.error("Unknown error occurred while publishing Event Data Batch. Producer client will "
+                                  + "be re-initialized. Events may be lost in the process.");
+                log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
+                                  + "- Unknown error occurred while publishing Event Data Batch. "
+                                  + "Producer client will "
+                                  + "be re-initialized. Events may be lost in the process.", e);
+                recreateProducer(sendingProducer);
+                dropBatch(eventCount);
             }
-            sendEvent(event);
         }
     }
 
+    /**
+     * Re-initializes the producer unless another sender thread has already replaced the given failed producer.
+     */
+    private synchronized void recreateProducer(EventHubProducerClient failedProducer) {
+        if (producer != failedProducer) {
+            return;
+        }
+        this.clientStatus = ClientStatus.RETRYING;
+        createProducerWithRetry(authEndpoint, authToken, retryOptions, false, properties);
+    }
+
+    /**
+     * Sends the batch again after the given delay. The batch keeps its in flight permit meanwhile, so that retries
+     * slow down the pipeline instead of piling up batches.
+     */
+    private void retrySend(EventDataBatch eventBatch, int eventCount, BackoffRetryCounter retryCounter,
+                           long delayMillis) {
+        Runnable retry = () -> senderExecutorService.execute(() -> send(eventBatch, eventCount, retryCounter));
+        if (delayMillis <= 0) {
+            retry.run();
+        } else {
+            scheduledExecutorService.schedule(retry, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dropBatch(int eventCount) {
+        stats.eventsFailed(eventCount);
+        completeSend();
+    }
+
+    private void completeSend() {
+        stats.batchCompleted();
+        inFlightBatches.release();
+    }
+
     private boolean isAuthenticationFailure(AmqpException exception) {
         AmqpErrorCondition condition = exception.getErrorCondition();
         return (condition == AmqpErrorCondition.UNAUTHORIZED_ACCESS ||
                 condition == AmqpErrorCondition.PUBLISHER_REVOKED_ERROR);
     }
 
+    /**
+     * Creates a batch, retrying a bounded number of times as the producer may have just been replaced by a sender
+     * thread. If no batch can be created, the producer is re-initialized, which leaves the client retrying with a
+     * backoff on the reconnection scheduler when the producer cannot be created either. The batching thread then waits
+     * for the connection instead of retrying here.
+     *
+     * @return new batch
+     * @throws IllegalStateException if no batch could be created
+     */
     private EventDataBatch createBatchWithRetry() {
         log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "")
                           + " }] Creating Event Data Batch");
-        try {
-            EventDataBatch batch = producer.createBatch();
-            eventBatchRetryCounter.reset();
-            return batch;
-        } catch (IllegalStateException e) {
-            log.error("Error in creating Event Data Batch. Operation will be retried in "
-                              + eventBatchRetryCounter.getTimeInterval().replaceAll("[\r\n]", ""));
+        for (int attempt = 1; ; attempt++) {
+            EventHubProducerClient currentProducer = producer;
             try {
-                Thread.sleep(eventBatchRetryCounter.getTimeIntervalMillis());
-            } catch (InterruptedException interruptedException) {
-                Thread.currentThread().interrupt();
-            }
-            eventBatchRetryCounter.increment();
-            return createBatchWithRetry();
-        }
-    }
-
-    public void flushEvents() {
-        if (this.clientStatus == ClientStatus.CONNECTED && batch.getCount() > 0) {
-                if (publishingLock.tryLock()) {
-                    try {
-                        int size = batch.getCount();
-                        producer.send(batch);
-                        batch = createBatchWithRetry();
-                        log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                          + "Flushed " + size + " events to Analytics cluster.");
-                    } catch (Exception e) {
-                        if (e instanceof AmqpException && isAuthenticationFailure((AmqpException) e)) {
-                            log.error("Marked client status as FLUSHING_FAILED due to AMQP authentication failure.");
-                            this.clientStatus = ClientStatus.FLUSHING_FAILED;
-                        } else if (e.getCause() instanceof ConnectionUnrecoverableException) {
-                            this.clientStatus = ClientStatus.NOT_CONNECTED;
-                            log.error(
-                                    "Unrecoverable error occurred when event flushing. Analytics event flushing will be"
-                                            + " disabled until issue is rectified. Reason: " + e.getMessage()
-                                            .replaceAll("[\r\n]", ""));
-                            return;
-                        }
-                        log.error("Event flushing operation failed. Will be retried again according to the configured "
-                                          + "client.flushing.delay. Error will be handled by publishing threads once "
-                                          + "Event Data Batch is filled.");
-                        log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] "
-                                          + "Event flushing operation failed. Will be retried again according to the "
-                                          + "configured client.flushing.delay. Error will be handled by publishing "
-                                          + "threads once Event Data Batch is filled.", e);
-                        //Dont do anything for any exception. If it is recoverable exception next run will succeed.
-                        //If not recoverable then next run will be filtered by if condition
-                    } finally {
-                        publishingLock.unlock();
-                    }
-                } else {
-                    log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] Event "
-                               + "flushing operation aborted as publisher threads are trying to send events");
+                return currentProducer.createBatch();
+            } catch (IllegalStateException e) {
+                if (attempt >= MAX_BATCH_CREATION_ATTEMPTS) {
+                    log.error("Error in creating Event Data Batch after " + attempt + " attempts. Producer client "
+                                      + "will be re-initialized.");
+                    recreateProducer(currentProducer);
+                    throw e;
                 }
-        } else {
-            if (log.isDebugEnabled()) {
-                log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "") + " }] Event flushing "
-                                  + "is aborted as Event Data Batch is empty or connection to Event Hub is not made");
+                log.debug("[{ " + Thread.currentThread().getName().replaceAll("[\r\n]", "")
+                                  + " }] Error in creating Event Data Batch. Operation will be retried.", e);
             }
         }
     }
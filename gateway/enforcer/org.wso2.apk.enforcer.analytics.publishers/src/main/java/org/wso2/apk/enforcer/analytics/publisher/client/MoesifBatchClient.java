@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.client;
+
+import com.moesif.api.models.EventModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.retriever.MoesifKeyRetriever;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moesif client which sends the events of an organization and environment in batches.
+ * <p>
+ * Events are collected per organization and environment, and a batch is sent as soon as it reaches the batch size
+ * or once its oldest event has waited for the flush interval, whichever comes first.
+ */
+public class MoesifBatchClient extends MoesifClient {
+
+    private static final Logger log = LoggerFactory.getLogger(MoesifBatchClient.class);
+    private final Map<String, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    public MoesifBatchClient(MoesifKeyRetriever keyRetriever, int batchSize, long flushIntervalMillis) {
+
+        super(keyRetriever);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        long checkInterval = Math.max(1, this.flushIntervalMillis / 2);
+        scheduler.scheduleWithFixedDelay(this::flushExpired, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(MetricEventBuilder builder) throws MetricReportingException {
+
+        Map<String, Object> event = builder.build();
+        String orgId = (String) event.get(Constants.ORGANIZATION_ID);
+        String environment = (String) event.getOrDefault(Constants.ENVIRONMENT_ID, Constants.DEFAULT_ENVIRONMENT);
+        EventModel eventModel;
+        try {
+            eventModel = buildEventResponse(event);
+        } catch (IOException e) {
+            log.error("Analytics event building failed. Event will be dropped", e);
+            complete(orgId, 1);
+            return;
+        }
+        PendingBatch batch = pendingBatches.computeIfAbsent(orgId + '\n' + environment,
+                k -> new PendingBatch(orgId, environment));
+        List<EventModel> full = batch.add(eventModel, batchSize);
+        if (full != null) {
+            send(orgId, environment, full, 0);
+        }
+    }
+
+    /**
+     * Sends the batches whose oldest event has waited for the flush interval.
+     */
+    void flushExpired() {
+
+        long now = System.currentTimeMillis();
+        for (PendingBatch batch : pendingBatches.values()) {
+            try {
+                List<EventModel> events = batch.drainIfOlderThan(now - flushIntervalMillis);
+                if (events != null) {
+                    send(batch.orgId, batch.environment, events, 0);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error while flushing the Moesif events of organization {}",
+                        String.valueOf(batch.orgId).replaceAll("[\r\n]", ""), e);
+            }
+        }
+    }
+
+    /**
+     * Events of an organization and environment waiting to be sent.
+     */
+    private static final class PendingBatch {
+
+        private final String orgId;
+        private final String environment;
+        private List<EventModel> events = new ArrayList<>();
+        private long firstEventAt;
+
+        private PendingBatch(String orgId, String environment) {
+
+            this.orgId = orgId;
+            this.environment = environment;
+        }
+
+        /**
+         * Adds an event, and returns the batch if it is full.
+         */
+        private synchronized List<EventModel> add(EventModel event, int batchSize) {
+
+            if (events.isEmpty()) {
+                firstEventAt = System.currentTimeMillis();
+            }
+            events.add(event);
+            return events.size() >= batchSize ? drain() : null;
+        }
+
+        private synchronized List<EventModel> drainIfOlderThan(long time) {
+
+            return !events.isEmpty() && firstEventAt <= time ? drain() : null;
+        }
+
+        private List<EventModel> drain() {
+
+            List<EventModel> drained = events;
+            events = new ArrayList<>(drained.size());
+            return drained;
+        }
+    }
+}
@@ -17,7 +17,7 @@
  */
 package org.wso2.apk.enforcer.analytics.publisher.client;
 
-import com.moesif.api.MoesifAPIClient;
+import com.moesif.api.Configuration;
 import com.moesif.api.controllers.APIController;
 import com.moesif.api.http.client.APICallBack;
 import com.moesif.api.http.client.HttpContext;
@@ -31,114 +31,186 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.DefaultAnalyticsThreadFactory;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.moesif.util.MoesifMicroserviceConstants;
 import org.wso2.apk.enforcer.analytics.publisher.retriever.MoesifKeyRetriever;
 import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
 
 import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Moesif Client is responsible for sending events to
  * Moesif Analytics Dashboard.
+ * <p>
+ * Failed requests are retried on a scheduler with a jittered exponential backoff, so neither the worker threads nor
+ * the SDK callback threads wait for a retry. An event handed to {@link #publish(MetricEventBuilder)} is held by the
+ * client until it is sent or dropped for good, at which point the completion listener is notified, so that the
+ * events waiting for a retry still count against the budget of their organization.
  */
 public class MoesifClient {
 
-    private final Logger log = LoggerFactory.getLogger(MoesifClient.class);
+    private static final Logger log = LoggerFactory.getLogger(MoesifClient.class);
+    // The SDK keeps the application ID of the requests in a static field, which is read when a request is created.
+    // Requests are created under this lock so that each one carries the key of its own organization.
+    private static final Object SDK_LOCK = new Object();
+    // The SDK controller is a singleton, which only depends on the application ID of the configuration.
+    private static final APIController SDK_CONTROLLER = APIController.getInstance();
     private final MoesifKeyRetriever keyRetriever;
+    protected final ScheduledExecutorService scheduler;
+    private volatile ObjIntConsumer<String> completionListener = (orgId, count) -> {
+    };
 
     public MoesifClient(MoesifKeyRetriever keyRetriever) {
 
         this.keyRetriever = keyRetriever;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new DefaultAnalyticsThreadFactory("Moesif-Scheduler"));
     }
 
-    private void doRetry(String orgId, MetricEventBuilder builder) {
-
-        Integer currentAttempt = MoesifClientContextHolder.PUBLISH_ATTEMPTS.get();
+    /**
+     * Sets the listener notified with the organization and the number of events once events are sent or dropped.
+     *
+     * @param completionListener listener of completed events
+     */
+    public void setCompletionListener(ObjIntConsumer<String> completionListener) {
 
-        if (currentAttempt > 0) {
-            currentAttempt -= 1;
-            MoesifClientContextHolder.PUBLISH_ATTEMPTS.set(currentAttempt);
-            try {
-                Thread.sleep(MoesifMicroserviceConstants.TIME_TO_WAIT_PUBLISH);
-                publish(builder);
-            } catch (MetricReportingException e) {
-                log.error("Failing retry attempt at Moesif client", e);
-            } catch (InterruptedException e) {
-                log.error("Failing retry attempt at Moesif client", e);
-            }
-        } else if (currentAttempt == 0) {
-            log.error("Failed all retrying attempts. Event will be dropped for organization {}",
-                    orgId.replaceAll("[\r\n]", ""));
-        }
+        this.completionListener = completionListener;
     }
 
     /**
      * publish method is responsible for checking the availability of relevant moesif key
-     * and initiating moesif client sdk.
+     * and initiating moesif client sdk. If the method throws, the event was not taken over by the client.
      */
     public void publish(MetricEventBuilder builder) throws MetricReportingException {
 
         Map<String, Object> event = builder.build();
-
         String orgId = (String) event.get(Constants.ORGANIZATION_ID);
         String eventEnvironment = (String) event.getOrDefault(Constants.ENVIRONMENT_ID, Constants.DEFAULT_ENVIRONMENT);
-        String moesifKey = keyRetriever.getKey(orgId, eventEnvironment);
-
-        // init moesif api client
-        MoesifAPIClient client = new MoesifAPIClient(moesifKey);
+        try {
+            send(orgId, eventEnvironment, Collections.singletonList(buildEventResponse(event)), 0);
+        } catch (IOException e) {
+            log.error("Analytics event sending failed. Event will be dropped", e);
+            complete(orgId, 1);
+        }
+    }
 
-        // api object is a singleton which will make calls to
-        // moesif endpoints with the latest MoesifAPI client being provided.
-        // Hence avoid maintaining a map of MoesifAPIClient against moesif keys.
-        APIController api = client.getAPI();
+    /**
+     * Sends the given events of an organization in a single request.
+     *
+     * @param orgId       organization of the events
+     * @param environment environment of the events
+     * @param events      events to send
+     * @param attempt     number of earlier attempts to send the events
+     */
+    protected void send(String orgId, String environment, List<EventModel> events, int attempt) {
 
+        // The key is looked up on each attempt, as it may have been refreshed since the events were created.
+        String moesifKey = keyRetriever.getKey(orgId, environment);
+        if (moesifKey == null) {
+            log.error("Moesif key is not available for organization {}. {} events will be dropped",
+                    String.valueOf(orgId).replaceAll("[\r\n]", ""), events.size());
+            complete(orgId, events.size());
+            return;
+        }
         APICallBack<HttpResponse> callBack = new APICallBack<HttpResponse>() {
             public void onSuccess(HttpContext context, HttpResponse response) {
 
                 int statusCode = context.getResponse().getStatusCode();
                 if (statusCode == 200 || statusCode == 201 || statusCode == 202 || statusCode == 204) {
-                    log.debug("Event successfully published.");
-                } else if (statusCode >= 400 && statusCode < 500) {
-                    log.error("Event publishing failed for organization: {}. Moesif returned {}.",
-                            orgId.replaceAll("[\r\n]", ""), String.valueOf(statusCode).replaceAll("[\r\n]", ""));
+                    log.debug("{} events successfully published.", events.size());
+                    complete(orgId, events.size());
                 } else {
-                    log.error("Event publishing failed for organization: {}. Retrying.",
-                            orgId.replaceAll("[\r\n]", ""));
-                    doRetry(orgId, builder);
+                    onError(statusCode, null);
                 }
             }
 
             public void onFailure(HttpContext context, Throwable error) {
 
-                int statusCode = context.getResponse().getStatusCode();
+                int statusCode = context != null && context.getResponse() != null
+                        ? context.getResponse().getStatusCode() : 0;
+                onError(statusCode, error);
+            }
 
+            private void onError(int statusCode, Throwable error) {
+
+                String org = String.valueOf(orgId).replaceAll("[\r\n]", "");
                 if (statusCode >= 400 && statusCode < 500) {
-                    log.error("Event publishing failed for organization: {}. Moesif returned {}.",
-                            orgId.replaceAll("[\r\n]", ""), String.valueOf(statusCode).replaceAll("[\r\n]", ""));
-                } else if (error != null) {
-                    log.error("Event publishing failed for organization: {}. Event publishing failed.",
-                            orgId.replaceAll("[\r\n]", ""),
-                            error.getMessage().replaceAll("[\r\n]", ""));
+                    log.error("Event publishing failed for organization: {}. Moesif returned {}.", org,
+                            statusCode);
+                    complete(orgId, events.size());
                 } else {
-                    log.error("Event publishing failed for organization: {}. Retrying.",
-                            orgId.replaceAll("[\r\n]", ""));
-                    doRetry(orgId, builder);
+                    log.error("Event publishing failed for organization: {}. Status: {}, error: {}", org,
+                            statusCode, error == null ? null : String.valueOf(error.getMessage())
+                                    .replaceAll("[\r\n]", ""));
+                    scheduleRetry(orgId, environment, events, attempt);
                 }
             }
         };
         try {
-            api.createEventAsync(buildEventResponse(event), callBack);
-        } catch (IOException e) {
-            log.error("Analytics event sending failed. Event will be dropped", e);
+            synchronized (SDK_LOCK) {
+                Configuration.ApplicationId = moesifKey;
+                if (events.size() == 1) {
+                    SDK_CONTROLLER.createEventAsync(events.get(0), callBack);
+                } else {
+                    SDK_CONTROLLER.createEventsBatchAsync(events, callBack);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Analytics event sending failed. {} events will be dropped", events.size(), e);
+            complete(orgId, events.size());
+        }
+    }
+
+    /**
+     * Notifies the completion listener that the given events of an organization were sent or dropped.
+     *
+     * @param orgId organization of the events
+     * @param count number of events
+     */
+    protected void complete(String orgId, int count) {
+
+        completionListener.accept(orgId, count);
+    }
+
+    private void scheduleRetry(String orgId, String environment, List<EventModel> events, int attempt) {
+
+        if (attempt >= MoesifMicroserviceConstants.NUM_RETRY_ATTEMPTS_PUBLISH) {
+            log.error("Failed all retrying attempts. {} events will be dropped for organization {}", events.size(),
+                    String.valueOf(orgId).replaceAll("[\r\n]", ""));
+            complete(orgId, events.size());
+            return;
         }
+        long delay = getRetryDelayMillis(attempt);
+        log.debug("Retrying to publish {} events in {} ms", events.size(), delay);
+        scheduler.schedule(() -> send(orgId, environment, events, attempt + 1), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a random delay between half and the whole of the exponential backoff of the given attempt, so that
+     * the retries of the requests which failed together are spread out.
+     *
+     * @param attempt number of earlier attempts
+     * @return delay in milliseconds
+     */
+    static long getRetryDelayMillis(int attempt) {
+
+        long backoff = MoesifMicroserviceConstants.TIME_TO_WAIT_PUBLISH << Math.min(attempt, 6);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
     }
 
-    private EventModel buildEventResponse(Map<String, Object> data) throws IOException, MetricReportingException {
+    protected EventModel buildEventResponse(Map<String, Object> data) throws IOException, MetricReportingException {
         //      Preprocessing data
         final String userIP = (String) data.get(Constants.USER_IP);
         final String userName = (String) data.get(Constants.USER_NAME);
@@ -19,6 +19,7 @@
 package org.wso2.apk.enforcer.analytics.publisher.reporter;
 
 import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
 
 import java.util.Map;
 
@@ -57,4 +58,16 @@ public interface MetricEventBuilder {
      * @throws MetricReportingException if validation failed
      */
     public MetricEventBuilder addAttribute(String key, Object number) throws MetricReportingException;
+
+    /**
+     * Validates the provided attributes and writes the event to the given writer as a JSON object. Any validation
+     * failures will cause {@link MetricReportingException}. Builders of a fixed schema can override this to write
+     * the attributes directly, without building the {@link Map} returned by {@link #build()}.
+     *
+     * @param writer writer to write the event to
+     * @throws MetricReportingException if validation failed
+     */
+    default void writeTo(EventJsonWriter writer) throws MetricReportingException {
+        writer.writeObject(build());
+    }
 }
@@ -29,10 +29,13 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.TimerMetric;
 import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.UserAgentParser;
 
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Choreo Metric Reporter Implementation. This implementation is responsible for sending analytics data into Choreo
@@ -41,6 +44,7 @@ import java.util.Map;
 public class DefaultAnalyticsMetricReporter extends AbstractMetricReporter {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultAnalyticsMetricReporter.class);
+    private static final int MEGABYTE = 1024 * 1024;
     protected EventQueue eventQueue;
 
     public DefaultAnalyticsMetricReporter(Map<String, String> properties) throws MetricCreationException {
@@ -61,7 +65,34 @@ public class DefaultAnalyticsMetricReporter extends AbstractMetricReporter {
         String authEndpoint = properties.get(Constants.AUTH_API_URL);
         AmqpRetryOptions retryOptions = createRetryOptions(properties);
         EventHubClient client = new EventHubClient(authEndpoint, authToken, retryOptions, properties);
-        eventQueue = new EventQueue(queueSize, workerThreads, client, flushingDelay);
+        if (Boolean.parseBoolean(properties.get(Constants.SPOOL_ENABLED))) {
+            String spoolDirectory = properties.getOrDefault(Constants.SPOOL_DIRECTORY,
+                    Paths.get(System.getProperty("java.io.tmpdir"), Constants.DEFAULT_SPOOL_DIRECTORY_NAME).toString());
+            long maxSizeMB = Constants.DEFAULT_SPOOL_MAX_SIZE_MB;
+            long maxAgeHours = Constants.DEFAULT_SPOOL_MAX_AGE_HOURS;
+            long segmentSizeMB = Constants.DEFAULT_SPOOL_SEGMENT_SIZE_MB;
+            if (properties.get(Constants.SPOOL_MAX_SIZE_MB) != null) {
+                maxSizeMB = Long.parseLong(properties.get(Constants.SPOOL_MAX_SIZE_MB));
+            }
+            if (properties.get(Constants.SPOOL_MAX_AGE_HOURS) != null) {
+                maxAgeHours = Long.parseLong(properties.get(Constants.SPOOL_MAX_AGE_HOURS));
+            }
+            if (properties.get(Constants.SPOOL_SEGMENT_SIZE_MB) != null) {
+                segmentSizeMB = Long.parseLong(properties.get(Constants.SPOOL_SEGMENT_SIZE_MB));
+            }
+            // A segment is memory mapped as a whole, which is limited to Integer.MAX_VALUE bytes.
+            if (segmentSizeMB <= 0 || segmentSizeMB > Integer.MAX_VALUE / MEGABYTE) {
+                throw new MetricCreationException(Constants.SPOOL_SEGMENT_SIZE_MB + " should be between 1 and "
+                        + Integer.MAX_VALUE / MEGABYTE + ", but was " + segmentSizeMB);
+            }
+            log.info("Analytics events which cannot be published right away will be spooled to {}",
+                    spoolDirectory.replaceAll("[\r\n]", ""));
+            eventQueue = new EventQueue(queueSize, workerThreads, client, flushingDelay, Paths.get(spoolDirectory),
+                    maxSizeMB * MEGABYTE, TimeUnit.HOURS.toMillis(maxAgeHours), (int) (segmentSizeMB * MEGABYTE));
+        } else {
+            eventQueue = new EventQueue(queueSize, workerThreads, client, flushingDelay);
+        }
+        UserAgentParser.getInstance().configure(properties);
     }
 
     private AmqpRetryOptions createRetryOptions(Map<String, String> properties) {
@@ -28,6 +28,6 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
 public class DefaultChoreoResponseMetricEventBuilder extends DefaultResponseMetricEventBuilder {
 
     public DefaultChoreoResponseMetricEventBuilder() {
-        super(DefaultInputValidator.getInstance().getEventProperties(MetricSchema.CHOREO_RESPONSE));
+        super(MetricSchema.CHOREO_RESPONSE);
     }
 }
@@ -23,6 +23,7 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -96,7 +97,7 @@ public class DefaultInputValidator {
             new AbstractMap.SimpleImmutableEntry<>(REQUEST_MEDIATION_LATENCY, Long.class),
             new AbstractMap.SimpleImmutableEntry<>(RESPONSE_MEDIATION_LATENCY, Long.class),
             new AbstractMap.SimpleImmutableEntry<>(USER_IP, String.class))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
 
     private static final Map<String, Class> faultSchema = Stream.of(
             new AbstractMap.SimpleImmutableEntry<>(REQUEST_TIMESTAMP, String.class),
@@ -119,7 +120,7 @@ public class DefaultInputValidator {
             new AbstractMap.SimpleImmutableEntry<>(GATEWAY_TYPE, String.class),
             new AbstractMap.SimpleImmutableEntry<>(PROXY_RESPONSE_CODE, Integer.class),
             new AbstractMap.SimpleImmutableEntry<>(TARGET_RESPONSE_CODE, Integer.class))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
 
     private static final Map<String, Class> choreoResponseSchema = Stream.of(
             new AbstractMap.SimpleImmutableEntry<>(REQUEST_TIMESTAMP, String.class),
@@ -151,7 +152,7 @@ public class DefaultInputValidator {
             new AbstractMap.SimpleImmutableEntry<>(REQUEST_MEDIATION_LATENCY, Long.class),
             new AbstractMap.SimpleImmutableEntry<>(RESPONSE_MEDIATION_LATENCY, Long.class),
             new AbstractMap.SimpleImmutableEntry<>(USER_IP, String.class))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
 
     private static final Map<String, Class> choreoFaultSchema = Stream.of(
             new AbstractMap.SimpleImmutableEntry<>(REQUEST_TIMESTAMP, String.class),
@@ -175,7 +176,12 @@ public class DefaultInputValidator {
             new AbstractMap.SimpleImmutableEntry<>(GATEWAY_TYPE, String.class),
             new AbstractMap.SimpleImmutableEntry<>(PROXY_RESPONSE_CODE, Integer.class),
             new AbstractMap.SimpleImmutableEntry<>(TARGET_RESPONSE_CODE, Integer.class))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
+
+    private static final EventLayout responseLayout = new EventLayout(responseSchema);
+    private static final EventLayout faultLayout = new EventLayout(faultSchema);
+    private static final EventLayout choreoResponseLayout = new EventLayout(choreoResponseSchema);
+    private static final EventLayout choreoFaultLayout = new EventLayout(choreoFaultSchema);
 
     private static final List<String> configProperties = new ArrayList<>();
 
@@ -203,6 +209,27 @@ public class DefaultInputValidator {
         }
     }
 
+    /**
+     * Returns the precomputed layout of the attributes returned by {@link #getEventProperties(MetricSchema)}.
+     *
+     * @param schema metric schema
+     * @return layout of the schema
+     */
+    public EventLayout getEventLayout(MetricSchema schema) {
+        switch (schema) {
+            case RESPONSE:
+                return responseLayout;
+            case ERROR:
+                return faultLayout;
+            case CHOREO_RESPONSE:
+                return choreoResponseLayout;
+            case CHOREO_ERROR:
+                return choreoFaultLayout;
+            default:
+                return new EventLayout(new HashMap<>());
+        }
+    }
+
     public List<String> getConfigProperties() {
         return configProperties;
     }
@@ -25,7 +25,7 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricEventBui
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
 import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
-import org.wso2.apk.enforcer.analytics.publisher.util.EventMapAttributeFilter;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
 import org.wso2.apk.enforcer.analytics.publisher.util.UserAgentParser;
 import ua_parser.Client;
 
@@ -36,40 +36,58 @@ import java.util.Map;
  * Default builder for response metric type. Restrictions are set on the key names that uses can set to the builder.
  * Allows keys and their validity will be checked when populating and availability of all required properties will be
  * checked when building.
+ * <p>
+ * Attributes are held in the slots of the {@link EventLayout} of the schema and attributes outside the schema are
+ * dropped when added, so the event can be written by {@link #writeTo(EventJsonWriter)} without building a map.
  */
 public class DefaultResponseMetricEventBuilder extends AbstractMetricEventBuilder {
     private static final Logger log = LoggerFactory.getLogger(DefaultResponseMetricEventBuilder.class);
+    private static final byte[] EVENT_TYPE_NAME = EventJsonWriter.encodeName(Constants.EVENT_TYPE);
+    private static final byte[] USER_AGENT_NAME = EventJsonWriter.encodeName(Constants.USER_AGENT);
+    private static final byte[] PLATFORM_NAME = EventJsonWriter.encodeName(Constants.PLATFORM);
     protected Map<String, Class> requiredAttributes;
-    protected Map<String, Object> eventMap;
+    private final EventLayout layout;
+    private final Object[] values;
+    private final int userAgentHeaderIndex;
+    private final int apiContextIndex;
+    private Object properties;
+    private String userAgent;
+    private String platform;
     private Boolean isBuilt = false;
 
     public DefaultResponseMetricEventBuilder() {
-        requiredAttributes = DefaultInputValidator.getInstance().getEventProperties(MetricSchema.RESPONSE);
-        eventMap = new HashMap<>();
+        this(MetricSchema.RESPONSE);
+    }
+
+    protected DefaultResponseMetricEventBuilder(MetricSchema schema) {
+        this(DefaultInputValidator.getInstance().getEventProperties(schema),
+                DefaultInputValidator.getInstance().getEventLayout(schema));
     }
 
     protected DefaultResponseMetricEventBuilder(Map<String, Class> requiredAttributes) {
+        this(requiredAttributes, new EventLayout(requiredAttributes));
+    }
+
+    private DefaultResponseMetricEventBuilder(Map<String, Class> requiredAttributes, EventLayout layout) {
         this.requiredAttributes = requiredAttributes;
-        eventMap = new HashMap<>();
+        this.layout = layout;
+        this.values = new Object[layout.size()];
+        this.userAgentHeaderIndex = layout.indexOf(Constants.USER_AGENT_HEADER);
+        this.apiContextIndex = layout.indexOf(Constants.API_CONTEXT);
     }
 
     @Override
     public boolean validate() throws MetricReportingException {
         if (!isBuilt) {
-            eventMap.remove(Constants.USER_NAME);
-            Map<String, String> propertyMap = (Map<String, String>) eventMap.remove(Constants.PROPERTIES);
-            if (propertyMap != null) {
-                copyDefaultPropertiesToRootLevel(propertyMap);
-            }
-            for (Map.Entry<String, Class> entry : requiredAttributes.entrySet()) {
-                Object attribute = eventMap.get(entry.getKey());
+            copyDefaultPropertiesToRootLevel();
+            for (int i = 0; i < values.length; i++) {
+                Object attribute = values[i];
                 if (attribute == null) {
-                    throw new MetricReportingException(entry.getKey() + " is missing in metric data. This metric event "
-                            + "will not be processed further.");
-                } else if (!attribute.getClass().equals(entry.getValue())) {
-                    throw new MetricReportingException(entry.getKey() + " is expecting a " + entry.getValue() + " type "
-                            + "attribute while attribute of type "
-                            + attribute.getClass() + " is present.");
+                    throw new MetricReportingException(layout.getName(i) + " is missing in metric data. This metric "
+                            + "event will not be processed further.");
+                } else if (!attribute.getClass().equals(layout.getType(i))) {
+                    throw new MetricReportingException(layout.getName(i) + " is expecting a " + layout.getType(i)
+                            + " type attribute while attribute of type " + attribute.getClass() + " is present.");
                 }
             }
         }
@@ -78,31 +96,62 @@ public class DefaultResponseMetricEventBuilder extends AbstractMetricEventBuilde
 
     @Override
     public MetricEventBuilder addAttribute(String key, Object value) throws MetricReportingException {
-        eventMap.put(key, value);
+        int index = layout.indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+        } else if (Constants.PROPERTIES.equals(key)) {
+            properties = value;
+        }
         return this;
     }
 
     @Override
     protected Map<String, Object> buildEvent() {
-        if (!isBuilt) {
-            // util function to filter required attributes
-            eventMap = EventMapAttributeFilter.getInstance().filter(eventMap, requiredAttributes);
-
-            eventMap.put(Constants.EVENT_TYPE, Constants.RESPONSE_EVENT_TYPE);
+        setUserAgentProperties();
+        Map<String, Object> eventMap = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
             // userAgent raw string is not required and removing
-            String userAgentHeader = (String) eventMap.remove(Constants.USER_AGENT_HEADER);
-            if (userAgentHeader != null) {
-                setUserAgentProperties(userAgentHeader);
+            if (i != userAgentHeaderIndex) {
+                eventMap.put(layout.getName(i), values[i]);
             }
-            isBuilt = true;
+        }
+        eventMap.put(Constants.EVENT_TYPE, Constants.RESPONSE_EVENT_TYPE);
+        if (userAgent != null) {
+            eventMap.put(Constants.USER_AGENT, userAgent);
+            eventMap.put(Constants.PLATFORM, platform);
         }
         return eventMap;
     }
 
-    private void setUserAgentProperties(String userAgentHeader) {
+    @Override
+    public void writeTo(EventJsonWriter writer) throws MetricReportingException {
+        if (!validate()) {
+            throw new MetricReportingException("Validation failure occurred when building the event");
+        }
+        setUserAgentProperties();
+        writer.beginObject();
+        for (int i = 0; i < values.length; i++) {
+            if (i != userAgentHeaderIndex) {
+                writer.writeField(layout.getEncodedName(i), values[i]);
+            }
+        }
+        writer.writeField(EVENT_TYPE_NAME, Constants.RESPONSE_EVENT_TYPE);
+        writer.writeField(USER_AGENT_NAME, userAgent);
+        writer.writeField(PLATFORM_NAME, platform);
+        writer.endObject();
+    }
+
+    private void setUserAgentProperties() {
+        if (isBuilt) {
+            return;
+        }
+        isBuilt = true;
+        if (userAgentHeaderIndex < 0 || values[userAgentHeaderIndex] == null) {
+            return;
+        }
         String browser = null;
         String platform = null;
-        Client client = UserAgentParser.getInstance().parseUserAgent(userAgentHeader);
+        Client client = UserAgentParser.getInstance().parseUserAgent((String) values[userAgentHeaderIndex]);
         if (client != null) {
             browser = client.userAgent.family;
             platform = client.os.family;
@@ -114,17 +163,17 @@ public class DefaultResponseMetricEventBuilder extends AbstractMetricEventBuilde
         if (platform == null || platform.isEmpty()) {
             platform = Constants.UNKNOWN_VALUE;
         }
-        eventMap.put(Constants.USER_AGENT, browser);
-        eventMap.put(Constants.PLATFORM, platform);
+        this.userAgent = browser;
+        this.platform = platform;
     }
 
-    private void copyDefaultPropertiesToRootLevel(Map<String, String> properties) {
-        if (properties.get(Constants.API_CONTEXT) != null) {
-            String apiContext = properties.remove(Constants.API_CONTEXT);
-            eventMap.put(Constants.API_CONTEXT, apiContext);
+    private void copyDefaultPropertiesToRootLevel() {
+        if (apiContextIndex >= 0 && properties instanceof Map) {
+            Object apiContext = ((Map<?, ?>) properties).get(Constants.API_CONTEXT);
+            if (apiContext != null) {
+                values[apiContextIndex] = apiContext;
+            }
         }
-        properties.remove(Constants.USER_NAME);
-        eventMap.put(Constants.PROPERTIES, properties);
     }
 
 }
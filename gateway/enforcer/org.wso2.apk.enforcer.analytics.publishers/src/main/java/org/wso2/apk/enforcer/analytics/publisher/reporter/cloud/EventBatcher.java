@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.reporter.cloud;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.apk.enforcer.analytics.publisher.client.ClientStatus;
+import org.wso2.apk.enforcer.analytics.publisher.client.EventHubClient;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single consumer of an {@link EventRing}. Serializes the queued events and adds them to the batch of its
+ * {@link EventHubClient}. A batch is handed over for sending once it is full, or once its first event has waited for
+ * the linger time. Sending happens on the threads of the client, so the batcher keeps filling the next batch meanwhile.
+ * <p>
+ * With an {@link EventSpool}, events are not dropped while the client is not connected or the ring is full. The
+ * batcher moves the queued events to the spool while the client is not connected, producers spill their events to the
+ * spool when the ring is full, and the spooled events are replayed before any queued event once the client is
+ * connected. Queued events keep going through the spool until it is empty, so that events are published in order.
+ * Events are taken off the ring under a lock when there is a spool, so that a spilling producer can move the older
+ * queued events to the spool ahead of its own event.
+ */
+public class EventBatcher implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBatcher.class);
+    // Upper bound of an idle wait, so that lingering batches are flushed on time without a wake up from producers.
+    private static final long MAX_IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CONNECTION_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    // Shorter with a spool, as the ring is drained to the spool between the waits.
+    private static final long SPOOLING_CONNECTION_WAIT_MILLIS = 100;
+    private static final ThreadLocal<EventJsonWriter> spillWriter = ThreadLocal.withInitial(EventJsonWriter::new);
+
+    private final EventRing<MetricEventBuilder> ring;
+    private final EventHubClient client;
+    private final EventSpool spool;
+    private final long lingerNanos;
+    private final EventJsonWriter eventWriter = new EventJsonWriter();
+    private final EventHubPublisherStats stats = EventHubPublisherStats.getInstance();
+    // Held while events are taken off the ring and while events are appended to the spool. Never held while waiting
+    // for Event Hub.
+    private final ReentrantLock spoolLock = new ReentrantLock();
+    private volatile Thread consumerThread;
+    private volatile boolean idle;
+    private long batchStartedAt;
+    private int batchedEvents;
+
+    public EventBatcher(EventRing<MetricEventBuilder> ring, EventHubClient client, long lingerMillis) {
+        this(ring, client, lingerMillis, null);
+    }
+
+    public EventBatcher(EventRing<MetricEventBuilder> ring, EventHubClient client, long lingerMillis,
+                        EventSpool spool) {
+        this.ring = ring;
+        this.client = client;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.spool = spool;
+    }
+
+    /**
+     * Queues an event. Never blocks.
+     *
+     * @param builder event to queue
+     * @return false if the queue of the batcher is full
+     */
+    public boolean offer(MetricEventBuilder builder) {
+        if (!ring.offer(builder)) {
+            return false;
+        }
+        stats.eventQueued();
+        if (idle) {
+            LockSupport.unpark(consumerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Writes an event which did not fit into the ring to the spool. Called by producers; never waits for the disk.
+     * The events in the ring are older, so they are moved to the spool first to keep the events in order.
+     *
+     * @param builder event to spool
+     * @return false if there is no spool or the spool is full
+     */
+    public boolean spill(MetricEventBuilder builder) {
+        if (spool == null) {
+            return false;
+        }
+        EventJsonWriter writer = spillWriter.get();
+        boolean spooled;
+        spoolLock.lock();
+        try {
+            spoolQueuedEvents(writer);
+            writer.reset();
+            try {
+                builder.writeTo(writer);
+            } catch (MetricReportingException e) {
+                log.error("Builder instance is not duly filled. Event building failed", e);
+                // Invalid events are not counted as dropped for lack of space.
+                return true;
+            }
+            spooled = spool.append(writer.toByteArray());
+        } finally {
+            spoolLock.unlock();
+        }
+        if (idle) {
+            LockSupport.unpark(consumerThread);
+        }
+        return spooled;
+    }
+
+    public EventHubClient getClient() {
+        return client;
+    }
+
+    @Override
+    public void run() {
+        consumerThread = Thread.currentThread();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (spool != null) {
+                    if (client.getStatus() != ClientStatus.CONNECTED) {
+                        spoolQueuedEvents();
+                        if (!client.awaitConnection(SPOOLING_CONNECTION_WAIT_MILLIS)) {
+                            continue;
+                        }
+                    }
+                    if (replaySpooledEvent()) {
+                        continue;
+                    }
+                } else if (client.getStatus() != ClientStatus.CONNECTED
+                        && !client.awaitConnection(CONNECTION_WAIT_MILLIS)) {
+                    continue;
+                }
+                MetricEventBuilder builder = pollQueuedEvent();
+                if (builder == null) {
+                    flushIfLingered();
+                    waitForEvents();
+                    continue;
+                }
+                stats.eventDequeued();
+                eventWriter.reset();
+                builder.writeTo(eventWriter);
+                addToBatch(eventWriter.toByteArray());
+            } catch (MetricReportingException e) {
+                log.error("Builder instance is not duly filled. Event building failed", e);
+            } catch (Exception e) {
+                log.error("Analytics event sending failed. Event will be dropped", e);
+            }
+        }
+    }
+
+    private void addToBatch(byte[] event) {
+        updateBatchStart(client.sendEvent(event));
+    }
+
+    private void updateBatchStart(int eventCount) {
+        // A count lower than before means the previous batch was full and the event started a new one.
+        if (eventCount < batchedEvents || (batchedEvents == 0 && eventCount > 0)) {
+            batchStartedAt = System.nanoTime();
+        }
+        batchedEvents = eventCount;
+    }
+
+    /**
+     * Adds the event at the head of the spool to the batch. Queued events are moved behind the spooled ones first.
+     * An event which cannot be added for reasons of its own, e.g. as it exceeds the maximum size of a batch, is
+     * removed from the spool and counted as dropped, so that it does not block the events behind it.
+     *
+     * @return false if the spool is empty
+     */
+    private boolean replaySpooledEvent() {
+        if (spool.isEmpty()) {
+            return false;
+        }
+        spoolQueuedEvents();
+        byte[] event = spool.peek();
+        if (event == null) {
+            return false;
+        }
+        try {
+            updateBatchStart(client.addEvent(event));
+        } catch (IllegalStateException e) {
+            // No batch could be created. The client reconnects meanwhile and the event stays at the head.
+            log.error("Event Data Batch could not be created. Spooled analytics events will be replayed later", e);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Spooled analytics event of " + event.length + " bytes cannot be published and is dropped", e);
+            stats.eventsDropped(1);
+        }
+        spool.remove();
+        return true;
+    }
+
+    /**
+     * Takes the next event off the ring, unless there are spooled events, which have to be replayed first. A spilling
+     * producer moves the queued events to the spool, so the spool is checked under the same lock.
+     *
+     * @return next queued event, or null if there is none or the spool is not empty
+     */
+    private MetricEventBuilder pollQueuedEvent() {
+        if (spool == null) {
+            return ring.poll();
+        }
+        spoolLock.lock();
+        try {
+            return spool.isEmpty() ? ring.poll() : null;
+        } finally {
+            spoolLock.unlock();
+        }
+    }
+
+    private void spoolQueuedEvents() {
+        spoolLock.lock();
+        try {
+            spoolQueuedEvents(eventWriter);
+        } finally {
+            spoolLock.unlock();
+        }
+    }
+
+    /**
+     * Moves the events in the ring to the spool. Must be called with the spool lock held.
+     *
+     * @param writer writer of the calling thread
+     */
+    private void spoolQueuedEvents(EventJsonWriter writer) {
+        MetricEventBuilder builder;
+        while ((builder = ring.poll()) != null) {
+            stats.eventDequeued();
+            try {
+                writer.reset();
+                builder.writeTo(writer);
+            } catch (MetricReportingException e) {
+                log.error("Builder instance is not duly filled. Event building failed", e);
+                continue;
+            }
+            if (!spool.append(writer.toByteArray())) {
+                stats.eventsDropped(1);
+            }
+        }
+    }
+
+    private void flushIfLingered() {
+        if (batchedEvents > 0 && System.nanoTime() - batchStartedAt >= lingerNanos) {
+            client.flushEvents();
+            batchedEvents = 0;
+        }
+    }
+
+    private void waitForEvents() {
+        long waitNanos = MAX_IDLE_WAIT_NANOS;
+        if (batchedEvents > 0) {
+            waitNanos = Math.min(waitNanos, Math.max(0, batchStartedAt + lingerNanos - System.nanoTime()));
+        }
+        idle = true;
+        // Checked again after publishing the idle flag, as a producer may have missed it.
+        if (ring.isEmpty() && (spool == null || spool.isEmpty()) && waitNanos > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+        }
+        idle = false;
+    }
+}
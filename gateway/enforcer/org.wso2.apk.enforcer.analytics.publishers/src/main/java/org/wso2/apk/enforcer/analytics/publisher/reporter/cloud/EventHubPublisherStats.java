@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.reporter.cloud;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the Event Hub publishing pipeline, aggregated over all the event queues and clients of the process.
+ */
+public class EventHubPublisherStats {
+
+    private static final EventHubPublisherStats INSTANCE = new EventHubPublisherStats();
+
+    private final LongAdder queuedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder publishedBatches = new LongAdder();
+    private final LongAdder inFlightBatches = new LongAdder();
+    private final LongAdder dispatchedBatches = new LongAdder();
+    private final DoubleAdder batchFillRatioSum = new DoubleAdder();
+    private final LongAdder sendLatencyNanosSum = new LongAdder();
+    private final AtomicLong maxSendLatencyNanos = new AtomicLong();
+    private final List<EventSpool> spools = new CopyOnWriteArrayList<>();
+
+    public static EventHubPublisherStats getInstance() {
+
+        return INSTANCE;
+    }
+
+    void eventQueued() {
+
+        queuedEvents.increment();
+    }
+
+    void eventDequeued() {
+
+        queuedEvents.decrement();
+    }
+
+    /**
+     * Records events dropped before reaching a batch, e.g. as the queue is full.
+     *
+     * @param count number of dropped events
+     */
+    public void eventsDropped(int count) {
+
+        droppedEvents.add(count);
+    }
+
+    /**
+     * Records events of a batch which could not be published.
+     *
+     * @param count number of failed events
+     */
+    public void eventsFailed(int count) {
+
+        failedEvents.add(count);
+    }
+
+    /**
+     * Records a batch handed over for sending.
+     *
+     * @param sizeInBytes    size of the batch
+     * @param maxSizeInBytes maximum size of the batch
+     */
+    public void batchDispatched(int sizeInBytes, int maxSizeInBytes) {
+
+        dispatchedBatches.increment();
+        inFlightBatches.increment();
+        if (maxSizeInBytes > 0) {
+            batchFillRatioSum.add((double) sizeInBytes / maxSizeInBytes);
+        }
+    }
+
+    /**
+     * Records a batch which has been sent or given up on.
+     */
+    public void batchCompleted() {
+
+        inFlightBatches.decrement();
+    }
+
+    /**
+     * Records a successful send of a batch.
+     *
+     * @param eventCount   number of events in the batch
+     * @param latencyNanos time taken by the send
+     */
+    public void batchPublished(int eventCount, long latencyNanos) {
+
+        publishedBatches.increment();
+        publishedEvents.add(eventCount);
+        sendLatencyNanosSum.add(latencyNanos);
+        maxSendLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public long getQueueDepth() {
+
+        return Math.max(0, queuedEvents.sum());
+    }
+
+    public long getDroppedEventCount() {
+
+        return droppedEvents.sum();
+    }
+
+    public long getFailedEventCount() {
+
+        return failedEvents.sum();
+    }
+
+    public long getPublishedEventCount() {
+
+        return publishedEvents.sum();
+    }
+
+    public long getPublishedBatchCount() {
+
+        return publishedBatches.sum();
+    }
+
+    public long getInFlightBatchCount() {
+
+        return inFlightBatches.sum();
+    }
+
+    /**
+     * Returns the average ratio of the size of the dispatched batches to their maximum size.
+     *
+     * @return average batch fill ratio between 0 and 1
+     */
+    public double getAverageBatchFillRatio() {
+
+        long batches = dispatchedBatches.sum();
+        return batches == 0 ? 0 : batchFillRatioSum.sum() / batches;
+    }
+
+    public double getAverageSendLatencyMillis() {
+
+        long batches = publishedBatches.sum();
+        return batches == 0 ? 0 : (double) sendLatencyNanosSum.sum() / batches / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxSendLatencyMillis() {
+
+        return (double) maxSendLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    void registerSpool(EventSpool spool) {
+
+        spools.add(spool);
+    }
+
+    public long getSpooledEventCount() {
+
+        long count = 0;
+        for (EventSpool spool : spools) {
+            count += spool.getPendingEventCount();
+        }
+        return count;
+    }
+
+    public long getSpooledBytes() {
+
+        long bytes = 0;
+        for (EventSpool spool : spools) {
+            bytes += spool.getPendingBytes();
+        }
+        return bytes;
+    }
+
+    public long getSpoolDiskUsageBytes() {
+
+        long bytes = 0;
+        for (EventSpool spool : spools) {
+            bytes += spool.getDiskUsageBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of events lost by the spools, as they did not fit or expired before being replayed.
+     *
+     * @return lost spool event count
+     */
+    public long getSpoolLostEventCount() {
+
+        long count = 0;
+        for (EventSpool spool : spools) {
+            count += spool.getRejectedEventCount() + spool.getExpiredEventCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns how long the oldest spooled event has been waiting, over all the spools.
+     *
+     * @return replay lag in milliseconds
+     */
+    public long getSpoolReplayLagMillis() {
+
+        long lag = 0;
+        for (EventSpool spool : spools) {
+            lag = Math.max(lag, spool.getReplayLagMillis());
+        }
+        return lag;
+    }
+}
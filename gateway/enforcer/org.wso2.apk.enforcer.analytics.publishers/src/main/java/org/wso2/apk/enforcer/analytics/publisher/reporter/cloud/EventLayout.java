@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.reporter.cloud;
+
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed field layout of a fixed event schema. Each attribute of the schema is given a slot index, so that the
+ * attributes of an event can be held in an array instead of a map, and its name is kept encoded as a JSON key, so that
+ * an event can be written with {@link EventJsonWriter} without encoding the names again.
+ */
+public final class EventLayout {
+
+    private final String[] names;
+    private final Class[] types;
+    private final byte[][] encodedNames;
+    private final Map<String, Integer> indexByName;
+
+    /**
+     * Creates the layout of the given attributes. Slots follow the iteration order of the map.
+     *
+     * @param attributes attribute names and their types
+     */
+    public EventLayout(Map<String, Class> attributes) {
+
+        int size = attributes.size();
+        names = new String[size];
+        types = new Class[size];
+        encodedNames = new byte[size][];
+        indexByName = new HashMap<>();
+        int index = 0;
+        for (Map.Entry<String, Class> attribute : attributes.entrySet()) {
+            names[index] = attribute.getKey();
+            types[index] = attribute.getValue();
+            encodedNames[index] = EventJsonWriter.encodeName(attribute.getKey());
+            indexByName.put(attribute.getKey(), index);
+            index++;
+        }
+    }
+
+    public int size() {
+
+        return names.length;
+    }
+
+    /**
+     * Returns the slot index of the given attribute.
+     *
+     * @param name attribute name
+     * @return slot index or -1 if the attribute is not part of the schema
+     */
+    public int indexOf(String name) {
+
+        Integer index = indexByName.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String getName(int index) {
+
+        return names[index];
+    }
+
+    public Class getType(int index) {
+
+        return types[index];
+    }
+
+    public byte[] getEncodedName(int index) {
+
+        return encodedNames[index];
+    }
+}
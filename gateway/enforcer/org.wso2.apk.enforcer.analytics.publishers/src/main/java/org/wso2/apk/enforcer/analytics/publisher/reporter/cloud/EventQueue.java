@@ -22,64 +22,93 @@ import org.slf4j.LoggerFactory;
 import org.wso2.apk.enforcer.analytics.publisher.client.EventHubClient;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 
-import java.util.concurrent.BlockingQueue;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Bounded concurrent queue wrapping {@link java.util.concurrent.ArrayBlockingQueue}.
+ * Bounded, lock free queue of analytics events in front of the Event Hub batchers.
+ * <p>
+ * Each worker thread runs an {@link EventBatcher} with its own {@link EventRing} and {@link EventHubClient}. A
+ * producer thread always queues to the same batcher, so the events of a thread keep their order. Events are dropped
+ * without blocking the producer when the ring of its batcher is full, unless a spool directory is given, in which
+ * case each batcher gets an {@link EventSpool} in its own sub directory to keep the overflow in. Only the Event Hub
+ * reporter spools; the Moesif reporter's queue still drops its overflow.
  */
 public class EventQueue {
 
     private static final Logger log = LoggerFactory.getLogger(EventQueue.class);
-    private final BlockingQueue<MetricEventBuilder> eventQueue;
+    private final EventBatcher[] batchers;
     private final ExecutorService publisherExecutorService;
     private final EventHubClient client;
     private final AtomicInteger failureCount;
-    private final ScheduledExecutorService flushingExecutorService;
+    private final EventHubPublisherStats stats = EventHubPublisherStats.getInstance();
 
     public EventQueue(int queueSize, int workerThreadCount, EventHubClient client, int flushingDelay) {
+        this(queueSize, workerThreadCount, client, flushingDelay, null, 0, 0, 0);
+    }
+
+    /**
+     * Creates a queue whose batchers spool the events which cannot be published right away.
+     *
+     * @param queueSize              total size of the rings
+     * @param workerThreadCount      number of batchers
+     * @param client                 Event Hub client
+     * @param flushingDelay          linger time of a batch in seconds
+     * @param spoolDirectory         directory of the spools, or null to drop the overflow
+     * @param spoolMaxSizeBytes      maximum disk usage of all the spools
+     * @param spoolMaxAgeMillis      maximum age of a spooled event
+     * @param spoolSegmentSizeBytes  size of a spool segment file
+     */
+    public EventQueue(int queueSize, int workerThreadCount, EventHubClient client, int flushingDelay,
+                      Path spoolDirectory, long spoolMaxSizeBytes, long spoolMaxAgeMillis,
+                      int spoolSegmentSizeBytes) {
         this.client = client;
-        // Note : Using a fixed worker thread pool and a bounded queue to control the load on the server
+        // Note : Using a fixed worker thread pool and bounded rings to control the load on the server
         publisherExecutorService = Executors.newFixedThreadPool(workerThreadCount,
                                                                 new DefaultAnalyticsThreadFactory("Queue-Worker"));
-        flushingExecutorService = Executors.newScheduledThreadPool(workerThreadCount,
-                                                                   new DefaultAnalyticsThreadFactory("Queue-Flusher"));
-        eventQueue = new LinkedBlockingQueue<>(queueSize);
         failureCount = new AtomicInteger(0);
+        batchers = new EventBatcher[workerThreadCount];
+        int ringSize = Math.max(1, queueSize / workerThreadCount);
+        long lingerMillis = TimeUnit.SECONDS.toMillis(flushingDelay);
         for (int i = 0; i < workerThreadCount; i++) {
-            if (i == 0) {
-                publisherExecutorService.submit(new ParallelQueueWorker(eventQueue, client));
-                flushingExecutorService.scheduleWithFixedDelay(new QueueFlusher(eventQueue, client), flushingDelay,
-                                                               flushingDelay, TimeUnit.SECONDS);
-            } else {
-                EventHubClient clonedClient = client.clone();
-                publisherExecutorService.submit(new ParallelQueueWorker(eventQueue, clonedClient));
-                flushingExecutorService.scheduleWithFixedDelay(new QueueFlusher(eventQueue, clonedClient),
-                                                               flushingDelay, flushingDelay, TimeUnit.SECONDS);
+            EventHubClient batcherClient = i == 0 ? client : client.clone();
+            EventSpool spool = null;
+            if (spoolDirectory != null) {
+                spool = openSpool(spoolDirectory.resolve(String.valueOf(i)), spoolMaxSizeBytes / workerThreadCount,
+                        spoolMaxAgeMillis, spoolSegmentSizeBytes);
             }
+            batchers[i] = new EventBatcher(new EventRing<>(ringSize), batcherClient, lingerMillis, spool);
+            publisherExecutorService.submit(batchers[i]);
         }
     }
 
     public void put(MetricEventBuilder builder) {
-        try {
-            if (!eventQueue.offer(builder)) {
-                int count = failureCount.incrementAndGet();
-                if (count == 1) {
-                    log.error("Event queue is full. Starting to drop analytics events.");
-                } else if (count % 1000 == 0) {
-                    log.error("Event queue is full. " + count + " events dropped so far");
-                }
+        EventBatcher batcher = batchers[(int) (Thread.currentThread().getId() % batchers.length)];
+        if (!batcher.offer(builder) && !batcher.spill(builder)) {
+            stats.eventsDropped(1);
+            int count = failureCount.incrementAndGet();
+            if (count == 1) {
+                log.error("Event queue is full. Starting to drop analytics events.");
+            } else if (count % 1000 == 0) {
+                log.error("Event queue is full. " + count + " events dropped so far");
             }
-        } catch (RejectedExecutionException e) {
-            log.warn("Task submission failed. Task queue might be full", e);
         }
+    }
 
+    private EventSpool openSpool(Path directory, long maxSizeBytes, long maxAgeMillis, int segmentSizeBytes) {
+        try {
+            EventSpool spool = new EventSpool(directory, maxSizeBytes, maxAgeMillis, segmentSizeBytes);
+            stats.registerSpool(spool);
+            return spool;
+        } catch (IOException e) {
+            log.error("Error while opening the analytics event spool at " + directory + ". Events will be dropped "
+                    + "when the queue is full", e);
+            return null;
+        }
     }
 
     @Override
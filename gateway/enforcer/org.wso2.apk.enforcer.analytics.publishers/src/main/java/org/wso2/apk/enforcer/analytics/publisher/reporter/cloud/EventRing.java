@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.reporter.cloud;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock free ring of events with many producers and a single consumer.
+ * <p>
+ * Producers claim a slot by advancing the producer index with a CAS and then publish the event into the slot. The
+ * consumer takes events in the order the slots were claimed and frees each slot before advancing the consumer index,
+ * so a producer never overwrites an event which has not been consumed. Neither side blocks: a full ring rejects the
+ * event and an event which has been claimed but not yet published is picked up by the next poll.
+ *
+ * @param <E> type of the events
+ */
+public class EventRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * Creates a ring which holds at least the given number of events. The capacity is rounded up to a power of two.
+     *
+     * @param capacity minimum number of events the ring holds
+     */
+    public EventRing(int capacity) {
+
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an event to the ring. Can be called by any number of threads.
+     *
+     * @param event event to add
+     * @return false if the ring is full
+     */
+    public boolean offer(E event) {
+
+        while (true) {
+            long index = producerIndex.get();
+            if (index - consumerIndex.get() > mask) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(index, index + 1)) {
+                slots.lazySet((int) index & mask, event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the next event from the ring. Must not be called concurrently; threads which take turns consuming must
+     * do so under a lock.
+     *
+     * @return next event or null if no event is available
+     */
+    public E poll() {
+
+        long index = consumerIndex.get();
+        int slot = (int) index & mask;
+        E event = slots.get(slot);
+        if (event == null) {
+            return null;
+        }
+        slots.lazySet(slot, null);
+        consumerIndex.lazySet(index + 1);
+        return event;
+    }
+
+    public int size() {
+
+        return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+    }
+
+    public boolean isEmpty() {
+
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    public int capacity() {
+
+        return mask + 1;
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.reporter.cloud;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append only, disk backed FIFO of serialized analytics events, used to keep the events which cannot be published
+ * while Event Hub is unreachable or the queue is full.
+ * <p>
+ * Events are stored in fixed size segment files which are memory mapped, each record being the payload length, the
+ * time the event was spooled and the payload. A record's length is written last, so a record is only visible once it
+ * is complete, and it is negated once the record is consumed. Nothing is ever forced to disk: records reach the page
+ * cache with a memory copy and the operating system writes them back, so they survive a restart of the process but
+ * appending never waits for the disk. Segments left behind by an earlier process are replayed first.
+ * <p>
+ * The payload is the JSON form the event is published to Event Hub in rather than a separate binary encoding, so a
+ * replayed event is added to a batch as is, without being decoded and encoded again.
+ * <p>
+ * The spool is bounded by the total size of its segments and by the age of its events. Events which do not fit are
+ * rejected, and events older than the maximum age are skipped when read and their segments are reclaimed when space
+ * runs out. All operations are synchronized; appends come from the producers of a full queue and reads from the
+ * single batcher which owns the spool.
+ */
+public class EventSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSpool.class);
+    private static final String SEGMENT_SUFFIX = ".spool";
+    // Payload length and spool time
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long maxAgeMillis;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentSequence;
+    private Segment peekedSegment;
+    private int peekedPosition;
+    private long pendingEvents;
+    private long pendingBytes;
+    private volatile long oldestTimestamp = -1;
+    private final LongAdder rejectedEvents = new LongAdder();
+    private final LongAdder expiredEvents = new LongAdder();
+
+    /**
+     * Opens the spool in the given directory, picking up the events left by an earlier process.
+     *
+     * @param directory    directory of the segment files, created if missing
+     * @param maxSizeBytes maximum total size of the segment files, rounded up to two segments
+     * @param maxAgeMillis maximum age of a spooled event
+     * @param segmentSize  size of a segment file
+     * @throws IOException if the directory or the existing segments cannot be read
+     */
+    public EventSpool(Path directory, long maxSizeBytes, long maxAgeMillis, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        // Expired segments are only reclaimed at the head, while the tail is written, hence at least two segments.
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxSizeBytes / segmentSize));
+        this.maxAgeMillis = maxAgeMillis;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Appends an event at the tail of the spool.
+     *
+     * @param event serialized event
+     * @return false if the event does not fit into the spool
+     */
+    public synchronized boolean append(byte[] event) {
+        int recordSize = RECORD_HEADER_SIZE + event.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            rejectedEvents.increment();
+            return false;
+        }
+        try {
+            Segment tail = segments.peekLast();
+            if (tail == null || tail.recovered || tail.writePosition + recordSize + Integer.BYTES > segmentSize) {
+                if (segments.size() >= maxSegments && !reclaimExpiredSegments()) {
+                    rejectedEvents.increment();
+                    return false;
+                }
+                tail = createSegment();
+            }
+            long now = System.currentTimeMillis();
+            int position = tail.writePosition;
+            ByteBuffer buffer = tail.map();
+            buffer.putLong(position + Integer.BYTES, now);
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(position + RECORD_HEADER_SIZE);
+            payload.put(event);
+            // Published last, together with the end marker of the segment which follows the record.
+            buffer.putInt(position + recordSize, 0);
+            buffer.putInt(position, event.length);
+            tail.writePosition += recordSize;
+            tail.newestTimestamp = now;
+            pendingEvents++;
+            pendingBytes += recordSize;
+            if (oldestTimestamp < 0) {
+                oldestTimestamp = now;
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Error while writing to the analytics event spool at {}", directory, e);
+            rejectedEvents.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the event at the head of the spool without removing it. Events older than the maximum age are dropped.
+     *
+     * @return serialized event, or null if the spool is empty
+     */
+    public synchronized byte[] peek() {
+        long expiredBefore = System.currentTimeMillis() - maxAgeMillis;
+        while (true) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            try {
+                ByteBuffer buffer = head.map();
+                int length = head.readPosition + Integer.BYTES <= segmentSize ? buffer.getInt(head.readPosition) : 0;
+                if (length == 0) {
+                    if (head == segments.peekLast() && !head.recovered) {
+                        return null;
+                    }
+                    deleteHead();
+                    continue;
+                }
+                int recordSize = RECORD_HEADER_SIZE + Math.abs(length);
+                if (length < 0) {
+                    head.readPosition += recordSize;
+                    continue;
+                }
+                long timestamp = buffer.getLong(head.readPosition + Integer.BYTES);
+                oldestTimestamp = timestamp;
+                if (timestamp < expiredBefore) {
+                    consume(head, length);
+                    expiredEvents.increment();
+                    continue;
+                }
+                byte[] event = new byte[length];
+                ByteBuffer payload = buffer.duplicate();
+                payload.position(head.readPosition + RECORD_HEADER_SIZE);
+                payload.get(event);
+                peekedSegment = head;
+                peekedPosition = head.readPosition;
+                return event;
+            } catch (IOException | IndexOutOfBoundsException e) {
+                log.error("Skipping unreadable analytics event spool segment {}", head.path, e);
+                deleteHead();
+            }
+        }
+    }
+
+    /**
+     * Removes the event returned by the last {@link #peek()}.
+     */
+    public synchronized void remove() {
+        Segment head = segments.peekFirst();
+        // The peeked event may have been dropped meanwhile with its expired segment.
+        if (head == null || head != peekedSegment || head.readPosition != peekedPosition || head.buffer == null) {
+            return;
+        }
+        peekedSegment = null;
+        int length = head.buffer.getInt(head.readPosition);
+        if (length > 0) {
+            consume(head, length);
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingEvents == 0;
+    }
+
+    public synchronized long getPendingEventCount() {
+        return pendingEvents;
+    }
+
+    /**
+     * Returns the size of the records which are not consumed yet.
+     *
+     * @return spooled bytes
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    public synchronized long getDiskUsageBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Returns how long the oldest event in the spool has been waiting to be replayed.
+     *
+     * @return replay lag in milliseconds, 0 if the spool is empty
+     */
+    public long getReplayLagMillis() {
+        long oldest = oldestTimestamp;
+        return oldest < 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    /**
+     * Returns the number of events which were not spooled as the spool was full.
+     *
+     * @return rejected event count
+     */
+    public long getRejectedEventCount() {
+        return rejectedEvents.sum();
+    }
+
+    public long getExpiredEventCount() {
+        return expiredEvents.sum();
+    }
+
+    private void consume(Segment head, int length) {
+        int recordSize = RECORD_HEADER_SIZE + length;
+        head.buffer.putInt(head.readPosition, -length);
+        head.readPosition += recordSize;
+        pendingEvents--;
+        pendingBytes -= recordSize;
+        if (pendingEvents == 0) {
+            oldestTimestamp = -1;
+        }
+    }
+
+    private void deleteHead() {
+        Segment head = segments.pollFirst();
+        // The mapping is released by the garbage collector. The file can be deleted while it is mapped.
+        head.buffer = null;
+        try {
+            Files.deleteIfExists(head.path);
+        } catch (IOException e) {
+            log.warn("Error while deleting the analytics event spool segment {}", head.path, e);
+        }
+        if (segments.isEmpty()) {
+            pendingEvents = 0;
+            pendingBytes = 0;
+            oldestTimestamp = -1;
+        }
+    }
+
+    /**
+     * Deletes the segments at the head of the spool whose events have all expired.
+     *
+     * @return true if a segment was deleted
+     */
+    private boolean reclaimExpiredSegments() {
+        long expiredBefore = System.currentTimeMillis() - maxAgeMillis;
+        boolean reclaimed = false;
+        while (segments.size() > 1 && segments.peekFirst().newestTimestamp < expiredBefore) {
+            Segment head = segments.peekFirst();
+            pendingEvents -= head.liveEvents();
+            pendingBytes -= head.liveBytes();
+            expiredEvents.add(head.liveEvents());
+            deleteHead();
+            reclaimed = true;
+        }
+        if (reclaimed) {
+            oldestTimestamp = pendingEvents == 0 ? -1 : segments.peekFirst().oldestLiveTimestamp();
+        }
+        return reclaimed;
+    }
+
+    private Segment createSegment() throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", nextSegmentSequence++, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, false);
+        segment.map();
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Picks up the segments of an earlier process in their order, counting their unconsumed events.
+     */
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            try {
+                long sequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                nextSegmentSequence = Math.max(nextSegmentSequence, sequence + 1);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (Files.size(path) != segmentSize) {
+                log.warn("Ignoring analytics event spool segment {} of a different segment size", path);
+                continue;
+            }
+            Segment segment = new Segment(path, true);
+            segments.addLast(segment);
+            pendingEvents += segment.liveEvents();
+            pendingBytes += segment.liveBytes();
+            // Not kept mapped until the segment is read.
+            segment.buffer = null;
+        }
+        if (pendingEvents > 0) {
+            oldestTimestamp = segments.peekFirst().oldestLiveTimestamp();
+            log.info("Recovered {} spooled analytics events from {}", pendingEvents, directory);
+        }
+    }
+
+    /**
+     * A segment file. Segments of an earlier process are only read, new events go to a new segment.
+     */
+    private final class Segment {
+
+        private final Path path;
+        private final boolean recovered;
+        private MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+        private long newestTimestamp;
+
+        private Segment(Path path, boolean recovered) throws IOException {
+            this.path = path;
+            this.recovered = recovered;
+            if (recovered) {
+                ByteBuffer mapped = map();
+                int position = 0;
+                while (position + RECORD_HEADER_SIZE <= segmentSize) {
+                    int length = mapped.getInt(position);
+                    if (length == 0 || position + RECORD_HEADER_SIZE + Math.abs(length) > segmentSize) {
+                        break;
+                    }
+                    newestTimestamp = Math.max(newestTimestamp, mapped.getLong(position + Integer.BYTES));
+                    position += RECORD_HEADER_SIZE + Math.abs(length);
+                }
+                writePosition = position;
+            }
+        }
+
+        private MappedByteBuffer map() throws IOException {
+            if (buffer == null) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                }
+            }
+            return buffer;
+        }
+
+        private long liveEvents() {
+            return scan(false);
+        }
+
+        private long liveBytes() {
+            return scan(true);
+        }
+
+        private long oldestLiveTimestamp() {
+            try {
+                ByteBuffer mapped = map();
+                int position = readPosition;
+                while (position < writePosition) {
+                    int length = mapped.getInt(position);
+                    if (length > 0) {
+                        return mapped.getLong(position + Integer.BYTES);
+                    }
+                    position += RECORD_HEADER_SIZE - length;
+                }
+            } catch (IOException e) {
+                log.warn("Error while reading the analytics event spool segment {}", path, e);
+            }
+            return -1;
+        }
+
+        private long scan(boolean bytes) {
+            long total = 0;
+            try {
+                ByteBuffer mapped = map();
+                int position = readPosition;
+                while (position < writePosition) {
+                    int length = mapped.getInt(position);
+                    if (length > 0) {
+                        total += bytes ? RECORD_HEADER_SIZE + length : 1;
+                    }
+                    position += RECORD_HEADER_SIZE + Math.abs(length);
+                }
+            } catch (IOException e) {
+                log.warn("Error while reading the analytics event spool segment {}", path, e);
+            }
+            return total;
+        }
+    }
+}
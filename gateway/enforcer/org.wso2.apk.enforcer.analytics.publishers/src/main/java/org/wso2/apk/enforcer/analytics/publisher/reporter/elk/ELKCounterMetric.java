@@ -18,39 +18,71 @@
 
 package org.wso2.apk.enforcer.analytics.publisher.reporter.elk;
 
-import com.google.gson.Gson;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.GenericInputValidator;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
 
 import java.util.Map;
 
 /**
  * Log Counter Metrics class, This class can be used to log analytics event to a separate log file.
+ * <p>
+ * Events are encoded into a JSON buffer owned by the publishing thread, which the logging framework copies into its
+ * own reusable buffer, so no intermediate string is built per event. With the JSON output format each event is logged
+ * as a single JSON object per line to the {@link Constants#ELK_EVENT_LOGGER} logger, meant to be configured as an
+ * asynchronous logger with a garbage-free layout.
  */
 public class ELKCounterMetric implements CounterMetric {
-    private static final Log log = LogFactory.getLog(ELKCounterMetric.class);
+    private static final Logger log = LoggerFactory.getLogger(ELKCounterMetric.class);
+    private static final Logger eventLog = LoggerFactory.getLogger(Constants.ELK_EVENT_LOGGER);
+    private static final byte[] METRIC_NAME_FIELD = EventJsonWriter.encodeName(Constants.ELK_METRIC_NAME);
+    private static final ThreadLocal<EventLine> eventLines = ThreadLocal.withInitial(EventLine::new);
     private final String name;
-    private final Gson gson;
+    private final String sanitizedName;
+    private final boolean jsonOutput;
     private MetricSchema schema;
 
     protected ELKCounterMetric(String name, MetricSchema schema) {
+        this(name, schema, false);
+    }
+
+    protected ELKCounterMetric(String name, MetricSchema schema, boolean jsonOutput) {
         this.name = name;
-        this.gson = new Gson();
+        this.sanitizedName = name.replaceAll("[\r\n]", "");
         this.schema = schema;
+        this.jsonOutput = jsonOutput;
     }
 
     @Override
     public int incrementCount(MetricEventBuilder builder) throws MetricReportingException {
+        Logger logger = jsonOutput ? eventLog : log;
+        if (!logger.isInfoEnabled()) {
+            return 0;
+        }
         Map<String, Object> event = builder.build();
-        String jsonString = gson.toJson(event);
-
-        log.info("apimMetrics: " + name.replaceAll("[\r\n]", "") + ", properties :" +
-                jsonString.replaceAll("[\r\n]", ""));
+        EventLine line = eventLines.get();
+        EventJsonWriter writer = line.writer;
+        writer.reset();
+        if (jsonOutput) {
+            writer.beginObject();
+            writer.writeField(METRIC_NAME_FIELD, name);
+            for (Map.Entry<String, Object> entry : event.entrySet()) {
+                writer.writeField(entry.getKey(), entry.getValue());
+            }
+            writer.endObject();
+            eventLog.info("{}", line);
+        } else {
+            // The JSON encoding escapes line breaks, hence the event needs no further sanitizing.
+            writer.writeObject(event);
+            log.info("apimMetrics: {}, properties :{}", sanitizedName, line);
+        }
         return 0;
     }
 
@@ -77,4 +109,22 @@ public class ELKCounterMetric implements CounterMetric {
                         GenericInputValidator.getInstance().getEventProperties(MetricSchema.ELK_ERROR));
         }
     }
+
+    /**
+     * Event encoded by the publishing thread. The logging framework formats the message parameters on the calling
+     * thread, also when the logger is asynchronous, hence the buffer can be reused for the next event.
+     */
+    private static final class EventLine implements StringBuilderFormattable {
+        private final EventJsonWriter writer = new EventJsonWriter();
+
+        @Override
+        public void formatTo(StringBuilder buffer) {
+            writer.appendTo(buffer);
+        }
+
+        @Override
+        public String toString() {
+            return writer.toString();
+        }
+    }
 }
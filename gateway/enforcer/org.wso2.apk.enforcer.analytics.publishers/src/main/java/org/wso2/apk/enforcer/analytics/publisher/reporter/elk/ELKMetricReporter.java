@@ -25,6 +25,8 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricReporter
 import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.TimerMetric;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.UserAgentParser;
 
 import java.util.Map;
 
@@ -36,17 +38,25 @@ public class ELKMetricReporter extends AbstractMetricReporter {
 
     public ELKMetricReporter(Map<String, String> properties) throws MetricCreationException {
         super(properties);
+        UserAgentParser.getInstance().configure(properties);
         log.info("LogMetricReporter successfully initialized");
     }
 
     @Override
     protected void validateConfigProperties(Map<String, String> properties) throws MetricCreationException {
-        //nothing to validate
+        String outputFormat = properties.get(Constants.ELK_OUTPUT_FORMAT);
+        if (outputFormat != null && !Constants.ELK_OUTPUT_FORMAT_JSON.equals(outputFormat)
+                && !Constants.ELK_OUTPUT_FORMAT_LEGACY.equals(outputFormat)) {
+            throw new MetricCreationException("Unsupported " + Constants.ELK_OUTPUT_FORMAT + " " + outputFormat
+                    + ". Supported values are " + Constants.ELK_OUTPUT_FORMAT_JSON + " and "
+                    + Constants.ELK_OUTPUT_FORMAT_LEGACY);
+        }
     }
 
     @Override
     protected CounterMetric createCounter(String name, MetricSchema schema) {
-        return new ELKCounterMetric(name, schema);
+        return new ELKCounterMetric(name, schema,
+                Constants.ELK_OUTPUT_FORMAT_JSON.equals(getConfiguration().get(Constants.ELK_OUTPUT_FORMAT)));
     }
 
     @Override
@@ -40,9 +40,12 @@ public class LogCounterMetric implements CounterMetric {
 
     @Override
     public int incrementCount(MetricEventBuilder builder) throws MetricReportingException {
+        if (!log.isInfoEnabled()) {
+            return 0;
+        }
         Map<String, Object> properties = builder.build();
-        log.info("Metric Name: " + name.replaceAll("[\r\n]", "") + " Metric Value: "
-                + properties.toString().replaceAll("[\r\n]", ""));
+        log.info("Metric Name: {} Metric Value: {}", name.replaceAll("[\r\n]", ""),
+                properties.toString().replaceAll("[\r\n]", ""));
         return 0;
     }
 
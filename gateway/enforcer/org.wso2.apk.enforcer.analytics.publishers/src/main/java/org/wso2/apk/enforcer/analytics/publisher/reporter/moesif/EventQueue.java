@@ -24,7 +24,9 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.DefaultAnalyticsThreadFactory;
 import org.wso2.apk.enforcer.analytics.publisher.retriever.MoesifKeyRetriever;
 
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -33,27 +35,54 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Bounded concurrent queue wrapping for Moesif reporter{@link java.util.concurrent.ArrayBlockingQueue}.
+ * <p>
+ * Besides the bound of the queue, each organization may only have up to a budget of events in the queue at a time,
+ * which bounds the memory an organization can hold. An organization which floods the reporter has its own events
+ * dropped rather than taking the queue over from the others. An event counts against the budget until the client
+ * has sent or dropped it, so events waiting for a retry of the client are included.
  */
 public class EventQueue {
     private static final Logger log = LoggerFactory.getLogger(EventQueue.class);
+    private static final String UNKNOWN_ORGANIZATION = "";
     private final BlockingQueue<MetricEventBuilder> eventQueue;
     private final ExecutorService publisherExecutorService;
     private final AtomicInteger failureCount;
+    private final int organizationBudget;
+    private final Map<String, AtomicInteger> queuedByOrganization = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> droppedByOrganization = new ConcurrentHashMap<>();
 
     public EventQueue(int queueSize, int workerThreadCount, MoesifKeyRetriever moesifKeyRetriever) {
+        this(queueSize, workerThreadCount, new MoesifClient(moesifKeyRetriever), queueSize);
+    }
+
+    public EventQueue(int queueSize, int workerThreadCount, MoesifClient moesifClient, int organizationBudget) {
         publisherExecutorService = Executors.newFixedThreadPool(workerThreadCount,
                 new DefaultAnalyticsThreadFactory("Queue-Worker"));
-        MoesifClient moesifClient = new MoesifClient(moesifKeyRetriever);
         eventQueue = new LinkedBlockingQueue<>(queueSize);
         failureCount = new AtomicInteger(0);
+        this.organizationBudget = Math.max(1, organizationBudget);
+        moesifClient.setCompletionListener(this::release);
         for (int i = 0; i < workerThreadCount; i++) {
-            publisherExecutorService.submit(new ParallelQueueWorker(eventQueue, moesifClient));
+            publisherExecutorService.submit(new ParallelQueueWorker(eventQueue, moesifClient, this::release));
         }
     }
 
     public void put(MetricEventBuilder builder) {
+        String organization = getOrganization(builder);
+        AtomicInteger queued = queuedByOrganization.computeIfAbsent(organization, k -> new AtomicInteger());
+        if (queued.incrementAndGet() > organizationBudget) {
+            queued.decrementAndGet();
+            int count = droppedByOrganization.computeIfAbsent(organization, k -> new AtomicInteger())
+                    .incrementAndGet();
+            if (count == 1 || count % 1000 == 0) {
+                log.error("Event budget of organization {} is used up. {} events of the organization dropped so far",
+                        organization.replaceAll("[\r\n]", ""), count);
+            }
+            return;
+        }
         try {
             if (!eventQueue.offer(builder)) {
+                queued.decrementAndGet();
                 int count = failureCount.incrementAndGet();
                 if (count == 1) {
                     log.error("Event queue is full. Starting to drop analytics events.");
@@ -62,10 +91,56 @@ public class EventQueue {
                 }
             }
         } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
             log.warn("Task submission failed. Task queue might be full", e);
         }
     }
 
+    /**
+     * Returns the number of events of the given organization in the queue or held by the client until sent.
+     *
+     * @param organization organization ID
+     * @return queued event count
+     */
+    public int getQueuedEventCount(String organization) {
+        AtomicInteger queued = queuedByOrganization.get(organization == null ? UNKNOWN_ORGANIZATION : organization);
+        return queued == null ? 0 : queued.get();
+    }
+
+    /**
+     * Returns the number of events of the given organization dropped as its budget was used up.
+     *
+     * @param organization organization ID
+     * @return dropped event count
+     */
+    public int getDroppedEventCount(String organization) {
+        AtomicInteger dropped = droppedByOrganization.get(organization == null ? UNKNOWN_ORGANIZATION : organization);
+        return dropped == null ? 0 : dropped.get();
+    }
+
+    private void release(MetricEventBuilder builder) {
+        if (builder != null) {
+            release(getOrganization(builder), 1);
+        }
+    }
+
+    private void release(String organization, int count) {
+        AtomicInteger queued = queuedByOrganization.get(organization == null ? UNKNOWN_ORGANIZATION : organization);
+        if (queued != null) {
+            queued.addAndGet(-count);
+        }
+    }
+
+    private static String getOrganization(MetricEventBuilder builder) {
+        if (builder instanceof MoesifMetricEventBuilder) {
+            String organization = ((MoesifMetricEventBuilder) builder).getOrganizationId();
+            if (organization != null) {
+                return organization;
+            }
+        }
+        return UNKNOWN_ORGANIZATION;
+    }
+
     @Override
     protected void finalize() throws Throwable {
         publisherExecutorService.shutdown();
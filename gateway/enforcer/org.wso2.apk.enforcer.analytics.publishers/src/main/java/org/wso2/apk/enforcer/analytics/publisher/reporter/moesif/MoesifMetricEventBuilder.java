@@ -22,6 +22,7 @@ import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricEventBui
 import org.wso2.apk.enforcer.analytics.publisher.reporter.GenericInputValidator;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
 import org.wso2.apk.enforcer.analytics.publisher.util.EventMapAttributeFilter;
 
 import java.util.HashMap;
@@ -79,6 +80,17 @@ public class MoesifMetricEventBuilder extends AbstractMetricEventBuilder {
         return true;
     }
 
+    /**
+     * Returns the organization of the event, which is known before the event is built.
+     *
+     * @return organization ID or null if it is not added yet
+     */
+    public String getOrganizationId() {
+
+        Object organizationId = eventMap.get(Constants.ORGANIZATION_ID);
+        return organizationId instanceof String ? (String) organizationId : null;
+    }
+
     @Override
     public MetricEventBuilder addAttribute(String key, Object value) throws MetricReportingException {
 
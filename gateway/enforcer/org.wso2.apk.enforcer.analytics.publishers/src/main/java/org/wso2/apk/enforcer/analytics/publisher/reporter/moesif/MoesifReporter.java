@@ -19,6 +19,8 @@ package org.wso2.apk.enforcer.analytics.publisher.reporter.moesif;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.apk.enforcer.analytics.publisher.client.MoesifBatchClient;
+import org.wso2.apk.enforcer.analytics.publisher.client.MoesifClient;
 import org.wso2.apk.enforcer.analytics.publisher.exception.MetricCreationException;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricReporter;
 import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
@@ -49,8 +51,27 @@ public class MoesifReporter extends AbstractMetricReporter {
         if (properties.get(Constants.WORKER_THREAD_COUNT) != null) {
             workerThreads = Integer.parseInt(properties.get(Constants.WORKER_THREAD_COUNT));
         }
-        this.eventQueue = new EventQueue(queueSize, workerThreads, keyRetriever);
-
+        // Each organization may use a quarter of the queue by default, so that a single one cannot fill it up.
+        int organizationBudget = Math.max(1, queueSize / 4);
+        if (properties.get(Constants.MOESIF_ORGANIZATION_QUEUE_BUDGET) != null) {
+            organizationBudget = Integer.parseInt(properties.get(Constants.MOESIF_ORGANIZATION_QUEUE_BUDGET));
+        }
+        MoesifClient moesifClient;
+        if (Constants.MOESIF_PUBLISH_MODE_BATCH.equals(properties.get(Constants.MOESIF_PUBLISH_MODE))) {
+            int batchSize = Constants.DEFAULT_MOESIF_BATCH_SIZE;
+            long flushInterval = Constants.DEFAULT_MOESIF_BATCH_FLUSH_INTERVAL;
+            if (properties.get(Constants.MOESIF_BATCH_SIZE) != null) {
+                batchSize = Integer.parseInt(properties.get(Constants.MOESIF_BATCH_SIZE));
+            }
+            if (properties.get(Constants.MOESIF_BATCH_FLUSH_INTERVAL) != null) {
+                flushInterval = Long.parseLong(properties.get(Constants.MOESIF_BATCH_FLUSH_INTERVAL));
+            }
+            moesifClient = new MoesifBatchClient(keyRetriever, batchSize, flushInterval);
+            log.info("Moesif events will be published in batches of up to {} events", batchSize);
+        } else {
+            moesifClient = new MoesifClient(keyRetriever);
+        }
+        this.eventQueue = new EventQueue(queueSize, workerThreads, moesifClient, organizationBudget);
     }
 
     @Override
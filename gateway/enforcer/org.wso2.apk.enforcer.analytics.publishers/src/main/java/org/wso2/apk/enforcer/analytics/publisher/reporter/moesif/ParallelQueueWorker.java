@@ -24,6 +24,7 @@ import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingExcept
 import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 /**
  * Will dequeue the events from queues and send then to the moesif client {@link MoesifClient}.
@@ -32,16 +33,20 @@ public class ParallelQueueWorker implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(ParallelQueueWorker.class);
     private BlockingQueue<MetricEventBuilder> eventQueue;
     private MoesifClient client;
+    // Notified of the events which the client did not take over as publishing them failed.
+    private Consumer<MetricEventBuilder> failureListener;
 
-    public ParallelQueueWorker(BlockingQueue<MetricEventBuilder> queue, MoesifClient moesifClient) {
+    public ParallelQueueWorker(BlockingQueue<MetricEventBuilder> queue, MoesifClient moesifClient,
+                               Consumer<MetricEventBuilder> failureListener) {
         this.eventQueue = queue;
         this.client = moesifClient;
+        this.failureListener = failureListener;
     }
 
     public void run() {
 
         while (true) {
-            MetricEventBuilder eventBuilder;
+            MetricEventBuilder eventBuilder = null;
             try {
                 eventBuilder = eventQueue.take();
                 if (eventBuilder != null) {
@@ -49,11 +54,13 @@ public class ParallelQueueWorker implements Runnable {
                 }
             } catch (MetricReportingException e) {
                 log.error("Builder instance is not duly filled. Event building failed", e);
+                failureListener.accept(eventBuilder);
                 continue;
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
                 log.error("Analytics event sending failed. Event will be dropped", e);
+                failureListener.accept(eventBuilder);
             }
         }
     }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.analytics.publisher.reporter.rollup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies in milliseconds with logarithmic buckets.
+ * <p>
+ * Bucket boundaries grow by a constant factor, so every quantile is reported within the configured relative accuracy
+ * of the recorded value regardless of its magnitude, as in DDSketch. Latencies above {@link #MAX_TRACKED_MILLIS} fall
+ * into the last bucket, while the exact maximum is tracked separately.
+ * <p>
+ * The bucket counters are striped: a thread increments the counters of the stripe picked by its ID, so threads
+ * recording latencies of the same key at the same time mostly update different cache lines, and
+ * {@link #drain(long[])} merges the stripes into the counts recorded since the previous drain. A stripe is only
+ * allocated once a thread records into it, so a key used by few threads does not pay for all the stripes.
+ */
+class LatencyHistogram {
+
+    static final long MAX_TRACKED_MILLIS = 3600000L;
+    private static final int MAX_STRIPE_COUNT = 8;
+    private static final int STRIPE_COUNT = getStripeCount(Runtime.getRuntime().availableProcessors());
+
+    private final double logGamma;
+    private final int bucketCount;
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram.
+     *
+     * @param relativeAccuracy maximum relative error of the reported quantiles, between 0 and 1
+     */
+    LatencyHistogram(double relativeAccuracy) {
+
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        // Bucket 0 holds the zero latencies.
+        this.bucketCount = index(MAX_TRACKED_MILLIS) + 1;
+    }
+
+    void record(long latencyMillis) {
+
+        long latency = Math.max(latencyMillis, 0);
+        getStripe().incrementAndGet(Math.min(index(latency), bucketCount - 1));
+        sum.add(latency);
+        max.accumulate(latency);
+    }
+
+    int getBucketCount() {
+
+        return bucketCount;
+    }
+
+    /**
+     * Moves the counts recorded since the previous drain to the given array and resets them.
+     *
+     * @param counts array of at least {@link #getBucketCount()} elements
+     * @return number of drained latencies
+     */
+    long drain(long[] counts) {
+
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            counts[i] = 0;
+        }
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < bucketCount; i++) {
+                long count = stripe.get(i) == 0 ? 0 : stripe.getAndSet(i, 0);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    long drainSum() {
+
+        return sum.sumThenReset();
+    }
+
+    long drainMax() {
+
+        return max.getThenReset();
+    }
+
+    /**
+     * Returns the latency at the given quantile of drained counts.
+     *
+     * @param counts   counts returned by {@link #drain(long[])}
+     * @param total    total of the counts
+     * @param quantile quantile between 0 and 1
+     * @param maxValue maximum drained latency, which bounds the estimate
+     * @return estimated latency in milliseconds
+     */
+    long getValueAtQuantile(long[] counts, long total, double quantile, long maxValue) {
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int getStripeCount(int processors) {
+
+        int count = 1;
+        while (count < processors && count < MAX_STRIPE_COUNT) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the stripe of the current thread. Thread IDs are handed out in sequence, so the threads of a pool are
+     * spread over the stripes round robin.
+     */
+    private AtomicLongArray getStripe() {
+
+        int index = (int) Thread.currentThread().getId() & (stripes.length() - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(bucketCount));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private int index(long latency) {
+
+        if (latency <= 0) {
+            return 0;
+        }
+        return (int) Math.ceil(Math.log(latency) / logGamma) + 1;
+    }
+
+    /**
+     * Returns the value which is within the relative accuracy of every latency in the bucket.
+     */
+    private long getBucketValue(int index) {
+
+        if (index == 0) {
+            return 0;
+        }
+        double upper = Math.exp((index - 1) * logGamma);
+        double lower = Math.exp((index - 2) * logGamma);
+        return Math.round(2 * upper * lower / (upper + lower));
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.analytics.publisher.reporter.rollup;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates analytics events into request counts and latency histograms per API, resource, application and status
+ * class.
+ * <p>
+ * Each key has its own cell of lock free counters, so events of different keys never contend, and the latency
+ * counters of a cell are striped per thread, so events of the same key recorded by different threads rarely do.
+ * {@link #flush(Consumer)} drains the cells into one rollup record per key and is expected to be called by a single
+ * thread. Cells which received no events since the previous flush are
+ * dropped to bound the memory held for keys which are no longer used. An event recorded into such a cell while it is
+ * being dropped is lost, which is unlikely as the cell has been idle for a whole interval. Once the number of keys
+ * reaches the limit, events of new keys are aggregated under {@link #OVERFLOW_KEY} per status class.
+ */
+public class RollupAggregator {
+
+    public static final String OVERFLOW_KEY = "_other";
+    static final String API_ID = "apiId";
+    static final String API_NAME = "apiName";
+    static final String API_RESOURCE = "apiResource";
+    static final String APPLICATION_ID = "applicationId";
+    static final String STATUS_CLASS = "statusClass";
+    static final String COUNT = "count";
+    static final String LATENCY_AVERAGE = "latencyAverage";
+    static final String LATENCY_MAX = "latencyMax";
+    static final String LATENCY_P50 = "latencyP50";
+    static final String LATENCY_P90 = "latencyP90";
+    static final String LATENCY_P99 = "latencyP99";
+    private static final String UNKNOWN_STATUS_CLASS = "unknown";
+
+    private final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+    private final AtomicInteger keyCount = new AtomicInteger();
+    private final int maxKeys;
+    private final double relativeAccuracy;
+    private final LongAdder overflowedEvents = new LongAdder();
+    private final long[] drainedCounts;
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param maxKeys          maximum number of keys aggregated separately
+     * @param relativeAccuracy relative accuracy of the latency quantiles
+     */
+    public RollupAggregator(int maxKeys, double relativeAccuracy) {
+
+        this.maxKeys = maxKeys;
+        this.relativeAccuracy = relativeAccuracy;
+        this.drainedCounts = new long[new LatencyHistogram(relativeAccuracy).getBucketCount()];
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param apiId          API ID
+     * @param apiName        API name, reported along with the API ID
+     * @param apiResource    resource of the API, i.e. the method and the resource template
+     * @param applicationId  application ID
+     * @param statusCode     response status code
+     * @param latencyMillis  response latency in milliseconds
+     */
+    public void record(String apiId, String apiName, String apiResource, String applicationId, int statusCode,
+                       long latencyMillis) {
+
+        Key key = new Key(apiId, apiResource, applicationId, getStatusClass(statusCode));
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = createCell(key, apiName);
+        }
+        cell.histogram.record(latencyMillis);
+    }
+
+    /**
+     * Drains the events recorded since the previous flush and passes a rollup record of each key to the sink.
+     *
+     * @param sink consumer of the rollup records
+     * @return number of records
+     */
+    public int flush(Consumer<Map<String, Object>> sink) {
+
+        int records = 0;
+        Iterator<Map.Entry<Key, Cell>> iterator = cells.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Cell> entry = iterator.next();
+            Cell cell = entry.getValue();
+            long count = cell.histogram.drain(drainedCounts);
+            if (count == 0) {
+                if (cells.remove(entry.getKey(), cell) && !OVERFLOW_KEY.equals(entry.getKey().apiId)) {
+                    keyCount.decrementAndGet();
+                }
+                continue;
+            }
+            sink.accept(toRecord(entry.getKey(), cell, count));
+            records++;
+        }
+        return records;
+    }
+
+    public int getKeyCount() {
+
+        return cells.size();
+    }
+
+    public long getOverflowedEventCount() {
+
+        return overflowedEvents.sum();
+    }
+
+    private Cell createCell(Key key, String apiName) {
+
+        if (keyCount.get() >= maxKeys) {
+            overflowedEvents.increment();
+            return cells.computeIfAbsent(new Key(OVERFLOW_KEY, OVERFLOW_KEY, OVERFLOW_KEY, key.statusClass),
+                    k -> new Cell(OVERFLOW_KEY, relativeAccuracy));
+        }
+        return cells.computeIfAbsent(key, k -> {
+            keyCount.incrementAndGet();
+            return new Cell(apiName, relativeAccuracy);
+        });
+    }
+
+    private Map<String, Object> toRecord(Key key, Cell cell, long count) {
+
+        long sum = cell.histogram.drainSum();
+        long max = cell.histogram.drainMax();
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put(API_ID, key.apiId);
+        record.put(API_NAME, cell.apiName);
+        record.put(API_RESOURCE, key.apiResource);
+        record.put(APPLICATION_ID, key.applicationId);
+        record.put(STATUS_CLASS, key.statusClass);
+        record.put(COUNT, count);
+        record.put(LATENCY_AVERAGE, sum / count);
+        record.put(LATENCY_MAX, max);
+        record.put(LATENCY_P50, cell.histogram.getValueAtQuantile(drainedCounts, count, 0.5, max));
+        record.put(LATENCY_P90, cell.histogram.getValueAtQuantile(drainedCounts, count, 0.9, max));
+        record.put(LATENCY_P99, cell.histogram.getValueAtQuantile(drainedCounts, count, 0.99, max));
+        return record;
+    }
+
+    static String getStatusClass(int statusCode) {
+
+        if (statusCode < 100 || statusCode > 599) {
+            return UNKNOWN_STATUS_CLASS;
+        }
+        return (statusCode / 100) + "xx";
+    }
+
+    private static final class Key {
+
+        private final String apiId;
+        private final String apiResource;
+        private final String applicationId;
+        private final String statusClass;
+        private final int hash;
+
+        private Key(String apiId, String apiResource, String applicationId, String statusClass) {
+
+            this.apiId = apiId;
+            this.apiResource = apiResource;
+            this.applicationId = applicationId;
+            this.statusClass = statusClass;
+            this.hash = Objects.hash(apiId, apiResource, applicationId, statusClass);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && Objects.equals(apiId, key.apiId) && Objects.equals(apiResource,
+                    key.apiResource) && Objects.equals(applicationId, key.applicationId)
+                    && statusClass.equals(key.statusClass);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+
+    private static final class Cell {
+
+        private final String apiName;
+        private final LatencyHistogram histogram;
+
+        private Cell(String apiName, double relativeAccuracy) {
+
+            this.apiName = apiName;
+            this.histogram = new LatencyHistogram(relativeAccuracy);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.analytics.publisher.reporter.rollup;
+
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
+
+/**
+ * Counter metric of the rollup reporter. Events are added to the aggregator of the reporter instead of being
+ * published one by one.
+ */
+public class RollupCounterMetric implements CounterMetric {
+    private final String name;
+    private final MetricSchema schema;
+    private final RollupAggregator aggregator;
+
+    protected RollupCounterMetric(String name, MetricSchema schema, RollupAggregator aggregator) {
+        this.name = name;
+        this.schema = schema;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public int incrementCount(MetricEventBuilder builder) throws MetricReportingException {
+        if (!(builder instanceof RollupMetricEventBuilder)) {
+            throw new MetricReportingException("Rollup counter metric " + name + " cannot process events of "
+                    + builder.getClass().getName());
+        }
+        ((RollupMetricEventBuilder) builder).recordTo(aggregator);
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public MetricSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public MetricEventBuilder getEventBuilder() {
+        return new RollupMetricEventBuilder();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.analytics.publisher.reporter.rollup;
+
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event builder of the rollup reporter. Only the attributes the events are aggregated by are kept, the rest are
+ * discarded as they are added.
+ */
+public class RollupMetricEventBuilder extends AbstractMetricEventBuilder {
+    private String apiId;
+    private String apiName;
+    private String apiMethod;
+    private String apiResourceTemplate;
+    private String applicationId;
+    private int statusCode;
+    private long latency;
+
+    @Override
+    public boolean validate() throws MetricReportingException {
+        return true;
+    }
+
+    @Override
+    public MetricEventBuilder addAttribute(String key, Object value) throws MetricReportingException {
+        switch (key) {
+            case Constants.API_ID:
+                apiId = (String) value;
+                break;
+            case Constants.API_NAME:
+                apiName = (String) value;
+                break;
+            case Constants.API_METHOD:
+                apiMethod = (String) value;
+                break;
+            case Constants.API_RESOURCE_TEMPLATE:
+                apiResourceTemplate = (String) value;
+                break;
+            case Constants.APPLICATION_ID:
+                applicationId = (String) value;
+                break;
+            case Constants.PROXY_RESPONSE_CODE:
+                statusCode = value instanceof Number ? ((Number) value).intValue() : 0;
+                break;
+            case Constants.RESPONSE_LATENCY:
+                latency = value instanceof Number ? ((Number) value).longValue() : 0;
+                break;
+            default:
+                break;
+        }
+        return this;
+    }
+
+    @Override
+    protected Map<String, Object> buildEvent() {
+        Map<String, Object> event = new HashMap<>();
+        event.put(Constants.API_ID, apiId);
+        event.put(Constants.API_NAME, apiName);
+        event.put(Constants.API_METHOD, apiMethod);
+        event.put(Constants.API_RESOURCE_TEMPLATE, apiResourceTemplate);
+        event.put(Constants.APPLICATION_ID, applicationId);
+        event.put(Constants.PROXY_RESPONSE_CODE, statusCode);
+        event.put(Constants.RESPONSE_LATENCY, latency);
+        return event;
+    }
+
+    void recordTo(RollupAggregator aggregator) {
+        String apiResource = apiMethod == null ? apiResourceTemplate : apiMethod + " " + apiResourceTemplate;
+        aggregator.record(apiId, apiName, apiResource, applicationId, statusCode, latency);
+    }
+}
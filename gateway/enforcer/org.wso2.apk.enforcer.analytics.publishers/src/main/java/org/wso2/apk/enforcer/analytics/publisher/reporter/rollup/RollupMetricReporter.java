@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.analytics.publisher.reporter.rollup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricCreationException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.AbstractMetricReporter;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.TimerMetric;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.DefaultAnalyticsThreadFactory;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metric reporter which publishes aggregates instead of individual events. Events are rolled up into request counts
+ * and latency quantiles per API, resource, application and status class, and a record of each is logged once per
+ * flush interval, to be shipped by the log collector like the events of the ELK reporter.
+ */
+public class RollupMetricReporter extends AbstractMetricReporter {
+    private static final Logger log = LoggerFactory.getLogger(RollupMetricReporter.class);
+    private final RollupAggregator aggregator;
+    private final EventJsonWriter writer = new EventJsonWriter();
+
+    public RollupMetricReporter(Map<String, String> properties) throws MetricCreationException {
+        super(properties);
+        long flushInterval = getLong(properties, Constants.ROLLUP_FLUSH_INTERVAL_SECONDS,
+                Constants.DEFAULT_ROLLUP_FLUSH_INTERVAL_SECONDS);
+        aggregator = new RollupAggregator(
+                (int) getLong(properties, Constants.ROLLUP_MAX_KEYS, Constants.DEFAULT_ROLLUP_MAX_KEYS),
+                getRelativeAccuracy(properties));
+        ScheduledExecutorService flusher =
+                Executors.newSingleThreadScheduledExecutor(new DefaultAnalyticsThreadFactory("Rollup-Flusher"));
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.SECONDS);
+        log.info("RollupMetricReporter successfully initialized with a flush interval of {} seconds",
+                flushInterval);
+    }
+
+    @Override
+    protected void validateConfigProperties(Map<String, String> properties) throws MetricCreationException {
+        if (getLong(properties, Constants.ROLLUP_FLUSH_INTERVAL_SECONDS,
+                Constants.DEFAULT_ROLLUP_FLUSH_INTERVAL_SECONDS) <= 0) {
+            throw new MetricCreationException(Constants.ROLLUP_FLUSH_INTERVAL_SECONDS + " should be positive");
+        }
+        if (getLong(properties, Constants.ROLLUP_MAX_KEYS, Constants.DEFAULT_ROLLUP_MAX_KEYS) <= 0) {
+            throw new MetricCreationException(Constants.ROLLUP_MAX_KEYS + " should be positive");
+        }
+        double relativeAccuracy = getRelativeAccuracy(properties);
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new MetricCreationException(Constants.ROLLUP_LATENCY_RELATIVE_ACCURACY
+                    + " should be between 0 and 1");
+        }
+    }
+
+    @Override
+    protected CounterMetric createCounter(String name, MetricSchema schema) {
+        return new RollupCounterMetric(name, schema, aggregator);
+    }
+
+    @Override
+    protected TimerMetric createTimer(String name) {
+        return null;
+    }
+
+    private void flush() {
+        try {
+            int records = aggregator.flush(record -> {
+                writer.reset();
+                writer.writeObject(record);
+                log.info("apimRollup: " + writer);
+            });
+            log.debug("Published {} rollup records", records);
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled flushes.
+            log.error("Error while publishing the rollup records", e);
+        }
+    }
+
+    private static long getLong(Map<String, String> properties, String key, long defaultValue)
+            throws MetricCreationException {
+        String value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MetricCreationException("Invalid value " + value + " for " + key, e);
+        }
+    }
+
+    private static double getRelativeAccuracy(Map<String, String> properties) throws MetricCreationException {
+        String value = properties.get(Constants.ROLLUP_LATENCY_RELATIVE_ACCURACY);
+        if (value == null) {
+            return Constants.DEFAULT_ROLLUP_LATENCY_RELATIVE_ACCURACY;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MetricCreationException("Invalid value " + value + " for "
+                    + Constants.ROLLUP_LATENCY_RELATIVE_ACCURACY, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe, bounded cache which only admits a new entry if it is requested more often than the entry it would
+ * evict.
+ * <p>
+ * Entries are spread over segments, each an access ordered {@link LinkedHashMap} guarded by its own lock. Every
+ * lookup is recorded in a shared {@link FrequencySketch}, including the misses. When a segment is full, its least
+ * recently used entry is only replaced by a new one whose estimated frequency is higher, so a burst of keys which
+ * are seen once cannot flush the keys which are requested all the time.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class AdmissionCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final FrequencySketch sketch;
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Creates a cache which holds up to the given number of entries.
+     *
+     * @param maximumSize maximum number of entries
+     */
+    @SuppressWarnings("unchecked")
+    public AdmissionCache(int maximumSize) {
+
+        this.maximumSize = Math.max(1, maximumSize);
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(this.maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // The remainder goes to the first segments, so that the capacities add up to the maximum size.
+            int capacity = this.maximumSize / segmentCount + (i < this.maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(capacity);
+        }
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+
+    /**
+     * Returns the value cached for the given key and records the request.
+     *
+     * @param key key, not null
+     * @return cached value or null
+     */
+    public V get(K key) {
+
+        int hash = spread(key.hashCode());
+        sketch.increment(hash);
+        Segment<K, V> segment = segmentFor(hash);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Adds an entry, unless the segment of the key is full and its least recently used entry is requested at least
+     * as often as the new key.
+     *
+     * @param key   key, not null
+     * @param value value, not null
+     * @return true if the entry was added
+     */
+    public boolean put(K key, V value) {
+
+        int hash = spread(key.hashCode());
+        Segment<K, V> segment = segmentFor(hash);
+        synchronized (segment) {
+            if (segment.size() >= segment.capacity && !segment.containsKey(key)) {
+                Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+                K victim = iterator.next().getKey();
+                if (sketch.frequency(hash) <= sketch.frequency(spread(victim.hashCode()))) {
+                    rejections.increment();
+                    return false;
+                }
+                iterator.remove();
+                evictions.increment();
+            }
+            segment.put(key, value);
+            return true;
+        }
+    }
+
+    public int size() {
+
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaximumSize() {
+
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of entries which were not added as they were requested less often than the entry they
+     * would have replaced.
+     *
+     * @return rejected entry count
+     */
+    public long getRejectionCount() {
+
+        return rejections.sum();
+    }
+
+    public double getHitRatio() {
+
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+
+        return segments[(hash >>> 16) & (segments.length - 1)];
+    }
+
+    private static int spread(int hash) {
+
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+    }
+}
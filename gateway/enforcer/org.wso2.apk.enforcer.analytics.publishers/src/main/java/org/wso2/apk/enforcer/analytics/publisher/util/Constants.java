@@ -86,6 +86,14 @@ public class Constants {
     public static final String DEFAULT_REPORTER = "default";
     public static final String ELK_REPORTER = "elk";
     public static final String MOESIF_REPORTER = "moesif";
+    public static final String ROLLUP_REPORTER = "rollup";
+
+    //ELK reporter constants
+    public static final String ELK_OUTPUT_FORMAT = "elk.output.format";
+    public static final String ELK_OUTPUT_FORMAT_JSON = "json";
+    public static final String ELK_OUTPUT_FORMAT_LEGACY = "legacy";
+    public static final String ELK_EVENT_LOGGER = "org.wso2.apk.enforcer.analytics.events";
+    public static final String ELK_METRIC_NAME = "metricName";
 
     //EventHub Client retry options constants
     public static final int DEFAULT_MAX_RETRIES = 2;
@@ -107,7 +115,20 @@ public class Constants {
     public static final int DEFAULT_QUEUE_SIZE = 20000;
     public static final int DEFAULT_WORKER_THREADS = 1;
     public static final int DEFAULT_FLUSHING_DELAY = 15;
-    public static final int USER_AGENT_DEFAULT_CACHE_SIZE = 50;
+    public static final String MAX_IN_FLIGHT_BATCHES = "client.max.inflight.batches";
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+    public static final String SPOOL_ENABLED = "spool.enabled";
+    public static final String SPOOL_DIRECTORY = "spool.directory";
+    public static final String SPOOL_MAX_SIZE_MB = "spool.max.size.mb";
+    public static final String SPOOL_MAX_AGE_HOURS = "spool.max.age.hours";
+    public static final String SPOOL_SEGMENT_SIZE_MB = "spool.segment.size.mb";
+    public static final String DEFAULT_SPOOL_DIRECTORY_NAME = "apk-analytics-spool";
+    public static final long DEFAULT_SPOOL_MAX_SIZE_MB = 1024;
+    public static final long DEFAULT_SPOOL_MAX_AGE_HOURS = 24;
+    public static final int DEFAULT_SPOOL_SEGMENT_SIZE_MB = 16;
+    public static final String USER_AGENT_CACHE_SIZE = "useragent.cache.size";
+    public static final String USER_AGENT_PREFILTER_ENABLED = "useragent.prefilter.enabled";
+    public static final int USER_AGENT_DEFAULT_CACHE_SIZE = 1000;
 
     // Moesif sdk related constants
     public static final String MOESIF_CONTENT_TYPE_HEADER = "application/json";
@@ -121,5 +142,20 @@ public class Constants {
 
     public static final String MOESIF_KEY_RETRIEVER_CHOREO_CLIENT = "Choreo";
     public static final String MOESIF_KEY_VALUE = "moesifToken";
+    public static final String MOESIF_PUBLISH_MODE = "moesifPublishMode";
+    public static final String MOESIF_PUBLISH_MODE_BATCH = "batch";
+    public static final String MOESIF_BATCH_SIZE = "moesifBatchSize";
+    public static final String MOESIF_BATCH_FLUSH_INTERVAL = "moesifBatchFlushIntervalMillis";
+    public static final String MOESIF_ORGANIZATION_QUEUE_BUDGET = "moesifOrganizationQueueBudget";
+    public static final int DEFAULT_MOESIF_BATCH_SIZE = 100;
+    public static final long DEFAULT_MOESIF_BATCH_FLUSH_INTERVAL = 2000;
     public static final String DEFAULT_ENVIRONMENT = "Default";
+
+    //Rollup reporter constants
+    public static final String ROLLUP_FLUSH_INTERVAL_SECONDS = "rollup.flush.interval.seconds";
+    public static final String ROLLUP_MAX_KEYS = "rollup.max.keys";
+    public static final String ROLLUP_LATENCY_RELATIVE_ACCURACY = "rollup.latency.relative.accuracy";
+    public static final long DEFAULT_ROLLUP_FLUSH_INTERVAL_SECONDS = 60;
+    public static final long DEFAULT_ROLLUP_MAX_KEYS = 5000;
+    public static final double DEFAULT_ROLLUP_LATENCY_RELATIVE_ACCURACY = 0.02;
 }
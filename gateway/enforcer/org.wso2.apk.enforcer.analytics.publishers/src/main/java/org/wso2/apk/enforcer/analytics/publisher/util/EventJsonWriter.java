@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes analytics events as UTF-8 encoded JSON objects into a reusable byte buffer.
+ * <p>
+ * A writer is meant to be owned by a single publishing thread and {@link #reset()} before each event, so encoding an
+ * event does not allocate besides the final {@link #toByteArray()} copy. The output is the same as that of a default
+ * {@link com.google.gson.Gson} instance: null values are omitted and HTML sensitive characters are escaped.
+ */
+public class EventJsonWriter {
+
+    private static final int INITIAL_CAPACITY = 2048;
+    // A buffer grown past this size by an unusually large event is not kept for the following events.
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int count;
+    private boolean firstField;
+
+    /**
+     * Encodes the given attribute name as a JSON object key followed by the name separator, to be passed to
+     * {@link #writeField(byte[], Object)}.
+     *
+     * @param name attribute name
+     * @return encoded name
+     */
+    public static byte[] encodeName(String name) {
+
+        EventJsonWriter writer = new EventJsonWriter();
+        writer.writeString(name);
+        writer.writeByte(':');
+        return writer.toByteArray();
+    }
+
+    public void reset() {
+
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        count = 0;
+    }
+
+    public void beginObject() {
+
+        writeByte('{');
+        firstField = true;
+    }
+
+    public void endObject() {
+
+        writeByte('}');
+        firstField = false;
+    }
+
+    /**
+     * Writes a field of the current object. Nothing is written if the value is null.
+     *
+     * @param encodedName name encoded with {@link #encodeName(String)}
+     * @param value       value of the field
+     */
+    public void writeField(byte[] encodedName, Object value) {
+
+        if (value == null) {
+            return;
+        }
+        writeFieldSeparator();
+        writeBytes(encodedName);
+        writeValue(value);
+    }
+
+    /**
+     * Writes a field of the current object. Nothing is written if the value is null.
+     *
+     * @param name  name of the field
+     * @param value value of the field
+     */
+    public void writeField(String name, Object value) {
+
+        if (value == null) {
+            return;
+        }
+        writeFieldSeparator();
+        writeString(name);
+        writeByte(':');
+        writeValue(value);
+    }
+
+    /**
+     * Writes the given map as a JSON object.
+     *
+     * @param map map to write
+     */
+    public void writeObject(Map<?, ?> map) {
+
+        beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeField(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        endObject();
+    }
+
+    public int size() {
+
+        return count;
+    }
+
+    /**
+     * Returns a copy of the written bytes. A copy is required as the buffer is overwritten by the next event.
+     *
+     * @return written bytes
+     */
+    public byte[] toByteArray() {
+
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Appends the written JSON to the given builder, decoding the UTF-8 bytes without creating an intermediate
+     * string.
+     *
+     * @param builder builder to append to
+     */
+    public void appendTo(StringBuilder builder) {
+
+        builder.ensureCapacity(builder.length() + count);
+        int position = 0;
+        while (position < count) {
+            int b = buffer[position++];
+            if (b >= 0) {
+                builder.append((char) b);
+            } else if ((b & 0xe0) == 0xc0) {
+                builder.append((char) (((b & 0x1f) << 6) | (buffer[position++] & 0x3f)));
+            } else if ((b & 0xf0) == 0xe0) {
+                builder.append((char) (((b & 0x0f) << 12) | ((buffer[position++] & 0x3f) << 6)
+                        | (buffer[position++] & 0x3f)));
+            } else {
+                builder.appendCodePoint(((b & 0x07) << 18) | ((buffer[position++] & 0x3f) << 12)
+                        | ((buffer[position++] & 0x3f) << 6) | (buffer[position++] & 0x3f));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return new String(buffer, 0, count, StandardCharsets.UTF_8);
+    }
+
+    private void writeFieldSeparator() {
+
+        if (firstField) {
+            firstField = false;
+        } else {
+            writeByte(',');
+        }
+    }
+
+    private void writeValue(Object value) {
+
+        if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            writeBytes((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Number) {
+            Number number = (Number) value;
+            if ((number instanceof Double || number instanceof Float)
+                    && (Double.isNaN(number.doubleValue()) || Double.isInfinite(number.doubleValue()))) {
+                throw new IllegalArgumentException("Numeric values must be finite, but was " + number);
+            }
+            writeAscii(number.toString());
+        } else if (value instanceof Map) {
+            boolean enclosingFirstField = firstField;
+            writeObject((Map<?, ?>) value);
+            firstField = enclosingFirstField;
+        } else if (value instanceof Iterable) {
+            writeArray(((Iterable<?>) value).iterator());
+        } else {
+            writeString(String.valueOf(value));
+        }
+    }
+
+    private void writeArray(Iterator<?> elements) {
+
+        boolean enclosingFirstField = firstField;
+        writeByte('[');
+        boolean first = true;
+        while (elements.hasNext()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            Object element = elements.next();
+            if (element == null) {
+                writeBytes(NULL);
+            } else {
+                writeValue(element);
+            }
+        }
+        writeByte(']');
+        firstField = enclosingFirstField;
+    }
+
+    private void writeLong(long value) {
+
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        int position = count + digits;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        count += digits;
+    }
+
+    private void writeString(String value) {
+
+        // Worst case is six bytes per character, for characters written as unicode escapes.
+        ensureCapacity(value.length() * 6 + 2);
+        byte[] bytes = buffer;
+        int position = count;
+        bytes[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '"':
+                    case '\\':
+                        bytes[position++] = '\\';
+                        bytes[position++] = (byte) c;
+                        break;
+                    case '\n':
+                        bytes[position++] = '\\';
+                        bytes[position++] = 'n';
+                        break;
+                    case '\r':
+                        bytes[position++] = '\\';
+                        bytes[position++] = 'r';
+                        break;
+                    case '\t':
+                        bytes[position++] = '\\';
+                        bytes[position++] = 't';
+                        break;
+                    case '\b':
+                        bytes[position++] = '\\';
+                        bytes[position++] = 'b';
+                        break;
+                    case '\f':
+                        bytes[position++] = '\\';
+                        bytes[position++] = 'f';
+                        break;
+                    case '<':
+                    case '>':
+                    case '&':
+                    case '=':
+                    case '\'':
+                        position = writeUnicodeEscape(bytes, position, c);
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            position = writeUnicodeEscape(bytes, position, c);
+                        } else {
+                            bytes[position++] = (byte) c;
+                        }
+                }
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xc0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else {
+                    // Unpaired surrogates are replaced as done by String.getBytes.
+                    bytes[position++] = '?';
+                }
+            } else if (c == '\u2028' || c == '\u2029') {
+                position = writeUnicodeEscape(bytes, position, c);
+            } else {
+                bytes[position++] = (byte) (0xe0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        bytes[position++] = '"';
+        count = position;
+    }
+
+    private static int writeUnicodeEscape(byte[] bytes, int position, char c) {
+
+        bytes[position++] = '\\';
+        bytes[position++] = 'u';
+        bytes[position++] = HEX_DIGITS[(c >> 12) & 0xf];
+        bytes[position++] = HEX_DIGITS[(c >> 8) & 0xf];
+        bytes[position++] = HEX_DIGITS[(c >> 4) & 0xf];
+        bytes[position++] = HEX_DIGITS[c & 0xf];
+        return position;
+    }
+
+    private void writeAscii(String value) {
+
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[count++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) {
+
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void writeByte(char c) {
+
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void ensureCapacity(int additional) {
+
+        int required = count + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
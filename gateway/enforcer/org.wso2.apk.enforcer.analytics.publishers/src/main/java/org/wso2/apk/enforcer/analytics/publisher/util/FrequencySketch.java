@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch with 4 bit counters, used to estimate how often a key has been requested.
+ * <p>
+ * Every key maps to one counter in each of four rows. The estimate is the smallest of the four counters, so it may
+ * be higher than the real count but never lower. Once the number of increments reaches ten times the number of
+ * counters in a row, all counters are halved, so that keys which were popular in the past but are no longer
+ * requested fade out. Updates are lock free; an update lost to a concurrent halving only costs accuracy.
+ */
+public class FrequencySketch {
+
+    private static final int ROWS = 4;
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long HALVING_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+
+    private final AtomicLongArray table;
+    private final int rowMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * Creates a sketch for the given number of keys.
+     *
+     * @param maximumSize number of keys expected to be tracked, usually the capacity of the cache
+     */
+    public FrequencySketch(int maximumSize) {
+
+        int counters = Integer.highestOneBit(Math.max(maximumSize, COUNTERS_PER_WORD) - 1) << 1;
+        this.table = new AtomicLongArray(counters * ROWS / COUNTERS_PER_WORD);
+        this.rowMask = counters - 1;
+        this.sampleSize = (int) Math.min(10L * counters, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the estimated number of times the key with the given hash has been requested, up to 15.
+     *
+     * @param hash hash code of the key
+     * @return estimated frequency
+     */
+    public int frequency(int hash) {
+
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            int index = index(hash, row);
+            int counter = (int) ((table.get(index / COUNTERS_PER_WORD) >>> shift(index)) & COUNTER_MASK);
+            frequency = Math.min(frequency, counter);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records a request of the key with the given hash.
+     *
+     * @param hash hash code of the key
+     */
+    public void increment(int hash) {
+
+        boolean added = false;
+        for (int row = 0; row < ROWS; row++) {
+            added |= incrementAt(index(hash, row));
+        }
+        if (added && additions.incrementAndGet() >= sampleSize) {
+            halve();
+        }
+    }
+
+    private boolean incrementAt(int index) {
+
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long current = table.get(word);
+            if (((current >>> shift) & COUNTER_MASK) == COUNTER_MASK) {
+                return false;
+            }
+            if (table.compareAndSet(word, current, current + (1L << shift))) {
+                return true;
+            }
+        }
+    }
+
+    private void halve() {
+
+        // Only the thread which resets the count halves the counters.
+        int current = additions.get();
+        if (current < sampleSize || !additions.compareAndSet(current, current / 2)) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            while (true) {
+                long word = table.get(i);
+                if (table.compareAndSet(i, word, (word >>> 1) & HALVING_MASK)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int index(int hash, int row) {
+
+        long mixed = (hash + SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+        mixed ^= mixed >>> 32;
+        // Each row owns a contiguous range of counters.
+        return row * (rowMask + 1) + ((int) mixed & rowMask);
+    }
+
+    private static int shift(int index) {
+
+        return (index % COUNTERS_PER_WORD) * 4;
+    }
+}
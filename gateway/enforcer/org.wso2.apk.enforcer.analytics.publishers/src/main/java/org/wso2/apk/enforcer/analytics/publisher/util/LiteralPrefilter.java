@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds which of a set of literals occur in a text with a single pass, using an Aho-Corasick automaton.
+ * <p>
+ * Used to skip the regular expressions which cannot match a text: {@link #requiredLiteral(String)} extracts a literal
+ * which every match of a regular expression contains, and a regular expression only needs to be evaluated if its
+ * literal occurs in the text. Matching is ASCII case insensitive, hence it finds a superset of the literals a case
+ * sensitive regular expression would require.
+ */
+public class LiteralPrefilter {
+
+    private static final int MIN_LITERAL_LENGTH = 2;
+    private static final int ASCII_LIMIT = 128;
+    private static final int[] NO_OUTPUTS = new int[0];
+
+    private final int[] charClasses = new int[ASCII_LIMIT];
+    private final int alphabetSize;
+    // Transition table of the automaton: transitions[state * alphabetSize + charClass] -> next state
+    private final int[] transitions;
+    // Literals which end at each state, including the ones ending at its suffixes
+    private final int[][] outputs;
+    private final int literalCount;
+
+    /**
+     * Builds the automaton of the given literals. The ID of a literal is its index in the list.
+     *
+     * @param literals ASCII literals
+     */
+    public LiteralPrefilter(List<String> literals) {
+
+        this.literalCount = literals.size();
+        // Characters which do not occur in any literal share class 0.
+        int classes = 1;
+        for (String literal : literals) {
+            for (int i = 0; i < literal.length(); i++) {
+                char c = fold(literal.charAt(i));
+                if (c >= ASCII_LIMIT) {
+                    throw new IllegalArgumentException("Literal is not ASCII: " + literal);
+                }
+                if (charClasses[c] == 0) {
+                    charClasses[c] = classes++;
+                }
+            }
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            charClasses[c] = charClasses[fold(c)];
+        }
+        this.alphabetSize = classes;
+
+        // Trie of the literals
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(newNode(classes));
+        ends.add(new ArrayList<>());
+        for (int id = 0; id < literals.size(); id++) {
+            String literal = literals.get(id);
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                int charClass = charClasses[literal.charAt(i)];
+                if (children.get(state)[charClass] < 0) {
+                    children.get(state)[charClass] = children.size();
+                    children.add(newNode(classes));
+                    ends.add(new ArrayList<>());
+                }
+                state = children.get(state)[charClass];
+            }
+            ends.get(state).add(id);
+        }
+
+        // Breadth first construction of the failure links, folded into a full transition table.
+        int stateCount = children.size();
+        this.transitions = new int[stateCount * classes];
+        this.outputs = new int[stateCount][];
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        outputs[0] = toArray(ends.get(0), NO_OUTPUTS);
+        for (int charClass = 0; charClass < classes; charClass++) {
+            int child = children.get(0)[charClass];
+            if (child < 0) {
+                transitions[charClass] = 0;
+            } else {
+                transitions[charClass] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = toArray(ends.get(state), outputs[failure[state]]);
+            for (int charClass = 0; charClass < classes; charClass++) {
+                int child = children.get(state)[charClass];
+                int fallback = transitions[failure[state] * classes + charClass];
+                if (child < 0) {
+                    transitions[state * classes + charClass] = fallback;
+                } else {
+                    transitions[state * classes + charClass] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns which literals occur in the given text.
+     *
+     * @param text text to search
+     * @return flags indexed by literal ID
+     */
+    public boolean[] match(String text) {
+
+        boolean[] found = new boolean[literalCount];
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int charClass = c < ASCII_LIMIT ? charClasses[c] : 0;
+            state = transitions[state * alphabetSize + charClass];
+            for (int id : outputs[state]) {
+                found[id] = true;
+            }
+        }
+        return found;
+    }
+
+    public int getStateCount() {
+
+        return outputs.length;
+    }
+
+    /**
+     * Returns the longest literal which occurs in every match of the given regular expression, lower cased. The
+     * expression is only analysed as far as needed to be sure of the result: alternations, optional parts, character
+     * classes and escapes end a literal, and an expression using a construct which is not understood has no literal.
+     *
+     * @param regex regular expression
+     * @return required literal, or null if none is found
+     */
+    public static String requiredLiteral(String regex) {
+
+        List<String> literals = new ArrayList<>();
+        try {
+            RegexScanner scanner = new RegexScanner(regex);
+            if (!scanner.sequence(literals) || scanner.pos != regex.length()) {
+                return null;
+            }
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+        String longest = null;
+        for (String literal : literals) {
+            if (literal.length() >= MIN_LITERAL_LENGTH && (longest == null || literal.length() > longest.length())) {
+                longest = literal;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Assigns IDs to the distinct literals of the given list.
+     *
+     * @param literals literals, may contain nulls and duplicates
+     * @param ids      receives the ID of each distinct literal
+     * @return distinct literals in the order of their IDs
+     */
+    public static List<String> distinct(List<String> literals, Map<String, Integer> ids) {
+
+        List<String> distinct = new ArrayList<>();
+        for (String literal : literals) {
+            if (literal != null && !ids.containsKey(literal)) {
+                ids.put(literal, distinct.size());
+                distinct.add(literal);
+            }
+        }
+        return distinct;
+    }
+
+    private static int[] newNode(int classes) {
+
+        int[] node = new int[classes];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] merged = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int i = 0; i < own.size(); i++) {
+            merged[inherited.length + i] = own.get(i);
+        }
+        return merged;
+    }
+
+    private static char fold(char c) {
+
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Recursive descent over a regular expression which collects the literal runs every match must contain.
+     */
+    private static final class RegexScanner {
+
+        private final String regex;
+        private int pos;
+
+        private RegexScanner(String regex) {
+
+            this.regex = regex;
+        }
+
+        /**
+         * Scans a sequence up to the end of the expression or the closing parenthesis of the current group.
+         *
+         * @param literals receives the required literals of the sequence
+         * @return false if the sequence has an alternation, in which case no literal is added
+         */
+        private boolean sequence(List<String> literals) {
+
+            List<String> found = new ArrayList<>();
+            StringBuilder run = new StringBuilder();
+            boolean alternation = false;
+            while (pos < regex.length() && regex.charAt(pos) != ')') {
+                char c = regex.charAt(pos);
+                if (c == '|') {
+                    alternation = true;
+                    pos++;
+                    flush(run, found);
+                } else if (c == '(') {
+                    flush(run, found);
+                    group(found);
+                } else if (c == '[') {
+                    flush(run, found);
+                    skipClass();
+                    quantifier();
+                } else if (c == '.' || c == '^' || c == '$') {
+                    flush(run, found);
+                    pos++;
+                    quantifier();
+                } else if (c == '\\') {
+                    char escaped = regex.charAt(pos + 1);
+                    pos += 2;
+                    if (Character.isLetterOrDigit(escaped)) {
+                        skipEscape(escaped);
+                        flush(run, found);
+                        quantifier();
+                    } else {
+                        literal(escaped, run, found);
+                    }
+                } else if (c == '*' || c == '+' || c == '?' || c == '{') {
+                    throw new IllegalArgumentException("Unexpected quantifier");
+                } else {
+                    pos++;
+                    literal(c, run, found);
+                }
+            }
+            flush(run, found);
+            if (alternation) {
+                return false;
+            }
+            literals.addAll(found);
+            return true;
+        }
+
+        private void group(List<String> found) {
+
+            pos++;
+            // Non capturing groups are analysed like capturing ones. Lookarounds, flags and named groups are not.
+            boolean analysed = true;
+            if (regex.startsWith("?:", pos)) {
+                pos += 2;
+            } else if (regex.charAt(pos) == '?') {
+                analysed = false;
+            }
+            List<String> inner = new ArrayList<>();
+            boolean withoutAlternation = sequence(inner);
+            if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                throw new IllegalArgumentException("Unbalanced group");
+            }
+            pos++;
+            int min = quantifier();
+            if (analysed && withoutAlternation && min != 0) {
+                found.addAll(inner);
+            }
+        }
+
+        private void literal(char c, StringBuilder run, List<String> found) {
+
+            int min = quantifier();
+            if (c >= ASCII_LIMIT || min == 0) {
+                flush(run, found);
+                return;
+            }
+            run.append(fold(c));
+            if (min > 0) {
+                // A repeated character ends the run, as whatever follows is not adjacent to the run.
+                flush(run, found);
+            }
+        }
+
+        /**
+         * Consumes a quantifier if there is one.
+         *
+         * @return minimum number of repetitions, or -1 if there is no quantifier
+         */
+        private int quantifier() {
+
+            if (pos >= regex.length()) {
+                return -1;
+            }
+            int min;
+            char c = regex.charAt(pos);
+            if (c == '?' || c == '*') {
+                min = 0;
+                pos++;
+            } else if (c == '+') {
+                min = 1;
+                pos++;
+            } else if (c == '{') {
+                int end = regex.indexOf('}', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unbalanced quantifier");
+                }
+                String bounds = regex.substring(pos + 1, end);
+                int comma = bounds.indexOf(',');
+                min = Integer.parseInt(comma < 0 ? bounds : bounds.substring(0, comma));
+                pos = end + 1;
+            } else {
+                return -1;
+            }
+            // Lazy and possessive modifiers
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+            return min;
+        }
+
+        private void skipClass() {
+
+            pos++;
+            if (regex.charAt(pos) == '^') {
+                pos++;
+            }
+            if (regex.charAt(pos) == ']') {
+                pos++;
+            }
+            int depth = 1;
+            while (depth > 0) {
+                char c = regex.charAt(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == '[') {
+                    depth++;
+                } else if (c == ']') {
+                    depth--;
+                }
+            }
+        }
+
+        private void skipEscape(char escaped) {
+
+            if (escaped == 'Q' || escaped == 'E' || escaped == 'k') {
+                throw new IllegalArgumentException("Unsupported escape");
+            } else if (escaped == 'x') {
+                if (regex.charAt(pos) == '{') {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else {
+                    pos += 2;
+                }
+            } else if (escaped == 'u') {
+                pos += 4;
+            } else if ((escaped == 'p' || escaped == 'P') && regex.charAt(pos) == '{') {
+                pos = regex.indexOf('}', pos) + 1;
+            } else if (escaped == '0') {
+                while (pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7') {
+                    pos++;
+                }
+            } else if (escaped == 'c') {
+                pos++;
+            }
+        }
+
+        private static void flush(StringBuilder run, List<String> found) {
+
+            if (run.length() > 0) {
+                found.add(run.toString());
+                run.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher.util;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import ua_parser.Client;
+import ua_parser.Device;
+import ua_parser.DeviceParser;
+import ua_parser.OS;
+import ua_parser.OSParser;
+import ua_parser.Parser;
+import ua_parser.UserAgent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User agent parser which gives the same results as {@link Parser}, but only evaluates the regular expressions whose
+ * required literal occurs in the user agent.
+ * <p>
+ * The regular expressions bundled with uap-java are loaded in their original order. A single {@link LiteralPrefilter}
+ * pass over the user agent finds the literals it contains, and the expressions are then tried in order as usual,
+ * skipping the ones which cannot match. Expressions without a usable literal are always tried, hence the first match,
+ * and so the result, stays the same.
+ */
+public class PrefilteredUserAgentParser {
+
+    private static final String REGEX_YAML_PATH = "/ua_parser/regexes.yaml";
+
+    private final UserAgentPatterns userAgentPatterns;
+    private final OSPatterns osPatterns;
+    private final DevicePatterns devicePatterns;
+    // Literal ID required by each pattern, -1 if the pattern has to be tried on every user agent
+    private final int[] userAgentLiterals;
+    private final int[] osLiterals;
+    private final int[] deviceLiterals;
+    private final LiteralPrefilter prefilter;
+
+    public PrefilteredUserAgentParser() throws IOException {
+
+        Map<String, List<Map<String, String>>> regexes;
+        try (InputStream inputStream = Parser.class.getResourceAsStream(REGEX_YAML_PATH)) {
+            if (inputStream == null) {
+                throw new IOException("User agent regexes not found at " + REGEX_YAML_PATH);
+            }
+            regexes = new Yaml(new SafeConstructor(Parser.getDefaultLoaderOptions())).load(inputStream);
+        }
+        List<Map<String, String>> userAgentConfigs = section(regexes, "user_agent_parsers");
+        List<Map<String, String>> osConfigs = section(regexes, "os_parsers");
+        List<Map<String, String>> deviceConfigs = section(regexes, "device_parsers");
+
+        Map<String, Integer> literalIds = new HashMap<>();
+        List<String> literals = new ArrayList<>();
+        this.userAgentLiterals = requiredLiterals(userAgentConfigs, literals);
+        this.osLiterals = requiredLiterals(osConfigs, literals);
+        this.deviceLiterals = requiredLiterals(deviceConfigs, literals);
+        List<String> distinctLiterals = LiteralPrefilter.distinct(literals, literalIds);
+        assignIds(userAgentLiterals, literals, literalIds);
+        assignIds(osLiterals, literals, literalIds);
+        assignIds(deviceLiterals, literals, literalIds);
+        this.prefilter = new LiteralPrefilter(distinctLiterals);
+
+        this.userAgentPatterns = new UserAgentPatterns(userAgentConfigs);
+        this.osPatterns = new OSPatterns(osConfigs);
+        this.devicePatterns = new DevicePatterns(deviceConfigs);
+    }
+
+    /**
+     * Parses the given user agent.
+     *
+     * @param userAgent user agent header
+     * @return parsed client, or null if the user agent is null
+     */
+    public Client parse(String userAgent) {
+
+        if (userAgent == null) {
+            return null;
+        }
+        boolean[] found = prefilter.match(userAgent);
+        return new Client(parseUserAgent(userAgent, found), parseOS(userAgent, found),
+                parseDevice(userAgent, found));
+    }
+
+    /**
+     * Returns the number of regular expressions which are tried on every user agent, for diagnostics.
+     *
+     * @return number of regular expressions without a required literal
+     */
+    public int getUnfilteredPatternCount() {
+
+        return countUnfiltered(userAgentLiterals) + countUnfiltered(osLiterals) + countUnfiltered(deviceLiterals);
+    }
+
+    public int getPatternCount() {
+
+        return userAgentLiterals.length + osLiterals.length + deviceLiterals.length;
+    }
+
+    private UserAgent parseUserAgent(String userAgent, boolean[] found) {
+
+        for (int i = 0; i < userAgentLiterals.length; i++) {
+            if (userAgentLiterals[i] < 0 || found[userAgentLiterals[i]]) {
+                UserAgent result = userAgentPatterns.match(i, userAgent);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return UserAgent.OTHER;
+    }
+
+    private OS parseOS(String userAgent, boolean[] found) {
+
+        for (int i = 0; i < osLiterals.length; i++) {
+            if (osLiterals[i] < 0 || found[osLiterals[i]]) {
+                OS result = osPatterns.match(i, userAgent);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return OS.OTHER;
+    }
+
+    private Device parseDevice(String userAgent, boolean[] found) {
+
+        for (int i = 0; i < deviceLiterals.length; i++) {
+            if (deviceLiterals[i] < 0 || found[deviceLiterals[i]]) {
+                String family = devicePatterns.match(i, userAgent);
+                if (family != null) {
+                    return new Device(family);
+                }
+            }
+        }
+        return Device.OTHER;
+    }
+
+    private static List<Map<String, String>> section(Map<String, List<Map<String, String>>> regexes, String name) {
+
+        List<Map<String, String>> configs = regexes == null ? null : regexes.get(name);
+        return configs == null ? Collections.emptyList() : configs;
+    }
+
+    /**
+     * Appends the required literal of each config to the given list, and returns the positions they were added at.
+     */
+    private static int[] requiredLiterals(List<Map<String, String>> configs, List<String> literals) {
+
+        int[] positions = new int[configs.size()];
+        for (int i = 0; i < configs.size(); i++) {
+            String regex = configs.get(i).get("regex");
+            positions[i] = literals.size();
+            literals.add(regex == null ? null : LiteralPrefilter.requiredLiteral(regex));
+        }
+        return positions;
+    }
+
+    /**
+     * Replaces the positions in the literal list with the IDs of the literals.
+     */
+    private static void assignIds(int[] positions, List<String> literals, Map<String, Integer> literalIds) {
+
+        for (int i = 0; i < positions.length; i++) {
+            String literal = literals.get(positions[i]);
+            positions[i] = literal == null ? -1 : literalIds.get(literal);
+        }
+    }
+
+    private static int countUnfiltered(int[] literalIds) {
+
+        int count = 0;
+        for (int literalId : literalIds) {
+            if (literalId < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The patterns of uap-java and their creation from a config are only visible to subclasses of its parsers. The
+     * subclasses are not used as parsers.
+     */
+    private static final class UserAgentPatterns extends ua_parser.UserAgentParser {
+
+        private final UAPattern[] patterns;
+
+        private UserAgentPatterns(List<Map<String, String>> configs) {
+
+            super(Collections.emptyList());
+            this.patterns = new UAPattern[configs.size()];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = patternFromMap(configs.get(i));
+            }
+        }
+
+        private UserAgent match(int index, String userAgent) {
+
+            return patterns[index].match(userAgent);
+        }
+    }
+
+    private static final class OSPatterns extends OSParser {
+
+        private final OSPattern[] patterns;
+
+        private OSPatterns(List<Map<String, String>> configs) {
+
+            super(Collections.emptyList());
+            this.patterns = new OSPattern[configs.size()];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = patternFromMap(configs.get(i));
+            }
+        }
+
+        private OS match(int index, String userAgent) {
+
+            return patterns[index].match(userAgent);
+        }
+    }
+
+    private static final class DevicePatterns extends DeviceParser {
+
+        private final DevicePattern[] patterns;
+
+        private DevicePatterns(List<Map<String, String>> configs) {
+
+            super(Collections.emptyList());
+            this.patterns = new DevicePattern[configs.size()];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = patternFromMap(configs.get(i));
+            }
+        }
+
+        private String match(int index, String userAgent) {
+
+            return patterns[index].match(userAgent);
+        }
+    }
+}
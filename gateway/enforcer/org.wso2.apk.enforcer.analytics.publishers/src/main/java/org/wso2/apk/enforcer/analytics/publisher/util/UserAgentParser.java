@@ -23,50 +23,137 @@ import org.slf4j.LoggerFactory;
 import ua_parser.Client;
 import ua_parser.Parser;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * User agent parser util class.
+ * <p>
+ * Parsed user agents are kept in an {@link AdmissionCache}, which can be read and updated by all the reporter
+ * threads at once, and whose size is taken from the {@link Constants#USER_AGENT_CACHE_SIZE} property. Cache misses
+ * are parsed by a {@link PrefilteredUserAgentParser} unless it is disabled with
+ * {@link Constants#USER_AGENT_PREFILTER_ENABLED}, in which case the plain uap-java {@link Parser} is used.
  */
 public class UserAgentParser {
     private static final Logger log = LoggerFactory.getLogger(UserAgentParser.class);
     private static final UserAgentParser INSTANCE = new UserAgentParser();
-    private boolean isInitialized = false;
-    private Parser uaParser;
-    private Map<String, Client> clientCache;
+    private final Parser uaParser;
+    private volatile PrefilteredUserAgentParser prefilteredParser;
+    private volatile AdmissionCache<String, Client> clientCache;
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final AtomicLong maxParseNanos = new AtomicLong();
 
     private UserAgentParser() {
         uaParser = new Parser();
-        isInitialized = true;
-        clientCache = new LinkedHashMap<String, Client>(Constants.USER_AGENT_DEFAULT_CACHE_SIZE
-                                                                + Constants.DEFAULT_WORKER_THREADS) {
-            static final int MAX = Constants.USER_AGENT_DEFAULT_CACHE_SIZE;
-            @Override
-            protected boolean removeEldestEntry(Map.Entry eldest) {
-                return size() > MAX;
-            }
-        };
+        clientCache = new AdmissionCache<>(Constants.USER_AGENT_DEFAULT_CACHE_SIZE);
     }
 
     public static UserAgentParser getInstance() {
         return INSTANCE;
     }
 
-    public Client parseUserAgent(String userAgentHeader) {
-        if (isInitialized) {
-            Client client = clientCache.get(userAgentHeader);
-            if (client == null) {
-                client = uaParser.parse(userAgentHeader);
-                clientCache.put(userAgentHeader, client);
-                log.debug("user agent added to cache. Current cache size is " + clientCache.size());
-                return client;
-            } else {
-                log.debug("User agent fetched from cache");
-                return client;
+    /**
+     * Applies the user agent cache size and prefilter settings in the given reporter properties. The cache is only
+     * replaced if its size changes.
+     *
+     * @param properties reporter properties
+     */
+    public synchronized void configure(Map<String, String> properties) {
+        int cacheSize = Constants.USER_AGENT_DEFAULT_CACHE_SIZE;
+        boolean prefilterEnabled = true;
+        if (properties != null) {
+            String size = properties.get(Constants.USER_AGENT_CACHE_SIZE);
+            if (size != null) {
+                try {
+                    cacheSize = Integer.parseInt(size.trim());
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid user agent cache size {}. Using the default {}", size,
+                            Constants.USER_AGENT_DEFAULT_CACHE_SIZE);
+                }
+            }
+            String prefilter = properties.get(Constants.USER_AGENT_PREFILTER_ENABLED);
+            if (prefilter != null) {
+                prefilterEnabled = Boolean.parseBoolean(prefilter.trim());
+            }
+        }
+        configure(cacheSize, prefilterEnabled);
+    }
+
+    /**
+     * Replaces the cache if its size changes, and builds or drops the prefilter.
+     *
+     * @param cacheSize        maximum number of cached user agents
+     * @param prefilterEnabled whether to parse with a {@link PrefilteredUserAgentParser}
+     */
+    public synchronized void configure(int cacheSize, boolean prefilterEnabled) {
+        if (cacheSize != clientCache.getMaximumSize()) {
+            clientCache = new AdmissionCache<>(cacheSize);
+        }
+        if (!prefilterEnabled) {
+            prefilteredParser = null;
+        } else if (prefilteredParser == null) {
+            try {
+                PrefilteredUserAgentParser parser = new PrefilteredUserAgentParser();
+                log.debug("User agent prefilter built. {} of {} patterns are tried on every user agent",
+                        parser.getUnfilteredPatternCount(), parser.getPatternCount());
+                prefilteredParser = parser;
+            } catch (Exception e) {
+                log.warn("Error while building the user agent prefilter. Falling back to the default parser", e);
             }
-        } else {
+        }
+    }
+
+    public Client parseUserAgent(String userAgentHeader) {
+        if (userAgentHeader == null) {
             return null;
         }
+        AdmissionCache<String, Client> cache = clientCache;
+        Client client = cache.get(userAgentHeader);
+        if (client != null) {
+            return client;
+        }
+        PrefilteredUserAgentParser parser = prefilteredParser;
+        long start = System.nanoTime();
+        client = parser != null ? parser.parse(userAgentHeader) : uaParser.parse(userAgentHeader);
+        recordParse(System.nanoTime() - start);
+        cache.put(userAgentHeader, client);
+        return client;
+    }
+
+    public double getCacheHitRatio() {
+        return clientCache.getHitRatio();
+    }
+
+    public int getCacheSize() {
+        return clientCache.size();
+    }
+
+    public long getCacheRejectionCount() {
+        return clientCache.getRejectionCount();
+    }
+
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    public double getAverageParseMillis() {
+        long count = parseCount.sum();
+        return count == 0 ? 0 : (double) parseNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxParseMillis() {
+        return (double) maxParseNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void recordParse(long nanos) {
+        parseCount.increment();
+        parseNanos.add(nanos);
+        long max = maxParseNanos.get();
+        while (nanos > max && !maxParseNanos.compareAndSet(max, nanos)) {
+            max = maxParseNanos.get();
+        }
     }
 }
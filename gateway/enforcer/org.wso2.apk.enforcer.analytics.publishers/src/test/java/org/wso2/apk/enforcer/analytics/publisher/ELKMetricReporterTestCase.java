@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricCreationException;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.CounterMetric;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricSchema;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.elk.ELKMetricReporter;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.TestUtils;
+import org.wso2.apk.enforcer.analytics.publisher.util.UnitTestAppender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class ELKMetricReporterTestCase {
+
+    @Test
+    public void testOutputFormats() throws MetricCreationException, MetricReportingException {
+
+        UnitTestAppender appender = LoggerContext.getContext(false).getConfiguration()
+                .getAppender("UnitTestAppender");
+
+        publish(new ELKMetricReporter(Collections.emptyMap()), "elk-legacy-counter");
+        publish(new ELKMetricReporter(Collections.singletonMap(Constants.ELK_OUTPUT_FORMAT,
+                Constants.ELK_OUTPUT_FORMAT_JSON)), "elk-json-counter");
+
+        List<String> messages = new ArrayList<>(appender.getMessages());
+        Assert.assertTrue(TestUtils.isContains(messages, "apimMetrics: elk-legacy-counter, properties :{"),
+                "Event is not logged in the legacy format");
+        JsonObject event = null;
+        for (String message : messages) {
+            if (message.startsWith("{\"metricName\":\"elk-json-counter\"")) {
+                event = JsonParser.parseString(message).getAsJsonObject();
+            }
+        }
+        Assert.assertNotNull(event, "Event is not logged as a JSON line");
+        Assert.assertEquals(event.get(Constants.API_NAME).getAsString(), "PizzaShack");
+        Assert.assertEquals(event.get(Constants.RESPONSE_LATENCY).getAsLong(), 2000L);
+    }
+
+    @Test(expectedExceptions = MetricCreationException.class)
+    public void testUnsupportedOutputFormat() throws MetricCreationException {
+
+        new ELKMetricReporter(Collections.singletonMap(Constants.ELK_OUTPUT_FORMAT, "xml"));
+    }
+
+    private static void publish(ELKMetricReporter reporter, String name)
+            throws MetricCreationException, MetricReportingException {
+
+        CounterMetric counterMetric = reporter.createCounterMetric(name, MetricSchema.RESPONSE);
+        MetricEventBuilder builder = counterMetric.getEventBuilder();
+        TestUtils.populateBuilder(builder);
+        builder.addAttribute(Constants.ORGANIZATION_ID, "carbon.super")
+                .addAttribute(Constants.PROPERTIES, new LinkedHashMap<String, String>());
+        counterMetric.incrementCount(builder);
+    }
+}
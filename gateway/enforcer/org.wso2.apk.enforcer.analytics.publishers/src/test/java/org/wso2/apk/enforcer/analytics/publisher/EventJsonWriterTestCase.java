@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.DefaultResponseMetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+import org.wso2.apk.enforcer.analytics.publisher.util.EventJsonWriter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EventJsonWriterTestCase {
+
+    @Test
+    public void testResponseEventMatchesEventMap() throws MetricReportingException {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.API_CONTEXT, "/pizzashack/1.0.0");
+        MetricEventBuilder builder = new DefaultResponseMetricEventBuilder()
+                .addAttribute(Constants.REQUEST_TIMESTAMP, "2024-01-01T00:00:00Z")
+                .addAttribute(Constants.CORRELATION_ID, "1234-4567")
+                .addAttribute(Constants.KEY_TYPE, "PRODUCTION")
+                .addAttribute(Constants.API_ID, "9876-54f1")
+                .addAttribute(Constants.API_TYPE, "HTTP")
+                .addAttribute(Constants.API_NAME, "Pizza \"Shack\" <v1>")
+                .addAttribute(Constants.API_VERSION, "1.0.0")
+                .addAttribute(Constants.API_CREATION, "admin")
+                .addAttribute(Constants.API_METHOD, "POST")
+                .addAttribute(Constants.API_CONTEXT, "/v1/")
+                .addAttribute(Constants.API_RESOURCE_TEMPLATE, "/order/{id}")
+                .addAttribute(Constants.API_CREATOR_TENANT_DOMAIN, "carbon.super")
+                .addAttribute(Constants.ENVIRONMENT_ID, "Development")
+                .addAttribute(Constants.DESTINATION, "http://localhost:8080")
+                .addAttribute(Constants.APPLICATION_ID, "3445-6778")
+                .addAttribute(Constants.APPLICATION_NAME, "default")
+                .addAttribute(Constants.APPLICATION_OWNER, "\u00e4dmin")
+                .addAttribute(Constants.REGION_ID, "NA")
+                .addAttribute(Constants.GATEWAY_TYPE, "APK")
+                .addAttribute(Constants.USER_AGENT_HEADER, "Mozilla/5.0 (X11; Linux x86_64) Firefox/120.0")
+                .addAttribute(Constants.USER_NAME, "admin")
+                .addAttribute(Constants.PROPERTIES, properties)
+                .addAttribute(Constants.PROXY_RESPONSE_CODE, 200)
+                .addAttribute(Constants.TARGET_RESPONSE_CODE, 200)
+                .addAttribute(Constants.RESPONSE_CACHE_HIT, false)
+                .addAttribute(Constants.RESPONSE_LATENCY, 20L)
+                .addAttribute(Constants.BACKEND_LATENCY, 15L)
+                .addAttribute(Constants.REQUEST_MEDIATION_LATENCY, 2L)
+                .addAttribute(Constants.RESPONSE_MEDIATION_LATENCY, 1L)
+                .addAttribute(Constants.USER_IP, "127.0.0.1");
+        EventJsonWriter writer = new EventJsonWriter();
+        writer.beginObject();
+        writer.writeField("ignored", "value");
+        writer.endObject();
+        writer.reset();
+
+        builder.writeTo(writer);
+
+        String expected = new Gson().toJson(builder.build());
+        Assert.assertEquals(JsonParser.parseString(writer.toString()), JsonParser.parseString(expected));
+        Assert.assertEquals(builder.build().get(Constants.API_CONTEXT), "/pizzashack/1.0.0");
+        Assert.assertEquals(writer.size(), writer.toByteArray().length);
+    }
+
+    @Test
+    public void testEncodingMatchesGson() {
+
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("list", Arrays.asList(1, "two", null, 3.5));
+        nested.put("empty", new HashMap<>());
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("text", "quote\" backslash\\ tab\t newline\n control\u0001 html<>&='");
+        event.put("unicode", "\u00e9 \u20ac \uD83D\uDE00 \u2028\u2029");
+        event.put("missing", null);
+        event.put("int", -42);
+        event.put("long", Long.MIN_VALUE);
+        event.put("double", 0.1);
+        event.put("flag", true);
+        event.put("nested", nested);
+        event.put("last", "");
+
+        EventJsonWriter writer = new EventJsonWriter();
+        writer.writeObject(event);
+
+        Assert.assertEquals(writer.toString(), new Gson().toJson(event));
+        StringBuilder appended = new StringBuilder("line: ");
+        writer.appendTo(appended);
+        Assert.assertEquals(appended.toString(), "line: " + writer);
+    }
+}
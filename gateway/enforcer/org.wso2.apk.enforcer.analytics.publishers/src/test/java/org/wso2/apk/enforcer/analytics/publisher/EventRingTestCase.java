@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.EventRing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Unit tests of the ring used to queue analytics events.
+ */
+public class EventRingTestCase {
+
+    @Test
+    public void testCapacity() {
+
+        EventRing<Integer> ring = new EventRing<>(5);
+        Assert.assertEquals(ring.capacity(), 8);
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(ring.offer(i));
+        }
+        Assert.assertFalse(ring.offer(8), "Full ring accepted an event");
+        Assert.assertEquals(ring.size(), 8);
+
+        Assert.assertEquals(ring.poll(), Integer.valueOf(0));
+        Assert.assertTrue(ring.offer(8));
+        for (int i = 1; i <= 8; i++) {
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+        }
+        Assert.assertNull(ring.poll());
+        Assert.assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+
+        int producerCount = 4;
+        int eventsPerProducer = 10000;
+        EventRing<long[]> ring = new EventRing<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < eventsPerProducer; i++) {
+                    long[] event = {producer, i};
+                    while (!ring.offer(event)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        start.countDown();
+        long[] nextExpected = new long[producerCount];
+        int received = 0;
+        while (received < producerCount * eventsPerProducer) {
+            long[] event = ring.poll();
+            if (event == null) {
+                Thread.yield();
+                continue;
+            }
+            // Events of a producer must be consumed in the order they were offered.
+            Assert.assertEquals(event[1], nextExpected[(int) event[0]]);
+            nextExpected[(int) event[0]]++;
+            received++;
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        Assert.assertTrue(ring.isEmpty());
+    }
+}
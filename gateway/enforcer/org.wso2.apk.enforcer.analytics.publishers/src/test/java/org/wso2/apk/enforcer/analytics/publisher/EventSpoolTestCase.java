@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.EventSpool;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests of the disk spool of analytics events.
+ */
+public class EventSpoolTestCase {
+
+    private static final int SEGMENT_SIZE = 256;
+    private static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void testReplayInOrderAcrossSegmentsAndRestarts() throws Exception {
+
+        Path directory = Files.createTempDirectory("event-spool");
+        EventSpool spool = new EventSpool(directory, 16 * SEGMENT_SIZE, MAX_AGE_MILLIS, SEGMENT_SIZE);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(spool.append(event(i)));
+        }
+        Assert.assertEquals(spool.getPendingEventCount(), 20);
+        Assert.assertTrue(spool.getDiskUsageBytes() > SEGMENT_SIZE);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(new String(spool.peek(), StandardCharsets.UTF_8), "event-" + i);
+            spool.remove();
+        }
+
+        // Consumed events are not replayed by the next process, and new events go after the recovered ones.
+        spool = new EventSpool(directory, 16 * SEGMENT_SIZE, MAX_AGE_MILLIS, SEGMENT_SIZE);
+        Assert.assertEquals(spool.getPendingEventCount(), 15);
+        Assert.assertTrue(spool.append(event(20)));
+        for (int i = 5; i <= 20; i++) {
+            Assert.assertEquals(new String(spool.peek(), StandardCharsets.UTF_8), "event-" + i);
+            spool.remove();
+        }
+        Assert.assertNull(spool.peek());
+        Assert.assertTrue(spool.isEmpty());
+        Assert.assertEquals(spool.getReplayLagMillis(), 0);
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+
+        EventSpool spool = new EventSpool(Files.createTempDirectory("event-spool"), 2 * SEGMENT_SIZE,
+                MAX_AGE_MILLIS, SEGMENT_SIZE);
+        int appended = 0;
+        while (spool.append(event(appended))) {
+            appended++;
+        }
+        Assert.assertTrue(appended > 0);
+        Assert.assertEquals(spool.getRejectedEventCount(), 1);
+        Assert.assertEquals(spool.getDiskUsageBytes(), 2L * SEGMENT_SIZE);
+        Assert.assertFalse(spool.append(new byte[SEGMENT_SIZE]), "Event larger than a segment was spooled");
+
+        EventSpool expiring = new EventSpool(Files.createTempDirectory("event-spool"), 2 * SEGMENT_SIZE, 1,
+                SEGMENT_SIZE);
+        Assert.assertTrue(expiring.append(event(0)));
+        Thread.sleep(10);
+        Assert.assertNull(expiring.peek());
+        Assert.assertEquals(expiring.getExpiredEventCount(), 1);
+        Assert.assertTrue(expiring.isEmpty());
+    }
+
+    @Test
+    public void testSingleSegmentSpoolReclaimsExpiredEvents() throws Exception {
+
+        // A spool of a single segment still gets a second one, so that the expired head can be reclaimed.
+        EventSpool spool = new EventSpool(Files.createTempDirectory("event-spool"), SEGMENT_SIZE, 1, SEGMENT_SIZE);
+        int appended = 0;
+        while (spool.append(event(appended))) {
+            appended++;
+        }
+        Thread.sleep(10);
+        Assert.assertTrue(spool.append(event(appended)));
+        Assert.assertTrue(spool.getExpiredEventCount() > 0);
+    }
+
+    private static byte[] event(int index) {
+
+        return ("event-" + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
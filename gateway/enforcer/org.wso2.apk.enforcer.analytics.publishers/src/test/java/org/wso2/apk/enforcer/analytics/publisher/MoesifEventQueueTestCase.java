@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import com.moesif.api.models.EventModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.client.MoesifBatchClient;
+import org.wso2.apk.enforcer.analytics.publisher.client.MoesifClient;
+import org.wso2.apk.enforcer.analytics.publisher.exception.MetricReportingException;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.moesif.EventQueue;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.moesif.MoesifMetricEventBuilder;
+import org.wso2.apk.enforcer.analytics.publisher.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests of the per organization budget of the Moesif event queue and the batching of Moesif events.
+ */
+public class MoesifEventQueueTestCase {
+
+    @Test
+    public void testOrganizationBudget() throws Exception {
+
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MoesifClient blockingClient = new MoesifClient((organization, environment) -> "key") {
+            @Override
+            public void publish(MetricEventBuilder builder) {
+
+                taken.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                complete(((MoesifMetricEventBuilder) builder).getOrganizationId(), 1);
+            }
+        };
+        EventQueue queue = new EventQueue(100, 1, blockingClient, 2);
+        queue.put(newBuilder("org1"));
+        Assert.assertTrue(taken.await(5, TimeUnit.SECONDS));
+
+        // The only worker is busy, hence the events stay in the queue. The event held by the client still counts
+        // against the budget.
+        for (int i = 0; i < 5; i++) {
+            queue.put(newBuilder("org1"));
+        }
+        queue.put(newBuilder("org2"));
+        Assert.assertEquals(queue.getQueuedEventCount("org1"), 2);
+        Assert.assertEquals(queue.getDroppedEventCount("org1"), 4);
+        Assert.assertEquals(queue.getQueuedEventCount("org2"), 1);
+        Assert.assertEquals(queue.getDroppedEventCount("org2"), 0);
+
+        // The budget is released once the client completes the events.
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((queue.getQueuedEventCount("org1") > 0 || queue.getQueuedEventCount("org2") > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(queue.getQueuedEventCount("org1"), 0);
+        Assert.assertEquals(queue.getQueuedEventCount("org2"), 0);
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+
+        List<Integer> sentBatchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch flushed = new CountDownLatch(1);
+        MoesifBatchClient client = new MoesifBatchClient((organization, environment) -> "key", 3, 100) {
+            @Override
+            protected EventModel buildEventResponse(Map<String, Object> data) {
+
+                return new EventModel();
+            }
+
+            @Override
+            protected void send(String orgId, String environment, List<EventModel> events, int attempt) {
+
+                sentBatchSizes.add(events.size());
+                if (events.size() < 3) {
+                    flushed.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < 4; i++) {
+            client.publish(newBuilder("org1"));
+        }
+        // The first three events fill a batch, the last one is sent once the flush interval passes.
+        Assert.assertEquals(sentBatchSizes.size(), 1);
+        Assert.assertEquals(sentBatchSizes.get(0), Integer.valueOf(3));
+        Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(sentBatchSizes.get(1), Integer.valueOf(1));
+    }
+
+    private static MetricEventBuilder newBuilder(String organization) throws MetricReportingException {
+
+        return new MoesifMetricEventBuilder(new HashMap<>())
+                .addAttribute(Constants.ORGANIZATION_ID, organization);
+    }
+}
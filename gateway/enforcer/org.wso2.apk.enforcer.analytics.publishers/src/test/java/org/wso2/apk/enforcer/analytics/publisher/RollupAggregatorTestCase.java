@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.rollup.RollupAggregator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests of the aggregation of the rollup reporter.
+ */
+public class RollupAggregatorTestCase {
+
+    @Test
+    public void testRollup() {
+
+        RollupAggregator aggregator = new RollupAggregator(100, 0.02);
+        for (int i = 1; i <= 1000; i++) {
+            aggregator.record("api1", "PizzaAPI", "GET /menu", "app1", 200, i);
+        }
+        aggregator.record("api1", "PizzaAPI", "GET /menu", "app1", 503, 30000);
+        aggregator.record("api1", "PizzaAPI", "GET /menu", "app1", 0, 5);
+
+        List<Map<String, Object>> records = new ArrayList<>();
+        Assert.assertEquals(aggregator.flush(records::add), 3);
+        Map<String, Object> success = find(records, "2xx");
+        Assert.assertEquals(success.get("apiName"), "PizzaAPI");
+        Assert.assertEquals(success.get("apiResource"), "GET /menu");
+        Assert.assertEquals(success.get("count"), 1000L);
+        Assert.assertEquals(success.get("latencyAverage"), 500L);
+        Assert.assertEquals(success.get("latencyMax"), 1000L);
+        assertWithin((Long) success.get("latencyP50"), 500, 0.02);
+        assertWithin((Long) success.get("latencyP99"), 990, 0.02);
+        assertWithin((Long) find(records, "5xx").get("latencyP99"), 30000, 0.02);
+        Assert.assertEquals(find(records, "unknown").get("count"), 1L);
+
+        // Counts are reset by a flush, and keys without events are dropped by the next one.
+        aggregator.record("api1", "PizzaAPI", "GET /menu", "app1", 201, 10);
+        records.clear();
+        Assert.assertEquals(aggregator.flush(records::add), 1);
+        Assert.assertEquals(find(records, "2xx").get("count"), 1L);
+        Assert.assertEquals(aggregator.getKeyCount(), 1);
+    }
+
+    @Test
+    public void testKeyLimit() {
+
+        RollupAggregator aggregator = new RollupAggregator(2, 0.02);
+        for (int i = 0; i < 5; i++) {
+            aggregator.record("api" + i, "API" + i, "GET /", "app", 200, 10);
+        }
+        Assert.assertEquals(aggregator.getKeyCount(), 3);
+        Assert.assertEquals(aggregator.getOverflowedEventCount(), 3);
+        List<Map<String, Object>> records = new ArrayList<>();
+        aggregator.flush(records::add);
+        long overflowCount = 0;
+        for (Map<String, Object> record : records) {
+            if (RollupAggregator.OVERFLOW_KEY.equals(record.get("apiId"))) {
+                overflowCount += (Long) record.get("count");
+            }
+        }
+        Assert.assertEquals(overflowCount, 3);
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+
+        RollupAggregator aggregator = new RollupAggregator(100, 0.02);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    aggregator.record("api1", "PizzaAPI", "GET /menu", "app1", 200, i + offset);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // The stripes of all the threads are merged into a single record.
+        List<Map<String, Object>> records = new ArrayList<>();
+        Assert.assertEquals(aggregator.flush(records::add), 1);
+        Assert.assertEquals(records.get(0).get("count"), 80000L);
+        Assert.assertEquals(records.get(0).get("latencyMax"), 10007L);
+        assertWithin((Long) records.get(0).get("latencyP50"), 5004, 0.02);
+    }
+
+    private static Map<String, Object> find(List<Map<String, Object>> records, String statusClass) {
+
+        for (Map<String, Object> record : records) {
+            if (statusClass.equals(record.get("statusClass"))) {
+                return record;
+            }
+        }
+        throw new AssertionError("No record of status class " + statusClass);
+    }
+
+    private static void assertWithin(long actual, long expected, double relativeAccuracy) {
+
+        Assert.assertTrue(Math.abs(actual - expected) <= expected * relativeAccuracy,
+                actual + " is not within " + relativeAccuracy + " of " + expected);
+    }
+}
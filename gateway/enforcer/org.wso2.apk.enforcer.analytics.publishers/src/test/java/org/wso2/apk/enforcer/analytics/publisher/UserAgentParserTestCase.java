@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.apk.enforcer.analytics.publisher.util.AdmissionCache;
+import org.wso2.apk.enforcer.analytics.publisher.util.LiteralPrefilter;
+import org.wso2.apk.enforcer.analytics.publisher.util.PrefilteredUserAgentParser;
+import ua_parser.Client;
+import ua_parser.Parser;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests of the user agent parse cache and the prefiltered parser.
+ */
+public class UserAgentParserTestCase {
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                    + "Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+                    + "Version/17.1 Safari/605.1.15",
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+                    + "Version/17.1 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) "
+                    + "Chrome/120.0.6099.144 Mobile Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                    + "Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+            "Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)",
+            "Mozilla/5.0 (iPad; CPU OS 16_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+                    + "CriOS/119.0.6045.169 Mobile/15E148 Safari/604.1",
+            "Mozilla/4.0 (compatible; MSIE 8.0; Windows NT 6.1; Trident/4.0)",
+            "Opera/9.80 (Windows NT 6.1; U; en) Presto/2.10.289 Version/12.02",
+            "Dalvik/2.1.0 (Linux; U; Android 11; Redmi Note 8 Pro MIUI/V12.5.4.0.RGGMIXM)",
+            "curl/8.4.0",
+            "PostmanRuntime/7.36.0",
+            "okhttp/4.12.0",
+            "Apache-HttpClient/4.5.14 (Java/17.0.9)",
+            "python-requests/2.31.0",
+            "MOZILLA/5.0 (WINDOWS NT 10.0) CHROME/120.0",
+            "Mozilla/5.0 (SMART-TV; Linux; Tizen 6.0) AppleWebKit/538.1 (KHTML, like Gecko) Version/6.0 TV "
+                    + "Safari/538.1",
+            "Mozilla/5.0 (Linux; Android 10; K) AppleWebKit/537.36 (KHTML, like Gecko) "
+                    + "SamsungBrowser/23.0 Chrome/115.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64; Trident/7.0; rv:11.0) like Gecko",
+            "M\u00f6zilla/5.0 (W\u00edndows) Navegador/1.0",
+            "",
+            "-"
+    };
+
+    @Test
+    public void testPrefilteredParserMatchesDefaultParser() throws Exception {
+
+        Parser parser = new Parser();
+        PrefilteredUserAgentParser prefilteredParser = new PrefilteredUserAgentParser();
+        Assert.assertTrue(prefilteredParser.getUnfilteredPatternCount() < prefilteredParser.getPatternCount() / 2,
+                "Most patterns should have a required literal");
+        for (String userAgent : USER_AGENTS) {
+            Client expected = parser.parse(userAgent);
+            Client actual = prefilteredParser.parse(userAgent);
+            Assert.assertEquals(actual.userAgent, expected.userAgent, userAgent);
+            Assert.assertEquals(actual.os, expected.os, userAgent);
+            Assert.assertEquals(actual.device, expected.device, userAgent);
+        }
+        Assert.assertNull(prefilteredParser.parse(null));
+    }
+
+    @Test
+    public void testRequiredLiteral() {
+
+        Assert.assertEquals(LiteralPrefilter.requiredLiteral("(Googlebot)/(\\d+)\\.(\\d+)"), "googlebot");
+        Assert.assertEquals(LiteralPrefilter.requiredLiteral("(?:Mobile Safari).*(OPR)/(\\d+)"), "mobile safari");
+        Assert.assertEquals(LiteralPrefilter.requiredLiteral("Edge?/(\\d+)"), "edg");
+        Assert.assertEquals(LiteralPrefilter.requiredLiteral("\\(iPad; CPU OS"), "(ipad; cpu os");
+        Assert.assertNull(LiteralPrefilter.requiredLiteral("(Firefox|Chrome)/(\\d+)"));
+        Assert.assertNull(LiteralPrefilter.requiredLiteral("(?:Firefox)?/(\\d+)"));
+        Assert.assertNull(LiteralPrefilter.requiredLiteral("[A-Z]\\d"));
+
+        LiteralPrefilter prefilter = new LiteralPrefilter(Arrays.asList("safari", "fari", "mobile"));
+        boolean[] found = prefilter.match("Mozilla/5.0 Mobile SAFARI");
+        Assert.assertTrue(found[0]);
+        Assert.assertTrue(found[1]);
+        Assert.assertTrue(found[2]);
+        found = prefilter.match("Mozilla/5.0 Safar mobil");
+        Assert.assertFalse(found[0], "safari should not be found");
+        Assert.assertFalse(found[2], "mobile should not be found");
+    }
+
+    @Test
+    public void testAdmissionCache() {
+
+        AdmissionCache<String, String> cache = new AdmissionCache<>(1);
+        Assert.assertNull(cache.get("frequent"));
+        Assert.assertTrue(cache.put("frequent", "1"));
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(cache.get("frequent"), "1");
+        }
+        // A key requested once cannot replace a key requested several times.
+        Assert.assertNull(cache.get("rare"));
+        Assert.assertFalse(cache.put("rare", "2"), "Rare key was admitted");
+        Assert.assertEquals(cache.get("frequent"), "1");
+        Assert.assertEquals(cache.getRejectionCount(), 1);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("popular");
+        }
+        Assert.assertTrue(cache.put("popular", "3"));
+        Assert.assertEquals(cache.get("popular"), "3");
+        Assert.assertNull(cache.get("frequent"));
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+    }
+}
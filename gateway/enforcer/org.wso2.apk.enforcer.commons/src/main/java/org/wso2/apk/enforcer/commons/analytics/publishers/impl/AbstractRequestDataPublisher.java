@@ -54,8 +54,6 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
             if (counterMetric == null) {
                 log.error("counterMetric cannot be null.");
             } else {
-                String counterMetricClassName = counterMetric.getClass().toString().
-                        replaceAll("[\r\n]", "").split(" ")[1];
                 boolean caughtException = false;
                 MetricEventBuilder builder = counterMetric.getEventBuilder();
                 for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
@@ -63,8 +61,8 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
                         builder.addAttribute(entry.getKey(), entry.getValue());
                     } catch (MetricReportingException e) {
                         caughtException = true;
-                        log.error("Error adding data to the event stream. counterMetric: " + counterMetricClassName
-                                , e);
+                        log.error("Error adding data to the event stream. counterMetric: "
+                                + counterMetric.getClass().getName(), e);
                         break;
                     }
                 }
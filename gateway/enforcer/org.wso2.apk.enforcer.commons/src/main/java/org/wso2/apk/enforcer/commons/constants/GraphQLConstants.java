@@ -32,6 +32,12 @@ public class GraphQLConstants {
     public static final String GRAPHQL_QUERY = "Query";
     public static final String GRAPHQL_MUTATION = "Mutation";
     public static final String GRAPHQL_SUBSCRIPTION = "Subscription";
+    public static final String GRAPHQL_EXTENSIONS = "extensions";
+    public static final String PERSISTED_QUERY = "persistedQuery";
+    public static final String PERSISTED_QUERY_HASH = "sha256Hash";
+    public static final String PERSISTED_QUERY_VERSION = "version";
+    public static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+    public static final String PERSISTED_QUERY_NOT_FOUND_CODE = "PERSISTED_QUERY_NOT_FOUND";
 
     public static final int GRAPHQL_QUERY_TOO_DEEP = 900820;
     public static final String GRAPHQL_QUERY_TOO_DEEP_MESSAGE = "QUERY TOO DEEP";
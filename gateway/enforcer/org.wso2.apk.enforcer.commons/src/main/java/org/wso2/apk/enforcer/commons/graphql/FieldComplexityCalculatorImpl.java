@@ -27,10 +27,14 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.wso2.apk.enforcer.commons.constants.GraphQLConstants;
+import org.wso2.apk.enforcer.commons.model.GraphQLCustomComplexityInfoDTO;
 
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Implementation for GraphQL query field complexity calculator.
@@ -38,18 +42,43 @@ import java.util.Locale;
 public class FieldComplexityCalculatorImpl implements FieldComplexityCalculator {
 
     private static final Log log = LogFactory.getLog(FieldComplexityCalculatorImpl.class);
-    protected JSONParser jsonParser = new JSONParser();
-    protected JSONObject policyDefinition;
+    // Custom complexity values keyed by the type name and then by the field name.
+    private final Map<String, Map<String, Integer>> customComplexities = new HashMap<>();
 
     public FieldComplexityCalculatorImpl(String accessControlPolicy) throws ParseException {
-        if (accessControlPolicy == null) {
-            policyDefinition = new JSONObject();
-        } else {
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(accessControlPolicy);
-            policyDefinition = (JSONObject) jsonObject.get(GraphQLConstants.QUERY_ANALYSIS_COMPLEXITY);
+        if (accessControlPolicy != null) {
+            JSONObject jsonObject = (JSONObject) new JSONParser().parse(accessControlPolicy);
+            JSONObject policyDefinition = (JSONObject) jsonObject.get(GraphQLConstants.QUERY_ANALYSIS_COMPLEXITY);
+            if (policyDefinition != null) {
+                for (Object type : policyDefinition.keySet()) {
+                    JSONObject fields = (JSONObject) policyDefinition.get(type);
+                    for (Object field : fields.keySet()) {
+                        addCustomComplexity((String) type, (String) field,
+                                ((Number) fields.get(field)).intValue());
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Creates a calculator from the custom complexity values of an API, without going through the JSON policy.
+     *
+     * @param customComplexityInfoList custom complexity values of the API
+     */
+    public FieldComplexityCalculatorImpl(List<GraphQLCustomComplexityInfoDTO> customComplexityInfoList) {
+        if (customComplexityInfoList != null) {
+            for (GraphQLCustomComplexityInfoDTO complexityInfo : customComplexityInfoList) {
+                addCustomComplexity(complexityInfo.getType(), complexityInfo.getField(),
+                        complexityInfo.getComplexityValue());
+            }
+        }
+    }
+
+    private void addCustomComplexity(String type, String field, int complexityValue) {
+        customComplexities.computeIfAbsent(type, k -> new HashMap<>()).put(field, complexityValue);
+    }
+
     /**
      * Calculate complexity.
      *
@@ -64,15 +93,16 @@ public class FieldComplexityCalculatorImpl implements FieldComplexityCalculator
         List<Argument> argumentList = fieldComplexityEnvironment.getField().getArguments();
 
         int argumentsValue = getArgumentsValue(argumentList);
-        int customFieldComplexity = getCustomComplexity(fieldName, parentType, policyDefinition);
+        int customFieldComplexity = getCustomComplexity(fieldName, parentType);
         return (argumentsValue * (customFieldComplexity + childComplexity));
     }
 
-    private int getCustomComplexity(String fieldName, String parentType, JSONObject policyDefinition) {
+    private int getCustomComplexity(String fieldName, String parentType) {
 
-        JSONObject customComplexity = (JSONObject) policyDefinition.get(parentType);
-        if (customComplexity != null && customComplexity.get(fieldName) != null) {
-            return ((Long) customComplexity.get(fieldName)).intValue(); // Returns custom complexity value
+        Integer customComplexity = customComplexities.getOrDefault(parentType, Collections.emptyMap())
+                .get(fieldName);
+        if (customComplexity != null) {
+            return customComplexity; // Returns custom complexity value
         } else {
             if (log.isDebugEnabled()) {
                 log.debug("No custom complexity value was assigned for " + fieldName + " under type " + parentType);
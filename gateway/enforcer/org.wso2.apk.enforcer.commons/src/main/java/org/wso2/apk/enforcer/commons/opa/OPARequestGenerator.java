@@ -40,6 +40,26 @@ public interface OPARequestGenerator {
     String generateRequest(String policyName, String rule, Map<String, String> additionalParameters,
                            RequestContext requestContext) throws OPASecurityException;
 
+    /**
+     * Generate the key the OPA response of the request is cached under when decision caching is enabled. Requests
+     * with the same key are served the same cached response, hence the key must cover every value the policy decides
+     * on, and it should leave out values which are unique to each request, such as request IDs, for the cache to be
+     * hit. By default, the whole OPA request payload is the key.
+     *
+     * @param policyName           Name of the policy validated.
+     * @param rule                 Rule of the policy.
+     * @param additionalParameters Advanced properties that can be used to construct the opa payload.
+     * @param requestContext       Request context details to be validated.
+     * @param opaRequest           OPA request payload generated for the request.
+     * @return key of the OPA response in the decision cache.
+     * @throws OPASecurityException If an authentication failure or system error occurs.
+     */
+    default String generateDecisionCacheKey(String policyName, String rule, Map<String, String> additionalParameters,
+                                            RequestContext requestContext, String opaRequest)
+            throws OPASecurityException {
+        return opaRequest;
+    }
+
     /**
      * Validate the OPA response and handle request context based on the response.
      *
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics;
+
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import io.envoyproxy.envoy.data.accesslog.v3.HTTPAccessLogEntry;
+import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
+import org.wso2.apk.enforcer.constants.AnalyticsConstants;
+import org.wso2.apk.enforcer.constants.MetadataConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Controls the intake of access log messages from the router.
+ * <p>
+ * The next message of a stream is requested only once the previous one is processed, and only while fewer than the
+ * maximum number of messages are being processed. Otherwise the stream waits in a queue until a message of another
+ * stream completes, so the pressure is taken by the gRPC flow control and the buffers of the router instead of the
+ * thread pool of the access log service.
+ * <p>
+ * While streams are waiting, the service is considered overloaded and successful requests are sampled at the
+ * configured rate. While the analytics publisher drops events, successful requests are dropped altogether. Fault
+ * events are always kept. Accepted, sampled and dropped entries are counted per API.
+ */
+public class AccessLogIngestController {
+
+    static final String UNKNOWN_API = "unknown";
+    // Time the successful requests are dropped for after the analytics publisher dropped an event.
+    private static final long SHEDDING_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxInFlightMessages;
+    private final double successSampleRate;
+    private final LongSupplier droppedEventCount;
+    private final AtomicInteger inFlightMessages = new AtomicInteger();
+    private final Queue<IngestStream> waitingStreams = new ConcurrentLinkedQueue<>();
+    private final Map<String, ApiCounters> countersByApi = new ConcurrentHashMap<>();
+    private volatile long lastDroppedEventCount;
+    private volatile long sheddingUntil;
+
+    /**
+     * Creates a controller.
+     *
+     * @param maxInFlightMessages maximum number of messages processed at a time before streams are held back
+     * @param successSampleRate   ratio of the successful requests kept while overloaded
+     * @param droppedEventCount   supplier of the number of events dropped by the analytics publisher so far
+     */
+    public AccessLogIngestController(int maxInFlightMessages, double successSampleRate,
+                                     LongSupplier droppedEventCount) {
+
+        this.maxInFlightMessages = Math.max(1, maxInFlightMessages);
+        this.successSampleRate = Math.min(1, Math.max(0, successSampleRate));
+        this.droppedEventCount = droppedEventCount;
+        this.lastDroppedEventCount = droppedEventCount.getAsLong();
+        this.sheddingUntil = System.nanoTime();
+    }
+
+    /**
+     * Registers a new stream and requests its first message.
+     *
+     * @param requester requests the next message of the stream
+     * @return the stream
+     */
+    public IngestStream openStream(Runnable requester) {
+
+        IngestStream stream = new IngestStream(requester);
+        stream.requestNext();
+        return stream;
+    }
+
+    /**
+     * Marks the start of the processing of a message received on a stream.
+     */
+    public void messageReceived() {
+
+        inFlightMessages.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of the processing of a message. Waiting streams are resumed first, then the next message of the
+     * stream is requested if a slot is still free. Otherwise the stream is queued.
+     *
+     * @param stream stream the message was received on
+     */
+    public void messageProcessed(IngestStream stream) {
+
+        int freeSlots = maxInFlightMessages - inFlightMessages.decrementAndGet();
+        freeSlots -= resumeWaitingStreams(freeSlots);
+        if (freeSlots > 0) {
+            stream.requestNext();
+            return;
+        }
+        waitingStreams.add(stream);
+        // A message in flight resumes the stream once it completes. If the messages completed before the stream was
+        // queued, nothing else would.
+        if (inFlightMessages.get() == 0) {
+            resumeWaitingStreams(maxInFlightMessages);
+        }
+    }
+
+    public void closeStream(IngestStream stream) {
+
+        stream.closed = true;
+        waitingStreams.remove(stream);
+    }
+
+    /**
+     * Applies the sampling policy to the entries of the given message.
+     *
+     * @param message message received from the router
+     * @return the message, or a copy of it without the entries left out by the policy
+     */
+    public StreamAccessLogsMessage admit(StreamAccessLogsMessage message) {
+
+        boolean shedding = isShedding();
+        boolean overloaded = shedding || isOverloaded();
+        List<HTTPAccessLogEntry> entries = message.getHttpLogs().getLogEntryList();
+        List<HTTPAccessLogEntry> admitted = overloaded ? new ArrayList<>(entries.size()) : null;
+        for (HTTPAccessLogEntry entry : entries) {
+            ApiCounters counters = countersByApi.computeIfAbsent(getApiId(entry), k -> new ApiCounters());
+            if (!overloaded || !isSuccess(entry)) {
+                counters.accepted.increment();
+                if (admitted != null) {
+                    admitted.add(entry);
+                }
+            } else if (shedding) {
+                counters.dropped.increment();
+            } else if (ThreadLocalRandom.current().nextDouble() < successSampleRate) {
+                counters.accepted.increment();
+                admitted.add(entry);
+            } else {
+                counters.sampled.increment();
+            }
+        }
+        if (admitted == null || admitted.size() == entries.size()) {
+            return message;
+        }
+        return message.toBuilder()
+                .setHttpLogs(StreamAccessLogsMessage.HTTPAccessLogEntries.newBuilder().addAllLogEntry(admitted))
+                .build();
+    }
+
+    /**
+     * Returns whether streams are being held back as the maximum number of messages are being processed.
+     *
+     * @return true if overloaded
+     */
+    public boolean isOverloaded() {
+
+        return !waitingStreams.isEmpty();
+    }
+
+    public int getWaitingStreamCount() {
+
+        return waitingStreams.size();
+    }
+
+    public Map<String, Long> getAcceptedCounts() {
+
+        Map<String, Long> counts = new HashMap<>();
+        countersByApi.forEach((apiId, counters) -> counts.put(apiId, counters.accepted.sum()));
+        return counts;
+    }
+
+    public Map<String, Long> getSampledCounts() {
+
+        Map<String, Long> counts = new HashMap<>();
+        countersByApi.forEach((apiId, counters) -> counts.put(apiId, counters.sampled.sum()));
+        return counts;
+    }
+
+    public Map<String, Long> getDroppedCounts() {
+
+        Map<String, Long> counts = new HashMap<>();
+        countersByApi.forEach((apiId, counters) -> counts.put(apiId, counters.dropped.sum()));
+        return counts;
+    }
+
+    /**
+     * Returns whether the analytics publisher dropped events recently. The dropped event count is only read here, so
+     * a single drop keeps successful requests out for {@link #SHEDDING_PERIOD_NANOS}.
+     */
+    boolean isShedding() {
+
+        long now = System.nanoTime();
+        long dropped = droppedEventCount.getAsLong();
+        if (dropped != lastDroppedEventCount) {
+            lastDroppedEventCount = dropped;
+            sheddingUntil = now + SHEDDING_PERIOD_NANOS;
+        }
+        return now - sheddingUntil < 0;
+    }
+
+    /**
+     * Requests the next message of up to the given number of waiting streams. A resumed stream does not hold a slot
+     * until its message arrives, so the limit may be exceeded by at most the number of streams.
+     *
+     * @return number of resumed streams
+     */
+    private int resumeWaitingStreams(int slots) {
+
+        int resumed = 0;
+        while (resumed < slots) {
+            IngestStream stream = waitingStreams.poll();
+            if (stream == null) {
+                break;
+            }
+            if (!stream.closed) {
+                stream.requestNext();
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    private static boolean isSuccess(HTTPAccessLogEntry entry) {
+
+        return AnalyticsConstants.UPSTREAM_SUCCESS_RESPONSE_DETAIL.equals(entry.getResponse().getResponseCodeDetails());
+    }
+
+    private static String getApiId(HTTPAccessLogEntry entry) {
+
+        Struct metadata = entry.getCommonProperties().getMetadata().getFilterMetadataMap()
+                .get(MetadataConstants.EXT_AUTH_METADATA_CONTEXT_KEY);
+        if (metadata == null) {
+            return UNKNOWN_API;
+        }
+        Value apiId = metadata.getFieldsMap().get(MetadataConstants.API_ID_KEY);
+        return apiId == null || apiId.getStringValue().isEmpty() ? UNKNOWN_API : apiId.getStringValue();
+    }
+
+    /**
+     * Access log stream of a router.
+     */
+    public static final class IngestStream {
+
+        private final Runnable requester;
+        private volatile boolean closed;
+
+        private IngestStream(Runnable requester) {
+
+            this.requester = requester;
+        }
+
+        private void requestNext() {
+
+            requester.run();
+        }
+    }
+
+    private static final class ApiCounters {
+
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+}
@@ -26,20 +26,26 @@ import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
 import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
 import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
 import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.EventHubPublisherStats;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.config.dto.AnalyticsDTO;
 import org.wso2.apk.enforcer.config.dto.AnalyticsReceiverConfigDTO;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
 import org.wso2.apk.enforcer.metrics.MetricsUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.AccessLogIngestMetrics;
 import org.wso2.apk.enforcer.server.Constants;
 import org.wso2.apk.enforcer.server.EnforcerThreadPoolExecutor;
 import org.wso2.apk.enforcer.server.NativeThreadFactory;
 import org.wso2.apk.enforcer.util.TLSUtils;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -54,30 +60,48 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
 
     private static final Logger logger = LogManager.getLogger(AccessLoggingService.class);
 
+    private AccessLogIngestController ingestController;
+
     public void init() throws IOException {
         // Initialize analytics Filter
         if (ConfigHolder.getInstance().getConfig().getAnalyticsConfig().isEnabled()) {
             AnalyticsFilter.getInstance();
         }
+        ingestController = createIngestController();
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            AccessLogIngestMetrics.getInstance().registerController(ingestController);
+        }
         startAccessLoggingServer();
     }
 
     @Override
     public StreamObserver<StreamAccessLogsMessage> streamAccessLogs
             (StreamObserver<StreamAccessLogsResponse> responseObserver) {
+        // Messages are requested one at a time by the ingest controller, instead of after each onNext call.
+        ServerCallStreamObserver<StreamAccessLogsResponse> serverCallObserver =
+                (ServerCallStreamObserver<StreamAccessLogsResponse>) responseObserver;
+        serverCallObserver.disableAutoRequest();
+        AccessLogIngestController.IngestStream ingestStream =
+                ingestController.openStream(() -> serverCallObserver.request(1));
         return new StreamObserver<>() {
             @Override
             public void onNext(StreamAccessLogsMessage message) {
-                if (ConfigHolder.getInstance().getConfig().getAnalyticsConfig().isEnabled()) {
-                    AnalyticsFilter.getInstance().handleGRPCLogMsg(message);
-                }
-                if (ConfigHolder.getInstance().getConfig().getMetricsConfig().isMetricsEnabled()) {
-                    MetricsUtils.handlePublishingMetrics(message);
+                ingestController.messageReceived();
+                try {
+                    if (ConfigHolder.getInstance().getConfig().getAnalyticsConfig().isEnabled()) {
+                        AnalyticsFilter.getInstance().handleGRPCLogMsg(ingestController.admit(message));
+                    }
+                    if (ConfigHolder.getInstance().getConfig().getMetricsConfig().isMetricsEnabled()) {
+                        MetricsUtils.handlePublishingMetrics(message);
+                    }
+                } finally {
+                    ingestController.messageProcessed(ingestStream);
                 }
             }
 
             @Override
             public void onError(Throwable throwable) {
+                ingestController.closeStream(ingestStream);
                 logger.error("Error while receiving access log entries from router. " + throwable.getMessage(),
                         ErrorDetails.errorLog(LoggingConstants.Severity.CRITICAL, 5101));
                 responseObserver.onCompleted();
@@ -85,6 +109,7 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
 
             @Override
             public void onCompleted() {
+                ingestController.closeStream(ingestStream);
                 responseObserver.onNext(StreamAccessLogsResponse.newBuilder().build());
                 responseObserver.onCompleted();
                 logger.info("Access Log processing is completed.");
@@ -92,6 +117,31 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
         };
     }
 
+    private AccessLogIngestController createIngestController() {
+        AnalyticsDTO analyticsConfig = ConfigHolder.getInstance().getConfig().getAnalyticsConfig();
+        // By default, no more messages are taken in than the core threads can process.
+        int maxInFlightMessages = analyticsConfig.getServerConfig().getThreadPoolConfig().getCoreSize();
+        double successSampleRate = AnalyticsConstants.DEFAULT_INGEST_SUCCESS_SAMPLE_RATE;
+        Map<String, Object> properties = analyticsConfig.getProperties();
+        if (properties != null) {
+            Object maxInFlightConfig = properties.get(AnalyticsConstants.INGEST_MAX_IN_FLIGHT_MESSAGES_CONFIG_KEY);
+            Object sampleRateConfig = properties.get(AnalyticsConstants.INGEST_SUCCESS_SAMPLE_RATE_CONFIG_KEY);
+            try {
+                if (maxInFlightConfig != null) {
+                    maxInFlightMessages = Integer.parseInt(maxInFlightConfig.toString());
+                }
+                if (sampleRateConfig != null) {
+                    successSampleRate = Double.parseDouble(sampleRateConfig.toString());
+                }
+            } catch (NumberFormatException e) {
+                logger.error("Invalid access log ingest configuration. Default values are used for the rest. "
+                        + e.getMessage());
+            }
+        }
+        return new AccessLogIngestController(maxInFlightMessages, successSampleRate,
+                EventHubPublisherStats.getInstance()::getDroppedEventCount);
+    }
+
     private void startAccessLoggingServer() throws IOException {
         AnalyticsReceiverConfigDTO serverConfig =
                 ConfigHolder.getInstance().getConfig().getAnalyticsConfig().getServerConfig();
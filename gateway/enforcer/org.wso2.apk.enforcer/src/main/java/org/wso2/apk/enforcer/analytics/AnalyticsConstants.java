@@ -41,4 +41,8 @@ public class AnalyticsConstants {
     protected static final String GATEWAY_TYPE_CONFIG_KEY = "gatewayType";
     protected static final String DEFAULT_GATEWAY_TYPE = "Onprem";
 
+    protected static final String INGEST_MAX_IN_FLIGHT_MESSAGES_CONFIG_KEY = "ingestMaxInFlightMessages";
+    protected static final String INGEST_SUCCESS_SAMPLE_RATE_CONFIG_KEY = "ingestSuccessSampleRate";
+    protected static final double DEFAULT_INGEST_SUCCESS_SAMPLE_RATE = 0.1;
+
 }
@@ -34,6 +34,8 @@ import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.config.dto.AnalyticsPublisherConfigDTO;
 import org.wso2.apk.enforcer.constants.AnalyticsConstants;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.AnalyticsPublisherMetrics;
 
 import java.util.List;
 
@@ -65,10 +67,10 @@ public class DefaultAnalyticsEventPublisher implements AnalyticsEventPublisher {
     @Override
     public void handleGRPCLogMsg(StreamAccessLogsMessage message) {
 
+        // The message is rendered only if trace logs are enabled, and once rather than for each entry.
+        logger.trace("Received log entries from Router {} : {}", message.getIdentifier().getNode(), message);
         for (int i = 0; i < message.getHttpLogs().getLogEntryCount(); i++) {
             HTTPAccessLogEntry logEntry = message.getHttpLogs().getLogEntry(i);
-            logger.trace("Received logEntry from Router " + message.getIdentifier().getNode() +
-                    " : " + message.toString());
             if (doNotPublishEvent(logEntry)) {
                 logger.debug("LogEntry is ignored as it is already published by the enforcer.");
                 continue;
@@ -111,6 +113,9 @@ public class DefaultAnalyticsEventPublisher implements AnalyticsEventPublisher {
                 AnalyticsServiceReferenceHolder.getInstance().addAnalyticReporter(commonConfiguration);
 
             }
+            if (JMXUtils.isJMXMetricsEnabled()) {
+                AnalyticsPublisherMetrics.getInstance();
+            }
         }
 
     }
@@ -166,7 +171,7 @@ public class DefaultAnalyticsEventPublisher implements AnalyticsEventPublisher {
         }
         try {
             dataCollector.collectData();
-            logger.debug("Event is published. : " + correlationID);
+            logger.debug("Event is published. : {}", correlationID);
         } catch (AnalyticsException e) {
             logger.error("Error while publishing the event to the analytics portal. : "
                             + correlationID,
@@ -36,6 +36,13 @@ public interface API {
 
     APIConfig getAPIConfig();
 
+    /**
+     * Returns the resource index built for the API at the initialization.
+     *
+     * @return resource index of the API
+     */
+    ResourceIndex getResourceIndex();
+
     default boolean executeFilterChain(RequestContext requestContext) {
         boolean proceed;
         for (Filter filter : getFilters()) {
@@ -22,14 +22,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.discovery.api.Api;
-import org.wso2.apk.enforcer.commons.model.APIConfig;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.discovery.ApiDiscoveryClient;
 
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Holds the meta data of all the APIS deployed in the gateway node. Adding/Updating API requires to register the
@@ -40,7 +37,7 @@ public class APIFactory {
     private static final Logger logger = LogManager.getLogger(APIFactory.class);
 
     private static APIFactory apiFactory;
-    private Map<String, API> apis = new ConcurrentHashMap<>();
+    private volatile APIIndex apis = APIIndex.EMPTY;
 
     private APIFactory() {
     }
@@ -57,14 +54,13 @@ public class APIFactory {
         ads.watchApis();
     }
 
-    public void addApi(API api) {
-        String apiKey = getApiKey(api);
-        apis.put(apiKey, api);
+    public synchronized void addApi(API api) {
+        this.apis = apis.toBuilder().add(api).build();
     }
 
     public void addApis(List<Api> apis) {
         //TODO: (Praminda) Use apiId as the map key. Need to add the apiId to envoy context meta
-        Map<String, API> newApis = new ConcurrentHashMap<>();
+        APIIndex.Builder newApis = new APIIndex.Builder();
 
         for (Api api : apis) {
 //            if (APIConstants.ApiType.WEB_SOCKET.equals(api.getApiType())) {
@@ -76,43 +72,41 @@ public class APIFactory {
             if (APIConstants.ApiType.GRAPHQL.equals(api.getApiType())) {
                 GraphQLAPI graphQLAPI = new GraphQLAPI();
                 graphQLAPI.init(api);
-                String apiKey = getApiKey(graphQLAPI);
-                newApis.put(apiKey, graphQLAPI);
+                newApis.add(graphQLAPI);
             } else {
                 RestAPI enforcerApi = new RestAPI();
                 enforcerApi.init(api);
-                String apiKey = getApiKey(enforcerApi);
-                newApis.put(apiKey, enforcerApi);
+                newApis.add(enforcerApi);
             }
         }
 
+        APIIndex newApiIndex = newApis.build();
         if (logger.isDebugEnabled()) {
-            logger.debug("Total APIs in new cache: {}", newApis.size());
+            logger.debug("Total APIs in new cache: {}", newApiIndex.size());
         }
-        this.apis = newApis;
-        CacheProviderUtil.initializeCacheHolder(newApis);
+        synchronized (this) {
+            this.apis = newApiIndex;
+        }
+        CacheProviderUtil.initializeCacheHolder(newApiIndex.values());
     }
 
-    public void removeApi(API api) {
-        String apiKey = getApiKey(api);
-        apis.remove(apiKey);
+    public synchronized void removeApi(API api) {
+        this.apis = apis.toBuilder().remove(api).build();
     }
 
     public API getMatchedAPI(CheckRequest request) {
         String vHost = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_VHOST_PARAM);
         String basePath = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_BASE_PATH_PARAM);
         String version = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_VERSION_PARAM);
-        String apiKey = getApiKey(vHost, basePath, version);
         if (logger.isDebugEnabled()) {
             logger.debug("Looking for matching API with basepath: {} and version: {}", basePath, version);
         }
 
-        return apis.get(apiKey);
+        return apis.get(vHost, basePath, version);
     }
 
     public byte[] getAPIDefinition(final String basePath, final String version, final String vHost) {
-        String apiKey = getApiKey(vHost, basePath, version);
-        API api = apis.get(apiKey);
+        API api = apis.get(vHost, basePath, version);
         if (api == null) {
             return null;
         }
@@ -132,11 +126,7 @@ public class APIFactory {
 //    }
 
     public ResourceConfig getMatchedResource(API api, String matchedResourcePath, String method) {
-        List<ResourceConfig> resourceConfigList = api.getAPIConfig().getResources();
-        return resourceConfigList.stream()
-                .filter(resourceConfig -> resourceConfig.getPath().equals(matchedResourcePath)).
-                filter(resourceConfig -> (method == null) || resourceConfig.getMethod()
-                        .equals(ResourceConfig.HttpMethods.valueOf(method))).findFirst().orElse(null);
+        return api.getResourceIndex().getMatchedResource(matchedResourcePath, method);
     }
 
 //    // For WebSocket APIs since there are no resources in WebSocket APIs.
@@ -150,12 +140,4 @@ public class APIFactory {
 //        return resourceConfig;
 //    }
 
-    private String getApiKey(API api) {
-        APIConfig apiConfig = api.getAPIConfig();
-        return getApiKey(apiConfig.getVhost(), apiConfig.getBasePath(), apiConfig.getVersion());
-    }
-
-    private String getApiKey(String vhost, String basePath, String version) {
-        return String.format("%s:%s:%s", vhost, basePath, version);
-    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.api;
+
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of the deployed APIs nested as vhost -> basePath -> version. Lookups only probe the nested maps
+ * with the strings received in the request, hence no lookup key is built per request.
+ * <p>
+ * Instances are never modified after they are built. Updates create a new index which is then published by
+ * {@link APIFactory}.
+ */
+public class APIIndex {
+
+    static final APIIndex EMPTY = new APIIndex(Collections.emptyMap(), Collections.emptyList());
+
+    private final Map<String, Map<String, Map<String, API>>> apis;
+    private final List<API> values;
+
+    private APIIndex(Map<String, Map<String, Map<String, API>>> apis, List<API> values) {
+        this.apis = apis;
+        this.values = values;
+    }
+
+    /**
+     * Returns the API deployed with the given vhost, base path and version.
+     *
+     * @param vhost    vhost of the API
+     * @param basePath base path of the API
+     * @param version  version of the API
+     * @return matched API or null if there is no such API
+     */
+    public API get(String vhost, String basePath, String version) {
+        Map<String, Map<String, API>> basePaths = apis.get(vhost);
+        if (basePaths == null) {
+            return null;
+        }
+        Map<String, API> versions = basePaths.get(basePath);
+        if (versions == null) {
+            return null;
+        }
+        return versions.get(version);
+    }
+
+    /**
+     * Returns all the APIs in the index.
+     *
+     * @return unmodifiable collection of APIs
+     */
+    public Collection<API> values() {
+        return values;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns a new builder pre-populated with the APIs of this index.
+     *
+     * @return builder
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (API api : values) {
+            builder.add(api);
+        }
+        return builder;
+    }
+
+    /**
+     * Builder for the {@link APIIndex}. An API added with the same vhost, base path and version of an existing API
+     * replaces the existing one.
+     */
+    public static class Builder {
+
+        private final Map<String, Map<String, Map<String, API>>> apis = new HashMap<>();
+
+        public Builder add(API api) {
+            APIConfig apiConfig = api.getAPIConfig();
+            apis.computeIfAbsent(apiConfig.getVhost(), vhost -> new HashMap<>())
+                    .computeIfAbsent(apiConfig.getBasePath(), basePath -> new HashMap<>())
+                    .put(apiConfig.getVersion(), api);
+            return this;
+        }
+
+        public Builder remove(API api) {
+            APIConfig apiConfig = api.getAPIConfig();
+            Map<String, Map<String, API>> basePaths = apis.get(apiConfig.getVhost());
+            if (basePaths == null) {
+                return this;
+            }
+            Map<String, API> versions = basePaths.get(apiConfig.getBasePath());
+            if (versions == null) {
+                return this;
+            }
+            versions.remove(apiConfig.getVersion());
+            if (versions.isEmpty()) {
+                basePaths.remove(apiConfig.getBasePath());
+            }
+            if (basePaths.isEmpty()) {
+                apis.remove(apiConfig.getVhost());
+            }
+            return this;
+        }
+
+        public APIIndex build() {
+            Map<String, Map<String, Map<String, API>>> vhosts = new HashMap<>(apis.size());
+            List<API> values = new ArrayList<>();
+            for (Map.Entry<String, Map<String, Map<String, API>>> vhostEntry : apis.entrySet()) {
+                Map<String, Map<String, API>> basePaths = new HashMap<>(vhostEntry.getValue().size());
+                for (Map.Entry<String, Map<String, API>> basePathEntry : vhostEntry.getValue().entrySet()) {
+                    basePaths.put(basePathEntry.getKey(),
+                            Collections.unmodifiableMap(new HashMap<>(basePathEntry.getValue())));
+                    values.addAll(basePathEntry.getValue().values());
+                }
+                vhosts.put(vhostEntry.getKey(), Collections.unmodifiableMap(basePaths));
+            }
+            return new APIIndex(Collections.unmodifiableMap(vhosts), Collections.unmodifiableList(values));
+        }
+    }
+}
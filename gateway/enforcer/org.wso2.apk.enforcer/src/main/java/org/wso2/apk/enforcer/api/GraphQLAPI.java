@@ -47,7 +47,9 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.HttpConstants;
 import org.wso2.apk.enforcer.cors.CorsFilter;
 import org.wso2.apk.enforcer.graphql.GraphQLPayloadUtils;
+import org.wso2.apk.enforcer.graphql.GraphQLPersistedQueryStore;
 import org.wso2.apk.enforcer.graphql.GraphQLQueryAnalysisFilter;
+import org.wso2.apk.enforcer.graphql.GraphQLQueryCache;
 import org.wso2.apk.enforcer.security.AuthFilter;
 import org.wso2.apk.enforcer.security.mtls.MtlsUtils;
 import org.wso2.apk.enforcer.server.swagger.APIDefinitionUtils;
@@ -66,6 +68,9 @@ public class GraphQLAPI implements API {
     private static final Logger logger = LogManager.getLogger(GraphQLAPI.class);
     private final List<Filter> filters = new ArrayList<>();
     private APIConfig apiConfig;
+    private ResourceIndex resourceIndex;
+    private GraphQLQueryCache queryCache;
+    private GraphQLPersistedQueryStore persistedQueryStore;
 
     @Override
     public List<Filter> getFilters() {
@@ -149,6 +154,10 @@ public class GraphQLAPI implements API {
                 .applicationSecurity(applicationSecurity).jwtConfigurationDto(jwtConfigurationDto)
                 .apiDefinition(apiDefinition).environment(api.getEnvironment())
                 .subscriptionValidation(api.getSubscriptionValidation()).graphQLSchemaDTO(graphQLSchemaDTO).build();
+        this.resourceIndex = ResourceIndex.build(resources);
+        // Compiles the complexity values of the API once, queries are analysed on their first request.
+        this.queryCache = new GraphQLQueryCache(graphQLSchemaDTO);
+        this.persistedQueryStore = new GraphQLPersistedQueryStore(queryCache);
         initFilters();
         return basePath;
     }
@@ -169,7 +178,8 @@ public class GraphQLAPI implements API {
         // handle other not allowed && non option request && not yet handled error
         // scenarios.
         if ((!isOptionCall && !isExistsMatchedOperations) && !requestContext.getProperties()
-                .containsKey(APIConstants.MessageFormat.ERROR_CODE)) {
+                .containsKey(APIConstants.MessageFormat.ERROR_CODE) && !requestContext.getProperties()
+                .containsKey(APIConstants.MessageFormat.RESPONSE_PAYLOAD)) {
             requestContext.getProperties()
                     .put(APIConstants.MessageFormat.STATUS_CODE, APIConstants.StatusCodes.NOTFOUND.getCode());
             requestContext.getProperties().put(APIConstants.MessageFormat.ERROR_CODE,
@@ -217,7 +227,12 @@ public class GraphQLAPI implements API {
             if (requestContext.getAddHeaders() != null && requestContext.getAddHeaders().size() > 0) {
                 responseObject.setHeaderMap(requestContext.getAddHeaders());
             }
-            if (analyticsEnabled && !FilterUtils.isSkippedAnalyticsFaultEvent(responseObject.getErrorCode())) {
+            // A complete response, such as a persisted query miss, is part of the protocol rather than a fault.
+            Object responsePayload = requestContext.getProperties().get(APIConstants.MessageFormat.RESPONSE_PAYLOAD);
+            if (responsePayload != null) {
+                responseObject.setResponseContent(responsePayload.toString());
+            } else if (analyticsEnabled
+                    && !FilterUtils.isSkippedAnalyticsFaultEvent(responseObject.getErrorCode())) {
                 AnalyticsFilter.getInstance().handleFailureRequest(requestContext);
                 responseObject.setMetaDataMap(new HashMap<>(0));
             }
@@ -231,13 +246,25 @@ public class GraphQLAPI implements API {
         return this.apiConfig;
     }
 
+    @Override
+    public ResourceIndex getResourceIndex() {
+        return this.resourceIndex;
+    }
+
+    public GraphQLQueryCache getQueryCache() {
+        return this.queryCache;
+    }
+
+    public GraphQLPersistedQueryStore getPersistedQueryStore() {
+        return this.persistedQueryStore;
+    }
+
     private void initFilters() {
         AuthFilter authFilter = new AuthFilter();
         authFilter.init(apiConfig, null);
         this.filters.add(authFilter);
 
-        GraphQLQueryAnalysisFilter queryAnalysisFilter = new GraphQLQueryAnalysisFilter();
-        queryAnalysisFilter.init(apiConfig, null);
+        GraphQLQueryAnalysisFilter queryAnalysisFilter = new GraphQLQueryAnalysisFilter(queryCache);
         this.filters.add(queryAnalysisFilter);
 
         // CORS filter is added as the first filter, and it is not customizable.
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.api;
+
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup index of the resources of an API, built once when the API is initialized.
+ * <p>
+ * The router has already resolved the request to a path template before the request reaches the enforcer, hence the
+ * index is keyed by the template itself. Each template maps to an array of resources indexed by the ordinal of the
+ * {@link ResourceConfig.HttpMethods}, so a lookup is a single hash probe and an array access without any allocation.
+ */
+public class ResourceIndex {
+
+    private static final ResourceConfig.HttpMethods[] METHODS = ResourceConfig.HttpMethods.values();
+    private static final Map<String, ResourceConfig.HttpMethods> METHODS_BY_NAME;
+
+    static {
+        Map<String, ResourceConfig.HttpMethods> methodsByName = new HashMap<>();
+        for (ResourceConfig.HttpMethods method : METHODS) {
+            methodsByName.put(method.name(), method);
+        }
+        METHODS_BY_NAME = Collections.unmodifiableMap(methodsByName);
+    }
+
+    private final Map<String, ResourceConfig[]> resourcesByPath;
+
+    private ResourceIndex(Map<String, ResourceConfig[]> resourcesByPath) {
+        this.resourcesByPath = resourcesByPath;
+    }
+
+    /**
+     * Builds the index for the given resources. When more than one resource is defined for the same path and method,
+     * the first one wins, which is the same resolution order used by the previous list based lookup.
+     *
+     * @param resources resources of the API
+     * @return resource index
+     */
+    public static ResourceIndex build(List<ResourceConfig> resources) {
+        Map<String, ResourceConfig[]> resourcesByPath = new HashMap<>();
+        for (ResourceConfig resource : resources) {
+            if (resource.getPath() == null || resource.getMethod() == null) {
+                continue;
+            }
+            // Slot METHODS.length keeps the first resource of the path for the method agnostic lookups.
+            ResourceConfig[] byMethod = resourcesByPath.computeIfAbsent(resource.getPath(),
+                    path -> new ResourceConfig[METHODS.length + 1]);
+            int ordinal = resource.getMethod().ordinal();
+            if (byMethod[ordinal] == null) {
+                byMethod[ordinal] = resource;
+            }
+            if (byMethod[METHODS.length] == null) {
+                byMethod[METHODS.length] = resource;
+            }
+        }
+        return new ResourceIndex(resourcesByPath);
+    }
+
+    /**
+     * Returns the resource matching the given path template and method.
+     *
+     * @param pathTemplate path template matched by the router (or the operation name for GraphQL APIs)
+     * @param method       request method, or null to match any method
+     * @return matched resource or null if there is no such resource
+     */
+    public ResourceConfig getMatchedResource(String pathTemplate, String method) {
+        if (pathTemplate == null) {
+            return null;
+        }
+        ResourceConfig[] byMethod = resourcesByPath.get(pathTemplate);
+        if (byMethod == null) {
+            return null;
+        }
+        if (method == null) {
+            return byMethod[METHODS.length];
+        }
+        ResourceConfig.HttpMethods httpMethod = METHODS_BY_NAME.get(method);
+        if (httpMethod == null) {
+            return null;
+        }
+        return byMethod[httpMethod.ordinal()];
+    }
+}
@@ -58,6 +58,7 @@ public class RestAPI implements API {
     private static final Logger logger = LogManager.getLogger(RestAPI.class);
     private final List<Filter> filters = new ArrayList<>();
     private APIConfig apiConfig;
+    private ResourceIndex resourceIndex;
 
     @Override
     public List<Filter> getFilters() {
@@ -127,6 +128,7 @@ public class RestAPI implements API {
                 .subscriptionValidation(api.getSubscriptionValidation()).transportSecurity(api.getTransportSecurity())
                 .build();
 
+        this.resourceIndex = ResourceIndex.build(resources);
         initFilters();
         return basePath;
     }
@@ -210,6 +212,12 @@ public class RestAPI implements API {
         return this.apiConfig;
     }
 
+    @Override
+    public ResourceIndex getResourceIndex() {
+
+        return this.resourceIndex;
+    }
+
     private void initFilters() {
 
         AuthFilter authFilter = new AuthFilter();
@@ -218,6 +226,7 @@ public class RestAPI implements API {
 
         if (!apiConfig.isSystemAPI()) {
             MediationPolicyFilter mediationPolicyFilter = new MediationPolicyFilter();
+            mediationPolicyFilter.init(apiConfig, null);
             this.filters.add(mediationPolicyFilter);
         }
 
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+/**
+ * Backend JWT generated by the gateway, held in the gateway JWT token cache together with the times it is usable
+ * until and should be refreshed at, so that a cache hit does not decode the token to read its expiry.
+ */
+public final class BackendJWTToken {
+
+    private final String token;
+    private final long usableUntil;
+    private final long refreshAt;
+
+    /**
+     * Creates a cache entry of a backend JWT.
+     *
+     * @param token       backend JWT
+     * @param usableUntil time in milliseconds after which the token is no longer sent to backends
+     * @param refreshAt   time in milliseconds after which a new token is generated in the background
+     */
+    public BackendJWTToken(String token, long usableUntil, long refreshAt) {
+
+        this.token = token;
+        this.usableUntil = usableUntil;
+        this.refreshAt = refreshAt;
+    }
+
+    public String getToken() {
+
+        return token;
+    }
+
+    public long getUsableUntil() {
+
+        return usableUntil;
+    }
+
+    public long getRefreshAt() {
+
+        return refreshAt;
+    }
+
+    public boolean isUsable(long currentTime) {
+
+        return currentTime < usableUntil;
+    }
+
+    public boolean isRefreshDue(long currentTime) {
+
+        return currentTime >= refreshAt;
+    }
+}
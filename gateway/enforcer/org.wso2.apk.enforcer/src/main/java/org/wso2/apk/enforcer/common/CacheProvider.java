@@ -18,126 +18,219 @@
 
 package org.wso2.apk.enforcer.common;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
 import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.config.dto.CacheDto;
-import org.wso2.apk.enforcer.security.jwt.validator.JWTConstants;
+import org.wso2.apk.enforcer.dto.JWTTokenPayloadInfo;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Class for initiating and returning caches.
+ * <p>
+ * Caches of successful validations and caches of failed validations are sized separately, so that a flood of invalid
+ * tokens only evicts other invalid tokens. The size and the expiry time of each cache may also be set individually
+ * through {@link CacheDto}. Lookups never insert entries, and each cache records its statistics.
  */
 public class CacheProvider {
+
+    public static final String GATEWAY_KEY_CACHE = "gatewayKeyCache";
+    public static final String VERIFIED_TOKEN_CACHE = "verifiedTokenCache";
+    public static final String INVALID_TOKEN_CACHE = "invalidTokenCache";
+    public static final String GATEWAY_JWT_TOKEN_CACHE = "gatewayJWTTokenCache";
+    public static final String GATEWAY_INTERNAL_KEY_CACHE = "gatewayInternalKeyCache";
+    public static final String GATEWAY_INTERNAL_KEY_DATA_CACHE = "gatewayInternalKeyDataCache";
+    public static final String INVALID_GATEWAY_INTERNAL_KEY_CACHE = "invalidGatewayInternalKeyCache";
+    public static final String GATEWAY_API_KEY_CACHE = "gatewayAPIKeyCache";
+    public static final String GATEWAY_API_KEY_DATA_CACHE = "gatewayAPIKeyDataCache";
+    public static final String INVALID_GATEWAY_API_KEY_CACHE = "invalidGatewayAPIKeyCache";
+    public static final List<String> CACHE_NAMES = Collections.unmodifiableList(Arrays.asList(GATEWAY_KEY_CACHE,
+            VERIFIED_TOKEN_CACHE, INVALID_TOKEN_CACHE, GATEWAY_JWT_TOKEN_CACHE, GATEWAY_INTERNAL_KEY_CACHE,
+            GATEWAY_INTERNAL_KEY_DATA_CACHE, INVALID_GATEWAY_INTERNAL_KEY_CACHE, GATEWAY_API_KEY_CACHE,
+            GATEWAY_API_KEY_DATA_CACHE, INVALID_GATEWAY_API_KEY_CACHE));
+
     // gatewayKeyCache contains valid tokens -> key: token, value: JWTValidationInfo
-    private LoadingCache<String, JWTValidationInfo> gatewayKeyCache;
+    private Cache<String, JWTValidationInfo> gatewayKeyCache;
+    // verifiedTokenCache contains tokens with verified signatures -> key: signature digest, value: JWTValidationInfo
+    private VerifiedTokenCache verifiedTokenCache;
     // invalidTokenCache contains invalid tokens -> key: token, value: true
-    private LoadingCache<String, Boolean> invalidTokenCache;
-    // gatewayJWTTokenCache contains backendJWT generated by gateway -> key: id, value: JWTValidationInfo
+    private Cache<String, Boolean> invalidTokenCache;
+    // gatewayJWTTokenCache contains backendJWT generated by gateway -> key: id, value: backend JWT with its expiry
 
     //todo(amali) revisit apikey caches
-    private LoadingCache<String, JWTValidationInfo> gatewayJWTTokenCache;
-    private LoadingCache<String, String> getGatewayInternalKeyCache;
-    private LoadingCache<String, String> getInvalidGatewayInternalKeyCache;
-    private LoadingCache<String, JWTValidationInfo> getGatewayInternalKeyDataCache;
-    private LoadingCache<String, String> getGatewayAPIKeyCache;
-    private LoadingCache<String, String> getInvalidGatewayAPIKeyCache;
-    private LoadingCache<String, JWTValidationInfo> getGatewayAPIKeyDataCache;
+    private Cache<String, BackendJWTToken> gatewayJWTTokenCache;
+    private Cache<String, String> getGatewayInternalKeyCache;
+    private Cache<String, String> getInvalidGatewayInternalKeyCache;
+    private Cache<String, JWTTokenPayloadInfo> getGatewayInternalKeyDataCache;
+    private Cache<String, String> getGatewayAPIKeyCache;
+    private Cache<String, String> getInvalidGatewayAPIKeyCache;
+    private Cache<String, JWTTokenPayloadInfo> getGatewayAPIKeyDataCache;
 
     private static boolean cacheEnabled = true;
     public void init() {
-        CacheDto cacheDto = ConfigHolder.getInstance().getConfig().getCacheDto();
+        init(ConfigHolder.getInstance().getConfig().getCacheDto());
+    }
+
+    void init(CacheDto cacheDto) {
         cacheEnabled = cacheDto.isEnabled();
-        int maxSize = cacheDto.getMaximumSize();
-        int expiryTime = cacheDto.getExpiryTime();
-        gatewayKeyCache = initCache(maxSize, expiryTime);
-        invalidTokenCache = initCache(maxSize, expiryTime);
-        gatewayJWTTokenCache = initCache(maxSize, expiryTime);
-        getGatewayInternalKeyCache = initCache(maxSize, expiryTime);
-        getGatewayInternalKeyDataCache = initCache(maxSize, expiryTime);
-        getInvalidGatewayInternalKeyCache = initCache(maxSize, expiryTime);
-        getGatewayAPIKeyCache = initCache(maxSize, expiryTime);
-        getInvalidGatewayAPIKeyCache = initCache(maxSize, expiryTime);
-        getGatewayAPIKeyDataCache = initCache(maxSize, expiryTime);
+        gatewayKeyCache = initCache(cacheDto, GATEWAY_KEY_CACHE);
+        verifiedTokenCache = new VerifiedTokenCache(cacheDto.getMaximumSize(VERIFIED_TOKEN_CACHE),
+                cacheDto.getExpiryTime(VERIFIED_TOKEN_CACHE));
+        invalidTokenCache = initNegativeCache(cacheDto, INVALID_TOKEN_CACHE);
+        gatewayJWTTokenCache = initCache(cacheDto, GATEWAY_JWT_TOKEN_CACHE);
+        getGatewayInternalKeyCache = initCache(cacheDto, GATEWAY_INTERNAL_KEY_CACHE);
+        getGatewayInternalKeyDataCache = initCache(cacheDto, GATEWAY_INTERNAL_KEY_DATA_CACHE);
+        getInvalidGatewayInternalKeyCache = initNegativeCache(cacheDto, INVALID_GATEWAY_INTERNAL_KEY_CACHE);
+        getGatewayAPIKeyCache = initCache(cacheDto, GATEWAY_API_KEY_CACHE);
+        getInvalidGatewayAPIKeyCache = initNegativeCache(cacheDto, INVALID_GATEWAY_API_KEY_CACHE);
+        getGatewayAPIKeyDataCache = initCache(cacheDto, GATEWAY_API_KEY_DATA_CACHE);
 
     }
 
-    private static LoadingCache initCache(int maxSize, int expiryTime) {
+    private static <K, V> Cache<K, V> initCache(CacheDto cacheDto, String cacheName) {
         return CacheBuilder.newBuilder()
-                .maximumSize(maxSize)                                  // maximum 10000 tokens can be cached
-                .expireAfterAccess(expiryTime, TimeUnit.MINUTES)      // cache will expire after 15 minutes of access
-                .build(new CacheLoader<String, String>() {            // build the cacheloader
-                    @Override public String load(String s) throws Exception {
-                        return JWTConstants.UNAVAILABLE;
-                    }
+                .maximumSize(cacheDto.getMaximumSize(cacheName))
+                .expireAfterAccess(cacheDto.getExpiryTime(cacheName), TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
 
-                });
+    /**
+     * Builds a cache of failed validations. Entries expire a fixed time after they are added, as a token or key
+     * which was rejected may become valid once the issuers or keys are updated.
+     */
+    private static <K, V> Cache<K, V> initNegativeCache(CacheDto cacheDto, String cacheName) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(cacheDto.getNegativeCacheMaximumSize(cacheName))
+                .expireAfterWrite(cacheDto.getNegativeCacheExpiryTime(cacheName), TimeUnit.MINUTES)
+                .recordStats()
+                .build();
     }
 
+    /**
+     * Returns the statistics of the caches, keyed by the cache name.
+     *
+     * @return cache name -> statistics
+     */
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put(GATEWAY_KEY_CACHE, gatewayKeyCache.stats());
+        stats.put(VERIFIED_TOKEN_CACHE, verifiedTokenCache.stats());
+        stats.put(INVALID_TOKEN_CACHE, invalidTokenCache.stats());
+        stats.put(GATEWAY_JWT_TOKEN_CACHE, gatewayJWTTokenCache.stats());
+        stats.put(GATEWAY_INTERNAL_KEY_CACHE, getGatewayInternalKeyCache.stats());
+        stats.put(GATEWAY_INTERNAL_KEY_DATA_CACHE, getGatewayInternalKeyDataCache.stats());
+        stats.put(INVALID_GATEWAY_INTERNAL_KEY_CACHE, getInvalidGatewayInternalKeyCache.stats());
+        stats.put(GATEWAY_API_KEY_CACHE, getGatewayAPIKeyCache.stats());
+        stats.put(GATEWAY_API_KEY_DATA_CACHE, getGatewayAPIKeyDataCache.stats());
+        stats.put(INVALID_GATEWAY_API_KEY_CACHE, getInvalidGatewayAPIKeyCache.stats());
+        return stats;
+    }
+
+    /**
+     * Returns the number of entries in the caches, keyed by the cache name.
+     *
+     * @return cache name -> number of entries
+     */
+    public Map<String, Long> getSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put(GATEWAY_KEY_CACHE, gatewayKeyCache.size());
+        sizes.put(VERIFIED_TOKEN_CACHE, verifiedTokenCache.size());
+        sizes.put(INVALID_TOKEN_CACHE, invalidTokenCache.size());
+        sizes.put(GATEWAY_JWT_TOKEN_CACHE, gatewayJWTTokenCache.size());
+        sizes.put(GATEWAY_INTERNAL_KEY_CACHE, getGatewayInternalKeyCache.size());
+        sizes.put(GATEWAY_INTERNAL_KEY_DATA_CACHE, getGatewayInternalKeyDataCache.size());
+        sizes.put(INVALID_GATEWAY_INTERNAL_KEY_CACHE, getInvalidGatewayInternalKeyCache.size());
+        sizes.put(GATEWAY_API_KEY_CACHE, getGatewayAPIKeyCache.size());
+        sizes.put(GATEWAY_API_KEY_DATA_CACHE, getGatewayAPIKeyDataCache.size());
+        sizes.put(INVALID_GATEWAY_API_KEY_CACHE, getInvalidGatewayAPIKeyCache.size());
+        return sizes;
+    }
 
     /**
      * @return Gateway Internal Key cache
      */
-    public LoadingCache getGatewayInternalKeyCache() {
+    public Cache<String, String> getGatewayInternalKeyCache() {
         return getGatewayInternalKeyCache;
     }
 
     /**
      * @return Gateway Internal Key data cache
      */
-    public LoadingCache getGatewayInternalKeyDataCache() {
+    public Cache<String, JWTTokenPayloadInfo> getGatewayInternalKeyDataCache() {
         return getGatewayInternalKeyDataCache;
     }
 
     /**
      * @return Gateway Internal Key invalid data cache
      */
-    public LoadingCache getInvalidGatewayInternalKeyCache() {
+    public Cache<String, String> getInvalidGatewayInternalKeyCache() {
         return getInvalidGatewayInternalKeyCache;
     }
 
     /**
      * @return gateway key cache
      */
-    public LoadingCache getGatewayKeyCache() {
+    public Cache<String, JWTValidationInfo> getGatewayKeyCache() {
         return gatewayKeyCache;
     }
 
+    /**
+     * @return verified token cache
+     */
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
+    /**
+     * Drops the cached results of token validations, e.g. when the token issuers change.
+     */
+    public void invalidateTokenCaches() {
+        gatewayKeyCache.invalidateAll();
+        invalidTokenCache.invalidateAll();
+        verifiedTokenCache.invalidateAll();
+    }
+
     /**
      * @return gateway invalid token cache
      */
-    public LoadingCache getInvalidTokenCache() {
+    public Cache<String, Boolean> getInvalidTokenCache() {
         return invalidTokenCache;
     }
 
     /**
      * @return JWT token cache
      */
-    public LoadingCache getGatewayJWTTokenCache() {
+    public Cache<String, BackendJWTToken> getGatewayJWTTokenCache() {
         return gatewayJWTTokenCache;
     }
 
     /**
      * @return Gateway API key cache
      */
-    public LoadingCache getGatewayAPIKeyCache() {
+    public Cache<String, String> getGatewayAPIKeyCache() {
         return getGatewayAPIKeyCache;
     }
 
     /**
      * @return Gateway API key data cache
      */
-    public LoadingCache getGatewayAPIKeyDataCache() {
+    public Cache<String, JWTTokenPayloadInfo> getGatewayAPIKeyDataCache() {
         return getGatewayAPIKeyDataCache;
     }
 
     /**
      * @return Gateway API key invalid data cache
      */
-    public LoadingCache getInvalidGatewayAPIKeyCache() {
+    public Cache<String, String> getInvalidGatewayAPIKeyCache() {
         return getInvalidGatewayAPIKeyCache;
     }
 }
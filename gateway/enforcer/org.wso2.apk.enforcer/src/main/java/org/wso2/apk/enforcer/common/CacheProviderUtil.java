@@ -17,12 +17,20 @@
  */
 package org.wso2.apk.enforcer.common;
 
+import com.google.common.cache.CacheStats;
 import org.wso2.apk.enforcer.api.API;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.CacheMetrics;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * This Class used to keep Organization level cache maps.
@@ -30,6 +38,9 @@ import java.util.concurrent.ConcurrentHashMap;
 public class CacheProviderUtil {
 
     private final static Map<String, CacheProvider> organizationCache = new ConcurrentHashMap<>();
+    // Statistics and sizes of the caches shared by the organizations, keyed by the cache name.
+    private final static Map<String, Supplier<CacheStats>> sharedCacheStats = new ConcurrentHashMap<>();
+    private final static Map<String, LongSupplier> sharedCacheSizes = new ConcurrentHashMap<>();
 
     private CacheProviderUtil() {
 
@@ -44,6 +55,9 @@ public class CacheProviderUtil {
                     CacheProvider cacheProvider = new CacheProvider();
                     cacheProvider.init();
                     organizationCache.put(organization, cacheProvider);
+                    if (JMXUtils.isJMXMetricsEnabled()) {
+                        CacheMetrics.getInstance().registerCacheProvider(organization, cacheProvider);
+                    }
                 }
             }
         }
@@ -53,16 +67,24 @@ public class CacheProviderUtil {
      * initialize Cache map from APIS
      * @param apis APIS available in cluster
      */
-    public static void initializeCacheHolder(Map<String, API> apis) {
+    public static void initializeCacheHolder(Collection<API> apis) {
 
         Set<String> organizations = new HashSet<>();
-        for (Map.Entry<String, API> api : apis.entrySet()) {
-            organizations.add(api.getValue().getAPIConfig().getOrganizationId());
+        for (API api : apis) {
+            organizations.add(api.getAPIConfig().getOrganizationId());
         }
         for (String organization : organizations) {
             initializeOrgLevelCache(organization);
         }
-        organizationCache.keySet().removeIf(organization -> !organizations.contains(organization));
+        organizationCache.keySet().removeIf(organization -> {
+            if (organizations.contains(organization)) {
+                return false;
+            }
+            if (JMXUtils.isJMXMetricsEnabled()) {
+                CacheMetrics.getInstance().unregisterCacheProvider(organization);
+            }
+            return true;
+        });
     }
 
     /**
@@ -74,4 +96,52 @@ public class CacheProviderUtil {
 
         return organizationCache.get(organization);
     }
+
+    /**
+     * Returns the cache providers of all the organizations.
+     *
+     * @return unmodifiable view of the cache providers
+     */
+    public static Collection<CacheProvider> getOrganizationCaches() {
+
+        return Collections.unmodifiableCollection(organizationCache.values());
+    }
+
+    /**
+     * Registers a cache which is shared by the organizations, so that its statistics are reported along with the
+     * caches of the organizations.
+     *
+     * @param cacheName name of the cache
+     * @param stats     statistics of the cache
+     * @param size      number of entries in the cache
+     */
+    public static void registerSharedCache(String cacheName, Supplier<CacheStats> stats, LongSupplier size) {
+
+        sharedCacheStats.put(cacheName, stats);
+        sharedCacheSizes.put(cacheName, size);
+    }
+
+    /**
+     * Returns the statistics of the caches shared by the organizations, keyed by the cache name.
+     *
+     * @return cache name -> statistics
+     */
+    public static Map<String, CacheStats> getSharedCacheStats() {
+
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        sharedCacheStats.forEach((cacheName, cacheStats) -> stats.put(cacheName, cacheStats.get()));
+        return stats;
+    }
+
+    /**
+     * Returns the number of entries in the caches shared by the organizations, keyed by the cache name.
+     *
+     * @return cache name -> number of entries
+     */
+    public static Map<String, Long> getSharedCacheSizes() {
+
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sharedCacheSizes.forEach((cacheName, size) -> sizes.put(cacheName, size.getAsLong()));
+        return sizes;
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache whose entries expire at a deadline set for each entry, e.g. the expiry time of the token an entry
+ * was derived from.
+ * <p>
+ * Entries are held in a Guava cache which drops them after the maximum time to live. That only reclaims the memory,
+ * as the deadline of an entry may be earlier, hence a lookup checks the deadline of the entry and removes the entry
+ * once the deadline has passed.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class ExpiringCache<K, V> {
+
+    private final Cache<K, Entry<V>> cache;
+    private final LongSupplier clock;
+    private final LongAdder expiredLookups = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize  maximum number of entries
+     * @param maxTTLMillis maximum time an entry is kept after it is added, in milliseconds
+     * @param clock        current time in milliseconds, which the deadlines of the entries are compared with
+     */
+    public ExpiringCache(long maximumSize, long maxTTLMillis, LongSupplier clock) {
+
+        this.clock = clock;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxTTLMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key key
+     * @return value or null if there is no entry whose deadline has not passed
+     */
+    public V get(K key) {
+
+        Entry<V> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= entry.expiresAt) {
+            cache.asMap().remove(key, entry);
+            expiredLookups.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Adds the given value. A value whose deadline has already passed is not added.
+     *
+     * @param key       key
+     * @param value     value
+     * @param expiresAt time after which the value is not served, in milliseconds
+     */
+    public void put(K key, V value, long expiresAt) {
+
+        if (expiresAt > clock.getAsLong()) {
+            cache.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public void invalidate(K key) {
+
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+
+        cache.invalidateAll();
+    }
+
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * Returns the statistics of the cache. The underlying cache counts the lookup of an entry whose deadline has
+     * passed as a hit, hence such lookups are moved to the misses.
+     *
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+
+        // Read first, so that each counted lookup is already recorded by the underlying cache.
+        long expired = expiredLookups.sum();
+        CacheStats stats = cache.stats();
+        return new CacheStats(stats.hitCount() - expired, stats.missCount() + expired, stats.loadSuccessCount(),
+                stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount());
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the validation results of JWTs whose signature has been verified, so that a token which is presented
+ * again is not parsed and verified once more.
+ * <p>
+ * Entries are keyed by a 128 bit digest of the signature segment of the token rather than the segment itself, which
+ * is several hundred characters long for RSA signatures. An entry is served until the expiry time of its token or the
+ * configured maximum age after it was added, whichever comes first. A digest match does not prove that the presented
+ * token is the cached one, hence callers must still compare the token of the returned result with the presented token.
+ */
+public class VerifiedTokenCache {
+
+    private static final HashFunction DIGEST_FUNCTION = Hashing.murmur3_128();
+
+    private final ExpiringCache<HashCode, JWTValidationInfo> cache;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize   maximum number of tokens in the cache
+     * @param maxAgeMinutes maximum time a token is kept after it is added, in minutes
+     */
+    public VerifiedTokenCache(int maximumSize, int maxAgeMinutes) {
+
+        this(maximumSize, TimeUnit.MINUTES.toMillis(maxAgeMinutes), System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maximumSize, long maxAgeMillis, LongSupplier clock) {
+
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+        this.cache = new ExpiringCache<>(maximumSize, maxAgeMillis, clock);
+    }
+
+    /**
+     * Returns the cached validation result of the token with the same signature as the given token.
+     *
+     * @param token JWT
+     * @return validation result or null if there is no unexpired result for the signature
+     */
+    public JWTValidationInfo get(String token) {
+
+        return cache.get(digest(token));
+    }
+
+    /**
+     * Adds the result of a successful validation of the given token. Results of tokens which have already expired
+     * are not cached.
+     *
+     * @param token          JWT
+     * @param validationInfo validation result
+     */
+    public void put(String token, JWTValidationInfo validationInfo) {
+
+        cache.put(digest(token), validationInfo,
+                Math.min(validationInfo.getExpiryTime(), clock.getAsLong() + maxAgeMillis));
+    }
+
+    public void invalidate(String token) {
+
+        cache.invalidate(digest(token));
+    }
+
+    public void invalidateAll() {
+
+        cache.invalidateAll();
+    }
+
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * Returns the statistics of the cache. Lookups of expired entries are counted as misses.
+     *
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    /**
+     * Digest of the signature segment of the token, hashed in place without copying the segment.
+     */
+    static HashCode digest(String token) {
+
+        int signatureStart = token.lastIndexOf('.') + 1;
+        return DIGEST_FUNCTION.hashUnencodedChars(CharBuffer.wrap(token, signatureStart, token.length()));
+    }
+}
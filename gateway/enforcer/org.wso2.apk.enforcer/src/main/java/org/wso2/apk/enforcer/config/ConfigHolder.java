@@ -27,6 +27,7 @@ import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.util.X509CertUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.common.CacheProvider;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.config.dto.APIKeyIssuerDto;
@@ -396,6 +397,16 @@ public class ConfigHolder {
         cacheDto.setEnabled(cache.getEnable());
         cacheDto.setMaximumSize(cache.getMaximumSize());
         cacheDto.setExpiryTime(cache.getExpiryTime());
+        // Caches of failed validations get their own bound, and a short expiry as rejected tokens may become valid
+        // once the issuers or keys are updated.
+        cacheDto.setNegativeCacheMaximumSize(cache.getMaximumSize());
+        cacheDto.setNegativeCacheExpiryTime(Math.min(cache.getExpiryTime(), Constants.NEGATIVE_CACHE_MAX_EXPIRY_TIME));
+        for (String cacheName : CacheProvider.CACHE_NAMES) {
+            envVarConfig.getCacheSetting(EnvVarConfig.CACHE_MAXIMUM_SIZE, cacheName)
+                    .ifPresent(maximumSize -> cacheDto.setMaximumSize(cacheName, maximumSize));
+            envVarConfig.getCacheSetting(EnvVarConfig.CACHE_EXPIRY_TIME, cacheName)
+                    .ifPresent(expiryTime -> cacheDto.setExpiryTime(cacheName, expiryTime));
+        }
         config.setCacheDto(cacheDto);
     }
 
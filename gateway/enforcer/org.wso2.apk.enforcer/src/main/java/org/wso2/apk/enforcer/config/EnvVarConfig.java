@@ -21,6 +21,9 @@ package org.wso2.apk.enforcer.config;
 import org.apache.commons.lang3.StringUtils;
 import org.wso2.apk.enforcer.constants.Constants;
 
+import java.util.Locale;
+import java.util.OptionalInt;
+
 /**
  * Holds and returns the configuration values retrieved from the environment variables.
  */
@@ -55,6 +58,9 @@ public class EnvVarConfig {
     public static final String REDIS_CERT_FILE = "REDIS_CERT_FILE";
     public static final String REDIS_CA_CERT_FILE = "REDIS_CA_CERT_FILE";
     public static final String REVOKED_TOKEN_CLEANUP_INTERVAL = "REVOKED_TOKEN_CLEANUP_INTERVAL";
+    // Per cache settings, where %s is the cache name in upper snake case, e.g. CACHE_GATEWAY_KEY_CACHE_MAXIMUM_SIZE
+    public static final String CACHE_MAXIMUM_SIZE = "CACHE_%s_MAXIMUM_SIZE";
+    public static final String CACHE_EXPIRY_TIME = "CACHE_%s_EXPIRY_TIME";
 
 
     // Since the container is running in linux container, path separator is not needed.
@@ -191,6 +197,31 @@ public class EnvVarConfig {
         }
     }
 
+    /**
+     * Returns a per cache setting from the environment.
+     *
+     * @param setting   {@link #CACHE_MAXIMUM_SIZE} or {@link #CACHE_EXPIRY_TIME}
+     * @param cacheName name of the cache in camel case
+     * @return value of the setting, or empty if it is not set or is not a number
+     */
+    public OptionalInt getCacheSetting(String setting, String cacheName) {
+        String variable = String.format(setting, toUpperSnakeCase(cacheName));
+        String value = retrieveEnvVarOrDefault(variable, null);
+        if (value == null) {
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    static String toUpperSnakeCase(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("([A-Z])([A-Z][a-z])", "$1_$2")
+                .toUpperCase(Locale.ROOT);
+    }
+
     private String retrieveEnvVarOrDefault(String variable, String defaultValue) {
         if (StringUtils.isEmpty(System.getenv(variable))) {
             return defaultValue;
@@ -18,13 +18,23 @@
 
 package org.wso2.apk.enforcer.config.dto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Holds the configurations related to caching used for token validation.
+ * <p>
+ * The maximum size and the expiry time can be overridden per cache, keyed by the cache name. A cache without an
+ * override uses the values of the caches of successful or failed validations, depending on the kind of the cache.
  */
 public class CacheDto {
     private boolean enabled;
     private int maximumSize;
     private int expiryTime;
+    private int negativeCacheMaximumSize;
+    private int negativeCacheExpiryTime;
+    private final Map<String, Integer> cacheMaximumSizes = new HashMap<>();
+    private final Map<String, Integer> cacheExpiryTimes = new HashMap<>();
 
     public boolean isEnabled() {
         return enabled;
@@ -49,4 +59,69 @@ public class CacheDto {
     public void setExpiryTime(int expiryTime) {
         this.expiryTime = expiryTime;
     }
+
+    public int getNegativeCacheMaximumSize() {
+        return negativeCacheMaximumSize;
+    }
+
+    public void setNegativeCacheMaximumSize(int negativeCacheMaximumSize) {
+        this.negativeCacheMaximumSize = negativeCacheMaximumSize;
+    }
+
+    public int getNegativeCacheExpiryTime() {
+        return negativeCacheExpiryTime;
+    }
+
+    public void setNegativeCacheExpiryTime(int negativeCacheExpiryTime) {
+        this.negativeCacheExpiryTime = negativeCacheExpiryTime;
+    }
+
+    /**
+     * Returns the maximum size of a cache of successful validations.
+     *
+     * @param cacheName name of the cache
+     * @return maximum size of the cache, or the common maximum size if the cache has no size of its own
+     */
+    public int getMaximumSize(String cacheName) {
+        return cacheMaximumSizes.getOrDefault(cacheName, maximumSize);
+    }
+
+    /**
+     * Returns the expiry time of a cache of successful validations.
+     *
+     * @param cacheName name of the cache
+     * @return expiry time of the cache, or the common expiry time if the cache has no expiry time of its own
+     */
+    public int getExpiryTime(String cacheName) {
+        return cacheExpiryTimes.getOrDefault(cacheName, expiryTime);
+    }
+
+    /**
+     * Returns the maximum size of a cache of failed validations.
+     *
+     * @param cacheName name of the cache
+     * @return maximum size of the cache, or the common negative cache maximum size if the cache has no size of its own
+     */
+    public int getNegativeCacheMaximumSize(String cacheName) {
+        return cacheMaximumSizes.getOrDefault(cacheName, negativeCacheMaximumSize);
+    }
+
+    /**
+     * Returns the expiry time of a cache of failed validations.
+     *
+     * @param cacheName name of the cache
+     * @return expiry time of the cache, or the common negative cache expiry time if the cache has no expiry time of
+     * its own
+     */
+    public int getNegativeCacheExpiryTime(String cacheName) {
+        return cacheExpiryTimes.getOrDefault(cacheName, negativeCacheExpiryTime);
+    }
+
+    public void setMaximumSize(String cacheName, int maximumSize) {
+        cacheMaximumSizes.put(cacheName, maximumSize);
+    }
+
+    public void setExpiryTime(String cacheName, int expiryTime) {
+        cacheExpiryTimes.put(cacheName, expiryTime);
+    }
 }
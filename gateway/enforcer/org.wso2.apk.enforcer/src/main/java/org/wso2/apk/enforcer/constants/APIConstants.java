@@ -221,6 +221,8 @@ public class APIConstants {
         public static final String ERROR_CODE = "code";
         public static final String ERROR_MESSAGE = "error_message";
         public static final String ERROR_DESCRIPTION = "error_description";
+        // Complete body of a direct response, which is sent as is instead of an error message.
+        public static final String RESPONSE_PAYLOAD = "response_payload";
     }
 
     /**
@@ -17,29 +17,22 @@
  */
 package org.wso2.apk.enforcer.graphql;
 
-import graphql.language.Definition;
-import graphql.language.Document;
-import graphql.language.OperationDefinition;
 import graphql.parser.InvalidSyntaxException;
-import graphql.parser.Parser;
-import graphql.schema.GraphQLSchema;
-import graphql.validation.Validator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wso2.apk.enforcer.commons.constants.GraphQLConstants;
-import org.wso2.apk.enforcer.commons.graphql.GraphQLProcessorUtil;
-import org.wso2.apk.enforcer.commons.graphql.QueryValidator;
 import org.wso2.apk.enforcer.discovery.api.GraphqlComplexity;
 import org.wso2.apk.enforcer.api.API;
 import org.wso2.apk.enforcer.api.APIFactory;
+import org.wso2.apk.enforcer.api.GraphQLAPI;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.commons.model.GraphQLCustomComplexityInfoDTO;
-import org.wso2.apk.enforcer.commons.model.GraphQLSchemaDTO;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
 import org.wso2.apk.enforcer.constants.APIConstants;
 
@@ -63,30 +56,17 @@ public class GraphQLPayloadUtils {
      * @throws EnforcerException use for error response handling
      */
     public static ArrayList<ResourceConfig> buildGQLRequestContext(API api, String queryBody) throws EnforcerException {
-        GraphQLSchemaDTO graphQLSchemaDTO = api.getAPIConfig().getGraphQLSchemaDTO();
         try {
-            // Validate payload with graphQLSchema
-            Document document = new Parser().parseDocument(queryBody);
-            String validationErrors = validatePayloadWithSchema(graphQLSchemaDTO.getGraphQLSchema(), document);
-            if (validationErrors == null) {
-                ArrayList<String> operationList = new ArrayList<>();
-                String method = "";
-                // Extract the operation type and operations from the payload
-                for (Definition definition : document.getDefinitions()) {
-                    // we only allow one operation type per request
-                    if (definition instanceof OperationDefinition) {
-                        OperationDefinition operation = (OperationDefinition) definition;
-                        if (operation.getOperation() != null) {
-                            method = operation.getOperation().toString();
-                            operationList = GraphQLProcessorUtil.getOperationList(operation,
-                                    graphQLSchemaDTO.getTypeDefinitionRegistry());
-                            logger.debug("Found operation list : " + operationList.toString());
-                            break;
-                        }
-                    } else {
-                        throw new EnforcerException("Operation definition cannot be empty");
-                    }
+            // Validate payload with graphQLSchema, which is skipped for a query analysed earlier
+            GraphQLQueryCache.AnalyzedQuery analyzedQuery = getGraphQLAPI(api).getQueryCache().get(queryBody);
+            if (analyzedQuery.getValidationErrors() == null) {
+                if (analyzedQuery.getOperationError() != null) {
+                    throw new EnforcerException(analyzedQuery.getOperationError());
                 }
+                // we only allow one operation type per request
+                String method = analyzedQuery.getOperationType();
+                List<String> operationList = analyzedQuery.getOperationList();
+                logger.debug("Found operation list : " + operationList.toString());
                 ArrayList<ResourceConfig> resourceConfigs = new ArrayList<>();
                 for (String op : operationList) {
                     ResourceConfig resourceConfig = APIFactory.getInstance().getMatchedResource(api, op, method);
@@ -102,7 +82,7 @@ public class GraphQLPayloadUtils {
                 }
                 return resourceConfigs;
             } else {
-                throw new EnforcerException("Payload is invalid", new Exception(validationErrors));
+                throw new EnforcerException("Payload is invalid", new Exception(analyzedQuery.getValidationErrors()));
             }
         } catch (InvalidSyntaxException exception) {
             throw new EnforcerException("Invalid syntax", exception);
@@ -110,12 +90,17 @@ public class GraphQLPayloadUtils {
     }
 
     /**
+     * Extracts the query of the request. A JSON request may carry the hash of a persisted query in place of the
+     * query, or along with the query to register it.
+     *
+     * @param api            matched api
      * @param requestPayload request payload
      * @param requestHeaders request headers
-     * @return
-     * @throws EnforcerException invalid payloads
+     * @return graphQL query
+     * @throws EnforcerException invalid payloads, or {@link PersistedQueryNotFoundException} for unknown persisted
+     *                           queries
      */
-    public static String getGQLRequestPayload(String requestPayload, Map<String, String> requestHeaders)
+    public static String getGQLRequestPayload(API api, String requestPayload, Map<String, String> requestHeaders)
             throws EnforcerException {
         String queryBody = "";
         if (!requestHeaders.containsKey(APIConstants.CONTENT_TYPE_HEADER) ||
@@ -123,7 +108,16 @@ public class GraphQLPayloadUtils {
                         .equalsIgnoreCase(requestHeaders.get(APIConstants.CONTENT_TYPE_HEADER)))) {
             try {
                 JSONObject jsonObject = new JSONObject(requestPayload);
-                queryBody = jsonObject.getString(GraphQLConstants.GRAPHQL_QUERY.toLowerCase(Locale.ROOT));
+                String queryField = GraphQLConstants.GRAPHQL_QUERY.toLowerCase(Locale.ROOT);
+                JSONObject extensions = jsonObject.optJSONObject(GraphQLConstants.GRAPHQL_EXTENSIONS);
+                JSONObject persistedQuery = extensions == null ? null
+                        : extensions.optJSONObject(GraphQLConstants.PERSISTED_QUERY);
+                if (persistedQuery == null) {
+                    queryBody = jsonObject.getString(queryField);
+                } else {
+                    queryBody = resolvePersistedQuery(getGraphQLAPI(api), persistedQuery,
+                            jsonObject.optString(queryField));
+                }
             } catch (JSONException e) {
                 throw new EnforcerException("Invalid GraphQL query body structure");
             }
@@ -141,15 +135,55 @@ public class GraphQLPayloadUtils {
     }
 
     /**
-     * This method validate the payload.
+     * Resolves the query of a persisted query request, registering the query if the request carries it.
+     *
+     * @param api            matched api
+     * @param persistedQuery persisted query extension of the request
+     * @param queryBody      query of the request, empty if the request only carries the hash
+     * @return graphQL query
+     * @throws EnforcerException if the version is not supported or the hash does not match the query, or
+     *                           {@link PersistedQueryNotFoundException} if the hash is unknown
+     */
+    private static String resolvePersistedQuery(GraphQLAPI api, JSONObject persistedQuery, String queryBody)
+            throws EnforcerException {
+        if (persistedQuery.optInt(GraphQLConstants.PERSISTED_QUERY_VERSION)
+                != GraphQLPersistedQueryStore.SUPPORTED_VERSION) {
+            throw new EnforcerException("Unsupported persisted query version");
+        }
+        String sha256Hash = persistedQuery.getString(GraphQLConstants.PERSISTED_QUERY_HASH);
+        if (StringUtils.isBlank(queryBody)) {
+            String query = api.getPersistedQueryStore().get(sha256Hash);
+            if (query == null) {
+                throw new PersistedQueryNotFoundException();
+            }
+            return query;
+        }
+        api.getPersistedQueryStore().register(sha256Hash, queryBody);
+        return queryBody;
+    }
+
+    /**
+     * Returns the GraphQL response to a request carrying the hash of an unknown persisted query. Clients recognise the
+     * error by its message or code and retry with the query.
      *
-     * @param graphQLSchema graphql sdl
-     * @param document      graphQL schema of the request
-     * @return true or false
+     * @return GraphQL response with the {@code PersistedQueryNotFound} error
      */
-    private static String validatePayloadWithSchema(GraphQLSchema graphQLSchema, Document document) {
-        QueryValidator queryValidator = new QueryValidator(new Validator());
-        return queryValidator.validatePayload(graphQLSchema, document);
+    public static String getPersistedQueryNotFoundResponse() {
+        JSONObject extensions = new JSONObject();
+        extensions.put("code", GraphQLConstants.PERSISTED_QUERY_NOT_FOUND_CODE);
+        JSONObject error = new JSONObject();
+        error.put("message", GraphQLConstants.PERSISTED_QUERY_NOT_FOUND);
+        error.put(GraphQLConstants.GRAPHQL_EXTENSIONS, extensions);
+        JSONObject response = new JSONObject();
+        response.put("errors", new JSONArray().put(error));
+        return response.toString();
+    }
+
+    private static GraphQLAPI getGraphQLAPI(API api) throws EnforcerException {
+        if (!(api instanceof GraphQLAPI)) {
+            throw new EnforcerException("API " + api.getAPIConfig().getName() + " is not a GraphQL API");
+        }
+        return (GraphQLAPI) api;
     }
 
     public static List<GraphQLCustomComplexityInfoDTO> parseComplexityDTO(List<GraphqlComplexity>
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.graphql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import graphql.parser.InvalidSyntaxException;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Store of the persisted queries of a GraphQL API, which lets clients send the SHA-256 hash of a query in place of
+ * the query as in the automatic persisted queries (APQ) protocol.
+ * <p>
+ * A client sends the hash of its query in the {@code extensions.persistedQuery} field of the request. If the hash is
+ * not known, the request is answered with a GraphQL {@code PersistedQueryNotFound} error and the client sends the query
+ * along with its hash, which registers the query once the hash is verified. Only queries which pass the validation
+ * against the schema are registered. They are analysed on registration, so a query resolved from its hash is served
+ * by the {@link GraphQLQueryCache} of the API. The store is bounded by the total length of its queries and evicts the
+ * least recently used ones.
+ */
+public class GraphQLPersistedQueryStore {
+
+    static final int SUPPORTED_VERSION = 1;
+    // Maximum total length of the stored queries, in characters.
+    static final long DEFAULT_MAXIMUM_WEIGHT = 4L * 1024 * 1024;
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+    private final GraphQLQueryCache queryCache;
+    private final Cache<String, String> queries;
+
+    public GraphQLPersistedQueryStore(GraphQLQueryCache queryCache) {
+
+        this(queryCache, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    GraphQLPersistedQueryStore(GraphQLQueryCache queryCache, long maximumWeight) {
+
+        this.queryCache = queryCache;
+        this.queries = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String hash, String query) -> query.length())
+                .build();
+    }
+
+    /**
+     * Returns the query with the given hash.
+     *
+     * @param sha256Hash hex encoded SHA-256 hash of the query
+     * @return query or null if no query is registered with the hash
+     */
+    public String get(String sha256Hash) {
+
+        return queries.getIfPresent(sha256Hash.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Registers the given query with its hash. A query which is not valid is not registered, and is rejected when the
+     * request is processed.
+     *
+     * @param sha256Hash hex encoded SHA-256 hash of the query, as sent by the client
+     * @param query      GraphQL query
+     * @throws EnforcerException if the hash is not the SHA-256 hash of the query
+     */
+    public void register(String sha256Hash, String query) throws EnforcerException {
+
+        String hash = sha256Hash.toLowerCase(Locale.ROOT);
+        if (!HASH_FUNCTION.hashString(query, StandardCharsets.UTF_8).toString().equals(hash)) {
+            throw new EnforcerException("Provided sha256Hash does not match the query");
+        }
+        if (queries.getIfPresent(hash) != null) {
+            return;
+        }
+        try {
+            if (queryCache.get(query).getValidationErrors() != null) {
+                return;
+            }
+        } catch (InvalidSyntaxException e) {
+            return;
+        }
+        queries.put(hash, query);
+    }
+
+    public long size() {
+
+        return queries.size();
+    }
+}
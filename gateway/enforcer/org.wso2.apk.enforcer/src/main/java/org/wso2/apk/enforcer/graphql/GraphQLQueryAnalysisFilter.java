@@ -17,27 +17,17 @@
  */
 package org.wso2.apk.enforcer.graphql;
 
-import graphql.schema.GraphQLSchema;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.ParseException;
 import org.wso2.apk.enforcer.commons.constants.GraphQLConstants;
-import org.wso2.apk.enforcer.commons.dto.QueryAnalyzerResponseDTO;
-import org.wso2.apk.enforcer.commons.graphql.QueryAnalyzer;
 import org.wso2.apk.enforcer.commons.Filter;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
-import org.wso2.apk.enforcer.commons.model.APIConfig;
-import org.wso2.apk.enforcer.commons.model.GraphQLCustomComplexityInfoDTO;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collections;
 
 /**
  * This Handler can be used to analyse GraphQL Query. This implementation uses previously set
@@ -46,12 +36,10 @@ import java.util.Map;
 public class GraphQLQueryAnalysisFilter implements Filter {
 
     private static final Logger logger = LogManager.getLogger(GraphQLQueryAnalysisFilter.class);
-    private QueryAnalyzer queryAnalyzer;
+    private final GraphQLQueryCache queryCache;
 
-    @Override
-    public void init(APIConfig apiConfig, Map<String, String> configProperties) {
-        GraphQLSchema schema = apiConfig.getGraphQLSchemaDTO().getGraphQLSchema();
-        queryAnalyzer = new QueryAnalyzer(schema);
+    public GraphQLQueryAnalysisFilter(GraphQLQueryCache queryCache) {
+        this.queryCache = queryCache;
     }
 
     @Override
@@ -73,7 +61,9 @@ public class GraphQLQueryAnalysisFilter implements Filter {
      */
     private boolean isDepthAndComplexityValid(RequestContext requestContext, String payload) {
         try {
-            return isDepthValid(requestContext, payload) && isComplexityValid(requestContext, payload);
+            // The query has been analysed while matching the resources, hence this is a cache hit.
+            GraphQLQueryCache.AnalyzedQuery analyzedQuery = queryCache.get(payload);
+            return isDepthValid(requestContext, analyzedQuery) && isComplexityValid(requestContext, analyzedQuery);
         } catch (Exception e) {
             logger.error("Policy definition parsing failed for API UUID : {} API : {} version : {}",
                     requestContext.getMatchedAPI().getUuid(), requestContext.getMatchedAPI().getName(),
@@ -84,49 +74,52 @@ public class GraphQLQueryAnalysisFilter implements Filter {
         }
     }
 
-    private boolean isDepthValid(RequestContext requestContext, String payload) {
+    private boolean isDepthValid(RequestContext requestContext, GraphQLQueryCache.AnalyzedQuery analyzedQuery) {
         int maxQueryDepth = -1;
         if (requestContext.getProperties().containsKey(GraphQLConstants.MAXIMUM_QUERY_DEPTH)) {
             maxQueryDepth = (Integer) requestContext.getProperties().get(GraphQLConstants.MAXIMUM_QUERY_DEPTH);
         }
-        QueryAnalyzerResponseDTO responseDTO = queryAnalyzer.analyseQueryDepth(maxQueryDepth, payload);
-        if (!responseDTO.isSuccess() && !responseDTO.getErrorList().isEmpty()) {
-            handleFailure(requestContext, GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP,
-                    GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP_MESSAGE, responseDTO.getErrorList().toString());
-            logger.error("Requested query's depth has exceeded. API : {}, version : {}, Error : {}",
-                    requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
-                    responseDTO.getErrorList().toString(), ErrorDetails.errorLog(LoggingConstants.Severity.MINOR,
-                            7301));
-            return false;
+        // If maxQueryDepth is a positive value, perform the depth limitation check. Otherwise, bypass the check.
+        if (maxQueryDepth <= 0) {
+            return true;
         }
-        return true;
+        String error;
+        if (analyzedQuery.getAnalysisError() != null) {
+            error = analyzedQuery.getAnalysisError();
+        } else if (analyzedQuery.getDepth() > maxQueryDepth) {
+            error = "maximum query depth exceeded " + analyzedQuery.getDepth() + " > " + maxQueryDepth;
+        } else {
+            return true;
+        }
+        String errorList = Collections.singletonList(error).toString();
+        handleFailure(requestContext, GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP,
+                GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP_MESSAGE, errorList);
+        logger.error("Requested query's depth has exceeded. API : {}, version : {}, Error : {}",
+                requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
+                errorList, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 7301));
+        return false;
     }
 
-    private boolean isComplexityValid(RequestContext requestContext, String payload) {
+    private boolean isComplexityValid(RequestContext requestContext, GraphQLQueryCache.AnalyzedQuery analyzedQuery) {
         int queryComplexity = -1;
         if (requestContext.getProperties().containsKey(GraphQLConstants.MAXIMUM_QUERY_COMPLEXITY)) {
             queryComplexity = (Integer) requestContext.getProperties()
                     .get(GraphQLConstants.MAXIMUM_QUERY_COMPLEXITY);
         }
-        QueryAnalyzerResponseDTO responseDTO = null;
-        try {
-            responseDTO = queryAnalyzer.analyseQueryMutationComplexity(payload, queryComplexity,
-                    policyDefinitionToJson(requestContext.getMatchedAPI().getGraphQLSchemaDTO()
-                            .getGraphQLCustomComplexityInfoDTO()).toJSONString());
-        } catch (ParseException e) {
-            String errorMessage = "Policy definition parsing failed. ";
-            handleFailure(requestContext, GraphQLConstants.GRAPHQL_INVALID_QUERY, errorMessage, errorMessage);
+        // If queryComplexity is a positive value, perform the complexity limitation check. Otherwise, bypass the check.
+        if (queryComplexity <= 0) {
+            return true;
         }
-        if (responseDTO != null && !responseDTO.isSuccess() && !responseDTO.getErrorList().isEmpty()) {
-            handleFailure(requestContext, GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX,
-                    GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX_MESSAGE, responseDTO.getErrorList().toString());
-            logger.error("Requested query's complexity has exceeded. API : {}, version : {}, Error: {}",
-                    requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
-                    responseDTO.getErrorList().toString(), ErrorDetails.errorLog(LoggingConstants.Severity.MINOR,
-                            7303));
-            return false;
+        if (analyzedQuery.getAnalysisError() == null && analyzedQuery.getComplexity() <= queryComplexity) {
+            return true;
         }
-        return true;
+        String errorList = Collections.singletonList("maximum query complexity exceeded").toString();
+        handleFailure(requestContext, GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX,
+                GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX_MESSAGE, errorList);
+        logger.error("Requested query's complexity has exceeded. API : {}, version : {}, Error: {}",
+                requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
+                errorList, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 7303));
+        return false;
     }
 
     /**
@@ -164,44 +157,4 @@ public class GraphQLQueryAnalysisFilter implements Filter {
         requestContext.getProperties().put(APIConstants.MessageFormat.ERROR_DESCRIPTION,
                 errorDescription);
     }
-
-
-    /**
-     * Method to convert GraphqlComplexityInfo object to a JSONObject.
-     *
-     * @param graphqlComplexityInfoList GraphqlComplexityInfo object
-     * @return json object which contains the policy definition
-     */
-    private JSONObject policyDefinitionToJson(List<GraphQLCustomComplexityInfoDTO> graphqlComplexityInfoList) {
-        JSONObject policyDefinition = new JSONObject();
-        HashMap<String, HashMap<String, Integer>> customComplexityMap = new HashMap<>();
-        for (GraphQLCustomComplexityInfoDTO graphqlComplexityInfo : graphqlComplexityInfoList) {
-            String type = graphqlComplexityInfo.getType();
-            String field = graphqlComplexityInfo.getField();
-            int complexityValue = graphqlComplexityInfo.getComplexityValue();
-            if (customComplexityMap.containsKey(type)) {
-                customComplexityMap.get(type).put(field, complexityValue);
-            } else {
-                HashMap<String, Integer> complexityValueMap = new HashMap<>();
-                complexityValueMap.put(field, complexityValue);
-                customComplexityMap.put(type, complexityValueMap);
-            }
-        }
-
-        Map<String, Map<String, Object>> customComplexityObject = new LinkedHashMap<>(customComplexityMap.size());
-        for (HashMap.Entry<String, HashMap<String, Integer>> entry : customComplexityMap.entrySet()) {
-            HashMap<String, Integer> fieldValueMap = entry.getValue();
-            String type = entry.getKey();
-            Map<String, Object> fieldValueObject = new LinkedHashMap<>(fieldValueMap.size());
-            for (HashMap.Entry<String, Integer> subEntry : fieldValueMap.entrySet()) {
-                String field = subEntry.getKey();
-                int complexityValue = subEntry.getValue();
-                fieldValueObject.put(field, complexityValue);
-            }
-            customComplexityObject.put(type, fieldValueObject);
-        }
-
-        policyDefinition.put(GraphQLConstants.QUERY_ANALYSIS_COMPLEXITY, customComplexityObject);
-        return policyDefinition;
-    }
 }
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.graphql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.graphql.FieldComplexityCalculatorImpl;
+import org.wso2.apk.enforcer.commons.graphql.GraphQLProcessorUtil;
+import org.wso2.apk.enforcer.commons.graphql.QueryValidator;
+import org.wso2.apk.enforcer.commons.model.GraphQLSchemaDTO;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the analysis of the GraphQL queries of an API, so that a query which is sent again is not parsed,
+ * validated and analysed once more.
+ * <p>
+ * Queries are keyed by their normalized text, from which the comments, commas and white space that do not separate
+ * tokens are dropped, hence queries which only differ in formatting share an entry. An entry holds the parsed
+ * document, the validation result, the operations used to match the resources, and the depth and complexity of the
+ * query, which are measured in a single traversal of the document with the complexity values of the API compiled
+ * once. The depth and complexity limits are applied by the caller as they depend on the subscription of the request.
+ * Queries with a syntax error or longer than {@link #MAX_CACHEABLE_QUERY_LENGTH} are not cached.
+ */
+public class GraphQLQueryCache {
+
+    private static final Logger logger = LogManager.getLogger(GraphQLQueryCache.class);
+    static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    static final int MAX_CACHEABLE_QUERY_LENGTH = 16 * 1024;
+    private static final String EMPTY_OPERATION_DEFINITION = "Operation definition cannot be empty";
+
+    private final GraphQLSchema schema;
+    private final TypeDefinitionRegistry typeDefinitionRegistry;
+    private final FieldComplexityCalculator fieldComplexityCalculator;
+    private final QueryValidator queryValidator = new QueryValidator(new Validator());
+    private final Cache<String, AnalyzedQuery> cache;
+
+    public GraphQLQueryCache(GraphQLSchemaDTO graphQLSchemaDTO) {
+
+        this(graphQLSchemaDTO, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    GraphQLQueryCache(GraphQLSchemaDTO graphQLSchemaDTO, int maximumSize) {
+
+        this.schema = graphQLSchemaDTO.getGraphQLSchema();
+        this.typeDefinitionRegistry = graphQLSchemaDTO.getTypeDefinitionRegistry();
+        this.fieldComplexityCalculator = new FieldComplexityCalculatorImpl(
+                graphQLSchemaDTO.getGraphQLCustomComplexityInfoDTO());
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the analysis of the given query, analysing and caching it if it is not in the cache.
+     *
+     * @param query GraphQL query
+     * @return analysis of the query
+     * @throws InvalidSyntaxException if the query cannot be parsed
+     */
+    public AnalyzedQuery get(String query) {
+
+        if (query.length() > MAX_CACHEABLE_QUERY_LENGTH) {
+            return analyze(query);
+        }
+        String key = normalize(query);
+        AnalyzedQuery analyzedQuery = cache.getIfPresent(key);
+        if (analyzedQuery != null) {
+            return analyzedQuery;
+        }
+        analyzedQuery = analyze(query);
+        cache.put(key, analyzedQuery);
+        return analyzedQuery;
+    }
+
+    public long size() {
+
+        return cache.size();
+    }
+
+    private AnalyzedQuery analyze(String query) {
+
+        Document document = new Parser().parseDocument(query);
+        String validationErrors = queryValidator.validatePayload(schema, document);
+        if (validationErrors != null) {
+            return new AnalyzedQuery(document, validationErrors, null, "", Collections.emptyList());
+        }
+        String operationType = "";
+        List<String> operationList = Collections.emptyList();
+        // Only the first operation of the document is considered, and the document must start with it.
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (!(definition instanceof OperationDefinition)) {
+                return new AnalyzedQuery(document, null, EMPTY_OPERATION_DEFINITION, "", Collections.emptyList());
+            }
+            OperationDefinition operation = (OperationDefinition) definition;
+            if (operation.getOperation() != null) {
+                operationType = operation.getOperation().toString();
+                operationList = Collections.unmodifiableList(
+                        GraphQLProcessorUtil.getOperationList(operation, typeDefinitionRegistry));
+                break;
+            }
+        }
+        AnalyzedQuery analyzedQuery = new AnalyzedQuery(document, null, null, operationType, operationList);
+        measure(analyzedQuery);
+        return analyzedQuery;
+    }
+
+    /**
+     * Measures the depth and the complexity of the query in one post order traversal, with the same semantics as the
+     * MaxQueryDepthInstrumentation and MaxQueryComplexityInstrumentation of graphql-java. Like them, the query is
+     * traversed without variables, so a query which requires a variable cannot be measured.
+     */
+    private void measure(AnalyzedQuery analyzedQuery) {
+
+        Map<QueryVisitorFieldEnvironment, Integer> complexityByParent = new HashMap<>();
+        int[] depth = {0};
+        try {
+            QueryTraverser queryTraverser = QueryTraverser.newQueryTraverser().schema(schema)
+                    .document(analyzedQuery.document).variables(Collections.emptyMap()).build();
+            queryTraverser.visitPostOrder(new QueryVisitorStub() {
+                @Override
+                public void visitField(QueryVisitorFieldEnvironment environment) {
+
+                    depth[0] = Math.max(depth[0], getDepth(environment));
+                    int complexity = 0;
+                    if (!environment.isTypeNameIntrospectionField()) {
+                        complexity = fieldComplexityCalculator.calculate(toComplexityEnvironment(environment),
+                                complexityByParent.getOrDefault(environment, 0));
+                    }
+                    complexityByParent.merge(environment.getParentEnvironment(), complexity, Integer::sum);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.debug("Depth and complexity of the query cannot be measured", e);
+            analyzedQuery.analysisError = e.getMessage();
+            return;
+        }
+        analyzedQuery.depth = depth[0];
+        analyzedQuery.complexity = complexityByParent.getOrDefault(null, 0);
+    }
+
+    private static int getDepth(QueryVisitorFieldEnvironment environment) {
+
+        int depth = 1;
+        for (QueryVisitorFieldEnvironment parent = environment.getParentEnvironment(); parent != null;
+             parent = parent.getParentEnvironment()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static FieldComplexityEnvironment toComplexityEnvironment(QueryVisitorFieldEnvironment environment) {
+
+        FieldComplexityEnvironment parent = environment.getParentEnvironment() == null ? null
+                : toComplexityEnvironment(environment.getParentEnvironment());
+        return new FieldComplexityEnvironment(environment.getField(), environment.getFieldDefinition(),
+                environment.getFieldsContainer(), environment.getArguments(), parent);
+    }
+
+    /**
+     * Drops the comments, commas and white space outside string values, except for a single space where they
+     * separate two names, numbers or strings. The tokens of the query are kept as they are, so two queries with the
+     * same normalized text have the same meaning.
+     *
+     * @param query GraphQL query
+     * @return normalized query
+     */
+    static String normalize(String query) {
+
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean separated = false;
+        int position = 0;
+        while (position < query.length()) {
+            char c = query.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',' || c == '\uFEFF') {
+                separated = true;
+                position++;
+                continue;
+            }
+            if (c == '#') {
+                while (position < query.length() && query.charAt(position) != '\n'
+                        && query.charAt(position) != '\r') {
+                    position++;
+                }
+                separated = true;
+                continue;
+            }
+            // A separator is only significant between two names, numbers or strings.
+            if (separated && normalized.length() > 0 && isWordChar(normalized.charAt(normalized.length() - 1))
+                    && isWordChar(c)) {
+                normalized.append(' ');
+            }
+            separated = false;
+            if (c == '"') {
+                int end = query.startsWith("\"\"\"", position) ? endOfBlockString(query, position + 3)
+                        : endOfString(query, position + 1);
+                normalized.append(query, position, end);
+                position = end;
+            } else {
+                normalized.append(c);
+                position++;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '"';
+    }
+
+    private static int endOfString(String query, int position) {
+
+        while (position < query.length()) {
+            char c = query.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == '"') {
+                return position + 1;
+            } else {
+                position++;
+            }
+        }
+        return query.length();
+    }
+
+    private static int endOfBlockString(String query, int position) {
+
+        while (position < query.length()) {
+            if (query.startsWith("\\\"\"\"", position)) {
+                position += 4;
+            } else if (query.startsWith("\"\"\"", position)) {
+                return position + 3;
+            } else {
+                position++;
+            }
+        }
+        return query.length();
+    }
+
+    /**
+     * Result of the analysis of a query. Entries are shared by concurrent requests and are not modified once they are
+     * cached.
+     */
+    public static final class AnalyzedQuery {
+
+        private final Document document;
+        private final String validationErrors;
+        private final String operationError;
+        private final String operationType;
+        private final List<String> operationList;
+        private int depth;
+        private int complexity;
+        private String analysisError;
+
+        private AnalyzedQuery(Document document, String validationErrors, String operationError,
+                              String operationType, List<String> operationList) {
+
+            this.document = document;
+            this.validationErrors = validationErrors;
+            this.operationError = operationError;
+            this.operationType = operationType;
+            this.operationList = operationList;
+        }
+
+        public Document getDocument() {
+
+            return document;
+        }
+
+        /**
+         * Returns the errors of the validation of the query against the schema.
+         *
+         * @return comma separated validation errors or null if the query is valid
+         */
+        public String getValidationErrors() {
+
+            return validationErrors;
+        }
+
+        /**
+         * Returns the reason why the operations of the query cannot be extracted.
+         *
+         * @return error message or null if the operations are extracted
+         */
+        public String getOperationError() {
+
+            return operationError;
+        }
+
+        public String getOperationType() {
+
+            return operationType;
+        }
+
+        public List<String> getOperationList() {
+
+            return operationList;
+        }
+
+        public int getDepth() {
+
+            return depth;
+        }
+
+        public int getComplexity() {
+
+            return complexity;
+        }
+
+        /**
+         * Returns the reason why the depth and the complexity of the query cannot be measured. Such a query fails any
+         * depth or complexity limit.
+         *
+         * @return error message or null if the depth and the complexity are measured
+         */
+        public String getAnalysisError() {
+
+            return analysisError;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.graphql;
+
+import org.wso2.apk.enforcer.commons.constants.GraphQLConstants;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+
+/**
+ * Exception thrown when a request carries only the hash of a persisted query which is not known. The client is
+ * expected to retry with the query, hence this is not an error of the request.
+ */
+public class PersistedQueryNotFoundException extends EnforcerException {
+
+    public PersistedQueryNotFoundException() {
+
+        super(GraphQLConstants.PERSISTED_QUERY_NOT_FOUND);
+    }
+}
@@ -6,6 +6,7 @@ import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.health.HealthCheckRequest;
 import org.wso2.apk.enforcer.discovery.service.health.HealthCheckResponse;
 import org.wso2.apk.enforcer.discovery.service.health.HealthGrpc;
+import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreUtil;
 
 /**
  * This is the gRPC server written to serve the health state of enforcer.
@@ -13,13 +14,24 @@ import org.wso2.apk.enforcer.discovery.service.health.HealthGrpc;
 public class HealthService extends HealthGrpc.HealthImplBase {
 
     private static final Logger logger = LogManager.getLogger(HealthService.class);
+    // Service name requested by the readiness probe.
+    private static final String READINESS_SERVICE = "readiness";
 
     @Override
     public void check(HealthCheckRequest request, StreamObserver<HealthCheckResponse> responseObserver) {
-        logger.debug("Responding health state of Enforcer as HEALTHY");
-        HealthCheckResponse response = HealthCheckResponse.newBuilder()
-                .setStatus(HealthCheckResponse.ServingStatus.SERVING).build();
-        // respond for all without checking requested service name
+        HealthCheckResponse.ServingStatus status;
+        // Requests can not be validated until the subscription data is loaded, hence the enforcer is not ready.
+        // Liveness checks do not depend on it, so that a slow load does not restart the enforcer.
+        if (!READINESS_SERVICE.equals(request.getService())
+                || SubscriptionDataStoreUtil.isSubscriptionDataLoaded()) {
+            logger.debug("Responding health state of Enforcer as HEALTHY");
+            status = HealthCheckResponse.ServingStatus.SERVING;
+        } else {
+            logger.debug("Responding health state of Enforcer as NOT_SERVING as subscription data is not loaded");
+            status = HealthCheckResponse.ServingStatus.NOT_SERVING;
+        }
+        HealthCheckResponse response = HealthCheckResponse.newBuilder().setStatus(status).build();
+        // other than the readiness, respond for all without checking requested service name
         // service name format: package_names.ServiceName
         responseObserver.onNext(response);
         responseObserver.onCompleted();
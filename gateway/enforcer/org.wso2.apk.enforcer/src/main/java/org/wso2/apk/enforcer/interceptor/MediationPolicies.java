@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor;
+
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpMethod;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
+import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
+import org.wso2.apk.enforcer.commons.model.Policy;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.opa.OPASecurityException;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.APISecurityConstants;
+import org.wso2.apk.enforcer.constants.GeneralErrorCodeConstants;
+import org.wso2.apk.enforcer.interceptor.opa.OPAClient;
+import org.wso2.apk.enforcer.util.FilterUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the mediation policies of a resource into {@link MediationPolicy} instances. The policy parameters are
+ * parsed and normalized once, so applying a policy to a request only reads prepared values.
+ */
+final class MediationPolicies {
+
+    private static final Logger log = LogManager.getLogger(MediationPolicies.class);
+    private static final String X_URI_MAPPING_PROPERTY = "x-uri-mapping";
+    private static final String URI_VAR_PREFIX = "{uri.var.";
+    private static final Pattern URI_VAR_PATTERN = Pattern.compile("\\{uri\\.var\\.(.*?)\\}");
+    private static final MediationPolicy[] NO_POLICIES = new MediationPolicy[0];
+
+    private MediationPolicies() {
+
+    }
+
+    /**
+     * Compiles the given policies, preserving their order.
+     *
+     * @param policies policy configurations, may be null
+     * @return compiled policies
+     */
+    static MediationPolicy[] compile(List<Policy> policies) {
+
+        if (policies == null || policies.isEmpty()) {
+            return NO_POLICIES;
+        }
+        List<MediationPolicy> compiled = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            MediationPolicy mediationPolicy = compile(policy);
+            if (mediationPolicy != null) {
+                compiled.add(mediationPolicy);
+            }
+        }
+        return compiled.toArray(NO_POLICIES);
+    }
+
+    private static MediationPolicy compile(Policy policy) {
+
+        Map<String, String> policyAttrib = policy.getParameters();
+        switch (String.valueOf(policy.getAction())) {
+            case "RENAME_HEADER":
+                return new RenameHeader(policyAttrib.get("currentHeaderName"), policyAttrib.get("updatedHeaderName"));
+            case "ADD_QUERY":
+                return new AddQuery(policyAttrib.get("queryParamName"), policyAttrib.get("queryParamValue"));
+            case "REMOVE_QUERY":
+                return new RemoveQuery(policyAttrib.get("queryParamName"));
+            case "REWRITE_RESOURCE_PATH":
+                return new RewriteResourcePath(policyAttrib);
+            case "REWRITE_RESOURCE_METHOD":
+                return compileRewriteMethod(policyAttrib.get("updatedMethod"));
+            case "OPA":
+                return new OPAValidation(policyAttrib);
+            default:
+                return new UnsupportedPolicy(policy.getAction());
+        }
+    }
+
+    private static MediationPolicy compileRewriteMethod(String updatedMethod) {
+
+        try {
+            return new RewriteMethod(HttpMethod.valueOf(updatedMethod).toString().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            // The method is left unchanged, as it was when the policy was evaluated on each request.
+            log.error("Error while getting mediation policy rewrite method", ex);
+            return null;
+        }
+    }
+
+    private static final class RenameHeader implements MediationPolicy {
+
+        private final String currentHeaderName;
+        private final String updatedHeaderName;
+
+        private RenameHeader(String currentHeaderName, String updatedHeaderName) {
+
+            this.currentHeaderName = currentHeaderName == null ? null : currentHeaderName.toLowerCase();
+            this.updatedHeaderName = updatedHeaderName;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            String headerValue = requestContext.getHeaders().get(currentHeaderName);
+            if (headerValue != null) {
+                requestContext.getRemoveHeaders().add(currentHeaderName);
+                requestContext.addOrModifyHeaders(updatedHeaderName, headerValue);
+            }
+            return true;
+        }
+    }
+
+    private static final class AddQuery implements MediationPolicy {
+
+        private final String queryName;
+        private final String queryValue;
+
+        private AddQuery(String queryName, String queryValue) {
+
+            this.queryName = queryName;
+            this.queryValue = queryValue;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            requestContext.getQueryParamsToAdd().put(queryName, queryValue);
+            return true;
+        }
+    }
+
+    private static final class RemoveQuery implements MediationPolicy {
+
+        private final String queryName;
+
+        private RemoveQuery(String queryName) {
+
+            this.queryName = queryName;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            requestContext.getQueryParamsToRemove().add(queryName);
+            return true;
+        }
+    }
+
+    /**
+     * Rewrites the resource path. Query parameters of the "x-uri-mapping" property, which is added when processing the
+     * x-uri-mapping extension of async API definitions, are parsed into {@link QueryParamTemplate}s up front.
+     */
+    private static final class RewriteResourcePath implements MediationPolicy {
+
+        private final boolean removeAllQueryParams;
+        private final QueryParamTemplate[] queryParamTemplates;
+
+        private RewriteResourcePath(Map<String, String> policyAttrib) {
+
+            // adapter may not pass, booleans with false in the map, hence empty, null or any other strings
+            // excepts "true" is considered as false.
+            this.removeAllQueryParams = !Boolean.parseBoolean(policyAttrib.get("includeQueryParams"));
+            String uriMappingValue = policyAttrib.get(X_URI_MAPPING_PROPERTY);
+            if (uriMappingValue == null) {
+                this.queryParamTemplates = null;
+                return;
+            }
+            String[] queryParts = uriMappingValue.split("\\?");
+            String queryParamString = queryParts.length > 1 ? queryParts[1] : "";
+            List<NameValuePair> queryParams = URLEncodedUtils.parse(queryParamString, StandardCharsets.UTF_8);
+            this.queryParamTemplates = new QueryParamTemplate[queryParams.size()];
+            for (int i = 0; i < queryParams.size(); i++) {
+                this.queryParamTemplates[i] = new QueryParamTemplate(queryParams.get(i));
+            }
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            requestContext.setRemoveAllQueryParams(removeAllQueryParams);
+            if (queryParamTemplates == null) {
+                return true;
+            }
+            Map<String, String> pathParameters = requestContext.getPathParameters();
+            for (QueryParamTemplate template : queryParamTemplates) {
+                if (template.pathParamIds == null) {
+                    requestContext.getQueryParamsToAdd().put(template.name, template.value);
+                    continue;
+                }
+                for (String pathParamId : template.pathParamIds) {
+                    if (pathParameters != null && pathParameters.containsKey(pathParamId)) {
+                        requestContext.getQueryParamsToAdd().put(template.name, pathParameters.get(pathParamId));
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Query parameter of an x-uri-mapping. The value is either a literal or takes the value of the path parameters
+     * referred to with {@code {uri.var.<name>}}, the last present one winning.
+     */
+    private static final class QueryParamTemplate {
+
+        private final String name;
+        private final String value;
+        private final String[] pathParamIds;
+
+        private QueryParamTemplate(NameValuePair param) {
+
+            this.name = param.getName();
+            this.value = param.getValue();
+            if (value == null || !value.contains(URI_VAR_PREFIX)) {
+                this.pathParamIds = null;
+                return;
+            }
+            List<String> ids = new ArrayList<>();
+            Matcher substituteParamMatcher = URI_VAR_PATTERN.matcher(value);
+            while (substituteParamMatcher.find()) {
+                ids.add(substituteParamMatcher.group(1).trim());
+            }
+            this.pathParamIds = ids.toArray(new String[0]);
+        }
+    }
+
+    private static final class RewriteMethod implements MediationPolicy {
+
+        private final String newMethod;
+
+        private RewriteMethod(String newMethod) {
+
+            this.newMethod = newMethod;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            String currentMethod = requestContext.getRequestMethod().toUpperCase();
+            requestContext.addOrModifyHeaders(":method", newMethod);
+            requestContext.addMetadataToMap("method-rewrite", currentMethod + "_to_" + newMethod);
+            return true;
+        }
+    }
+
+    private static final class OPAValidation implements MediationPolicy {
+
+        private final Map<String, String> policyAttrib;
+
+        private OPAValidation(Map<String, String> policyAttrib) {
+
+            this.policyAttrib = policyAttrib;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            try {
+                boolean isValid = OPAClient.getInstance().validateRequest(requestContext, policyAttrib);
+                if (!isValid) {
+                    log.error("OPA validation failed for the request: {} {}",
+                            requestContext.getRequestPathTemplate(),
+                            ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6101));
+                    FilterUtils.setErrorToContext(requestContext, APISecurityConstants.OPA_AUTH_FORBIDDEN,
+                            APIConstants.StatusCodes.UNAUTHORIZED.getCode(),
+                            APISecurityConstants.OPA_AUTH_FORBIDDEN_MESSAGE, null);
+                }
+                return isValid;
+            } catch (OPASecurityException e) {
+                log.error("Error while validating the OPA policy for the request: {} {} {}",
+                        requestContext.getRequestPathTemplate(),
+                        ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6101), e.getMessage());
+                FilterUtils.setErrorToContext(requestContext, e);
+                return false;
+            }
+        }
+    }
+
+    private static final class UnsupportedPolicy implements MediationPolicy {
+
+        private final String action;
+
+        private UnsupportedPolicy(String action) {
+
+            this.action = action;
+        }
+
+        @Override
+        public boolean apply(RequestContext requestContext) {
+
+            // should not reach here, if reached, it is due to a validation error in Adapter
+            log.error("Operation policy action \"{}\" is not supported. " +
+                            "Adapter has failed to validate the policy action. {}",
+                    action, ErrorDetails.errorLog(LoggingConstants.Severity.MAJOR, 6100));
+            FilterUtils.setErrorToContext(requestContext, GeneralErrorCodeConstants.MEDIATION_POLICY_ERROR_CODE,
+                    APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APIConstants.INTERNAL_SERVER_ERROR_MESSAGE, null);
+            return false;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
@@ -42,10 +43,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP Client which send requests to OPA server by selecting the implementation of {@link OPARequestGenerator}
@@ -59,8 +62,12 @@ public class OPAClient {
 
     private final OPARequestGenerator defaultRequestGenerator = new OPADefaultRequestGenerator();
     private final Map<String, OPARequestGenerator> requestGeneratorMap = new HashMap<>();
+    // HTTP clients keyed by the OPA server URL and the client options, reused across requests.
+    private final Map<String, CloseableHttpClient> httpClients = new ConcurrentHashMap<>();
+    private final OPADecisionCache decisionCache = new OPADecisionCache();
 
     private OPAClient() {
+        CacheProviderUtil.registerSharedCache(OPADecisionCache.CACHE_NAME, decisionCache::stats, decisionCache::size);
     }
 
     public static void init() {
@@ -98,15 +105,6 @@ public class OPAClient {
         additionalParameters.put(OPAConstants.AdditionalParameters.SEND_ACCESS_TOKEN,
                 policyAttrib.get("sendAccessToken"));
 
-        // client related configs
-        Map<String, Object> clientOptions = new HashMap<>();
-        FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.MAX_OPEN_CONNECTIONS,
-                policyAttrib.get("maxOpenConnections"));
-        FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.MAX_PER_ROUTE,
-                policyAttrib.get("maxPerRoute"));
-        FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.CONNECT_TIMEOUT,
-                policyAttrib.get("connectionTimeout"));
-
         // evaluating server policy URL
         serverURL = StringUtils.removeEnd(serverURL, "/");
         String evaluatingPolicyUrl;
@@ -119,11 +117,85 @@ public class OPAClient {
         // calling OPA server and validate response
         String requestBody = requestGenerator.generateRequest(policyName, ruleName, additionalParameters,
                 requestContext);
-        String opaResponse = callOPAServer(evaluatingPolicyUrl, requestBody, token, clientOptions);
+        long decisionCacheTTL = getDecisionCacheTTLMillis(policyAttrib);
+        String decisionCacheKey = null;
+        String opaResponse = null;
+        if (decisionCacheTTL > 0) {
+            decisionCacheKey = requestGenerator.generateDecisionCacheKey(policyName, ruleName, additionalParameters,
+                    requestContext, requestBody);
+            opaResponse = decisionCache.get(evaluatingPolicyUrl, decisionCacheKey);
+        }
+        if (opaResponse == null) {
+            CloseableHttpClient httpClient = getHttpClient(serverURL, policyAttrib);
+            opaResponse = callOPAServer(httpClient, evaluatingPolicyUrl, requestBody, token);
+            if (decisionCacheKey != null) {
+                decisionCache.put(evaluatingPolicyUrl, decisionCacheKey, opaResponse, decisionCacheTTL);
+            }
+        }
+        // The response is handled also when it is cached, as the request generator may update the request context.
         return requestGenerator.handleResponse(policyName, ruleName, opaResponse, additionalParameters,
                 requestContext);
     }
 
+    /**
+     * Returns the HTTP client of the given OPA server. A client and its connection pool are created once per server
+     * and client options, so that connections to the server are reused across requests.
+     */
+    private CloseableHttpClient getHttpClient(String serverURL, Map<String, String> policyAttrib)
+            throws OPASecurityException {
+        Map<String, Object> clientOptions = new TreeMap<>();
+        putIntegerOption(clientOptions, FilterUtils.HTTPClientOptions.MAX_OPEN_CONNECTIONS,
+                policyAttrib.get("maxOpenConnections"));
+        putIntegerOption(clientOptions, FilterUtils.HTTPClientOptions.MAX_PER_ROUTE,
+                policyAttrib.get("maxPerRoute"));
+        putIntegerOption(clientOptions, FilterUtils.HTTPClientOptions.CONNECT_TIMEOUT,
+                policyAttrib.get("connectionTimeout"));
+        putIntegerOption(clientOptions, FilterUtils.HTTPClientOptions.SOCKET_TIMEOUT,
+                policyAttrib.get("requestTimeout"));
+        if (!clientOptions.containsKey(FilterUtils.HTTPClientOptions.SOCKET_TIMEOUT)) {
+            // Bounds the time a request waits on an unresponsive OPA server.
+            int socketTimeout = ConfigHolder.getInstance().getConfig().getHttpClientConfigDto().getSocketTimeout();
+            if (socketTimeout > 0) {
+                clientOptions.put(FilterUtils.HTTPClientOptions.SOCKET_TIMEOUT, socketTimeout);
+            }
+        }
+        String clientKey = serverURL + clientOptions;
+        CloseableHttpClient httpClient = httpClients.get(clientKey);
+        if (httpClient == null) {
+            httpClient = httpClients.computeIfAbsent(clientKey, k -> (CloseableHttpClient) FilterUtils.getHttpClient(
+                    ConfigHolder.getInstance().getOpaKeyStore(), null, clientOptions));
+        }
+        return httpClient;
+    }
+
+    private static void putIntegerOption(Map<String, Object> clientOptions, String option, String value)
+            throws OPASecurityException {
+        if (StringUtils.isEmpty(value)) {
+            return;
+        }
+        try {
+            clientOptions.put(option, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            log.error("Invalid value {} for the OPA client option {} {}", value, option,
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6105));
+            throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APISecurityConstants.OPA_REQUEST_FAILURE, e);
+        }
+    }
+
+    private static long getDecisionCacheTTLMillis(Map<String, String> policyAttrib) {
+        String ttl = policyAttrib.get("decisionCacheTTL");
+        if (StringUtils.isEmpty(ttl)) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(ttl.trim()));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid OPA decision cache TTL {}, decisions are not cached", ttl);
+            return 0;
+        }
+    }
+
     private void loadRequestGenerators() {
         ServiceLoader<OPARequestGenerator> loader = ServiceLoader.load(OPARequestGenerator.class);
         for (OPARequestGenerator generator : loader) {
@@ -134,34 +206,30 @@ public class OPAClient {
         requestGeneratorMap.put(DEFAULT_REQUEST_GENERATOR_CLASS, defaultRequestGenerator);
     }
 
-    private static String callOPAServer(String serverEp, String payload, String token,
-                                        Map<String, Object> clientOptions) throws OPASecurityException {
+    private static String callOPAServer(CloseableHttpClient httpClient, String serverEp, String payload,
+                                        String token) throws OPASecurityException {
         try {
             URL url = new URL(serverEp);
-            KeyStore opaKeyStore = ConfigHolder.getInstance().getOpaKeyStore();
-            try (CloseableHttpClient httpClient = (CloseableHttpClient) FilterUtils.getHttpClient(
-                    opaKeyStore,null, clientOptions)) {
-                HttpPost httpPost = new HttpPost(serverEp);
-                HttpEntity reqEntity = new ByteArrayEntity(payload.getBytes(Charset.defaultCharset()));
-                httpPost.setEntity(reqEntity);
-                httpPost.setHeader(APIConstants.CONTENT_TYPE_HEADER, APIConstants.APPLICATION_JSON);
-                if (StringUtils.isNotEmpty(token)) {
-                    httpPost.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
-                            APIConstants.AUTHORIZATION_BEARER + token);
-                }
-                try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                    int statusCode = response.getStatusLine().getStatusCode();
-                    if (statusCode == 200) {
-                        HttpEntity entity = response.getEntity();
-                        try (InputStream content = entity.getContent()) {
-                            return IOUtils.toString(content, String.valueOf(Charset.defaultCharset()));
-                        }
-                    } else {
-                        log.error("Unexpected HTTP response code responded by the OPA server, HTTP code: {} {}",
-                                statusCode, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6106));
-                        throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
-                                APISecurityConstants.OPA_REQUEST_FAILURE);
+            HttpPost httpPost = new HttpPost(serverEp);
+            HttpEntity reqEntity = new ByteArrayEntity(payload.getBytes(Charset.defaultCharset()));
+            httpPost.setEntity(reqEntity);
+            httpPost.setHeader(APIConstants.CONTENT_TYPE_HEADER, APIConstants.APPLICATION_JSON);
+            if (StringUtils.isNotEmpty(token)) {
+                httpPost.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
+                        APIConstants.AUTHORIZATION_BEARER + token);
+            }
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == 200) {
+                    HttpEntity entity = response.getEntity();
+                    try (InputStream content = entity.getContent()) {
+                        return IOUtils.toString(content, String.valueOf(Charset.defaultCharset()));
                     }
+                } else {
+                    log.error("Unexpected HTTP response code responded by the OPA server, HTTP code: {} {}",
+                            statusCode, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6106));
+                    throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                            APISecurityConstants.OPA_REQUEST_FAILURE);
                 }
             }
         } catch (IOException e) {
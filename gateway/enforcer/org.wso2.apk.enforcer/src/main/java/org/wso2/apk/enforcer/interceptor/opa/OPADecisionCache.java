@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor.opa;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.wso2.apk.enforcer.common.ExpiringCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the responses of the OPA server, keyed by the evaluated policy URL and the decision cache key the request
+ * generator derives from the request.
+ * <p>
+ * The entry key is a SHA-256 digest of the URL and the decision cache key, as the decision cache key is derived from
+ * the request and a collision must not be feasible to craft. Each entry expires after the TTL of the policy it was
+ * cached for. A response is only served for a decision cache key identical to the one it was received for, see
+ * {@link org.wso2.apk.enforcer.commons.opa.OPARequestGenerator#generateDecisionCacheKey}.
+ */
+public class OPADecisionCache {
+
+    public static final String CACHE_NAME = "opaDecisionCache";
+    private static final HashFunction DIGEST_FUNCTION = Hashing.sha256();
+    static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    static final long MAX_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final ExpiringCache<HashCode, String> cache;
+    private final LongSupplier clock;
+
+    public OPADecisionCache() {
+
+        this(DEFAULT_MAXIMUM_SIZE, System::currentTimeMillis);
+    }
+
+    OPADecisionCache(int maximumSize, LongSupplier clock) {
+
+        this.clock = clock;
+        this.cache = new ExpiringCache<>(maximumSize, MAX_TTL_MILLIS, clock);
+    }
+
+    /**
+     * Returns the cached OPA response of the given request.
+     *
+     * @param policyUrl URL of the evaluated policy
+     * @param cacheKey  decision cache key of the request
+     * @return OPA response or null if there is no unexpired response
+     */
+    public String get(String policyUrl, String cacheKey) {
+
+        return cache.get(digest(policyUrl, cacheKey));
+    }
+
+    /**
+     * Adds the OPA response of the given request.
+     *
+     * @param policyUrl URL of the evaluated policy
+     * @param cacheKey  decision cache key of the request
+     * @param response  response of the OPA server
+     * @param ttlMillis time the response is served for, capped at {@link #MAX_TTL_MILLIS}
+     */
+    public void put(String policyUrl, String cacheKey, String response, long ttlMillis) {
+
+        cache.put(digest(policyUrl, cacheKey), response, clock.getAsLong() + Math.min(ttlMillis, MAX_TTL_MILLIS));
+    }
+
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * Returns the statistics of the cache. Lookups of expired entries are counted as misses.
+     *
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    private static HashCode digest(String policyUrl, String cacheKey) {
+
+        return DIGEST_FUNCTION.newHasher()
+                .putString(policyUrl, StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putString(cacheKey, StandardCharsets.UTF_8)
+                .hash();
+    }
+}
@@ -34,17 +34,43 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 
 /**
  * Default implementation of the {@link OPARequestGenerator}.
+ * <p>
+ * The decision cache key is the OPA request payload without the tracing and request ID headers, which are unique to
+ * each request, so a policy deciding on these headers must not be used with decision caching.
  */
 public class OPADefaultRequestGenerator implements OPARequestGenerator {
     private static final Logger log = LogManager.getLogger(OPADefaultRequestGenerator.class);
+    private static final Set<String> PER_REQUEST_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "x-request-id", "x-b3-traceid", "x-b3-spanid", "x-b3-parentspanid", "x-b3-sampled", "x-b3-flags", "b3",
+            "traceparent", "tracestate", "x-ot-span-context", "x-cloud-trace-context", "x-amzn-trace-id",
+            "x-envoy-attempt-count", "x-envoy-expected-rq-timeout-ms")));
 
     @Override
     public String generateRequest(String policyName, String rule, Map<String, String> additionalParameters,
                                   RequestContext requestContext) throws OPASecurityException {
+        return generatePayload(additionalParameters, requestContext, header -> true);
+    }
+
+    @Override
+    public String generateDecisionCacheKey(String policyName, String rule, Map<String, String> additionalParameters,
+                                           RequestContext requestContext, String opaRequest)
+            throws OPASecurityException {
+        return generatePayload(additionalParameters, requestContext,
+                header -> !PER_REQUEST_HEADERS.contains(header.toLowerCase(Locale.ROOT)));
+    }
+
+    private static String generatePayload(Map<String, String> additionalParameters, RequestContext requestContext,
+                                          Predicate<String> headerFilter) {
         JSONObject requestPayload = new JSONObject();
         JSONObject inputPayload = new JSONObject();
         requestPayload.put("input", inputPayload);
@@ -53,8 +79,10 @@ public class OPADefaultRequestGenerator implements OPARequestGenerator {
         JSONObject transportHeaders = new JSONObject();
         // To avoid publishing user tokens to OPA.
         // If "SEND_ACCESS_TOKEN" is enabled, it is sent in auth context only
-        requestContext.getHeaders().keySet().stream()
+        // Headers are added in order, so that the same headers always produce the same payload.
+        new TreeSet<>(requestContext.getHeaders().keySet()).stream()
                 .filter(header -> !requestContext.getRemoveHeaders().contains(header))
+                .filter(headerFilter)
                 .forEach(header -> transportHeaders.put(header, requestContext.getHeaders().get(header)));
         // changes this
         inputPayload.put("transportHeaders", transportHeaders);
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics;
+
+import com.google.common.cache.CacheStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.CacheProviderUtil;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically publishes the statistics of the token and key caches, summed over the organizations, and of the caches
+ * shared by the organizations through the configured {@link MetricsExporter}. Hit ratios are computed over the
+ * lookups of the last period.
+ */
+public class CacheMetricsPublisher {
+
+    private static final Logger LOGGER = LogManager.getLogger(CacheMetricsPublisher.class);
+    private static final long PUBLISH_INTERVAL_SECONDS = 60;
+    private static final String HIT_RATIO_SUFFIX = "HitRatio";
+    private static final String EVICTION_COUNT_SUFFIX = "EvictionCount";
+    private static final String SIZE_SUFFIX = "Size";
+
+    private static ScheduledExecutorService scheduler;
+    private static Map<String, CacheStats> previousStats = new HashMap<>();
+
+    private CacheMetricsPublisher() {
+
+    }
+
+    public static synchronized void start() {
+
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new NativeThreadFactory(new ThreadGroup("CacheMetrics"), "CacheMetrics"));
+        scheduler.scheduleAtFixedRate(CacheMetricsPublisher::publish, PUBLISH_INTERVAL_SECONDS,
+                PUBLISH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void publish() {
+
+        try {
+            MetricsExporter metricsExporter = MetricsManager.getInstance();
+            if (metricsExporter != null) {
+                metricsExporter.trackMetrics(collect());
+            }
+        } catch (RuntimeException e) {
+            // An exception would stop the scheduled task.
+            LOGGER.error("Error while publishing the cache metrics", e);
+        }
+    }
+
+    static HashMap<String, Double> collect() {
+
+        Map<String, CacheStats> currentStats = new HashMap<>();
+        Map<String, Long> sizes = new HashMap<>();
+        for (CacheProvider cacheProvider : CacheProviderUtil.getOrganizationCaches()) {
+            cacheProvider.getStats().forEach((cacheName, stats) -> currentStats.merge(cacheName, stats,
+                    CacheStats::plus));
+            cacheProvider.getSizes().forEach((cacheName, size) -> sizes.merge(cacheName, size, Long::sum));
+        }
+        currentStats.putAll(CacheProviderUtil.getSharedCacheStats());
+        sizes.putAll(CacheProviderUtil.getSharedCacheSizes());
+        HashMap<String, Double> metrics = new HashMap<>();
+        currentStats.forEach((cacheName, stats) -> {
+            CacheStats previous = previousStats.get(cacheName);
+            // Counters restart when the cache of an organization is removed, hence a negative delta is ignored.
+            CacheStats delta = previous != null && stats.requestCount() >= previous.requestCount()
+                    ? stats.minus(previous) : stats;
+            if (delta.requestCount() > 0) {
+                metrics.put(cacheName + HIT_RATIO_SUFFIX, delta.hitRate());
+            }
+            metrics.put(cacheName + EVICTION_COUNT_SUFFIX, (double) delta.evictionCount());
+            metrics.put(cacheName + SIZE_SUFFIX, (double) sizes.getOrDefault(cacheName, 0L));
+        });
+        previousStats = currentStats;
+        return metrics;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the intake of access log messages from the router.
+ */
+public interface AccessLogIngestMetricsMXBean {
+
+    /**
+     * Getter for the number of access log entries handed over to the analytics publisher, keyed by API ID.
+     *
+     * @return accepted entry counts
+     */
+    public Map<String, Long> getAcceptedCount();
+
+    /**
+     * Getter for the number of successful request entries left out by sampling while overloaded, keyed by API ID.
+     *
+     * @return sampled out entry counts
+     */
+    public Map<String, Long> getSampledCount();
+
+    /**
+     * Getter for the number of successful request entries dropped while the analytics publisher was dropping
+     * events, keyed by API ID.
+     *
+     * @return dropped entry counts
+     */
+    public Map<String, Long> getDroppedCount();
+
+    /**
+     * Getter for the number of router streams held back until the processing of other messages completes.
+     *
+     * @return waiting stream count
+     */
+    public int getWaitingStreamCount();
+}
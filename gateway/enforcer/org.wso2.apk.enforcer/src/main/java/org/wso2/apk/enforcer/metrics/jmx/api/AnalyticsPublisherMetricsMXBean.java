@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the pipeline publishing analytics events to Event Hub, including the parsing of user agents.
+ */
+public interface AnalyticsPublisherMetricsMXBean {
+
+    /**
+     * Getter for the number of events waiting to be added to a batch.
+     *
+     * @return queue depth
+     */
+    public long getQueueDepth();
+
+    /**
+     * Getter for the number of events dropped as the queue was full.
+     *
+     * @return dropped event count
+     */
+    public long getDroppedEventCount();
+
+    /**
+     * Getter for the number of events which could not be published.
+     *
+     * @return failed event count
+     */
+    public long getFailedEventCount();
+
+    /**
+     * Getter for the number of published events.
+     *
+     * @return published event count
+     */
+    public long getPublishedEventCount();
+
+    /**
+     * Getter for the number of batches being sent or waiting to be retried.
+     *
+     * @return in flight batch count
+     */
+    public long getInFlightBatchCount();
+
+    /**
+     * Getter for the average ratio of the size of a sent batch to its maximum size.
+     *
+     * @return average batch fill ratio
+     */
+    public double getAverageBatchFillRatio();
+
+    /**
+     * Getter for the average time taken to send a batch.
+     *
+     * @return average send latency in milliseconds
+     */
+    public double getAverageSendLatencyMillis();
+
+    /**
+     * Getter for the maximum time taken to send a batch.
+     *
+     * @return maximum send latency in milliseconds
+     */
+    public double getMaxSendLatencyMillis();
+
+    /**
+     * Getter for the number of events in the spool waiting to be replayed.
+     *
+     * @return spooled event count
+     */
+    public long getSpooledEventCount();
+
+    /**
+     * Getter for the size of the events in the spool waiting to be replayed.
+     *
+     * @return spooled bytes
+     */
+    public long getSpooledBytes();
+
+    /**
+     * Getter for the disk space taken by the spool segments.
+     *
+     * @return spool disk usage in bytes
+     */
+    public long getSpoolDiskUsageBytes();
+
+    /**
+     * Getter for the number of events lost by the spool as it was full or they expired.
+     *
+     * @return lost spool event count
+     */
+    public long getSpoolLostEventCount();
+
+    /**
+     * Getter for the time the oldest spooled event has been waiting to be replayed.
+     *
+     * @return replay lag in milliseconds
+     */
+    public long getSpoolReplayLagMillis();
+
+    /**
+     * Getter for the ratio of the user agents found in the parse cache.
+     *
+     * @return user agent cache hit ratio
+     */
+    public double getUserAgentCacheHitRatio();
+
+    /**
+     * Getter for the number of parsed user agents in the cache.
+     *
+     * @return user agent cache size
+     */
+    public int getUserAgentCacheSize();
+
+    /**
+     * Getter for the average time taken to parse a user agent which is not in the cache.
+     *
+     * @return average parse latency in milliseconds
+     */
+    public double getAverageUserAgentParseMillis();
+
+    /**
+     * Getter for the maximum time taken to parse a user agent.
+     *
+     * @return maximum parse latency in milliseconds
+     */
+    public double getMaxUserAgentParseMillis();
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the token and key caches of the organizations and the caches shared by them. Values are keyed by
+ * {@code <organization>:<cache name>}, or by the cache name for a shared cache.
+ */
+public interface CacheMetricsMXBean {
+
+    /**
+     * Getter for the number of entries in each cache.
+     *
+     * @return cache -> number of entries
+     */
+    public Map<String, Long> getSize();
+
+    /**
+     * Getter for the number of lookups served from each cache.
+     *
+     * @return cache -> hit count
+     */
+    public Map<String, Long> getHitCount();
+
+    /**
+     * Getter for the number of lookups not served from each cache.
+     *
+     * @return cache -> miss count
+     */
+    public Map<String, Long> getMissCount();
+
+    /**
+     * Getter for the ratio of the lookups served from each cache.
+     *
+     * @return cache -> hit ratio
+     */
+    public Map<String, Double> getHitRatio();
+
+    /**
+     * Getter for the number of entries evicted from each cache due to its size bound or expiry.
+     *
+     * @return cache -> eviction count
+     */
+    public Map<String, Long> getEvictionCount();
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the revoked token stores and the Bloom filters in front of them.
+ */
+public interface RevokedTokenMetricsMXBean {
+
+    /**
+     * Getter for the number of revoked tokens in each store.
+     *
+     * @return store -> number of revoked tokens
+     */
+    public Map<String, Integer> getRevokedTokenCount();
+
+    /**
+     * Getter for the memory size of the Bloom filter of each store.
+     *
+     * @return store -> filter size in bytes
+     */
+    public Map<String, Long> getFilterSizeBytes();
+
+    /**
+     * Getter for the theoretical false positive rate of the Bloom filter of each store.
+     *
+     * @return store -> estimated false positive rate
+     */
+    public Map<String, Double> getEstimatedFalsePositiveRate();
+
+    /**
+     * Getter for the ratio of the checks that passed the Bloom filter of each store without a revoked token.
+     *
+     * @return store -> observed false positive rate
+     */
+    public Map<String, Double> getObservedFalsePositiveRate();
+}
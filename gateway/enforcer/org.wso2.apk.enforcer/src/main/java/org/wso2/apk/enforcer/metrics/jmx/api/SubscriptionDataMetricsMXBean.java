@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the subscription data snapshot metrics.
+ */
+public interface SubscriptionDataMetricsMXBean {
+
+    /**
+     * Getter for the time taken to build the latest subscription data snapshot of each organization.
+     *
+     * @return organization -> build time in milliseconds
+     */
+    public Map<String, Double> getSnapshotBuildTimeMillis();
+
+    /**
+     * Getter for a rough size estimate of the latest subscription data snapshot of each organization. The value is
+     * the entry counts multiplied by fixed per-entry sizes, not a measurement of the retained heap, and is only
+     * meant for spotting growth trends.
+     *
+     * @return organization -> entry count based size estimate in bytes
+     */
+    public Map<String, Long> getSnapshotEntryCountSizeEstimateBytes();
+
+    /**
+     * Getter for the version of the latest subscription data snapshot of each organization.
+     *
+     * @return organization -> snapshot version
+     */
+    public Map<String, Long> getSnapshotVersion();
+}
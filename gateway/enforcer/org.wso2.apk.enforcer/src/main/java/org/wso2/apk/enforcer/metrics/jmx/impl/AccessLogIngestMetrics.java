@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.analytics.AccessLogIngestController;
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.AccessLogIngestMetricsMXBean;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Singleton MBean for the access log intake metrics. Values are read from the registered
+ * {@link AccessLogIngestController} when requested.
+ */
+public class AccessLogIngestMetrics implements AccessLogIngestMetricsMXBean {
+
+    private static volatile AccessLogIngestMetrics accessLogIngestMetricsMBean = null;
+    private volatile AccessLogIngestController controller;
+
+    private AccessLogIngestMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton AccessLogIngestMetrics instance.
+     *
+     * @return AccessLogIngestMetrics
+     */
+    public static AccessLogIngestMetrics getInstance() {
+        if (accessLogIngestMetricsMBean == null) {
+            synchronized (AccessLogIngestMetrics.class) {
+                if (accessLogIngestMetricsMBean == null) {
+                    accessLogIngestMetricsMBean = new AccessLogIngestMetrics();
+                }
+            }
+        }
+        return accessLogIngestMetricsMBean;
+    }
+
+    public void registerController(AccessLogIngestController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public Map<String, Long> getAcceptedCount() {
+        return controller != null ? controller.getAcceptedCounts() : Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Long> getSampledCount() {
+        return controller != null ? controller.getSampledCounts() : Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Long> getDroppedCount() {
+        return controller != null ? controller.getDroppedCounts() : Collections.emptyMap();
+    }
+
+    @Override
+    public int getWaitingStreamCount() {
+        return controller != null ? controller.getWaitingStreamCount() : 0;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.analytics.publisher.reporter.cloud.EventHubPublisherStats;
+import org.wso2.apk.enforcer.analytics.publisher.util.UserAgentParser;
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.AnalyticsPublisherMetricsMXBean;
+
+/**
+ * Singleton MBean for the analytics publishing metrics. Values are read from {@link EventHubPublisherStats} and
+ * {@link UserAgentParser} when requested.
+ */
+public class AnalyticsPublisherMetrics implements AnalyticsPublisherMetricsMXBean {
+
+    private static volatile AnalyticsPublisherMetrics analyticsPublisherMetricsMBean = null;
+    private final EventHubPublisherStats stats = EventHubPublisherStats.getInstance();
+
+    private AnalyticsPublisherMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton AnalyticsPublisherMetrics instance.
+     *
+     * @return AnalyticsPublisherMetrics
+     */
+    public static AnalyticsPublisherMetrics getInstance() {
+        if (analyticsPublisherMetricsMBean == null) {
+            synchronized (AnalyticsPublisherMetrics.class) {
+                if (analyticsPublisherMetricsMBean == null) {
+                    analyticsPublisherMetricsMBean = new AnalyticsPublisherMetrics();
+                }
+            }
+        }
+        return analyticsPublisherMetricsMBean;
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return stats.getQueueDepth();
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        return stats.getDroppedEventCount();
+    }
+
+    @Override
+    public long getFailedEventCount() {
+        return stats.getFailedEventCount();
+    }
+
+    @Override
+    public long getPublishedEventCount() {
+        return stats.getPublishedEventCount();
+    }
+
+    @Override
+    public long getInFlightBatchCount() {
+        return stats.getInFlightBatchCount();
+    }
+
+    @Override
+    public double getAverageBatchFillRatio() {
+        return stats.getAverageBatchFillRatio();
+    }
+
+    @Override
+    public double getAverageSendLatencyMillis() {
+        return stats.getAverageSendLatencyMillis();
+    }
+
+    @Override
+    public double getMaxSendLatencyMillis() {
+        return stats.getMaxSendLatencyMillis();
+    }
+
+    @Override
+    public long getSpooledEventCount() {
+        return stats.getSpooledEventCount();
+    }
+
+    @Override
+    public long getSpooledBytes() {
+        return stats.getSpooledBytes();
+    }
+
+    @Override
+    public long getSpoolDiskUsageBytes() {
+        return stats.getSpoolDiskUsageBytes();
+    }
+
+    @Override
+    public long getSpoolLostEventCount() {
+        return stats.getSpoolLostEventCount();
+    }
+
+    @Override
+    public long getSpoolReplayLagMillis() {
+        return stats.getSpoolReplayLagMillis();
+    }
+
+    @Override
+    public double getUserAgentCacheHitRatio() {
+        return UserAgentParser.getInstance().getCacheHitRatio();
+    }
+
+    @Override
+    public int getUserAgentCacheSize() {
+        return UserAgentParser.getInstance().getCacheSize();
+    }
+
+    @Override
+    public double getAverageUserAgentParseMillis() {
+        return UserAgentParser.getInstance().getAverageParseMillis();
+    }
+
+    @Override
+    public double getMaxUserAgentParseMillis() {
+        return UserAgentParser.getInstance().getMaxParseMillis();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import com.google.common.cache.CacheStats;
+import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.CacheProviderUtil;
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.CacheMetricsMXBean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Singleton MBean for the cache metrics. Values are read from the registered cache providers and the caches shared by
+ * the organizations when requested.
+ */
+public class CacheMetrics implements CacheMetricsMXBean {
+
+    private static volatile CacheMetrics cacheMetricsMBean = null;
+    private final Map<String, CacheProvider> cacheProviders = new ConcurrentHashMap<>();
+
+    private CacheMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton CacheMetrics instance.
+     *
+     * @return CacheMetrics
+     */
+    public static CacheMetrics getInstance() {
+        if (cacheMetricsMBean == null) {
+            synchronized (CacheMetrics.class) {
+                if (cacheMetricsMBean == null) {
+                    cacheMetricsMBean = new CacheMetrics();
+                }
+            }
+        }
+        return cacheMetricsMBean;
+    }
+
+    public void registerCacheProvider(String organization, CacheProvider cacheProvider) {
+        cacheProviders.put(organization, cacheProvider);
+    }
+
+    public void unregisterCacheProvider(String organization) {
+        cacheProviders.remove(organization);
+    }
+
+    @Override
+    public Map<String, Long> getSize() {
+        Map<String, Long> values = new HashMap<>();
+        cacheProviders.forEach((organization, cacheProvider) -> cacheProvider.getSizes()
+                .forEach((cacheName, size) -> values.put(organization + ":" + cacheName, size)));
+        values.putAll(CacheProviderUtil.getSharedCacheSizes());
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getHitCount() {
+        return collect(CacheStats::hitCount);
+    }
+
+    @Override
+    public Map<String, Long> getMissCount() {
+        return collect(CacheStats::missCount);
+    }
+
+    @Override
+    public Map<String, Double> getHitRatio() {
+        Map<String, Double> values = new HashMap<>();
+        cacheProviders.forEach((organization, cacheProvider) -> cacheProvider.getStats()
+                .forEach((cacheName, stats) -> values.put(organization + ":" + cacheName, stats.hitRate())));
+        CacheProviderUtil.getSharedCacheStats().forEach((cacheName, stats) -> values.put(cacheName, stats.hitRate()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getEvictionCount() {
+        return collect(CacheStats::evictionCount);
+    }
+
+    private Map<String, Long> collect(ToLongFunction<CacheStats> metric) {
+        Map<String, Long> values = new HashMap<>();
+        cacheProviders.forEach((organization, cacheProvider) -> cacheProvider.getStats()
+                .forEach((cacheName, stats) -> values.put(organization + ":" + cacheName,
+                        metric.applyAsLong(stats))));
+        CacheProviderUtil.getSharedCacheStats().forEach((cacheName, stats) -> values.put(cacheName,
+                metric.applyAsLong(stats)));
+        return values;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.RevokedTokenMetricsMXBean;
+import org.wso2.apk.enforcer.server.RevokedTokenIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Singleton MBean for the revoked token store metrics. Values are read from the registered stores when requested.
+ */
+public class RevokedTokenMetrics implements RevokedTokenMetricsMXBean {
+
+    private static volatile RevokedTokenMetrics revokedTokenMetricsMBean = null;
+    private final Map<String, RevokedTokenIndex> stores = new ConcurrentHashMap<>();
+
+    private RevokedTokenMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton RevokedTokenMetrics instance.
+     *
+     * @return RevokedTokenMetrics
+     */
+    public static RevokedTokenMetrics getInstance() {
+        if (revokedTokenMetricsMBean == null) {
+            synchronized (RevokedTokenMetrics.class) {
+                if (revokedTokenMetricsMBean == null) {
+                    revokedTokenMetricsMBean = new RevokedTokenMetrics();
+                }
+            }
+        }
+        return revokedTokenMetricsMBean;
+    }
+
+    public void registerStore(String name, RevokedTokenIndex store) {
+        stores.put(name, store);
+    }
+
+    @Override
+    public Map<String, Integer> getRevokedTokenCount() {
+        Map<String, Integer> values = new HashMap<>();
+        stores.forEach((name, store) -> values.put(name, store.size()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getFilterSizeBytes() {
+        return collectLong(RevokedTokenIndex::getFilterSizeBytes);
+    }
+
+    @Override
+    public Map<String, Double> getEstimatedFalsePositiveRate() {
+        return collectDouble(RevokedTokenIndex::getEstimatedFalsePositiveRate);
+    }
+
+    @Override
+    public Map<String, Double> getObservedFalsePositiveRate() {
+        return collectDouble(RevokedTokenIndex::getObservedFalsePositiveRate);
+    }
+
+    private Map<String, Long> collectLong(ToLongFunction<RevokedTokenIndex> metric) {
+        Map<String, Long> values = new HashMap<>();
+        stores.forEach((name, store) -> values.put(name, metric.applyAsLong(store)));
+        return values;
+    }
+
+    private Map<String, Double> collectDouble(ToDoubleFunction<RevokedTokenIndex> metric) {
+        Map<String, Double> values = new HashMap<>();
+        stores.forEach((name, store) -> values.put(name, metric.applyAsDouble(store)));
+        return values;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.SubscriptionDataMetricsMXBean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton MBean for the subscription data snapshot metrics.
+ */
+public class SubscriptionDataMetrics implements SubscriptionDataMetricsMXBean {
+
+    private static volatile SubscriptionDataMetrics subscriptionDataMetricsMBean = null;
+    private final Map<String, Double> snapshotBuildTimeMillis = new ConcurrentHashMap<>();
+    private final Map<String, Long> snapshotEntryCountSizeEstimateBytes = new ConcurrentHashMap<>();
+    private final Map<String, Long> snapshotVersion = new ConcurrentHashMap<>();
+
+    private SubscriptionDataMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton SubscriptionDataMetrics instance.
+     *
+     * @return SubscriptionDataMetrics
+     */
+    public static SubscriptionDataMetrics getInstance() {
+        if (subscriptionDataMetricsMBean == null) {
+            synchronized (SubscriptionDataMetrics.class) {
+                if (subscriptionDataMetricsMBean == null) {
+                    subscriptionDataMetricsMBean = new SubscriptionDataMetrics();
+                }
+            }
+        }
+        return subscriptionDataMetricsMBean;
+    }
+
+    public void recordSnapshot(String organization, long version, long buildTimeNanos,
+                               long entryCountSizeEstimateBytes) {
+        snapshotBuildTimeMillis.put(organization, buildTimeNanos / 1_000_000.0);
+        snapshotEntryCountSizeEstimateBytes.put(organization, entryCountSizeEstimateBytes);
+        snapshotVersion.put(organization, version);
+    }
+
+    @Override
+    public Map<String, Double> getSnapshotBuildTimeMillis() {
+        return new HashMap<>(snapshotBuildTimeMillis);
+    }
+
+    @Override
+    public Map<String, Long> getSnapshotEntryCountSizeEstimateBytes() {
+        return new HashMap<>(snapshotEntryCountSizeEstimateBytes);
+    }
+
+    @Override
+    public Map<String, Long> getSnapshotVersion() {
+        return new HashMap<>(snapshotVersion);
+    }
+}
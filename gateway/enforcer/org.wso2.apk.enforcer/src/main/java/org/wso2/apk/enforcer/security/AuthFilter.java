@@ -39,7 +39,9 @@ import org.wso2.apk.enforcer.security.mtls.MTLSAuthenticator;
 import org.wso2.apk.enforcer.util.FilterUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,7 +51,15 @@ import java.util.Objects;
  * through the gateway.
  */
 public class AuthFilter implements Filter {
+    private static final String INVALID_TOKEN_CHALLENGE_SUFFIX = ", error=\"invalid_token\"" +
+            ", error_description=\"The provided token is invalid\"";
     private List<Authenticator> authenticators = new ArrayList<>();
+    // Authenticators sorted by priority and whether each of them is the mTLS authenticator.
+    private Authenticator[] authenticatorChain = new Authenticator[0];
+    private boolean[] mutualSSLAuthenticators = new boolean[0];
+    // Authenticators which may authenticate requests to each resource, looked up by the identity of the resource.
+    private Map<ResourceConfig, boolean[]> applicableAuthenticators = Collections.emptyMap();
+    private String authenticateHeaderValue = INVALID_TOKEN_CHALLENGE_SUFFIX;
     private static final Logger log = LogManager.getLogger(AuthFilter.class);
     private boolean isMutualSSLMandatory;
     private boolean isOAuthBasicAuthMandatory;
@@ -103,6 +113,45 @@ public class AuthFilter implements Filter {
         authenticators.add(unsecuredAPIAuthenticator);
 
         authenticators.sort(Comparator.comparingInt(Authenticator::getPriority));
+        buildAuthenticatorPlan(apiConfig);
+    }
+
+    /**
+     * Resolves the authenticator chain of each resource of the API, so that authenticators which are not configured
+     * for a resource are not consulted for its requests. The challenge of the WWW-Authenticate header is also built
+     * once here.
+     */
+    private void buildAuthenticatorPlan(APIConfig apiConfig) {
+        authenticatorChain = authenticators.toArray(new Authenticator[0]);
+        mutualSSLAuthenticators = new boolean[authenticatorChain.length];
+        for (int i = 0; i < authenticatorChain.length; i++) {
+            mutualSSLAuthenticators[i] = authenticatorChain[i].getName()
+                    .contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME);
+        }
+        Map<ResourceConfig, boolean[]> applicable = new IdentityHashMap<>();
+        if (apiConfig.getResources() != null) {
+            for (ResourceConfig resourceConfig : apiConfig.getResources()) {
+                boolean[] resourceAuthenticators = new boolean[authenticatorChain.length];
+                for (int i = 0; i < authenticatorChain.length; i++) {
+                    resourceAuthenticators[i] = authenticatorChain[i].isApplicable(resourceConfig);
+                }
+                applicable.put(resourceConfig, resourceAuthenticators);
+            }
+        }
+        applicableAuthenticators = applicable;
+        authenticateHeaderValue = getAuthenticatorsChallengeString() + INVALID_TOKEN_CHALLENGE_SUFFIX;
+    }
+
+    /**
+     * Returns the authenticators which may authenticate the request, or null if all of them may. Requests matching
+     * several resources, i.e. GraphQL requests, are checked against all the authenticators.
+     */
+    private boolean[] getApplicableAuthenticators(RequestContext requestContext) {
+        List<ResourceConfig> matchedResources = requestContext.getMatchedResourcePaths();
+        if (matchedResources == null || matchedResources.size() != 1) {
+            return null;
+        }
+        return applicableAuthenticators.get(matchedResources.get(0));
     }
 
     @Override
@@ -122,13 +171,17 @@ public class AuthFilter implements Filter {
         boolean authenticated = false;
         // Any auth token has been provided for application-level security or not
         boolean canAuthenticated = false;
-        for (Authenticator authenticator : authenticators) {
-            if (authenticator.canAuthenticate(requestContext)) {
+        boolean[] applicable = getApplicableAuthenticators(requestContext);
+        for (int i = 0; i < authenticatorChain.length; i++) {
+            Authenticator authenticator = authenticatorChain[i];
+            boolean isMutualSSL = mutualSSLAuthenticators[i];
+            if ((applicable == null || applicable[i]) && authenticator.canAuthenticate(requestContext)) {
                 // For transport level securities (mTLS), canAuthenticated will not be applied
-                if (!authenticator.getName().contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
+                if (!isMutualSSL) {
                     canAuthenticated = true;
                 }
-                AuthenticationResponse authenticateResponse = authenticate(authenticator, requestContext);
+                AuthenticationResponse authenticateResponse = authenticate(authenticator, isMutualSSL,
+                        requestContext);
 
                 authenticated = authenticateResponse.isAuthenticated();
                 setInterceptorAuthContextMetadata(authenticator, requestContext);
@@ -138,8 +191,7 @@ public class AuthFilter implements Filter {
                 }
             } else {
                 // Check if the failed authentication is mandatory mTLS
-                if (isMutualSSLMandatory && authenticator.getName()
-                        .contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
+                if (isMutualSSLMandatory && isMutualSSL) {
                     authenticated = false;
                     log.debug("mTLS authentication was failed for the request: {} , API: {}:{} APIUUID: {} ",
                             requestContext.getMatchedResourcePaths().get(0).getPath(),
@@ -148,8 +200,7 @@ public class AuthFilter implements Filter {
                     break;
                 }
                 // Check if the failed authentication is a mandatory application level security
-                if (isOAuthBasicAuthMandatory && !authenticator.getName()
-                        .contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
+                if (isOAuthBasicAuthMandatory && !isMutualSSL) {
                     authenticated = false;
                 }
             }
@@ -164,17 +215,16 @@ public class AuthFilter implements Filter {
                 requestContext.getRequestPathTemplate(),
                 ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6600));
         // set WWW_AUTHENTICATE header to error response
-        requestContext.addOrModifyHeaders(APIConstants.WWW_AUTHENTICATE, getAuthenticatorsChallengeString() +
-                ", error=\"invalid_token\"" +
-                ", error_description=\"The provided token is invalid\"");
+        requestContext.addOrModifyHeaders(APIConstants.WWW_AUTHENTICATE, authenticateHeaderValue);
         return false;
     }
 
-    private AuthenticationResponse authenticate(Authenticator authenticator, RequestContext requestContext) {
+    private AuthenticationResponse authenticate(Authenticator authenticator, boolean isMutualSSL,
+                                                RequestContext requestContext) {
         try {
             AuthenticationContext authenticate = authenticator.authenticate(requestContext);
             requestContext.setAuthenticationContext(authenticate);
-            if (authenticator.getName().contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
+            if (isMutualSSL) {
                 // This section is for mTLS authentication
                 if (authenticate.isAuthenticated()) {
                     log.debug("mTLS authentication was passed for the request: {} , API: {}:{}, APIUUID: {} ",
@@ -214,10 +264,7 @@ public class AuthFilter implements Filter {
             // 403, 429 etc)
             FilterUtils.setErrorToContext(requestContext, e);
         }
-        boolean continueToNextAuth = true;
-        if (authenticator.getName().contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
-            continueToNextAuth = false;
-        }
+        boolean continueToNextAuth = !isMutualSSL;
         return new AuthenticationResponse(false,
                 isOAuthBasicAuthMandatory || isMutualSSLMandatory, continueToNextAuth);
     }
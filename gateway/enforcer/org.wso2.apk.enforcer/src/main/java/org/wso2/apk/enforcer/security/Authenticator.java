@@ -20,6 +20,7 @@ package org.wso2.apk.enforcer.security;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
 
 /**
  * Defines the interface to implement an authenticator. This authenticator can be oauth2(opaque, jwt), MTLS, basic
@@ -29,6 +30,17 @@ public interface Authenticator {
 
     boolean canAuthenticate(RequestContext requestContext);
 
+    /**
+     * Whether the authenticator may authenticate requests to the given resource. An authenticator which returns false
+     * is treated as one which cannot authenticate the request, without calling {@link #canAuthenticate}.
+     *
+     * @param resourceConfig resource of the API
+     * @return false if {@link #canAuthenticate} never returns true for requests to the resource
+     */
+    default boolean isApplicable(ResourceConfig resourceConfig) {
+        return true;
+    }
+
     AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException;
 
     /**
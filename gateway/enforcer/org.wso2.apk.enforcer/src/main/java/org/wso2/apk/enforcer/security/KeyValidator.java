@@ -20,6 +20,7 @@ package org.wso2.apk.enforcer.security;
 
 import com.nimbusds.jwt.JWTClaimsSet;
 import net.minidev.json.JSONObject;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
@@ -35,8 +36,12 @@ import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
 import org.wso2.apk.enforcer.models.ApplicationMapping;
 import org.wso2.apk.enforcer.models.Subscription;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataHolder;
+import org.wso2.apk.enforcer.subscription.SubscriptionDataSnapshot;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStore;
+import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreUtil;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -121,7 +126,7 @@ public class KeyValidator {
         Application app;
         Subscription sub = null;
         ApplicationKeyMapping keyMapping;
-        Set<ApplicationMapping> appMappings;
+        Collection<ApplicationMapping> appMappings;
         String apiName = validationInfo.getApiName();
         String apiContext = validationInfo.getApiContext();
         String apiVersion = validationInfo.getApiVersion();
@@ -137,23 +142,27 @@ public class KeyValidator {
                 SubscriptionDataHolder.getInstance().getSubscriptionDataStore(validationInfo.getSubscriberOrganization());
 
         if (datastore != null) {
+            // Use a single snapshot for all the lookups so that they are consistent with each other
+            SubscriptionDataSnapshot snapshot = datastore.getSnapshot();
             // Get application key mapping using the consumer key, key type and security scheme
-            keyMapping = datastore.getMatchingApplicationKeyMapping(consumerKey, keyType, securityScheme,
-                    validationInfo.getEnvironment());
+            keyMapping = snapshot.getApplicationKeyMapping(SubscriptionDataStoreUtil.getApplicationKeyMappingCacheKey(
+                    consumerKey, keyType, securityScheme, validationInfo.getEnvironment()));
 
             if (keyMapping != null) {
                 // Get application and application mapping using application UUID
                 String applicationUUID = keyMapping.getApplicationUUID();
-                app = datastore.getMatchingApplication(applicationUUID);
-                appMappings = datastore.getMatchingApplicationMappings(applicationUUID);
+                app = StringUtils.isNotEmpty(applicationUUID) ? snapshot.getApplication(applicationUUID) : null;
+                appMappings = StringUtils.isNotEmpty(applicationUUID) ?
+                        snapshot.getApplicationMappings(applicationUUID) : Collections.emptyList();
 
                 if (appMappings != null && app != null) {
                     // Get subscription using the subscription UUID
                     for (ApplicationMapping appMapping : appMappings) {
                         String subscriptionUUID = appMapping.getSubscriptionUUID();
-                        Subscription subscription = datastore.getMatchingSubscription(subscriptionUUID);
+                        Subscription subscription = snapshot.getSubscription(subscriptionUUID);
 
-                        if (validationInfo.getApiName().equals(subscription.getSubscribedApi().getName())) {
+                        if (subscription != null &&
+                                validationInfo.getApiName().equals(subscription.getSubscribedApi().getName())) {
                             // Validate API version
                             String versionRegex = subscription.getSubscribedApi().getVersion();
                             String versionToMatch = validationInfo.getApiVersion();
@@ -230,9 +239,11 @@ public class KeyValidator {
             JSONObject appObject = (JSONObject) payload.getClaim(APIConstants.JwtTokenConstants.APPLICATION);
             String appUuid = appObject.getAsString("uuid");
             if (!appObject.isEmpty() && !appUuid.isEmpty()) {
-                app = datastore.getApplicationById(appUuid);
+                SubscriptionDataSnapshot snapshot = datastore.getSnapshot();
+                app = snapshot.getApplication(appUuid);
                 if (app != null) {
-                    sub = datastore.getSubscriptionById(app.getUUID(), api.getUuid());
+                    sub = snapshot.getSubscription(
+                            SubscriptionDataStoreUtil.getSubscriptionCacheKey(app.getUUID(), api.getUuid()));
                     if (sub != null) {
                         log.debug("All information is retrieved from the in memory data store.");
                     } else {
@@ -38,8 +38,10 @@ import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenera
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.commons.model.APIKeyAuthenticationConfig;
+import org.wso2.apk.enforcer.commons.model.AuthenticationConfig;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.config.EnforcerConfig;
 import org.wso2.apk.enforcer.config.dto.APIKeyIssuerDto;
@@ -97,6 +99,17 @@ public class APIKeyAuthenticator extends APIKeyHandler {
         return isAPIKey(getAPIKeyFromRequest(requestContext));
     }
 
+    @Override
+    public boolean isApplicable(ResourceConfig resourceConfig) {
+        AuthenticationConfig authenticationConfig = resourceConfig.getAuthenticationConfig();
+        if (authenticationConfig == null) {
+            return true;
+        }
+        List<APIKeyAuthenticationConfig> apiKeyAuthenticationConfigs =
+                authenticationConfig.getApiKeyAuthenticationConfigs();
+        return apiKeyAuthenticationConfigs != null && !apiKeyAuthenticationConfigs.isEmpty();
+    }
+
     // Gets API key from request
     private static String getAPIKeyFromRequest(RequestContext requestContext) {
 
@@ -55,7 +55,7 @@ public abstract class APIKeyHandler implements Authenticator {
      */
     public boolean isAPIKey(String apiKey) {
 
-        if (apiKey != null && apiKey.split("\\.").length == 3) {
+        if (apiKey != null && JWTUtils.hasJWTShape(apiKey)) {
             return true;
         }
         return false;
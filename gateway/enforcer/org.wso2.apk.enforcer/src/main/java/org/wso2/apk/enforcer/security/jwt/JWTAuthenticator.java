@@ -19,12 +19,12 @@ package org.wso2.apk.enforcer.security.jwt;
 
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
-import com.nimbusds.jwt.util.DateUtils;
 import io.opentelemetry.context.Scope;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
+import org.wso2.apk.enforcer.common.CacheProvider;
 import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.commons.dto.ClaimValueDTO;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
@@ -34,6 +34,7 @@ import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
 import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.AuthenticationConfig;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
@@ -59,7 +60,6 @@ import org.wso2.apk.enforcer.util.JWTUtils;
 
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -90,11 +90,18 @@ public class JWTAuthenticator implements Authenticator {
 
         if (!StringUtils.equals(authHeader, "")) {
             String authHeaderValue = retrieveAuthHeaderValue(requestContext, authHeader);
-            return authHeaderValue != null && !StringUtils.containsWhitespace(authHeaderValue) && authHeaderValue.split("\\.").length == 3;
+            return authHeaderValue != null && !StringUtils.containsWhitespace(authHeaderValue)
+                    && JWTUtils.hasJWTShape(authHeaderValue);
         }
         return false;
     }
 
+    @Override
+    public boolean isApplicable(ResourceConfig resourceConfig) {
+        AuthenticationConfig authenticationConfig = resourceConfig.getAuthenticationConfig();
+        return authenticationConfig != null && authenticationConfig.getJwtAuthenticationConfig() != null;
+    }
+
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
@@ -122,8 +129,11 @@ public class JWTAuthenticator implements Authenticator {
             String environment = requestContext.getMatchedAPI().getEnvironment();
 
             JWTValidationInfo validationInfo = getJwtValidationInfo(jwtToken, organization, environment);
-            if (RevokedTokenRedisClient.getRevokedTokens().contains(validationInfo.getIdentifier())) {
+            if (RevokedTokenRedisClient.isRevoked(validationInfo.getIdentifier())) {
                 log.info("Revoked JWT token. ", validationInfo.getIdentifier());
+                if (isGatewayTokenCacheEnabled) {
+                    CacheProviderUtil.getOrganizationCache(organization).getVerifiedTokenCache().invalidate(jwtToken);
+                }
                 throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
@@ -399,34 +409,25 @@ public class JWTAuthenticator implements Authenticator {
     private JWTValidationInfo getJwtValidationInfo(String jwtToken, String organization, String environment) throws APISecurityException {
 
         if (isGatewayTokenCacheEnabled) {
-            String[] jwtParts = jwtToken.split("\\.");
-            String signature = jwtParts[2];
-            Object validCacheToken = CacheProviderUtil.getOrganizationCache(organization).getGatewayKeyCache()
-                    .getIfPresent(signature);
-            if (validCacheToken != null) {
-                JWTValidationInfo validationInfo = (JWTValidationInfo) validCacheToken;
-                if (!isJWTExpired(validationInfo)) {
-                    if (!StringUtils.equals(validationInfo.getToken(), jwtToken)) {
-                        log.warn("Suspected tampered token; a JWT token with the same signature is " +
-                                "already available in the cache. Tampered token: " + FilterUtils.getMaskedToken(jwtToken));
-                        throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                                APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid JWT token");
-                    }
-                    if (RevokedJWTDataHolder.isJWTTokenSignatureExistsInRevokedMap(validationInfo.getIdentifier())) {
-                        log.debug("Token found in the revoked jwt token map.");
-                        throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                                APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid JWT token");
-                    }
-                    return validationInfo;
-                } else {
-                    CacheProviderUtil.getOrganizationCache(organization).getGatewayKeyCache().invalidate(signature);
-                    CacheProviderUtil.getOrganizationCache(organization).getInvalidTokenCache().put(signature, true);
+            CacheProvider cacheProvider = CacheProviderUtil.getOrganizationCache(organization);
+            JWTValidationInfo validationInfo = cacheProvider.getVerifiedTokenCache().get(jwtToken);
+            if (validationInfo != null) {
+                if (!StringUtils.equals(validationInfo.getToken(), jwtToken)) {
+                    log.warn("Suspected tampered token; a JWT token with the same signature is " +
+                            "already available in the cache. Tampered token: " + FilterUtils.getMaskedToken(jwtToken));
+                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
+                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid JWT token");
+                }
+                if (RevokedJWTDataHolder.isJWTTokenSignatureExistsInRevokedMap(validationInfo.getIdentifier())) {
+                    log.debug("Token found in the revoked jwt token map.");
+                    cacheProvider.getVerifiedTokenCache().invalidate(jwtToken);
                     throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                            APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED,
-                            APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED_MESSAGE);
+                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid JWT token");
                 }
-            } else if (CacheProviderUtil.getOrganizationCache(organization).getInvalidTokenCache()
-                    .getIfPresent(signature) != null) {
+                return validationInfo;
+            }
+            String signature = jwtToken.substring(jwtToken.lastIndexOf('.') + 1);
+            if (cacheProvider.getInvalidTokenCache().getIfPresent(signature) != null) {
                 throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
@@ -496,7 +497,7 @@ public class JWTAuthenticator implements Authenticator {
             if (isGatewayTokenCacheEnabled) {
                 // Add token to tenant token cache
                 if (jwtValidationInfo.isValid()) {
-                    CacheProviderUtil.getOrganizationCache(organization).getGatewayKeyCache().put(signature,
+                    CacheProviderUtil.getOrganizationCache(organization).getVerifiedTokenCache().put(jwtToken,
                             jwtValidationInfo);
                 } else {
                     CacheProviderUtil.getOrganizationCache(organization).getInvalidTokenCache().put(signature, true);
@@ -511,20 +512,6 @@ public class JWTAuthenticator implements Authenticator {
         }
     }
 
-    /**
-     * Check whether the jwt token is expired or not.
-     *
-     * @param payload The payload of the JWT token
-     * @return boolean true if the token is not expired, false otherwise
-     */
-    private Boolean isJWTExpired(JWTValidationInfo payload) {
-
-        long timestampSkew = FilterUtils.getTimeStampSkewInSeconds();
-        Date now = new Date();
-        Date exp = new Date(payload.getExpiryTime());
-        return !DateUtils.isAfter(exp, now, timestampSkew);
-    }
-
     /**
      * Checks if at least one element from list1 exists in list2.
      *
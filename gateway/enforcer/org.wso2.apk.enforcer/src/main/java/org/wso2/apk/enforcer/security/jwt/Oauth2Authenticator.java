@@ -34,6 +34,7 @@ import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenera
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.AuthenticationConfig;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
@@ -97,11 +98,18 @@ public class Oauth2Authenticator implements Authenticator {
             // StringUtils.startsWithIgnoreCase(null, "bearer")         = false
             // StringUtils.startsWithIgnoreCase("abc", "bearer")        = false
             // StringUtils.startsWithIgnoreCase("Bearer abc", "bearer") = true
-            return StringUtils.startsWithIgnoreCase(authHeaderValue, JWTConstants.BEARER) && authHeaderValue.trim().split("\\s+").length == 2 && authHeaderValue.split("\\.").length == 3;
+            return StringUtils.startsWithIgnoreCase(authHeaderValue, JWTConstants.BEARER)
+                    && JWTUtils.hasTwoParts(authHeaderValue) && JWTUtils.hasJWTShape(authHeaderValue);
         }
         return false;
     }
 
+    @Override
+    public boolean isApplicable(ResourceConfig resourceConfig) {
+        AuthenticationConfig authenticationConfig = resourceConfig.getAuthenticationConfig();
+        return authenticationConfig != null && authenticationConfig.getOauth2AuthenticationConfig() != null;
+    }
+
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
@@ -134,7 +142,7 @@ public class Oauth2Authenticator implements Authenticator {
             String environment = requestContext.getMatchedAPI().getEnvironment();
 
             JWTValidationInfo validationInfo = getJwtValidationInfo(jwtToken, organization, environment);
-            if (RevokedTokenRedisClient.getRevokedTokens().contains(validationInfo.getIdentifier())) {
+            if (RevokedTokenRedisClient.isRevoked(validationInfo.getIdentifier())) {
                 log.info("Revoked JWT token. ", validationInfo.getIdentifier());
                 throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
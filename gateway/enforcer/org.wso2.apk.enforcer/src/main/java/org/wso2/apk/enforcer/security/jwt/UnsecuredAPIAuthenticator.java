@@ -21,6 +21,7 @@ package org.wso2.apk.enforcer.security.jwt;
 import io.opentelemetry.context.Scope;
 import org.apache.logging.log4j.ThreadContext;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
+import org.wso2.apk.enforcer.commons.model.AuthenticationConfig;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
@@ -54,6 +55,12 @@ public class UnsecuredAPIAuthenticator implements Authenticator {
         return true;
     }
 
+    @Override
+    public boolean isApplicable(ResourceConfig resourceConfig) {
+        AuthenticationConfig authenticationConfig = resourceConfig.getAuthenticationConfig();
+        return authenticationConfig == null || authenticationConfig.isDisabled();
+    }
+
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
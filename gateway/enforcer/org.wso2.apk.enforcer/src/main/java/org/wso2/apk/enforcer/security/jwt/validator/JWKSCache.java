@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
+import org.wso2.apk.enforcer.util.JWKSClient;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the signing keys of a JWKS endpoint, held as ready to use {@link JWSVerifier}s keyed by the key ID.
+ * <p>
+ * Keys are refreshed in the background once their TTL, taken from the Cache-Control header of the endpoint when
+ * present, has passed, while the cached keys keep being served. Only one refresh runs at a time and concurrent callers
+ * share its result. A key ID which is not in the cache triggers a refresh at most once per
+ * {@link #MIN_REFRESH_INTERVAL_MILLIS}, and only requests with unknown key IDs that arrive while such a refresh is
+ * running wait for it. Any other lookup of an unknown key ID, including one made while a background refresh is running,
+ * fails fast, so a flood of tokens with unknown key IDs cannot keep request threads waiting on the endpoint.
+ */
+public class JWKSCache {
+
+    private static final Logger logger = LogManager.getLogger(JWKSCache.class);
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    static final long MAX_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    static final long MIN_REFRESH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // Upper bound of the time a request waits for a refresh triggered by an unknown key ID.
+    private static final long REFRESH_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2,
+            new NativeThreadFactory(new ThreadGroup("JWKSRefresh"), "JWKSRefresh"));
+
+    private final JWKSClient jwksClient;
+    private final LongSupplier clock;
+    private volatile Map<String, JWSVerifier> verifiers = Collections.emptyMap();
+    private volatile long refreshAt;
+    private volatile long nextMissRefreshAllowedAt;
+    private final AtomicReference<Refresh> inFlightRefresh = new AtomicReference<>();
+
+    public JWKSCache(JWKSClient jwksClient) {
+
+        this(jwksClient, System::currentTimeMillis);
+    }
+
+    JWKSCache(JWKSClient jwksClient, LongSupplier clock) {
+
+        this.jwksClient = jwksClient;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the verifier of the key with the given key ID.
+     *
+     * @param keyID key ID in the JWT header
+     * @return verifier of the key or null if there is no such key in the JWKS
+     */
+    public JWSVerifier getVerifier(String keyID) {
+
+        if (keyID == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        JWSVerifier verifier = verifiers.get(keyID);
+        if (verifier != null) {
+            if (now >= refreshAt) {
+                refresh(now, false);
+            }
+            return verifier;
+        }
+        Refresh refresh = inFlightRefresh.get();
+        if (refresh == null) {
+            if (now < nextMissRefreshAllowedAt) {
+                logger.debug("Key ID {} not found in the JWKS and it was refreshed recently", keyID);
+                return null;
+            }
+            refresh = refresh(now, true);
+        }
+        if (!refresh.forKeyIDMiss) {
+            // A background refresh picks up new keys as well, but is not waited for so that it is not rate limited.
+            logger.debug("Key ID {} not found in the JWKS while a background refresh is running", keyID);
+            return null;
+        }
+        try {
+            refresh.future.get(REFRESH_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("JWKS is not refreshed for the key ID {}", keyID, e);
+        }
+        return verifiers.get(keyID);
+    }
+
+    /**
+     * Starts a refresh of the keys unless one is already running.
+     *
+     * @param now          current time
+     * @param forKeyIDMiss whether the refresh is started for a key ID which is not in the cache
+     * @return refresh in progress, which may have been started for the other reason
+     */
+    private Refresh refresh(long now, boolean forKeyIDMiss) {
+
+        while (true) {
+            Refresh current = inFlightRefresh.get();
+            if (current != null) {
+                return current;
+            }
+            Refresh refresh = new Refresh(forKeyIDMiss);
+            if (inFlightRefresh.compareAndSet(null, refresh)) {
+                nextMissRefreshAllowedAt = now + MIN_REFRESH_INTERVAL_MILLIS;
+                refreshExecutor.execute(() -> {
+                    try {
+                        load();
+                        inFlightRefresh.set(null);
+                        refresh.future.complete(null);
+                    } catch (Exception e) {
+                        logger.error("Error while refreshing the JWKS", e);
+                        // Retry the background refresh later rather than on each request.
+                        refreshAt = clock.getAsLong() + MIN_REFRESH_INTERVAL_MILLIS;
+                        inFlightRefresh.set(null);
+                        refresh.future.completeExceptionally(e);
+                    }
+                });
+                return refresh;
+            }
+        }
+    }
+
+    private void load() throws EnforcerException {
+
+        JWKSClient.JWKSResponse response = jwksClient.getJWKSResponse();
+        Map<String, JWSVerifier> newVerifiers = new HashMap<>();
+        for (JWK jwk : response.getJwkSet().getKeys()) {
+            if (jwk.getKeyID() == null) {
+                continue;
+            }
+            try {
+                if (jwk instanceof RSAKey) {
+                    newVerifiers.put(jwk.getKeyID(), new RSASSAVerifier(((RSAKey) jwk).toRSAPublicKey()));
+                } else if (jwk instanceof ECKey) {
+                    newVerifiers.put(jwk.getKeyID(), new ECDSAVerifier(((ECKey) jwk).toECPublicKey()));
+                } else {
+                    logger.debug("Skipping key {} of unsupported type {}", jwk.getKeyID(), jwk.getKeyType());
+                }
+            } catch (JOSEException e) {
+                logger.warn("Skipping invalid key {} in the JWKS", jwk.getKeyID(), e);
+            }
+        }
+        verifiers = Collections.unmodifiableMap(newVerifiers);
+        refreshAt = clock.getAsLong() + getTTLMillis(response.getMaxAgeSeconds());
+        logger.debug("Loaded {} keys from the JWKS", newVerifiers.size());
+    }
+
+    static long getTTLMillis(long maxAgeSeconds) {
+
+        if (maxAgeSeconds < 0) {
+            return DEFAULT_TTL_MILLIS;
+        }
+        return Math.min(Math.max(TimeUnit.SECONDS.toMillis(maxAgeSeconds), MIN_REFRESH_INTERVAL_MILLIS),
+                MAX_TTL_MILLIS);
+    }
+
+    /**
+     * A refresh of the keys together with the reason it was started for.
+     */
+    private static class Refresh {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final boolean forKeyIDMiss;
+
+        Refresh(boolean forKeyIDMiss) {
+
+            this.forKeyIDMiss = forKeyIDMiss;
+        }
+    }
+}
@@ -18,11 +18,7 @@
 
 package org.wso2.apk.enforcer.security.jwt.validator;
 
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.jwk.ECKey;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.util.DateUtils;
@@ -43,8 +39,6 @@ import org.wso2.apk.enforcer.util.JWTUtils;
 
 import java.security.PublicKey;
 import java.security.cert.Certificate;
-import java.security.interfaces.ECPublicKey;
-import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -57,10 +51,9 @@ import java.util.List;
  */
 public class JWTValidator {
     private static final Logger logger = LogManager.getLogger(JWTValidator.class);
-    private JWKSet jwkSet;
     JWTTransformer jwtTransformer;
     ExtendedTokenIssuerDto tokenIssuer;
-    JWKSClient jwksClient;
+    JWKSCache jwksCache;
 
     public JWTValidator(ExtendedTokenIssuerDto tokenIssuer) throws EnforcerException {
         jwtTransformer = ConfigHolder.getInstance().getConfig().getJwtTransformer(tokenIssuer.getIssuer());
@@ -68,11 +61,13 @@ public class JWTValidator {
         this.tokenIssuer = tokenIssuer;
         if (tokenIssuer.getJwksConfigurationDTO() != null && tokenIssuer.getJwksConfigurationDTO().isEnabled() && StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())) {
             Certificate certificate = tokenIssuer.getJwksConfigurationDTO().getCertificate();
+            JWKSClient jwksClient;
             if (certificate != null) {
                 jwksClient = new JWKSClient(tokenIssuer.getJwksConfigurationDTO().getUrl(), List.of(certificate));
             } else {
                 jwksClient = new JWKSClient(tokenIssuer.getJwksConfigurationDTO().getUrl(), Collections.emptyList());
             }
+            jwksCache = new JWKSCache(jwksClient);
         }
     }
 
@@ -110,43 +105,20 @@ public class JWTValidator {
     }
 
     protected boolean validateSignature(SignedJWT signedJWT) throws EnforcerException {
-        try {
-            String keyID = signedJWT.getHeader().getKeyID();
-            if (jwksClient != null) {
-                // Check JWKSet Available in Cache
-                if (jwkSet == null) {
-                    jwkSet = jwksClient.getJWKSet();
-                }
-                JWK jwkSetKeyByKeyId = jwkSet.getKeyByKeyId(keyID);
-                if (jwkSetKeyByKeyId == null) {
-                    jwkSet = jwksClient.getJWKSet();
-                }
-                jwkSetKeyByKeyId = jwkSet.getKeyByKeyId(keyID);
-                if (jwkSetKeyByKeyId instanceof RSAKey) {
-                    RSAKey keyByKeyId = (RSAKey) jwkSetKeyByKeyId;
-                    RSAPublicKey rsaPublicKey = keyByKeyId.toRSAPublicKey();
-                    if (rsaPublicKey != null) {
-                        return JWTUtils.verifyTokenSignature(signedJWT, rsaPublicKey);
-                    }
-                } else if (jwkSetKeyByKeyId instanceof ECKey) {
-                    ECKey keyByKeyId = (ECKey) jwkSetKeyByKeyId;
-                    ECPublicKey ecPublicKey = keyByKeyId.toECPublicKey();
-                    if (ecPublicKey != null) {
-                        return JWTUtils.verifyTokenSignature(signedJWT, ecPublicKey);
-                    }
-                } else {
-                    throw new EnforcerException("Key Algorithm not supported");
-                }
+        String keyID = signedJWT.getHeader().getKeyID();
+        if (jwksCache != null) {
+            JWSVerifier jwsVerifier = jwksCache.getVerifier(keyID);
+            if (jwsVerifier == null) {
+                throw new EnforcerException("Signing key not found in the JWKS for the key ID: " + keyID);
             }
-            if (tokenIssuer.getCertificate() != null) {
-                logger.debug("Retrieve certificate from Token issuer and validating");
-                PublicKey publicKey = tokenIssuer.getCertificate().getPublicKey();
-                return JWTUtils.verifyTokenSignature(signedJWT, publicKey);
-            } else {
-                throw new EnforcerException("Certificate not found for validation");
-            }
-        } catch (JOSEException e) {
-            throw new EnforcerException("JWT Signature verification failed", e);
+            return JWTUtils.verifyTokenSignature(signedJWT, jwsVerifier);
+        }
+        if (tokenIssuer.getCertificate() != null) {
+            logger.debug("Retrieve certificate from Token issuer and validating");
+            PublicKey publicKey = tokenIssuer.getCertificate().getPublicKey();
+            return JWTUtils.verifyTokenSignature(signedJWT, publicKey);
+        } else {
+            throw new EnforcerException("Certificate not found for validation");
         }
     }
 
@@ -20,31 +20,49 @@ package org.wso2.apk.enforcer.security.jwt.validator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.RevokedTokenMetrics;
+import org.wso2.apk.enforcer.server.RevokedTokenIndex;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- *  Singleton which stores the revoked JWT map.
+ *  Singleton which stores the revoked JWTs. Revoked JWTs are removed once they expire.
  */
 public class RevokedJWTDataHolder {
 
     private static final Logger log = LogManager.getLogger(RevokedJWTDataHolder.class);
-    private static Map<String, Long> revokedJWTMap = new ConcurrentHashMap<>();
+    private static final RevokedTokenIndex revokedJWTs = new RevokedTokenIndex();
     private static RevokedJWTDataHolder instance = new RevokedJWTDataHolder();
+    private ScheduledExecutorService cleanupScheduler;
 
-    public void init() {
+    public synchronized void init() {
+        if (cleanupScheduler != null) {
+            return;
+        }
+        int cleanupInterval = ConfigHolder.getInstance().getEnvVarConfig().getRevokedTokenCleanupInterval();
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            RevokedTokenMetrics.getInstance().registerStore("revoked_jwts", revokedJWTs);
+        }
+        cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+        cleanupScheduler.scheduleAtFixedRate(() -> {
+            int removed = revokedJWTs.expire(System.currentTimeMillis() / 1000L);
+            log.debug("{} expired JWTs removed from the revoked map", removed);
+        }, cleanupInterval, cleanupInterval, TimeUnit.SECONDS);
     }
 
     /**
      * Adds a given key,value pair to the revoke map.
      * @param key key to be added.
-     * @param value value to be added.
+     * @param value expiry time of the JWT in milliseconds.
      */
     public void addRevokedJWTToMap(String key, Long value) {
         if (key != null && value != null) {
             log.debug("Adding revoked JWT key, value pair to the revoked map :" + key + " , " + value);
-            revokedJWTMap.put(key, value);
+            revokedJWTs.add(key, TimeUnit.MILLISECONDS.toSeconds(value));
         }
     }
 
@@ -54,7 +72,7 @@ public class RevokedJWTDataHolder {
      * @return true if it exists and false otherwise.
      */
     public static boolean isJWTTokenSignatureExistsInRevokedMap(String jwtSignature) {
-        return revokedJWTMap.containsKey(jwtSignature);
+        return revokedJWTs.isRevoked(jwtSignature);
     }
 
     private RevokedJWTDataHolder() {
@@ -62,11 +80,11 @@ public class RevokedJWTDataHolder {
     }
 
     /**
-     * Fetches the revoke map.
-     * @return
+     * Fetches the revoked JWTs.
+     * @return index of the revoked JWTs
      */
-    public Map<String, Long> getRevokedJWTMap() {
-        return revokedJWTMap;
+    public RevokedTokenIndex getRevokedJWTs() {
+        return revokedJWTs;
     }
 
     /**
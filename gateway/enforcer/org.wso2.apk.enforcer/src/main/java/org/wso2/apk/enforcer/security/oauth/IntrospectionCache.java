@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.oauth;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.wso2.apk.enforcer.common.ExpiringCache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the token introspection results of opaque access tokens.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the token, so that the tokens are not held in memory and a result is never
+ * served for a different token. An active token is served until its expiry time or the maximum age after it was
+ * introspected, whichever comes first, so a revoked token is accepted for at most the maximum age. Inactive tokens are
+ * cached for a short time, so that a client retrying with a bad token does not reach the key manager on each request.
+ * Failed introspections are not cached.
+ * <p>
+ * Concurrent lookups of a token which is not in the cache share a single introspection.
+ */
+public class IntrospectionCache {
+
+    public static final String CACHE_NAME = "introspectionCache";
+    private static final HashFunction DIGEST_FUNCTION = Hashing.sha256();
+    static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final long DEFAULT_NEGATIVE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ExpiringCache<HashCode, IntrospectInfo> cache;
+    private final Map<HashCode, CompletableFuture<IntrospectInfo>> inFlight = new ConcurrentHashMap<>();
+    private final long maxAgeMillis;
+    private final long negativeTTLMillis;
+    private final LongSupplier clock;
+
+    public IntrospectionCache() {
+
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAX_AGE_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS, System::currentTimeMillis);
+    }
+
+    IntrospectionCache(int maximumSize, long maxAgeMillis, long negativeTTLMillis, LongSupplier clock) {
+
+        this.maxAgeMillis = maxAgeMillis;
+        this.negativeTTLMillis = negativeTTLMillis;
+        this.clock = clock;
+        this.cache = new ExpiringCache<>(maximumSize, Math.max(maxAgeMillis, negativeTTLMillis), clock);
+    }
+
+    /**
+     * Returns the introspection result of the given token, introspecting the token if there is no unexpired result
+     * in the cache. If the token is being introspected by another thread, waits for that introspection instead.
+     *
+     * @param token        access token
+     * @param introspector introspects the token at the key manager
+     * @return introspection result
+     * @throws IOException if the token cannot be introspected
+     */
+    public IntrospectInfo get(String token, Introspector introspector) throws IOException {
+
+        HashCode key = digest(token);
+        IntrospectInfo cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<IntrospectInfo> introspection = new CompletableFuture<>();
+        CompletableFuture<IntrospectInfo> current = inFlight.putIfAbsent(key, introspection);
+        if (current != null) {
+            return await(current);
+        }
+        try {
+            IntrospectInfo introspectInfo = introspector.introspect(token);
+            put(key, introspectInfo);
+            introspection.complete(introspectInfo);
+            return introspectInfo;
+        } catch (IOException | RuntimeException e) {
+            introspection.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, introspection);
+        }
+    }
+
+    public void invalidate(String token) {
+
+        cache.invalidate(digest(token));
+    }
+
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * Returns the statistics of the cache. Lookups of expired entries are counted as misses.
+     *
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    private void put(HashCode key, IntrospectInfo introspectInfo) {
+
+        long now = clock.getAsLong();
+        long expiresAt;
+        if (introspectInfo.isActive()) {
+            expiresAt = now + maxAgeMillis;
+            if (introspectInfo.getExpiry() > 0) {
+                expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(introspectInfo.getExpiry()));
+            }
+        } else {
+            expiresAt = now + negativeTTLMillis;
+        }
+        cache.put(key, introspectInfo, expiresAt);
+    }
+
+    private static IntrospectInfo await(CompletableFuture<IntrospectInfo> introspection) throws IOException {
+
+        try {
+            return introspection.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the token introspection", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while introspecting the token", e.getCause());
+        }
+    }
+
+    private static HashCode digest(String token) {
+
+        return DIGEST_FUNCTION.hashString(token, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Introspects a token at the key manager.
+     */
+    @FunctionalInterface
+    public interface Introspector {
+
+        IntrospectInfo introspect(String token) throws IOException;
+    }
+}
@@ -20,7 +20,6 @@ package org.wso2.apk.enforcer.security.oauth;
 
 import com.google.gson.Gson;
 import io.opentelemetry.context.Scope;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
@@ -32,6 +31,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.logging.log4j.ThreadContext;
+import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
@@ -47,12 +47,15 @@ import org.wso2.apk.enforcer.tracing.Utils;
 import org.wso2.apk.enforcer.util.FilterUtils;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An API consumer authenticator which authenticates user requests using
@@ -64,6 +67,16 @@ import java.util.Map;
  */
 public class OAuthAuthenticator implements Authenticator {
     private static final Log log = LogFactory.getLog(OAuthAuthenticator.class);
+    private static final Gson gson = new Gson();
+    // Introspection clients keyed by the introspection endpoint of the key manager.
+    private static final Map<String, CloseableHttpClient> introspectionClients = new ConcurrentHashMap<>();
+    private static final IntrospectionCache introspectionCache = new IntrospectionCache();
+
+    static {
+        CacheProviderUtil.registerSharedCache(IntrospectionCache.CACHE_NAME, introspectionCache::stats,
+                introspectionCache::size);
+    }
+
     private List<String> keyManagerList;
 
     protected JWTValidator jwtValidator;
@@ -121,7 +134,12 @@ public class OAuthAuthenticator implements Authenticator {
             token = token.split("\\s")[1];
 
             try {
-                IntrospectInfo introspectInfo = validateToken(token);
+                IntrospectInfo introspectInfo = introspectionCache.get(token, this::validateToken);
+                if (!introspectInfo.isActive()) {
+                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
+                            APISecurityConstants.API_AUTH_ACCESS_TOKEN_INACTIVE,
+                            APISecurityConstants.API_AUTH_ACCESS_TOKEN_INACTIVE_MESSAGE);
+                }
                 accessTokenInfo.setAccessToken(token);
                 accessTokenInfo.setConsumerKey(introspectInfo.getClientId());
             } catch (IOException e) {
@@ -225,26 +243,44 @@ public class OAuthAuthenticator implements Authenticator {
      * @throws IOException : If any error occurred during invoking the introspect endpoint.
      */
     private IntrospectInfo validateToken(String accessToken) throws IOException {
-        URL url = new URL(kmEndpoint + "/introspect");
-        try (CloseableHttpClient httpClient = (CloseableHttpClient) FilterUtils.getHttpClient(url.getProtocol())) {
-            HttpPost introspectRequest = new HttpPost(kmEndpoint + "/introspect");
-            List<NameValuePair> params = new ArrayList<>();
-            NameValuePair token = new BasicNameValuePair("token", accessToken);
-            params.add(token);
-            introspectRequest.setEntity(new UrlEncodedFormEntity(params));
-            introspectRequest.setHeader("Content-type", "application/x-www-form-urlencoded");
-            introspectRequest.setHeader("Authorization", "Basic " +
-                    Base64.getEncoder().encodeToString("admin:admin".getBytes()));
-            try (CloseableHttpResponse response = httpClient.execute(introspectRequest)) {
-                if (response.getStatusLine().getStatusCode() == 200) {
-                    HttpEntity entity = response.getEntity();
-                    try (InputStream content = entity.getContent()) {
-                        return new Gson().fromJson(IOUtils.toString(content), IntrospectInfo.class);
-                    }
-                } else {
-                    return null;
+        String introspectEndpoint = kmEndpoint + "/introspect";
+        HttpPost introspectRequest = new HttpPost(introspectEndpoint);
+        List<NameValuePair> params = new ArrayList<>();
+        NameValuePair token = new BasicNameValuePair("token", accessToken);
+        params.add(token);
+        introspectRequest.setEntity(new UrlEncodedFormEntity(params));
+        introspectRequest.setHeader("Content-type", "application/x-www-form-urlencoded");
+        introspectRequest.setHeader("Authorization", "Basic " +
+                Base64.getEncoder().encodeToString("admin:admin".getBytes()));
+        try (CloseableHttpResponse response = getIntrospectionClient(introspectEndpoint)
+                .execute(introspectRequest)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                // Not a result of the token, hence it is not cached.
+                throw new IOException("Unexpected status " + statusCode + " received from " + introspectEndpoint);
+            }
+            HttpEntity entity = response.getEntity();
+            try (Reader content = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)) {
+                IntrospectInfo introspectInfo = gson.fromJson(content, IntrospectInfo.class);
+                if (introspectInfo == null) {
+                    throw new IOException("Empty response received from " + introspectEndpoint);
                 }
+                return introspectInfo;
             }
         }
     }
+
+    /**
+     * Returns the HTTP client of the given introspection endpoint. Clients are created once per key manager and kept,
+     * so that the connections to the key manager are reused.
+     */
+    private static CloseableHttpClient getIntrospectionClient(String introspectEndpoint) throws IOException {
+        CloseableHttpClient httpClient = introspectionClients.get(introspectEndpoint);
+        if (httpClient == null) {
+            String protocol = new URL(introspectEndpoint).getProtocol();
+            httpClient = introspectionClients.computeIfAbsent(introspectEndpoint,
+                    k -> (CloseableHttpClient) FilterUtils.getHttpClient(protocol));
+        }
+        return httpClient;
+    }
 }
@@ -40,6 +40,7 @@ import org.wso2.apk.enforcer.grpc.HealthService;
 import org.wso2.apk.enforcer.grpc.interceptors.AccessLogInterceptor;
 import org.wso2.apk.enforcer.grpc.interceptors.OpenTelemetryInterceptor;
 import org.wso2.apk.enforcer.jmx.JMXAgent;
+import org.wso2.apk.enforcer.metrics.CacheMetricsPublisher;
 import org.wso2.apk.enforcer.metrics.MetricsManager;
 import org.wso2.apk.enforcer.security.jwt.validator.RevokedJWTDataHolder;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreUtil;
@@ -109,6 +110,7 @@ public class AuthServer {
                 if (enforcerConfig.getMetricsConfig().isMetricsEnabled()) {
                     //Initialize metrics
                     MetricsManager.initializeMetrics(enforcerConfig.getMetricsConfig());
+                    CacheMetricsPublisher.start();
                 }
                 if (enforcerConfig.getAnalyticsConfig().isEnabled()) {
                     logger.info("analytics filter is enabled.");
@@ -36,6 +36,7 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.HttpConstants;
 import org.wso2.apk.enforcer.graphql.GraphQLPayloadUtils;
+import org.wso2.apk.enforcer.graphql.PersistedQueryNotFoundException;
 import org.wso2.apk.enforcer.util.FilterUtils;
 
 import java.util.ArrayList;
@@ -113,8 +114,22 @@ public class HttpRequestHandler implements RequestHandler<CheckRequest, Response
         if (isGraphQLAPI && !HttpConstants.OPTIONS.equals(method)) {
             // need to decode the payload if request is graphql and a non option call.
             try {
-                requestPayload = GraphQLPayloadUtils.getGQLRequestPayload(requestPayload, headers);
+                requestPayload = GraphQLPayloadUtils.getGQLRequestPayload(api, requestPayload, headers);
                 resourceConfigs = GraphQLPayloadUtils.buildGQLRequestContext(api, requestPayload);
+            } catch (PersistedQueryNotFoundException exception) {
+                // Expected on the first request of each query from a client using automatic persisted queries. The
+                // client retries with the query, hence the miss is answered in the form it expects.
+                logger.debug("Persisted query not found for {}", api.getAPIConfig().getName());
+                RequestContext requestContext = new RequestContext.Builder(requestPath).requestMethod(method)
+                        .matchedAPI(api.getAPIConfig()).headers(headers).requestID(requestID).address(address)
+                        .clusterHeader(cluster).certificate(certificate)
+                        .requestTimeStamp(requestTimeInMillis).requestPayload(requestPayload).build();
+                requestContext.getProperties().put(APIConstants.MessageFormat.STATUS_CODE,
+                        APIConstants.StatusCodes.OK.getCode());
+                requestContext.getProperties().put(APIConstants.MessageFormat.RESPONSE_PAYLOAD,
+                        GraphQLPayloadUtils.getPersistedQueryNotFoundResponse());
+                requestContext.addOrModifyHeaders(APIConstants.CONTENT_TYPE_HEADER, APIConstants.APPLICATION_JSON);
+                return requestContext;
             } catch (EnforcerException exception) {
                 logger.error("Error while processing the graphql api request for {}",
                         api.getAPIConfig().getName(),
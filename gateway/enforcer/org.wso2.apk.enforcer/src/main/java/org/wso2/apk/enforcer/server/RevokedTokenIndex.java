@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.server;
+
+import org.wso2.apk.enforcer.util.CountingBloomFilter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index of revoked token identifiers which drops the tokens once they expire.
+ * <p>
+ * Membership checks read a {@link ConcurrentHashMap} and never block. Tokens are also grouped into buckets keyed by
+ * their expiry time in seconds, like the slots of a time wheel, so expiring the tokens of a second removes a whole
+ * bucket without scanning or re-ordering the rest of the tokens. Updates are serialized as they only come from the
+ * redis subscriber and the cleanup task.
+ * <p>
+ * Almost none of the checked tokens are revoked, so a {@link CountingBloomFilter} answers most of the checks without
+ * probing the map. The filter is rebuilt with a new size when the number of tokens grows past or shrinks well below
+ * the size it was built for.
+ */
+public class RevokedTokenIndex {
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final int INITIAL_EXPECTED_TOKENS = 1024;
+
+    private final Map<String, Long> expiryByToken = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> tokensByExpiry = new ConcurrentHashMap<>();
+    // Tokens expiring at or before this second have been removed.
+    private long expiredUpTo;
+    private volatile CountingBloomFilter filter =
+            new CountingBloomFilter(INITIAL_EXPECTED_TOKENS, FALSE_POSITIVE_PROBABILITY);
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public RevokedTokenIndex() {
+
+        this(System.currentTimeMillis() / 1000L);
+    }
+
+    RevokedTokenIndex(long currentTime) {
+
+        this.expiredUpTo = currentTime;
+    }
+
+    /**
+     * Returns whether the given token identifier is revoked.
+     *
+     * @param tokenIdentifier token identifier (jti)
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String tokenIdentifier) {
+
+        if (tokenIdentifier == null) {
+            return false;
+        }
+        lookups.increment();
+        if (!filter.mightContain(tokenIdentifier)) {
+            return false;
+        }
+        if (expiryByToken.containsKey(tokenIdentifier)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Adds a revoked token. A token which has already expired is kept until the next {@link #expire(long)} call, as
+     * it may still be accepted within the allowed clock skew.
+     *
+     * @param tokenIdentifier token identifier (jti)
+     * @param expiry          expiry time of the token in seconds
+     */
+    public synchronized void add(String tokenIdentifier, long expiry) {
+
+        long bucket = Math.max(expiry, expiredUpTo + 1);
+        if (!expiryByToken.containsKey(tokenIdentifier)) {
+            // The filter is updated first, so that a token in the map is always in the filter.
+            filter.add(tokenIdentifier);
+        }
+        Long previousBucket = expiryByToken.put(tokenIdentifier, bucket);
+        if (previousBucket != null && previousBucket != bucket) {
+            removeFromBucket(previousBucket, tokenIdentifier);
+        }
+        tokensByExpiry.computeIfAbsent(bucket, k -> ConcurrentHashMap.newKeySet()).add(tokenIdentifier);
+        if (expiryByToken.size() > filter.getExpectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * Removes the tokens which expire at or before the given time.
+     *
+     * @param currentTime current time in seconds
+     * @return number of removed tokens
+     */
+    public synchronized int expire(long currentTime) {
+
+        int removed = 0;
+        if (currentTime - expiredUpTo > tokensByExpiry.size()) {
+            // Fewer buckets than seconds to advance, e.g. after a long pause. Visit the buckets instead.
+            for (Long bucket : tokensByExpiry.keySet()) {
+                if (bucket <= currentTime) {
+                    removed += removeBucket(bucket);
+                }
+            }
+        } else {
+            for (long bucket = expiredUpTo + 1; bucket <= currentTime; bucket++) {
+                removed += removeBucket(bucket);
+            }
+        }
+        expiredUpTo = Math.max(expiredUpTo, currentTime);
+        if (filter.getExpectedInsertions() > INITIAL_EXPECTED_TOKENS
+                && expiryByToken.size() < filter.getExpectedInsertions() / 8) {
+            rebuildFilter();
+        }
+        return removed;
+    }
+
+    public int size() {
+
+        return expiryByToken.size();
+    }
+
+    public long getFilterSizeBytes() {
+
+        return filter.getSizeBytes();
+    }
+
+    /**
+     * Returns the theoretical false positive probability of the filter for the current number of tokens.
+     *
+     * @return estimated false positive probability
+     */
+    public double getEstimatedFalsePositiveRate() {
+
+        return filter.getEstimatedFalsePositiveProbability(expiryByToken.size());
+    }
+
+    /**
+     * Returns the ratio of the checks that passed the filter but were not revoked to all the checks.
+     *
+     * @return observed false positive rate
+     */
+    public double getObservedFalsePositiveRate() {
+
+        long lookupCount = lookups.sum();
+        return lookupCount == 0 ? 0 : (double) falsePositives.sum() / lookupCount;
+    }
+
+    /**
+     * Builds a new filter sized for twice the current number of tokens and publishes it. The new filter contains all
+     * the tokens before it is published, and no token is added or removed meanwhile as updates are serialized.
+     */
+    private void rebuildFilter() {
+
+        CountingBloomFilter newFilter = new CountingBloomFilter(expiryByToken.size() * 2,
+                FALSE_POSITIVE_PROBABILITY);
+        for (String token : expiryByToken.keySet()) {
+            newFilter.add(token);
+        }
+        filter = newFilter;
+    }
+
+    private int removeBucket(long bucket) {
+
+        Set<String> tokens = tokensByExpiry.remove(bucket);
+        if (tokens == null) {
+            return 0;
+        }
+        for (String token : tokens) {
+            if (expiryByToken.remove(token) != null) {
+                filter.remove(token);
+            }
+        }
+        return tokens.size();
+    }
+
+    private void removeFromBucket(long bucket, String tokenIdentifier) {
+
+        Set<String> tokens = tokensByExpiry.get(bucket);
+        if (tokens != null) {
+            tokens.remove(tokenIdentifier);
+            if (tokens.isEmpty()) {
+                tokensByExpiry.remove(bucket);
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.RevokedTokenMetrics;
 import org.wso2.apk.enforcer.util.JWTUtils;
 import org.wso2.apk.enforcer.util.TLSUtils;
 import redis.clients.jedis.DefaultJedisClientConfig;
@@ -41,13 +43,9 @@ import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.KeyManagerFactory;
@@ -59,9 +57,8 @@ import javax.net.ssl.TrustManagerFactory;
 public class RevokedTokenRedisClient {
 
     private JedisPool jedisPool;
-    private Set<String> revokedTokens;
-    private Queue<Map.Entry<Long, String>> expiryQueue;
-    private static Set<String> revokedTokensStatic;
+    private RevokedTokenIndex revokedTokens;
+    private static volatile RevokedTokenIndex revokedTokensStatic = new RevokedTokenIndex();
     private String redisRevokedTokensChannel;
     private final ScheduledExecutorService revokedTokensCleanupScheduler = Executors.newScheduledThreadPool(1);
     private int revokedTokenCleanupInterval;
@@ -69,9 +66,8 @@ public class RevokedTokenRedisClient {
     private static final Logger logger = LogManager.getLogger(RevokedTokenRedisClient.class);
     private static final String TOKEN_EXPIRY_DIVIDER = "_##_";
     private static final String REVOKED_TOKEN_REDIS_KEY_PATTERN = "wso2:apk:revoked_token:*";
-    private RevokedTokenRedisClient(Set<String> revokedTokens, Queue<Map.Entry<Long, String>> expiryQueue) throws EnforcerException {
+    private RevokedTokenRedisClient(RevokedTokenIndex revokedTokens) throws EnforcerException {
         this.revokedTokens = revokedTokens;
-        this.expiryQueue = expiryQueue;
 
         String userName = ConfigHolder.getInstance().getEnvVarConfig().getRedisUsername();
         String password = ConfigHolder.getInstance().getEnvVarConfig().getRedisPassword();
@@ -105,14 +101,13 @@ public class RevokedTokenRedisClient {
         logger.debug("Starting redis revoked token client...");
         isAlreadyStarted = true;
 
-        HashSet<String> revokedTokens = new HashSet<>();
-        Set<String> synchronizedRevokedTokens = Collections.synchronizedSet(revokedTokens);
-        PriorityBlockingQueue<Map.Entry<Long, String>> expiryQueue =
-                new PriorityBlockingQueue<>(10, Map.Entry.comparingByKey());
-        RevokedTokenRedisClient revokedTokenRedisClient =
-                new RevokedTokenRedisClient(synchronizedRevokedTokens, expiryQueue);
+        RevokedTokenIndex revokedTokens = new RevokedTokenIndex();
+        RevokedTokenRedisClient revokedTokenRedisClient = new RevokedTokenRedisClient(revokedTokens);
 
         revokedTokensStatic = revokedTokens;
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            RevokedTokenMetrics.getInstance().registerStore("revoked_tokens", revokedTokens);
+        }
         revokedTokenRedisClient.subscribe();
         revokedTokenRedisClient.retrieveAllRevokedTokens();
         revokedTokenRedisClient.scheduleCleanup();
@@ -125,7 +120,7 @@ public class RevokedTokenRedisClient {
 
     private void subscribe() {
         Thread jedisThread = new Thread(new RevokedTokenRedisSubscriber(this.jedisPool,
-                this.revokedTokens, this.expiryQueue, this.redisRevokedTokensChannel));
+                this.revokedTokens, this.redisRevokedTokensChannel));
         jedisThread.start();
     }
 
@@ -143,10 +138,9 @@ public class RevokedTokenRedisClient {
             for (String key : keysAndValues) {
                 try {
                     String value = jedis.get(key);
-                    Long expiry = Long.valueOf(value);
+                    long expiry = Long.parseLong(value);
                     String token = key.substring(REVOKED_TOKEN_REDIS_KEY_PATTERN.length()-1);
-                    revokedTokens.add(token);
-                    expiryQueue.offer(Map.entry(expiry, token));
+                    revokedTokens.add(token, expiry);
                     logger.debug("New token added. Token : " + token + " expiry: " + expiry);
                 } catch(Exception e) {
                     logger.warn("Error while processing key: " + key, e);
@@ -157,27 +151,20 @@ public class RevokedTokenRedisClient {
 
     private void startCleanupTask() {
         long currentTime = System.currentTimeMillis() / 1000L;
-        while (!this.expiryQueue.isEmpty() && this.expiryQueue.peek().getKey() <= currentTime) {
-            Map.Entry<Long, String> entry = this.expiryQueue.poll();
-            String token = entry.getValue();
-            this.revokedTokens.remove(token);
-            logger.debug("Token removed: " + token + " expiry: " + entry.getKey());
-        }
+        int removed = this.revokedTokens.expire(currentTime);
+        logger.debug("{} expired tokens removed. Remaining revoked tokens: {}", removed, this.revokedTokens.size());
     }
 
     static class RevokedTokenRedisSubscriber implements Runnable {
         JedisPool jedisPool;
-        Set<String> revokedTokens;
-        Queue<Map.Entry<Long, String>> expiryQueue;
+        RevokedTokenIndex revokedTokens;
         private String redisRevokedTokensChannel;
 
         public RevokedTokenRedisSubscriber(JedisPool pool,
-                                           Set<String> revokedTokens,
-                                           Queue<Map.Entry<Long, String>> expiryQueue,
+                                           RevokedTokenIndex revokedTokens,
                                            String channel) {
             this.jedisPool = pool;
             this.revokedTokens = revokedTokens;
-            this.expiryQueue = expiryQueue;
             this.redisRevokedTokensChannel = channel;
         }
         @Override
@@ -190,10 +177,9 @@ public class RevokedTokenRedisClient {
                         try {
                             logger.debug("Received message: " + message);
                             String[] tokenAndExpiry = message.split(TOKEN_EXPIRY_DIVIDER);
-                            Long expiry = Long.valueOf(tokenAndExpiry[1]);
+                            long expiry = Long.parseLong(tokenAndExpiry[1]);
                             String token = tokenAndExpiry[0];
-                            revokedTokens.add(token);
-                            expiryQueue.offer(Map.entry(expiry, token));
+                            revokedTokens.add(token, expiry);
                         } catch (Exception e) {
                             logger.error("Error while processing the token message in the redis " +
                                     "subscriber. Exception: ", e);
@@ -219,12 +205,16 @@ public class RevokedTokenRedisClient {
         }
     }
 
-    public static Set<String> getRevokedTokens() {
+    public static boolean isRevoked(String tokenIdentifier) {
+        return revokedTokensStatic.isRevoked(tokenIdentifier);
+    }
+
+    public static RevokedTokenIndex getRevokedTokens() {
         return revokedTokensStatic;
     }
 
-    public static void setRevokedTokens(Set<String>revokedTokensSet) {
-        revokedTokensStatic = revokedTokensSet;
+    public static void setRevokedTokens(RevokedTokenIndex revokedTokenIndex) {
+        revokedTokensStatic = revokedTokenIndex;
     }
 
     private static SSLSocketFactory createSslSocketFactory(String redisCaCertPath) throws EnforcerException {
@@ -1,13 +0,0 @@
-package org.wso2.apk.enforcer.subscription;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class ApplicationKeyMappingDtoList {
-private List<ApplicationKeyMappingDTO> list = new ArrayList<>();
-
-    public List<ApplicationKeyMappingDTO> getList() {
-
-        return list;
-    }
-}
@@ -1,13 +0,0 @@
-package org.wso2.apk.enforcer.subscription;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class ApplicationMappingDtoList {
-private List<ApplicationMappingDto> list = new ArrayList<>();
-
-    public List<ApplicationMappingDto> getList() {
-
-        return list;
-    }
-}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the {@code {"list": [...]}} responses of the common controller one element at a time. Each element is
+ * handed over to a consumer as soon as it is read, hence the response is never held in memory as a whole.
+ */
+public class StreamingListDecoder {
+
+    private static final String LIST_FIELD = "list";
+    private static final Gson gson = new Gson();
+
+    private StreamingListDecoder() {
+
+    }
+
+    /**
+     * Reads the elements of the list in the given response and passes them to the consumer. The response is closed
+     * once it is read.
+     *
+     * @param response    response of the common controller
+     * @param elementType type of the list elements
+     * @param consumer    consumer of the decoded elements
+     * @param <T>         type of the list elements
+     * @return number of decoded elements
+     * @throws IOException if the response is not successful or the body cannot be read
+     */
+    public static <T> int decode(Response response, Class<T> elementType, Consumer<T> consumer) throws IOException {
+
+        try (Response closeable = response) {
+            if (closeable.status() < 200 || closeable.status() >= 300) {
+                throw new IOException("Unexpected status " + closeable.status() + " received for "
+                        + closeable.request().url());
+            }
+            if (closeable.body() == null) {
+                return 0;
+            }
+            try (Reader reader = closeable.body().asReader(StandardCharsets.UTF_8)) {
+                return decode(reader, elementType, consumer);
+            }
+        }
+    }
+
+    /**
+     * Reads the elements of the list in the given JSON document and passes them to the consumer.
+     *
+     * @param reader      reader of the JSON document
+     * @param elementType type of the list elements
+     * @param consumer    consumer of the decoded elements
+     * @param <T>         type of the list elements
+     * @return number of decoded elements
+     * @throws IOException if the document cannot be read
+     */
+    static <T> int decode(Reader reader, Class<T> elementType, Consumer<T> consumer) throws IOException {
+
+        int count = 0;
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (!LIST_FIELD.equals(jsonReader.nextName()) || jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                T element = gson.fromJson(jsonReader, elementType);
+                if (element != null) {
+                    consumer.accept(element);
+                    count++;
+                }
+            }
+            jsonReader.endArray();
+        }
+        jsonReader.endObject();
+        return count;
+    }
+}
@@ -18,8 +18,9 @@
 
 package org.wso2.apk.enforcer.subscription;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class holds tenant wise subscription data stores.
@@ -27,7 +28,7 @@ import java.util.Map;
 public class SubscriptionDataHolder {
 
     private static final SubscriptionDataHolder instance = new SubscriptionDataHolder();
-    Map<String, SubscriptionDataStore> subscriptionDataStoreMap = new HashMap<>();
+    Map<String, SubscriptionDataStore> subscriptionDataStoreMap = new ConcurrentHashMap<>();
 
     public static SubscriptionDataHolder getInstance() {
         return instance;
@@ -38,11 +39,15 @@ public class SubscriptionDataHolder {
     }
 
     public SubscriptionDataStore initializeSubscriptionDataStore(String organization) {
-        SubscriptionDataStore subscriptionDataStore = new SubscriptionDataStoreImpl();
+        SubscriptionDataStore subscriptionDataStore = new SubscriptionDataStoreImpl(organization);
         subscriptionDataStoreMap.put(organization, subscriptionDataStore);
         return subscriptionDataStore;
     }
 
+    public Set<String> getOrganizations() {
+        return subscriptionDataStoreMap.keySet();
+    }
+
     public int getTotalSubscriptionCount() {
         int totalSubCount = 0;
         for (SubscriptionDataStore store : subscriptionDataStoreMap.values()) {
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.wso2.apk.enforcer.models.Application;
+import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
+import org.wso2.apk.enforcer.models.ApplicationMapping;
+import org.wso2.apk.enforcer.models.Subscription;
+
+import org.wso2.apk.enforcer.util.PersistentHashMap;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the subscription data of an organization.
+ * <p>
+ * A snapshot holds the applications, subscriptions, application mappings, application key mappings and the indexes
+ * built on top of them. Snapshots are never modified once built. The maps are {@link PersistentHashMap}s, so the
+ * next version produced by a {@link Builder} shares all but the changed paths with the previous snapshot, and the
+ * result is published as a whole. A reader that holds on to one snapshot for the duration of a request therefore
+ * never observes a mix of old and new data.
+ */
+public final class SubscriptionDataSnapshot {
+
+    static final SubscriptionDataSnapshot EMPTY = new SubscriptionDataSnapshot(0, PersistentHashMap.empty(),
+            PersistentHashMap.empty(), PersistentHashMap.empty(), PersistentHashMap.empty(),
+            PersistentHashMap.empty());
+
+    // Assumed retained size of a map entry together with the model object it holds, for a model with short string
+    // fields. These are fixed guesses rather than measured values and are used for metrics only.
+    private static final long APPLICATION_ENTRY_SIZE_BYTES = 480;
+    private static final long SUBSCRIPTION_ENTRY_SIZE_BYTES = 400;
+    private static final long APPLICATION_MAPPING_ENTRY_SIZE_BYTES = 560;
+    private static final long APPLICATION_KEY_MAPPING_ENTRY_SIZE_BYTES = 480;
+
+    private final long version;
+    private final PersistentHashMap<String, Application> applications;
+    private final PersistentHashMap<String, Subscription> subscriptions;
+    private final PersistentHashMap<String, ApplicationMapping> applicationMappings;
+    // Secondary index of applicationMappings: application UUID -> (mapping cache key -> mapping)
+    private final PersistentHashMap<String, PersistentHashMap<String, ApplicationMapping>>
+            applicationMappingsByApplication;
+    private final PersistentHashMap<String, ApplicationKeyMapping> applicationKeyMappings;
+
+    private SubscriptionDataSnapshot(long version, PersistentHashMap<String, Application> applications,
+                                     PersistentHashMap<String, Subscription> subscriptions,
+                                     PersistentHashMap<String, ApplicationMapping> applicationMappings,
+                                     PersistentHashMap<String, PersistentHashMap<String, ApplicationMapping>>
+                                             applicationMappingsByApplication,
+                                     PersistentHashMap<String, ApplicationKeyMapping> applicationKeyMappings) {
+
+        this.version = version;
+        this.applications = applications;
+        this.subscriptions = subscriptions;
+        this.applicationMappings = applicationMappings;
+        this.applicationMappingsByApplication = applicationMappingsByApplication;
+        this.applicationKeyMappings = applicationKeyMappings;
+    }
+
+    public long getVersion() {
+
+        return version;
+    }
+
+    public Application getApplication(String uuid) {
+
+        return applications.get(uuid);
+    }
+
+    public Subscription getSubscription(String key) {
+
+        return subscriptions.get(key);
+    }
+
+    public ApplicationKeyMapping getApplicationKeyMapping(String cacheKey) {
+
+        return applicationKeyMappings.get(cacheKey);
+    }
+
+    /**
+     * Returns the application mappings of the given application.
+     *
+     * @param applicationUUID application UUID
+     * @return unmodifiable collection of application mappings, empty if there are none
+     */
+    public Collection<ApplicationMapping> getApplicationMappings(String applicationUUID) {
+
+        Map<String, ApplicationMapping> mappings = applicationMappingsByApplication.get(applicationUUID);
+        if (mappings == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(mappings.values());
+    }
+
+    public int getApplicationCount() {
+
+        return applications.size();
+    }
+
+    public int getSubscriptionCount() {
+
+        return subscriptions.size();
+    }
+
+    public int getApplicationMappingCount() {
+
+        return applicationMappings.size();
+    }
+
+    public int getApplicationKeyMappingCount() {
+
+        return applicationKeyMappings.size();
+    }
+
+    /**
+     * Returns a rough size estimate of this snapshot, computed as the entry counts multiplied by fixed per-entry
+     * sizes. The heap is not measured, so the value ignores the actual length of the fields and the structure shared
+     * with other snapshots, and it should only be used to follow trends.
+     *
+     * @return entry count based size estimate in bytes
+     */
+    public long getEntryCountSizeEstimateBytes() {
+
+        return applications.size() * APPLICATION_ENTRY_SIZE_BYTES
+                + subscriptions.size() * SUBSCRIPTION_ENTRY_SIZE_BYTES
+                + applicationMappings.size() * APPLICATION_MAPPING_ENTRY_SIZE_BYTES
+                + applicationKeyMappings.size() * APPLICATION_KEY_MAPPING_ENTRY_SIZE_BYTES;
+    }
+
+    /**
+     * Returns a builder which produces the next version of this snapshot.
+     *
+     * @return builder
+     */
+    public Builder toBuilder() {
+
+        return new Builder(this);
+    }
+
+    /**
+     * Builder of {@link SubscriptionDataSnapshot}. Each modification derives a new persistent map from the current
+     * one, so a single entity update costs O(log32 n) instead of copying the maps of the whole organization. Maps
+     * handed to the bulk setters are copied into persistent maps.
+     */
+    public static final class Builder {
+
+        private final long baseVersion;
+        private PersistentHashMap<String, Application> applications;
+        private PersistentHashMap<String, Subscription> subscriptions;
+        private PersistentHashMap<String, ApplicationMapping> applicationMappings;
+        private PersistentHashMap<String, PersistentHashMap<String, ApplicationMapping>>
+                applicationMappingsByApplication;
+        private PersistentHashMap<String, ApplicationKeyMapping> applicationKeyMappings;
+
+        private Builder(SubscriptionDataSnapshot base) {
+
+            this.baseVersion = base.version;
+            this.applications = base.applications;
+            this.subscriptions = base.subscriptions;
+            this.applicationMappings = base.applicationMappings;
+            this.applicationMappingsByApplication = base.applicationMappingsByApplication;
+            this.applicationKeyMappings = base.applicationKeyMappings;
+        }
+
+        public Builder applications(Map<String, Application> applications) {
+
+            this.applications = PersistentHashMap.copyOf(applications);
+            return this;
+        }
+
+        public Builder subscriptions(Map<String, Subscription> subscriptions) {
+
+            this.subscriptions = PersistentHashMap.copyOf(subscriptions);
+            return this;
+        }
+
+        public Builder applicationMappings(Map<String, ApplicationMapping> applicationMappings) {
+
+            this.applicationMappings = PersistentHashMap.copyOf(applicationMappings);
+            this.applicationMappingsByApplication = PersistentHashMap.empty();
+            for (ApplicationMapping applicationMapping : applicationMappings.values()) {
+                indexApplicationMapping(applicationMapping);
+            }
+            return this;
+        }
+
+        public Builder applicationKeyMappings(Map<String, ApplicationKeyMapping> applicationKeyMappings) {
+
+            this.applicationKeyMappings = PersistentHashMap.copyOf(applicationKeyMappings);
+            return this;
+        }
+
+        public Builder putApplication(Application application) {
+
+            applications = applications.plus(application.getCacheKey(), application);
+            return this;
+        }
+
+        public Builder removeApplication(String uuid) {
+
+            applications = applications.minus(uuid);
+            return this;
+        }
+
+        public Builder putSubscription(Subscription subscription) {
+
+            subscriptions = subscriptions.plus(subscription.getCacheKey(), subscription);
+            return this;
+        }
+
+        public Builder removeSubscription(String uuid) {
+
+            subscriptions = subscriptions.minus(uuid);
+            return this;
+        }
+
+        public Builder putApplicationMapping(ApplicationMapping applicationMapping) {
+
+            ApplicationMapping replaced = applicationMappings.get(applicationMapping.getCacheKey());
+            if (replaced != null) {
+                unindexApplicationMapping(replaced);
+            }
+            applicationMappings = applicationMappings.plus(applicationMapping.getCacheKey(), applicationMapping);
+            indexApplicationMapping(applicationMapping);
+            return this;
+        }
+
+        public Builder removeApplicationMapping(String cacheKey) {
+
+            ApplicationMapping removed = applicationMappings.get(cacheKey);
+            if (removed != null) {
+                applicationMappings = applicationMappings.minus(cacheKey);
+                unindexApplicationMapping(removed);
+            }
+            return this;
+        }
+
+        public Builder putApplicationKeyMapping(ApplicationKeyMapping applicationKeyMapping) {
+
+            applicationKeyMappings = applicationKeyMappings.plus(applicationKeyMapping.getCacheKey(),
+                    applicationKeyMapping);
+            return this;
+        }
+
+        /**
+         * Removes the application key mapping under the given cache key if it belongs to the given application.
+         *
+         * @param cacheKey        cache key of the application key mapping
+         * @param applicationUUID UUID of the application the mapping belongs to
+         * @return this builder
+         */
+        public Builder removeApplicationKeyMapping(String cacheKey, String applicationUUID) {
+
+            ApplicationKeyMapping existing = applicationKeyMappings.get(cacheKey);
+            if (existing != null && existing.getApplicationUUID().equals(applicationUUID)) {
+                applicationKeyMappings = applicationKeyMappings.minus(cacheKey);
+            }
+            return this;
+        }
+
+        public SubscriptionDataSnapshot build() {
+
+            return new SubscriptionDataSnapshot(baseVersion + 1, applications, subscriptions, applicationMappings,
+                    applicationMappingsByApplication, applicationKeyMappings);
+        }
+
+        private void indexApplicationMapping(ApplicationMapping applicationMapping) {
+
+            String applicationUUID = applicationMapping.getApplicationUUID();
+            if (applicationUUID == null) {
+                return;
+            }
+            PersistentHashMap<String, ApplicationMapping> mappings =
+                    applicationMappingsByApplication.get(applicationUUID);
+            if (mappings == null) {
+                mappings = PersistentHashMap.empty();
+            }
+            applicationMappingsByApplication = applicationMappingsByApplication.plus(applicationUUID,
+                    mappings.plus(applicationMapping.getCacheKey(), applicationMapping));
+        }
+
+        private void unindexApplicationMapping(ApplicationMapping applicationMapping) {
+
+            String applicationUUID = applicationMapping.getApplicationUUID();
+            if (applicationUUID == null) {
+                return;
+            }
+            PersistentHashMap<String, ApplicationMapping> mappings =
+                    applicationMappingsByApplication.get(applicationUUID);
+            if (mappings == null) {
+                return;
+            }
+            mappings = mappings.minus(applicationMapping.getCacheKey());
+            applicationMappingsByApplication = mappings.isEmpty()
+                    ? applicationMappingsByApplication.minus(applicationUUID)
+                    : applicationMappingsByApplication.plus(applicationUUID, mappings);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.wso2.apk.enforcer.models.*;
 import org.wso2.apk.enforcer.security.jwt.validator.JWTValidator;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -47,6 +48,30 @@ public interface SubscriptionDataStore {
      */
     Subscription getSubscriptionById(String appUUID, String apiUUID);
 
+    /**
+     * Returns the current snapshot of the subscription data. Callers which perform more than one lookup for a
+     * request should take the snapshot once and use it for all the lookups.
+     *
+     * @return current {@link SubscriptionDataSnapshot}
+     */
+    SubscriptionDataSnapshot getSnapshot();
+
+    /**
+     * Replaces applications, subscriptions, application mappings and application key mappings at once, so that
+     * readers observe either the old data set or the new data set as a whole.
+     * <p>
+     * The given maps are keyed by the cache keys of the entities and are taken over by the store, hence they must
+     * not be modified by the caller afterwards.
+     *
+     * @param applicationMap           applications
+     * @param subscriptionMap          subscriptions
+     * @param applicationMappingMap    application mappings
+     * @param applicationKeyMappingMap application key mappings
+     */
+    void replaceSubscriptionData(Map<String, Application> applicationMap, Map<String, Subscription> subscriptionMap,
+                                 Map<String, ApplicationMapping> applicationMappingMap,
+                                 Map<String, ApplicationKeyMapping> applicationKeyMappingMap);
+
     void addSubscriptions(List<SubscriptionDto> subscriptionList);
 
     void addApplications(List<ApplicationDto> applicationList);
@@ -21,6 +21,8 @@ package org.wso2.apk.enforcer.subscription;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.commons.dto.ClaimMappingDto;
 import org.wso2.apk.enforcer.commons.dto.JWKSConfigurationDTO;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
@@ -28,6 +30,8 @@ import org.wso2.apk.enforcer.config.dto.ExtendedTokenIssuerDto;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.subscription.Certificate;
 import org.wso2.apk.enforcer.discovery.subscription.JWTIssuer;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.SubscriptionDataMetrics;
 import org.wso2.apk.enforcer.models.Application;
 import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
 import org.wso2.apk.enforcer.models.ApplicationMapping;
@@ -41,14 +45,19 @@ import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the subscription data store.
+ * <p>
+ * Subscription related data is held in an immutable {@link SubscriptionDataSnapshot} published through a single
+ * volatile reference. Writers are serialized and publish a new snapshot for every change, while readers only read the
+ * current reference. Readers that need several lookups to stay consistent with each other should take the snapshot
+ * once through {@link #getSnapshot()} and use it for all of them.
  */
 public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
@@ -57,16 +66,19 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public static final String DELEM_PERIOD = ":";
 
-    // Maps for keeping Subscription related details.
-    private Map<String, ApplicationKeyMapping> applicationKeyMappingMap = new ConcurrentHashMap<>();
-    private Map<String, ApplicationMapping> applicationMappingMap = new ConcurrentHashMap<>();
-    private Map<String, Application> applicationMap = new ConcurrentHashMap<>();
-    private Map<String, Subscription> subscriptionMap = new ConcurrentHashMap<>();
+    private final String organization;
+    private volatile SubscriptionDataSnapshot snapshot = SubscriptionDataSnapshot.EMPTY;
 
     private Map<String, JWTValidator> jwtValidatorMap = new ConcurrentHashMap<>();
 
     SubscriptionDataStoreImpl() {
 
+        this(null);
+    }
+
+    SubscriptionDataStoreImpl(String organization) {
+
+        this.organization = organization;
     }
 
     public static SubscriptionDataStoreImpl getInstance() {
@@ -74,94 +86,74 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         return instance;
     }
 
+    @Override
+    public SubscriptionDataSnapshot getSnapshot() {
+
+        return snapshot;
+    }
+
     @Override
     public Application getApplicationById(String appUUID) {
 
-        return applicationMap.get(appUUID);
+        return snapshot.getApplication(appUUID);
     }
 
     @Override
     public Subscription getSubscriptionById(String appId, String apiId) {
 
-        return subscriptionMap.get(SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId));
+        return snapshot.getSubscription(SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId));
     }
 
     public void addSubscriptions(List<SubscriptionDto> subscriptionList) {
 
-        Map<String, Subscription> newSubscriptionMap = new ConcurrentHashMap<>();
-
-        for (SubscriptionDto subscription : subscriptionList) {
-            SubscribedAPI subscribedAPI = new SubscribedAPI();
-            subscribedAPI.setName(subscription.getSubscribedApi().getName());
-            subscribedAPI.setVersion(subscription.getSubscribedApi().getVersion());
-
-            Subscription newSubscription = new Subscription();
-            newSubscription.setSubscriptionId(subscription.getUuid());
-            newSubscription.setSubscriptionStatus(subscription.getSubStatus());
-            newSubscription.setOrganization(subscription.getOrganization());
-            newSubscription.setSubscribedApi(subscribedAPI);
-            newSubscriptionMap.put(newSubscription.getCacheKey(), newSubscription);
-        }
-
+        Map<String, Subscription> newSubscriptionMap = toSubscriptionMap(subscriptionList);
         if (log.isDebugEnabled()) {
             log.debug("Total Subscriptions in new cache: {}", newSubscriptionMap.size());
         }
-        this.subscriptionMap = newSubscriptionMap;
+        update(builder -> builder.subscriptions(newSubscriptionMap));
     }
 
     public void addApplications(List<ApplicationDto> applicationList) {
 
-        Map<String, Application> newApplicationMap = new ConcurrentHashMap<>();
-
-        for (ApplicationDto application : applicationList) {
-            Application newApplication = new Application();
-            newApplication.setUUID(application.getUuid());
-            newApplication.setName(application.getName());
-            newApplication.setOwner(application.getOwner());
-            application.getAttributes().forEach(newApplication::addAttribute);
-
-            newApplicationMap.put(newApplication.getCacheKey(), newApplication);
-        }
+        Map<String, Application> newApplicationMap = toApplicationMap(applicationList);
         if (log.isDebugEnabled()) {
             log.debug("Total Applications in new cache: {}", newApplicationMap.size());
         }
-        this.applicationMap = newApplicationMap;
+        update(builder -> builder.applications(newApplicationMap));
     }
 
     public void addApplicationKeyMappings(List<ApplicationKeyMappingDTO> applicationKeyMappingList) {
 
-        Map<String, ApplicationKeyMapping> newApplicationKeyMappingMap = new ConcurrentHashMap<>();
-
-        for (ApplicationKeyMappingDTO applicationKeyMapping : applicationKeyMappingList) {
-            ApplicationKeyMapping mapping = new ApplicationKeyMapping();
-            mapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
-            mapping.setSecurityScheme(applicationKeyMapping.getSecurityScheme());
-            mapping.setApplicationIdentifier(applicationKeyMapping.getApplicationIdentifier());
-            mapping.setKeyType(applicationKeyMapping.getKeyType());
-            mapping.setEnvId(applicationKeyMapping.getEnvID());
-            newApplicationKeyMappingMap.put(mapping.getCacheKey(), mapping);
-        }
+        Map<String, ApplicationKeyMapping> newApplicationKeyMappingMap =
+                toApplicationKeyMappingMap(applicationKeyMappingList);
         if (log.isDebugEnabled()) {
             log.debug("Total Application Key Mappings in new cache: {}", newApplicationKeyMappingMap.size());
         }
-        this.applicationKeyMappingMap = newApplicationKeyMappingMap;
+        update(builder -> builder.applicationKeyMappings(newApplicationKeyMappingMap));
     }
 
     public void addApplicationMappings(List<ApplicationMappingDto> applicationMappingList) {
 
-        Map<String, ApplicationMapping> newApplicationMappingMap = new ConcurrentHashMap<>();
-        for (ApplicationMappingDto applicationMapping : applicationMappingList) {
-            ApplicationMapping appMapping = new ApplicationMapping();
-            appMapping.setUuid(applicationMapping.getUuid());
-            appMapping.setApplicationUUID(applicationMapping.getApplicationRef());
-            appMapping.setSubscriptionUUID(applicationMapping.getSubscriptionRef());
-            appMapping.setOrganization(applicationMapping.getOrganizationId());
-            newApplicationMappingMap.put(appMapping.getCacheKey(), appMapping);
-        }
+        Map<String, ApplicationMapping> newApplicationMappingMap = toApplicationMappingMap(applicationMappingList);
         if (log.isDebugEnabled()) {
             log.debug("Total Application Mappings in new cache: {}", newApplicationMappingMap.size());
         }
-        this.applicationMappingMap = newApplicationMappingMap;
+        update(builder -> builder.applicationMappings(newApplicationMappingMap));
+    }
+
+    @Override
+    public void replaceSubscriptionData(Map<String, Application> applicationMap,
+                                        Map<String, Subscription> subscriptionMap,
+                                        Map<String, ApplicationMapping> applicationMappingMap,
+                                        Map<String, ApplicationKeyMapping> applicationKeyMappingMap) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Replacing subscription data with {} applications, {} subscriptions, {} application mappings " +
+                            "and {} application key mappings", applicationMap.size(), subscriptionMap.size(),
+                    applicationMappingMap.size(), applicationKeyMappingMap.size());
+        }
+        update(builder -> builder.applications(applicationMap).subscriptions(subscriptionMap)
+                .applicationMappings(applicationMappingMap).applicationKeyMappings(applicationKeyMappingMap));
     }
 
     @Override
@@ -170,7 +162,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         String cacheKey = SubscriptionDataStoreUtil.getApplicationKeyMappingCacheKey(applicationIdentifier, keyType,
                 securityScheme, envType);
-        return applicationKeyMappingMap.get(cacheKey);
+        return snapshot.getApplicationKeyMapping(cacheKey);
     }
 
     @Override
@@ -178,11 +170,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         Set<ApplicationMapping> applicationMappings = new HashSet<>();
         if (StringUtils.isNotEmpty(uuid)) {
-            for (ApplicationMapping applicationMapping : applicationMappingMap.values()) {
-                if (applicationMapping.getApplicationUUID().equals(uuid)) {
-                    applicationMappings.add(applicationMapping);
-                }
-            }
+            applicationMappings.addAll(snapshot.getApplicationMappings(uuid));
         }
         return applicationMappings;
     }
@@ -190,27 +178,21 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Application getMatchingApplication(String uuid) {
 
-        for (Application application : applicationMap.values()) {
-            if (StringUtils.isNotEmpty(uuid)) {
-                if (application.getUUID().equals(uuid)) {
-                    return application;
-                }
-            }
+        // Applications are keyed by the application UUID, hence the primary map serves as the UUID index.
+        if (StringUtils.isEmpty(uuid)) {
+            return null;
         }
-        return null;
+        return snapshot.getApplication(uuid);
     }
 
     @Override
     public Subscription getMatchingSubscription(String uuid) {
 
-        for (Subscription subscription : subscriptionMap.values()) {
-            if (StringUtils.isNotEmpty(uuid)) {
-                if (subscription.getSubscriptionId().equals(uuid)) {
-                    return subscription;
-                }
-            }
+        // Subscriptions are keyed by the subscription UUID, hence the primary map serves as the UUID index.
+        if (StringUtils.isEmpty(uuid)) {
+            return null;
         }
-        return null;
+        return snapshot.getSubscription(uuid);
     }
 
     @Override
@@ -256,6 +238,13 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                 log.error("Error occurred while configuring JWT Validator for issuer " + jwtIssuer.getIssuer(), e);
             }
         }
+        // Cached validation results may have been produced with the keys or claim mappings of the old issuers.
+        if (organization != null) {
+            CacheProvider cacheProvider = CacheProviderUtil.getOrganizationCache(organization);
+            if (cacheProvider != null) {
+                cacheProvider.invalidateTokenCaches();
+            }
+        }
     }
 
     @Override
@@ -279,11 +268,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         resolvedApplication.setUUID(application.getUuid());
         resolvedApplication.setOrganization(application.getOrganization());
         resolvedApplication.setAttributes(application.getAttributesMap());
-        if (applicationMap.containsKey(resolvedApplication.getUuid())) {
-            applicationMap.replace(resolvedApplication.getUuid(), resolvedApplication);
-        } else {
-            applicationMap.put(resolvedApplication.getUuid(), resolvedApplication);
-        }
+        update(builder -> builder.putApplication(resolvedApplication));
     }
 
     @Override
@@ -294,89 +279,183 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         resolvedSubscription.setSubscriptionStatus(subscription.getSubStatus());
         resolvedSubscription.setOrganization(subscription.getOrganization());
         resolvedSubscription.setSubscribedApi(new SubscribedAPI(subscription.getSubscribedApi()));
-        if (subscriptionMap.containsKey(resolvedSubscription.getSubscriptionId())) {
-            subscriptionMap.replace(resolvedSubscription.getSubscriptionId(), resolvedSubscription);
-        } else {
-            subscriptionMap.put(resolvedSubscription.getSubscriptionId(), resolvedSubscription);
-        }
+        update(builder -> builder.putSubscription(resolvedSubscription));
     }
 
     @Override
     public void addApplicationMapping(org.wso2.apk.enforcer.discovery.subscription.ApplicationMapping applicationMapping) {
 
-        ApplicationMapping resolvedApplicationMapping = new ApplicationMapping();
-        resolvedApplicationMapping.setUuid(applicationMapping.getUuid());
-        resolvedApplicationMapping.setApplicationUUID(applicationMapping.getApplicationRef());
-        resolvedApplicationMapping.setSubscriptionUUID(applicationMapping.getSubscriptionRef());
-        resolvedApplicationMapping.setOrganization(applicationMapping.getOrganization());
-        if (applicationMappingMap.containsKey(resolvedApplicationMapping.getCacheKey())) {
-            applicationMappingMap.replace(resolvedApplicationMapping.getCacheKey(), resolvedApplicationMapping);
-        } else {
-            applicationMappingMap.put(resolvedApplicationMapping.getCacheKey(), resolvedApplicationMapping);
-        }
+        ApplicationMapping resolvedApplicationMapping = toApplicationMapping(applicationMapping);
+        update(builder -> builder.putApplicationMapping(resolvedApplicationMapping));
     }
 
     @Override
     public void addApplicationKeyMapping(org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping) {
 
-        ApplicationKeyMapping resolvedApplicationKeyMapping = new ApplicationKeyMapping();
-        resolvedApplicationKeyMapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
-        resolvedApplicationKeyMapping.setSecurityScheme(applicationKeyMapping.getSecurityScheme());
-        resolvedApplicationKeyMapping.setApplicationIdentifier(applicationKeyMapping.getApplicationIdentifier());
-        resolvedApplicationKeyMapping.setKeyType(applicationKeyMapping.getKeyType());
-        resolvedApplicationKeyMapping.setEnvId(applicationKeyMapping.getEnvID());
-        Iterator<Map.Entry<String, ApplicationKeyMapping>> iterator = applicationKeyMappingMap.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, ApplicationKeyMapping> cachedApplicationKeyMapping = iterator.next();
-            ApplicationKeyMapping value = cachedApplicationKeyMapping.getValue();
-            if (value.getApplicationIdentifier().equals(resolvedApplicationKeyMapping.getApplicationIdentifier()) && value.getSecurityScheme().equals(resolvedApplicationKeyMapping.getSecurityScheme()) && value.getKeyType().equals(resolvedApplicationKeyMapping.getKeyType()) && value.getEnvId().equals(resolvedApplicationKeyMapping.getEnvId()) && value.getApplicationUUID().equals(resolvedApplicationKeyMapping.getApplicationUUID())) {
-                iterator.remove();
-            }
-        }
-        applicationKeyMappingMap.put(resolvedApplicationKeyMapping.getCacheKey(), resolvedApplicationKeyMapping);
+        ApplicationKeyMapping resolvedApplicationKeyMapping = toApplicationKeyMapping(applicationKeyMapping);
+        update(builder -> builder.putApplicationKeyMapping(resolvedApplicationKeyMapping));
     }
 
     @Override
     public void removeApplicationMapping(org.wso2.apk.enforcer.discovery.subscription.ApplicationMapping applicationMapping) {
 
-        ApplicationMapping resolvedApplicationMapping = new ApplicationMapping();
-        resolvedApplicationMapping.setUuid(applicationMapping.getUuid());
-        resolvedApplicationMapping.setApplicationUUID(applicationMapping.getApplicationRef());
-        resolvedApplicationMapping.setSubscriptionUUID(applicationMapping.getSubscriptionRef());
-        resolvedApplicationMapping.setOrganization(applicationMapping.getOrganization());
-        applicationMappingMap.remove(resolvedApplicationMapping.getCacheKey());
+        ApplicationMapping resolvedApplicationMapping = toApplicationMapping(applicationMapping);
+        update(builder -> builder.removeApplicationMapping(resolvedApplicationMapping.getCacheKey()));
     }
 
     @Override
     public void removeApplicationKeyMapping(org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping) {
 
-        ApplicationKeyMapping resolvedApplicationKeyMapping = new ApplicationKeyMapping();
-        resolvedApplicationKeyMapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
-        resolvedApplicationKeyMapping.setSecurityScheme(applicationKeyMapping.getSecurityScheme());
-        resolvedApplicationKeyMapping.setApplicationIdentifier(applicationKeyMapping.getApplicationIdentifier());
-        resolvedApplicationKeyMapping.setKeyType(applicationKeyMapping.getKeyType());
-        resolvedApplicationKeyMapping.setEnvId(applicationKeyMapping.getEnvID());
-        Iterator<Map.Entry<String, ApplicationKeyMapping>> iterator = applicationKeyMappingMap.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, ApplicationKeyMapping> cachedApplicationKeyMapping = iterator.next();
-            ApplicationKeyMapping value = cachedApplicationKeyMapping.getValue();
-            if (value.getApplicationIdentifier().equals(resolvedApplicationKeyMapping.getApplicationIdentifier()) && value.getSecurityScheme().equals(resolvedApplicationKeyMapping.getSecurityScheme()) && value.getKeyType().equals(resolvedApplicationKeyMapping.getKeyType()) && value.getEnvId().equals(resolvedApplicationKeyMapping.getEnvId()) && value.getApplicationUUID().equals(resolvedApplicationKeyMapping.getApplicationUUID())) {
-                iterator.remove();
-            }
-        }
+        // The cache key covers the identifier, security scheme, key type and environment, so only the entry under
+        // that key can match the mapping being removed.
+        ApplicationKeyMapping resolvedApplicationKeyMapping = toApplicationKeyMapping(applicationKeyMapping);
+        update(builder -> builder.removeApplicationKeyMapping(resolvedApplicationKeyMapping.getCacheKey(),
+                resolvedApplicationKeyMapping.getApplicationUUID()));
     }
 
     @Override
     public void removeSubscription(org.wso2.apk.enforcer.discovery.subscription.Subscription subscription) {
 
-        subscriptionMap.remove(subscription.getUuid());
-
+        update(builder -> builder.removeSubscription(subscription.getUuid()));
     }
 
     @Override
     public void removeApplication(org.wso2.apk.enforcer.discovery.subscription.Application application) {
 
-        applicationMap.remove(application.getUuid());
+        update(builder -> builder.removeApplication(application.getUuid()));
+    }
+
+    /**
+     * Applies the given change on top of the current snapshot and publishes the result as the new snapshot.
+     *
+     * @param change change to apply
+     */
+    private synchronized void update(Consumer<SubscriptionDataSnapshot.Builder> change) {
+
+        long startTime = System.nanoTime();
+        SubscriptionDataSnapshot.Builder builder = snapshot.toBuilder();
+        change.accept(builder);
+        SubscriptionDataSnapshot newSnapshot = builder.build();
+        this.snapshot = newSnapshot;
+        long buildTime = System.nanoTime() - startTime;
+        if (log.isDebugEnabled()) {
+            log.debug("Published subscription data snapshot version {} of organization {} in {} ns",
+                    newSnapshot.getVersion(), organization, buildTime);
+        }
+        if (organization != null && JMXUtils.isJMXMetricsEnabled()) {
+            SubscriptionDataMetrics.getInstance().recordSnapshot(organization, newSnapshot.getVersion(), buildTime,
+                    newSnapshot.getEntryCountSizeEstimateBytes());
+        }
+    }
+
+    private static Map<String, Application> toApplicationMap(List<ApplicationDto> applicationList) {
+
+        Map<String, Application> newApplicationMap = new HashMap<>();
+        for (ApplicationDto application : applicationList) {
+            Application newApplication = toApplication(application);
+            newApplicationMap.put(newApplication.getCacheKey(), newApplication);
+        }
+        return newApplicationMap;
+    }
+
+    private static Map<String, Subscription> toSubscriptionMap(List<SubscriptionDto> subscriptionList) {
+
+        Map<String, Subscription> newSubscriptionMap = new HashMap<>();
+        for (SubscriptionDto subscription : subscriptionList) {
+            Subscription newSubscription = toSubscription(subscription);
+            newSubscriptionMap.put(newSubscription.getCacheKey(), newSubscription);
+        }
+        return newSubscriptionMap;
+    }
+
+    private static Map<String, ApplicationMapping> toApplicationMappingMap(
+            List<ApplicationMappingDto> applicationMappingList) {
+
+        Map<String, ApplicationMapping> newApplicationMappingMap = new HashMap<>();
+        for (ApplicationMappingDto applicationMapping : applicationMappingList) {
+            ApplicationMapping appMapping = toApplicationMapping(applicationMapping);
+            newApplicationMappingMap.put(appMapping.getCacheKey(), appMapping);
+        }
+        return newApplicationMappingMap;
+    }
+
+    private static Map<String, ApplicationKeyMapping> toApplicationKeyMappingMap(
+            List<ApplicationKeyMappingDTO> applicationKeyMappingList) {
+
+        Map<String, ApplicationKeyMapping> newApplicationKeyMappingMap = new HashMap<>();
+        for (ApplicationKeyMappingDTO applicationKeyMapping : applicationKeyMappingList) {
+            ApplicationKeyMapping mapping = toApplicationKeyMapping(applicationKeyMapping);
+            newApplicationKeyMappingMap.put(mapping.getCacheKey(), mapping);
+        }
+        return newApplicationKeyMappingMap;
+    }
+
+    static Application toApplication(ApplicationDto application) {
+
+        Application newApplication = new Application();
+        newApplication.setUUID(application.getUuid());
+        newApplication.setName(application.getName());
+        newApplication.setOwner(application.getOwner());
+        application.getAttributes().forEach(newApplication::addAttribute);
+        return newApplication;
+    }
+
+    static Subscription toSubscription(SubscriptionDto subscription) {
+
+        SubscribedAPI subscribedAPI = new SubscribedAPI();
+        subscribedAPI.setName(subscription.getSubscribedApi().getName());
+        subscribedAPI.setVersion(subscription.getSubscribedApi().getVersion());
+
+        Subscription newSubscription = new Subscription();
+        newSubscription.setSubscriptionId(subscription.getUuid());
+        newSubscription.setSubscriptionStatus(subscription.getSubStatus());
+        newSubscription.setOrganization(subscription.getOrganization());
+        newSubscription.setSubscribedApi(subscribedAPI);
+        return newSubscription;
+    }
+
+    static ApplicationMapping toApplicationMapping(ApplicationMappingDto applicationMapping) {
+
+        ApplicationMapping appMapping = new ApplicationMapping();
+        appMapping.setUuid(applicationMapping.getUuid());
+        appMapping.setApplicationUUID(applicationMapping.getApplicationRef());
+        appMapping.setSubscriptionUUID(applicationMapping.getSubscriptionRef());
+        appMapping.setOrganization(applicationMapping.getOrganizationId());
+        return appMapping;
+    }
+
+    static ApplicationKeyMapping toApplicationKeyMapping(ApplicationKeyMappingDTO applicationKeyMapping) {
+
+        ApplicationKeyMapping mapping = new ApplicationKeyMapping();
+        mapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
+        mapping.setSecurityScheme(applicationKeyMapping.getSecurityScheme());
+        mapping.setApplicationIdentifier(applicationKeyMapping.getApplicationIdentifier());
+        mapping.setKeyType(applicationKeyMapping.getKeyType());
+        mapping.setEnvId(applicationKeyMapping.getEnvID());
+        return mapping;
+    }
+
+    private static ApplicationMapping toApplicationMapping(
+            org.wso2.apk.enforcer.discovery.subscription.ApplicationMapping applicationMapping) {
+
+        ApplicationMapping resolvedApplicationMapping = new ApplicationMapping();
+        resolvedApplicationMapping.setUuid(applicationMapping.getUuid());
+        resolvedApplicationMapping.setApplicationUUID(applicationMapping.getApplicationRef());
+        resolvedApplicationMapping.setSubscriptionUUID(applicationMapping.getSubscriptionRef());
+        resolvedApplicationMapping.setOrganization(applicationMapping.getOrganization());
+        return resolvedApplicationMapping;
+    }
+
+    private static ApplicationKeyMapping toApplicationKeyMapping(
+            org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping) {
+
+        ApplicationKeyMapping resolvedApplicationKeyMapping = new ApplicationKeyMapping();
+        resolvedApplicationKeyMapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
+        resolvedApplicationKeyMapping.setSecurityScheme(applicationKeyMapping.getSecurityScheme());
+        resolvedApplicationKeyMapping.setApplicationIdentifier(applicationKeyMapping.getApplicationIdentifier());
+        resolvedApplicationKeyMapping.setKeyType(applicationKeyMapping.getKeyType());
+        resolvedApplicationKeyMapping.setEnvId(applicationKeyMapping.getEnvID());
+        return resolvedApplicationKeyMapping;
     }
 
     private List<String> getEnvironments(JWTIssuer jwtIssuer) {
@@ -402,7 +481,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public int getSubscriptionCount() {
 
-        return subscriptionMap.size();
+        return snapshot.getSubscriptionCount();
     }
 
     @Override
@@ -410,5 +489,4 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         return jwtValidatorMap.size();
     }
-
 }
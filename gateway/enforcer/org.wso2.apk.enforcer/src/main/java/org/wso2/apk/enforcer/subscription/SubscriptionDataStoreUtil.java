@@ -19,9 +19,12 @@
 package org.wso2.apk.enforcer.subscription;
 
 import feign.Feign;
+import feign.Response;
 import feign.gson.GsonDecoder;
 import feign.gson.GsonEncoder;
 import feign.slf4j.Slf4jLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.common.CacheableEntity;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.discovery.JWTIssuerDiscoveryClient;
@@ -31,22 +34,50 @@ import org.wso2.apk.enforcer.discovery.subscription.ApplicationMapping;
 import org.wso2.apk.enforcer.discovery.subscription.Subscription;
 import org.wso2.apk.enforcer.jmx.JMXUtils;
 import org.wso2.apk.enforcer.metrics.jmx.impl.ExtAuthMetrics;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
 import org.wso2.apk.enforcer.util.ApacheFeignHttpClient;
 import org.wso2.apk.enforcer.util.FilterUtils;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Utility methods related to subscription data store functionalities.
  */
 public class SubscriptionDataStoreUtil {
 
+    private static final Logger logger = LogManager.getLogger(SubscriptionDataStoreUtil.class);
+
     private static SubscriptionValidationDataRetrievalRestClient subscriptionValidationDataRetrievalRestClient;
     private static SubscriptionDataStoreUtil Instance;
+    private static volatile boolean subscriptionDataLoaded = false;
+
+    // A failed load is retried with an exponential backoff, up to MAX_LOAD_ATTEMPTS attempts.
+    static final int MAX_LOAD_ATTEMPTS = 10;
+    static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+    static final long MAX_RETRY_DELAY_MILLIS = 60000;
+
+    // One load at a time, each retrieving the four data sets in parallel.
+    private final ScheduledExecutorService loadCoordinator = Executors.newSingleThreadScheduledExecutor(
+            new NativeThreadFactory(new ThreadGroup("SubscriptionDataLoadCoordinator"),
+                    "SubscriptionDataLoadCoordinator"));
+    // Retry of a failed load. Only accessed from the load coordinator thread.
+    private ScheduledFuture<?> pendingRetry;
+    private final ExecutorService loaderExecutor = Executors.newFixedThreadPool(4,
+            new NativeThreadFactory(new ThreadGroup("SubscriptionDataLoader"), "SubscriptionDataLoader"));
 
     private SubscriptionDataStoreUtil() {
 
@@ -88,94 +119,12 @@ public class SubscriptionDataStoreUtil {
         return Instance;
     }
 
-    private static void loadApplicationKeyMappings() {
-
-        new Thread(() -> {
-            ApplicationKeyMappingDtoList applicationKeyMappings =
-                    subscriptionValidationDataRetrievalRestClient.getAllApplicationKeyMappings();
-            List<ApplicationKeyMappingDTO> list = applicationKeyMappings.getList();
-            Map<String, List<ApplicationKeyMappingDTO>> orgWizeMAp = new HashMap<>();
-            for (ApplicationKeyMappingDTO applicationKeyMappingDTO : list) {
-                String organization = applicationKeyMappingDTO.getOrganizationId();
-                List<ApplicationKeyMappingDTO> applicationKeyMappingDTOS = orgWizeMAp.computeIfAbsent(organization,
-                        k -> new ArrayList<>());
-                applicationKeyMappingDTOS.add(applicationKeyMappingDTO);
-            }
-            orgWizeMAp.forEach((k, v) -> {
-                SubscriptionDataStore subscriptionDataStore = getSubscriptionDataStore(k);
-                subscriptionDataStore.addApplicationKeyMappings(v);
-            });
-        }).start();
-
-    }
-
-    private static void loadApplicationMappings() {
-
-        new Thread(() -> {
-            ApplicationMappingDtoList applicationMappings =
-                    subscriptionValidationDataRetrievalRestClient.getAllApplicationMappings();
-            List<ApplicationMappingDto> list = applicationMappings.getList();
-            Map<String, List<ApplicationMappingDto>> orgWizeMAp = new HashMap<>();
-            for (ApplicationMappingDto applicationMappingDto : list) {
-                String organization = applicationMappingDto.getOrganizationId();
-                List<ApplicationMappingDto> applicationMappingDtos = orgWizeMAp.computeIfAbsent(organization,
-                        k -> new ArrayList<>());
-                applicationMappingDtos.add(applicationMappingDto);
-            }
-            orgWizeMAp.forEach((k, v) -> {
-                SubscriptionDataStore subscriptionDataStore = getSubscriptionDataStore(k);
-                subscriptionDataStore.addApplicationMappings(v);
-            });
-        }).start();
-
-    }
-
     public static void initializeLoadingTasks() {
 
         JWTIssuerDiscoveryClient.getInstance().watchJWTIssuers();
         EventingGrpcClient.getInstance().watchEvents();
     }
 
-    private static void loadApplications() {
-
-        new Thread(() -> {
-            ApplicationListDto applications = subscriptionValidationDataRetrievalRestClient.getAllApplications();
-            List<ApplicationDto> list = applications.getList();
-            Map<String, List<ApplicationDto>> orgWizeMAp = new HashMap<>();
-            for (ApplicationDto applicationDto : list) {
-                String organization = applicationDto.getOrganizationId();
-                List<ApplicationDto> applicationDtos = orgWizeMAp.computeIfAbsent(organization, k -> new ArrayList<>());
-                applicationDtos.add(applicationDto);
-            }
-            orgWizeMAp.forEach((k, v) -> {
-                SubscriptionDataStore subscriptionDataStore = getSubscriptionDataStore(k);
-                subscriptionDataStore.addApplications(v);
-            });
-        }).start();
-    }
-
-    private static void loadSubscriptions() {
-
-        new Thread(() -> {
-            SubscriptionListDto subscriptions = subscriptionValidationDataRetrievalRestClient.getAllSubscriptions();
-            List<SubscriptionDto> list = subscriptions.getList();
-            if (JMXUtils.isJMXMetricsEnabled()) {
-                ExtAuthMetrics.getInstance().recordSubscriptionMetrics(SubscriptionDataHolder.getInstance().getTotalSubscriptionCount());
-            }
-            Map<String, List<SubscriptionDto>> orgWizeMAp = new HashMap<>();
-            for (SubscriptionDto subscriptionDto : list) {
-                String organization = subscriptionDto.getOrganization();
-                List<SubscriptionDto> subscriptionDtos = orgWizeMAp.computeIfAbsent(organization,
-                        k -> new ArrayList<>());
-                subscriptionDtos.add(subscriptionDto);
-            }
-            orgWizeMAp.forEach((k, v) -> {
-                SubscriptionDataStore subscriptionDataStore = getSubscriptionDataStore(k);
-                subscriptionDataStore.addSubscriptions(v);
-            });
-        }).start();
-    }
-
     public static String getApplicationKeyMappingCacheKey(String applicationIdentifier, String keyType,
                                                           String securityScheme, String envType) {
 
@@ -262,13 +211,174 @@ public class SubscriptionDataStoreUtil {
 
     }
 
+    /**
+     * Returns whether the applications, subscriptions, application mappings and application key mappings have all
+     * been loaded from the common controller at least once. The enforcer reports itself as not serving until then.
+     *
+     * @return true if the subscription data is loaded
+     */
+    public static boolean isSubscriptionDataLoaded() {
+
+        return subscriptionDataLoaded;
+    }
+
+    /**
+     * Loads all the applications, subscriptions, application mappings and application key mappings from the common
+     * controller and replaces the data of each organization in a single step. The four data sets are retrieved in
+     * parallel and decoded one element at a time straight into per organization maps, so neither the responses nor
+     * the DTO lists are held in memory. Nothing is replaced unless all of them are retrieved successfully, so a
+     * request never validates against a mix of resynced and stale data. Loads are executed one after the other.
+     * <p>
+     * A failed load is retried with an exponential backoff until it succeeds or {@link #MAX_LOAD_ATTEMPTS} attempts
+     * are made, so that a transient outage of the common controller at startup does not keep the enforcer from
+     * becoming ready. A new call supersedes a pending retry.
+     */
     public void loadStartupArtifacts() {
 
-        loadApplications();
-        loadSubscriptions();
-        loadApplicationMappings();
-        loadApplicationKeyMappings();
+        loadCoordinator.execute(() -> {
+            if (pendingRetry != null) {
+                pendingRetry.cancel(false);
+                pendingRetry = null;
+            }
+            load(1);
+        });
+    }
 
+    private void load(int attempt) {
+
+        long startTime = System.nanoTime();
+        Map<String, OrganizationData> orgWizeMap = new ConcurrentHashMap<>();
+        CompletableFuture<Void> applications = loadAsync("applications",
+                subscriptionValidationDataRetrievalRestClient::streamAllApplications, ApplicationDto.class,
+                applicationDto -> {
+                    org.wso2.apk.enforcer.models.Application application =
+                            SubscriptionDataStoreImpl.toApplication(applicationDto);
+                    getOrganizationData(orgWizeMap, applicationDto.getOrganizationId()).ifPresent(data ->
+                            data.applications.put(application.getCacheKey(), application));
+                });
+        CompletableFuture<Void> subscriptions = loadAsync("subscriptions",
+                subscriptionValidationDataRetrievalRestClient::streamAllSubscriptions, SubscriptionDto.class,
+                subscriptionDto -> {
+                    org.wso2.apk.enforcer.models.Subscription subscription =
+                            SubscriptionDataStoreImpl.toSubscription(subscriptionDto);
+                    getOrganizationData(orgWizeMap, subscriptionDto.getOrganization()).ifPresent(data ->
+                            data.subscriptions.put(subscription.getCacheKey(), subscription));
+                });
+        CompletableFuture<Void> applicationMappings = loadAsync("application mappings",
+                subscriptionValidationDataRetrievalRestClient::streamAllApplicationMappings,
+                ApplicationMappingDto.class, applicationMappingDto -> {
+                    org.wso2.apk.enforcer.models.ApplicationMapping applicationMapping =
+                            SubscriptionDataStoreImpl.toApplicationMapping(applicationMappingDto);
+                    getOrganizationData(orgWizeMap, applicationMappingDto.getOrganizationId()).ifPresent(data ->
+                            data.applicationMappings.put(applicationMapping.getCacheKey(), applicationMapping));
+                });
+        CompletableFuture<Void> applicationKeyMappings = loadAsync("application key mappings",
+                subscriptionValidationDataRetrievalRestClient::streamAllApplicationKeyMappings,
+                ApplicationKeyMappingDTO.class, applicationKeyMappingDTO -> {
+                    org.wso2.apk.enforcer.models.ApplicationKeyMapping applicationKeyMapping =
+                            SubscriptionDataStoreImpl.toApplicationKeyMapping(applicationKeyMappingDTO);
+                    getOrganizationData(orgWizeMap, applicationKeyMappingDTO.getOrganizationId())
+                            .ifPresent(data -> data.applicationKeyMappings
+                                    .put(applicationKeyMapping.getCacheKey(), applicationKeyMapping));
+                });
+        try {
+            CompletableFuture.allOf(applications, subscriptions, applicationMappings, applicationKeyMappings)
+                    .join();
+        } catch (CompletionException e) {
+            scheduleRetry(attempt, e.getCause());
+            return;
+        }
+        long publishStartTime = System.nanoTime();
+        replaceSubscriptionData(orgWizeMap);
+        subscriptionDataLoaded = true;
+        long endTime = System.nanoTime();
+        logger.info("Subscription data of {} organizations published in {} ms. Total load time {} ms",
+                orgWizeMap.size(), TimeUnit.NANOSECONDS.toMillis(endTime - publishStartTime),
+                TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
     }
-}
 
+    private void scheduleRetry(int attempt, Throwable cause) {
+
+        if (attempt >= MAX_LOAD_ATTEMPTS) {
+            logger.error("Error occurred while loading subscription data. Giving up after {} attempts. Existing data "
+                    + "is retained.", attempt, cause);
+            return;
+        }
+        long delayMillis = getRetryDelayMillis(attempt);
+        logger.error("Error occurred while loading subscription data. Existing data is retained. Retrying in {} ms "
+                + "(attempt {} of {})", delayMillis, attempt, MAX_LOAD_ATTEMPTS, cause);
+        pendingRetry = loadCoordinator.schedule(() -> {
+            pendingRetry = null;
+            load(attempt + 1);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the delay before the next attempt of a load, doubling from {@link #INITIAL_RETRY_DELAY_MILLIS} up to
+     * {@link #MAX_RETRY_DELAY_MILLIS}.
+     *
+     * @param attempt number of the failed attempt, starting from 1
+     * @return delay in milliseconds
+     */
+    static long getRetryDelayMillis(int attempt) {
+
+        return Math.min(MAX_RETRY_DELAY_MILLIS, INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt - 1, 20));
+    }
+
+    /**
+     * Retrieves a data set on the loader executor and passes each decoded element to the given consumer.
+     */
+    private <T> CompletableFuture<Void> loadAsync(String dataSetName, Supplier<Response> request,
+                                                  Class<T> elementType, Consumer<T> consumer) {
+
+        return CompletableFuture.runAsync(() -> {
+            long startTime = System.nanoTime();
+            int count;
+            try {
+                count = StreamingListDecoder.decode(request.get(), elementType, consumer);
+            } catch (IOException e) {
+                throw new CompletionException("Error occurred while retrieving " + dataSetName, e);
+            }
+            logger.info("Retrieved {} {} in {} ms", count, dataSetName,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }, loaderExecutor);
+    }
+
+    private static Optional<OrganizationData> getOrganizationData(Map<String, OrganizationData> orgWizeMap,
+                                                                  String organization) {
+
+        if (organization == null) {
+            return Optional.empty();
+        }
+        return Optional.of(orgWizeMap.computeIfAbsent(organization, k -> new OrganizationData()));
+    }
+
+    private static void replaceSubscriptionData(Map<String, OrganizationData> orgWizeMap) {
+
+        // Organizations that no longer have any data are cleared as well.
+        SubscriptionDataHolder.getInstance().getOrganizations()
+                .forEach(organization -> orgWizeMap.computeIfAbsent(organization, k -> new OrganizationData()));
+        orgWizeMap.forEach((organization, data) -> {
+            SubscriptionDataStore subscriptionDataStore = getSubscriptionDataStore(organization);
+            subscriptionDataStore.replaceSubscriptionData(data.applications, data.subscriptions,
+                    data.applicationMappings, data.applicationKeyMappings);
+        });
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            ExtAuthMetrics.getInstance().recordSubscriptionMetrics(SubscriptionDataHolder.getInstance().getTotalSubscriptionCount());
+        }
+    }
+
+    /**
+     * Subscription data of a single organization, grouped while loading. Each map is populated by the loader task
+     * of its own data set only.
+     */
+    private static class OrganizationData {
+
+        private final Map<String, org.wso2.apk.enforcer.models.Application> applications = new HashMap<>();
+        private final Map<String, org.wso2.apk.enforcer.models.Subscription> subscriptions = new HashMap<>();
+        private final Map<String, org.wso2.apk.enforcer.models.ApplicationMapping> applicationMappings =
+                new HashMap<>();
+        private final Map<String, org.wso2.apk.enforcer.models.ApplicationKeyMapping> applicationKeyMappings =
+                new HashMap<>();
+    }
+}
@@ -1,14 +0,0 @@
-package org.wso2.apk.enforcer.subscription;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class SubscriptionListDto {
-
-    private List<SubscriptionDto> list = new ArrayList<>();
-
-    public List<SubscriptionDto> getList() {
-
-        return list;
-    }
-}
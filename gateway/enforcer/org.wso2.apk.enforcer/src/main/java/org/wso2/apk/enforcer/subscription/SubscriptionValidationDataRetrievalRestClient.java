@@ -2,22 +2,29 @@ package org.wso2.apk.enforcer.subscription;
 import feign.Headers;
 import feign.Param;
 import feign.RequestLine;
+import feign.Response;
 
 public interface SubscriptionValidationDataRetrievalRestClient {
 
+    /*
+     * The methods return the raw response so that the list can be decoded one element at a time with the
+     * StreamingListDecoder instead of materializing the whole list. The caller is responsible for closing the
+     * response.
+     */
+
     @RequestLine("GET /applications")
     @Headers("Content-Type: application/json")
-    ApplicationListDto getAllApplications();
+    Response streamAllApplications();
 
     @RequestLine("GET /subscriptions")
     @Headers("Content-Type: application/json")
-    SubscriptionListDto getAllSubscriptions();
+    Response streamAllSubscriptions();
 
     @RequestLine("GET /applicationmappings")
     @Headers("Content-Type: application/json")
-    ApplicationMappingDtoList getAllApplicationMappings();
+    Response streamAllApplicationMappings();
 
     @RequestLine("GET /applicationkeymappings")
     @Headers("Content-Type: application/json")
-    ApplicationKeyMappingDtoList getAllApplicationKeyMappings();
+    Response streamAllApplicationKeyMappings();
 }
@@ -18,9 +18,10 @@
 
 package org.wso2.apk.enforcer.util;
 
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.cache.Cache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.common.BackendJWTToken;
 import org.wso2.apk.enforcer.common.CacheProviderUtil;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
 import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
@@ -34,7 +35,7 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.JwtConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 import org.wso2.apk.enforcer.security.jwt.JwtTransformerAnnotation;
-import org.wso2.apk.enforcer.security.jwt.validator.JWTConstants;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
@@ -44,6 +45,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Contains Util methods related to backend JWT generation.
@@ -51,6 +58,12 @@ import java.util.ServiceLoader;
 public class BackendJwtUtils {
 
     private static final Logger log = LogManager.getLogger(BackendJwtUtils.class);
+    // Fraction of the lifetime of a cached token after which it is refreshed in the background.
+    static final double REFRESH_AHEAD_RATIO = 0.8;
+    private static final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+            new NativeThreadFactory(new ThreadGroup("BackendJWTRefresh"), "BackendJWTRefresh"));
+    // Cached tokens being refreshed, compared by identity.
+    private static final Set<BackendJWTToken> refreshingTokens = ConcurrentHashMap.newKeySet();
 
     /**
      * Generates or gets the Cached Backend JWT token.
@@ -67,59 +80,113 @@ public class BackendJwtUtils {
                                                      boolean isGatewayTokenCacheEnabled, String organization) throws APISecurityException {
 
         log.debug("Inside generateAndRetrieveJWTToken");
-        String endUserToken = null;
-        boolean valid = false;
-        String jwtTokenCacheKey = jwtInfoDto.getApiContext().concat(":").concat(jwtInfoDto.getVersion()).concat(":")
-                .concat(tokenSignature); // TODO: (suksw) Check if to add tenantName or label also
+        if (jwtGenerator == null) {
+            log.debug("Error while loading JWTGenerator");
+            return null;
+        }
+        if (!isGatewayTokenCacheEnabled) {
+            return generateToken(jwtGenerator, jwtInfoDto);
+        }
+        // TODO: (suksw) Check if to add tenantName or label also
+        String jwtTokenCacheKey = jwtInfoDto.getApiContext() + ':' + jwtInfoDto.getVersion() + ':' + tokenSignature;
+        Cache<String, BackendJWTToken> jwtTokenCache =
+                CacheProviderUtil.getOrganizationCache(organization).getGatewayJWTTokenCache();
+        BackendJWTToken cachedToken = jwtTokenCache.getIfPresent(jwtTokenCacheKey);
+        long currentTime = System.currentTimeMillis();
+        if (cachedToken != null && cachedToken.isUsable(currentTime)) {
+            if (cachedToken.isRefreshDue(currentTime)) {
+                refreshInBackground(jwtGenerator, jwtInfoDto, jwtTokenCache, jwtTokenCacheKey, cachedToken);
+            }
+            return cachedToken.getToken();
+        }
+        String endUserToken = generateToken(jwtGenerator, jwtInfoDto);
+        cacheToken(jwtTokenCache, jwtTokenCacheKey, endUserToken);
+        return endUserToken;
+    }
 
-        if (jwtGenerator != null) {
-            if (isGatewayTokenCacheEnabled) {
-                try {
-                    Object token =
-                            CacheProviderUtil.getOrganizationCache(organization).getGatewayJWTTokenCache().get(jwtTokenCacheKey);
-                    if (!JWTConstants.UNAVAILABLE.equals(token)) {
-                        endUserToken = (String) token;
-                        String[] splitToken = endUserToken.split("\\.");
-                        org.json.JSONObject payload = new org.json.JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
-                        long exp = payload.getLong(JwtConstants.EXP);
-                        valid = !JWTUtils.isExpired(exp);
-                    }
-                } catch (Exception e) {
-                    log.error("Error while getting token from the cache", e);
-                }
+    /**
+     * Generates a new token for a cached token which is about to expire, unless one is already being generated. The
+     * cached token is served meanwhile.
+     */
+    private static void refreshInBackground(AbstractAPIMgtGatewayJWTGenerator jwtGenerator, JWTInfoDto jwtInfoDto,
+                                            Cache<String, BackendJWTToken> jwtTokenCache, String jwtTokenCacheKey,
+                                            BackendJWTToken cachedToken) {
 
-                if (StringUtils.isEmpty(endUserToken) || !valid) {
-                    endUserToken = generateToken(jwtGenerator, jwtInfoDto, true, jwtTokenCacheKey, organization);
+        if (!refreshingTokens.add(cachedToken)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    cacheToken(jwtTokenCache, jwtTokenCacheKey, generateToken(jwtGenerator, jwtInfoDto));
+                } catch (APISecurityException e) {
+                    log.debug("Backend JWT is not refreshed ahead of its expiry", e);
+                } finally {
+                    refreshingTokens.remove(cachedToken);
                 }
-            } else {
-                endUserToken = generateToken(jwtGenerator, jwtInfoDto, false, jwtTokenCacheKey, organization);
-            }
-        } else {
-            log.debug("Error while loading JWTGenerator");
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingTokens.remove(cachedToken);
+            log.debug("Backend JWT refresh is rejected", e);
         }
-        return endUserToken;
     }
 
-    private static String generateToken(AbstractAPIMgtGatewayJWTGenerator jwtGenerator, JWTInfoDto jwtInfoDto,
-                                        boolean isGatewayTokenCacheEnabled, String jwtTokenCacheKey,
-                                        String organization) throws APISecurityException {
+    private static String generateToken(AbstractAPIMgtGatewayJWTGenerator jwtGenerator, JWTInfoDto jwtInfoDto)
+            throws APISecurityException {
 
-        String endUserToken;
         JWTConfigurationDto jwtConfigurationDto = jwtGenerator.getJWTConfigurationDto();
         jwtGenerator.setJWTConfigurationDto(jwtConfigurationDto);
         try {
-            endUserToken = jwtGenerator.generateToken(jwtInfoDto);
-            if (isGatewayTokenCacheEnabled) {
-                CacheProviderUtil.getOrganizationCache(organization).getGatewayJWTTokenCache().put(jwtTokenCacheKey,
-                        endUserToken);
-            }
+            return jwtGenerator.generateToken(jwtInfoDto);
         } catch (JWTGeneratorException e) {
             log.error("Error while Generating Backend JWT", e);
             throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
                     APISecurityConstants.API_AUTH_GENERAL_ERROR,
                     APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE, e);
         }
-        return endUserToken;
+    }
+
+    /**
+     * Caches the given token with its expiry. The expiry is read from the token once here, so that the cache hits
+     * do not decode the token.
+     */
+    private static void cacheToken(Cache<String, BackendJWTToken> jwtTokenCache, String jwtTokenCacheKey,
+                                   String endUserToken) {
+
+        long issuedAt = System.currentTimeMillis();
+        BackendJWTToken backendJWTToken = toCacheEntry(endUserToken, issuedAt,
+                TimeUnit.SECONDS.toMillis(FilterUtils.getTimeStampSkewInSeconds()));
+        if (backendJWTToken != null) {
+            jwtTokenCache.put(jwtTokenCacheKey, backendJWTToken);
+        }
+    }
+
+    /**
+     * Creates the cache entry of the given token. The token is usable until the timestamp skew before its expiry, and
+     * is refreshed once {@link #REFRESH_AHEAD_RATIO} of that time has passed.
+     *
+     * @param endUserToken        backend JWT
+     * @param issuedAt            time the token was generated in milliseconds
+     * @param timestampSkewMillis timestamp skew in milliseconds
+     * @return cache entry or null if the expiry of the token cannot be read or has already passed
+     */
+    static BackendJWTToken toCacheEntry(String endUserToken, long issuedAt, long timestampSkewMillis) {
+
+        long expiryTime;
+        try {
+            String[] splitToken = endUserToken.split("\\.");
+            org.json.JSONObject payload = new org.json.JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
+            expiryTime = TimeUnit.SECONDS.toMillis(payload.getLong(JwtConstants.EXP));
+        } catch (Exception e) {
+            log.error("Error while reading the expiry of the backend JWT, the token is not cached", e);
+            return null;
+        }
+        long usableUntil = expiryTime - timestampSkewMillis;
+        if (usableUntil <= issuedAt) {
+            return null;
+        }
+        long refreshAt = issuedAt + (long) ((usableUntil - issuedAt) * REFRESH_AHEAD_RATIO);
+        return new BackendJWTToken(endUserToken, usableUntil, refreshAt);
     }
 
     /**
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter of strings with 4 bit counters, sixteen of them packed into a long.
+ * <p>
+ * {@link #mightContain(String)} never returns false for a string which has been added and not removed, hence a
+ * negative answer can be trusted without consulting the backing store. Counters which reach their maximum stay there
+ * and are never decremented, so they only cost accuracy until the filter is rebuilt. Lookups are lock free. Additions
+ * and removals are expected to be serialized by the owner of the filter.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final int COUNTER_BITS = 4;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final int MIN_EXPECTED_INSERTIONS = 1024;
+
+    private final AtomicLongArray counters;
+    private final int counterCount;
+    private final int hashFunctionCount;
+    private final int expectedInsertions;
+
+    /**
+     * Creates a filter sized for the given number of entries and false positive probability.
+     *
+     * @param expectedInsertions        expected number of entries
+     * @param falsePositiveProbability  desired false positive probability at the expected number of entries
+     */
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveProbability) {
+
+        this.expectedInsertions = Math.max(expectedInsertions, MIN_EXPECTED_INSERTIONS);
+        long optimalCounters = (long) Math.ceil(-this.expectedInsertions * Math.log(falsePositiveProbability)
+                / (Math.log(2) * Math.log(2)));
+        this.counterCount = (int) Math.min(optimalCounters, Integer.MAX_VALUE - COUNTERS_PER_WORD);
+        this.hashFunctionCount = Math.max(1,
+                (int) Math.round((double) counterCount / this.expectedInsertions * Math.log(2)));
+        this.counters = new AtomicLongArray((counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    public boolean mightContain(String value) {
+
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1L;
+        for (int i = 0; i < hashFunctionCount; i++) {
+            if (getCounter(index(hash1 + i * hash2)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String value) {
+
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1L;
+        for (int i = 0; i < hashFunctionCount; i++) {
+            updateCounter(index(hash1 + i * hash2), 1);
+        }
+    }
+
+    /**
+     * Removes a value which has been added to the filter earlier. Removing a value which has not been added breaks
+     * the guarantee of the filter.
+     *
+     * @param value value to remove
+     */
+    public void remove(String value) {
+
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1L;
+        for (int i = 0; i < hashFunctionCount; i++) {
+            updateCounter(index(hash1 + i * hash2), -1);
+        }
+    }
+
+    public int getExpectedInsertions() {
+
+        return expectedInsertions;
+    }
+
+    public long getSizeBytes() {
+
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    /**
+     * Returns the theoretical false positive probability for the given number of entries.
+     *
+     * @param entries number of entries in the filter
+     * @return false positive probability
+     */
+    public double getEstimatedFalsePositiveProbability(long entries) {
+
+        return Math.pow(1 - Math.exp(-(double) hashFunctionCount * entries / counterCount), hashFunctionCount);
+    }
+
+    private int index(long combinedHash) {
+
+        return (int) ((combinedHash & Long.MAX_VALUE) % counterCount);
+    }
+
+    private int getCounter(int index) {
+
+        return (int) ((counters.get(index / COUNTERS_PER_WORD) >>> shift(index)) & COUNTER_MASK);
+    }
+
+    private void updateCounter(int index, int delta) {
+
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long current = counters.get(word);
+            long counter = (current >>> shift) & COUNTER_MASK;
+            // A saturated counter no longer tracks the exact count, hence it is never changed again.
+            if (counter == COUNTER_MASK || (delta < 0 && counter == 0)) {
+                return;
+            }
+            long updated = (current & ~(COUNTER_MASK << shift)) | ((counter + delta) << shift);
+            if (counters.compareAndSet(word, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(int index) {
+
+        return (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the characters of the value. Does not allocate.
+     */
+    private static long hash(String value) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -21,7 +21,10 @@ import com.nimbusds.jose.jwk.JWKSet;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -34,12 +37,16 @@ import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.text.ParseException;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * This class used to create JWKS Client.
  */
 public class JWKSClient {
     private static final Log log = LogFactory.getLog(JWKSClient.class.getName());
+    private static final String MAX_AGE = "max-age";
+    private static final String NO_CACHE = "no-cache";
+    private static final String NO_STORE = "no-store";
     private HttpClient httpClient;
     private String jwksEndpoint;
 
@@ -59,6 +66,16 @@ public class JWKSClient {
     }
 
     public JWKSet getJWKSet() throws EnforcerException {
+        return getJWKSResponse().getJwkSet();
+    }
+
+    /**
+     * Retrieves the JWKS together with the max-age of the Cache-Control header of the response.
+     *
+     * @return JWKS response
+     * @throws EnforcerException if the JWKS cannot be retrieved
+     */
+    public JWKSResponse getJWKSResponse() throws EnforcerException {
         try {
             HttpGet httpGet = new HttpGet(jwksEndpoint);
             try (CloseableHttpResponse response = (CloseableHttpResponse) httpClient.execute(httpGet)) {
@@ -66,7 +83,8 @@ public class JWKSClient {
                     HttpEntity entity = response.getEntity();
                     try (InputStream content = entity.getContent()) {
                         String stringContent = IOUtils.toString(content);
-                        return JWKSet.parse(stringContent);
+                        return new JWKSResponse(JWKSet.parse(stringContent),
+                                getMaxAgeSeconds(response.getFirstHeader(HttpHeaders.CACHE_CONTROL)));
                     }
                 } else {
                     throw new EnforcerException("Error occurred when calling JWKS Endpoint");
@@ -76,4 +94,55 @@ public class JWKSClient {
             throw new EnforcerException("Error occurred when calling JWKS Endpoint", e);
         }
     }
+
+    /**
+     * Returns the max-age directive of the given Cache-Control header, 0 if caching is not allowed or -1 if there is
+     * no such directive.
+     */
+    static long getMaxAgeSeconds(Header cacheControl) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        for (HeaderElement element : cacheControl.getElements()) {
+            String name = element.getName().toLowerCase(Locale.ROOT);
+            if (NO_CACHE.equals(name) || NO_STORE.equals(name)) {
+                return 0;
+            }
+            if (MAX_AGE.equals(name) && element.getValue() != null) {
+                try {
+                    return Math.max(0, Long.parseLong(element.getValue().trim()));
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid max-age in the Cache-Control header of the JWKS endpoint: "
+                            + element.getValue());
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * JWKS retrieved from the endpoint.
+     */
+    public static class JWKSResponse {
+        private final JWKSet jwkSet;
+        private final long maxAgeSeconds;
+
+        public JWKSResponse(JWKSet jwkSet, long maxAgeSeconds) {
+            this.jwkSet = jwkSet;
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        public JWKSet getJwkSet() {
+            return jwkSet;
+        }
+
+        /**
+         * Returns the max-age of the response in seconds, 0 if caching is not allowed or -1 if not specified.
+         *
+         * @return max-age in seconds
+         */
+        public long getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+    }
 }
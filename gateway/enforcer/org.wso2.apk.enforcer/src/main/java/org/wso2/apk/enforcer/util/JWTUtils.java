@@ -131,6 +131,23 @@ public class JWTUtils {
         return false;
     }
 
+    /**
+     * Verify the JWT token signature with a verifier created in advance.
+     *
+     * @param jwt         SignedJwt Token
+     * @param jwsVerifier verifier of the signing key
+     * @return whether the signature is verified or not
+     */
+    public static boolean verifyTokenSignature(SignedJWT jwt, JWSVerifier jwsVerifier) {
+
+        try {
+            return jwt.verify(jwsVerifier);
+        } catch (JOSEException e) {
+            log.error("Error while verifying JWT signature", e);
+            return false;
+        }
+    }
+
     /**
      * Verify the JWT token signature.
      *
@@ -199,6 +216,71 @@ public class JWTUtils {
         }
     }
 
+    /**
+     * Checks whether the given value has the shape of a JWT, i.e. three segments separated by dots. The result is the
+     * same as that of {@code value.split("\\.").length == 3}, which drops trailing empty segments, without creating
+     * the segments.
+     *
+     * @param value token to check
+     * @return true if the value has three segments
+     */
+    public static boolean hasJWTShape(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == '.') {
+            end--;
+        }
+        if (end == 0) {
+            return false;
+        }
+        int dots = 0;
+        for (int i = 0; i < end; i++) {
+            if (value.charAt(i) == '.' && ++dots > 2) {
+                return false;
+            }
+        }
+        return dots == 2;
+    }
+
+    /**
+     * Checks whether the given value consists of two parts separated by whitespace, such as an authorization scheme
+     * and its credentials. The result is the same as that of {@code value.trim().split("\\s+").length == 2}, without
+     * creating the parts.
+     *
+     * @param value value to check
+     * @return true if the value has two parts
+     */
+    public static boolean hasTwoParts(String value) {
+        int start = 0;
+        int end = value.length();
+        // Same bounds as String.trim
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int separators = 0;
+        boolean inSeparator = false;
+        for (int i = start; i < end; i++) {
+            if (isRegexWhitespace(value.charAt(i))) {
+                if (!inSeparator) {
+                    inSeparator = true;
+                    separators++;
+                }
+            } else {
+                inSeparator = false;
+            }
+        }
+        return separators == 1;
+    }
+
+    /**
+     * Whether the character is matched by the regex {@code \s}.
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
     /**
      * Check if the JWT token is expired.
      *
@@ -0,0 +1,552 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash map which is updated by creating a new version that shares most of its structure with the previous
+ * one. The map is a compressed hash-array mapped prefix tree (CHAMP): each node covers 5 bits of the key hash and
+ * holds up to 32 entries or sub nodes in a compact array. {@link #plus(Object, Object)} and {@link #minus(Object)}
+ * only copy the nodes on the path to the key, at most seven of them, so an update costs O(log32 n) regardless of the
+ * size of the map, while lookups do not allocate.
+ * <p>
+ * The map does not support null keys. The mutating methods of {@link Map} throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int HASH_BITS = 32;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentHashMap<?, ?> EMPTY =
+            new PersistentHashMap<>(new BitmapIndexedNode(0, 0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+
+    private PersistentHashMap(Node root, int size) {
+
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent map with the entries of the given map.
+     *
+     * @param map map to copy
+     * @param <K> type of the keys
+     * @param <V> type of the values
+     * @return persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        PersistentHashMap<K, V> result = empty();
+        for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+
+        return key != null && root.find(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+
+        if (key == null) {
+            return null;
+        }
+        Object value = root.find(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    /**
+     * Returns a map with the given entry added, replacing the entry of the same key if there is one.
+     *
+     * @param key   key of the entry
+     * @param value value of the entry
+     * @return updated map, or this map if it already holds the same value under the key
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+
+        Objects.requireNonNull(key, "key");
+        Change change = new Change();
+        Node newRoot = root.put(key, value, hash(key), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, change.added ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the entry of the given key.
+     *
+     * @param key key of the entry
+     * @return updated map, or this map if there is no entry with the key
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+
+        if (key == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = root.remove(key, hash(key), 0, change);
+        if (!change.removed) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private static int hash(Object key) {
+
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int mask(int hash, int shift) {
+
+        return (hash >>> shift) & 31;
+    }
+
+    /**
+     * Outcome of an update, used to maintain the size of the map.
+     */
+    private static final class Change {
+
+        private boolean added;
+        private boolean removed;
+    }
+
+    private abstract static class Node {
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        abstract boolean hasNodes();
+
+        abstract int nodeArity();
+
+        abstract Node getNode(int index);
+
+        abstract int payloadArity();
+
+        abstract Object getKey(int index);
+
+        abstract Object getValue(int index);
+    }
+
+    /**
+     * Node holding the entries and sub nodes of the positions set in its bitmaps. Entries are stored as key value
+     * pairs from the start of the array and sub nodes from the end of it.
+     */
+    private static final class BitmapIndexedNode extends Node {
+
+        private final int dataMap;
+        private final int nodeMap;
+        private final Object[] content;
+
+        BitmapIndexedNode(int dataMap, int nodeMap, Object[] content) {
+
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                return key.equals(content[2 * index]) ? content[2 * index + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return nodeAt(bit).find(key, hash, shift + BITS_PER_LEVEL);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                Object existingKey = content[2 * index];
+                Object existingValue = content[2 * index + 1];
+                if (key.equals(existingKey)) {
+                    if (existingValue == value) {
+                        return this;
+                    }
+                    Object[] newContent = content.clone();
+                    newContent[2 * index + 1] = value;
+                    return new BitmapIndexedNode(dataMap, nodeMap, newContent);
+                }
+                change.added = true;
+                Node subNode = mergeTwo(existingKey, existingValue, hash(existingKey), key, value, hash,
+                        shift + BITS_PER_LEVEL);
+                return copyAndMigrateToNode(bit, subNode);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subNode = nodeAt(bit);
+                Node newSubNode = subNode.put(key, value, hash, shift + BITS_PER_LEVEL, change);
+                return newSubNode == subNode ? this : copyAndSetNode(bit, newSubNode);
+            }
+            change.added = true;
+            int index = dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, 2 * index);
+            newContent[2 * index] = key;
+            newContent[2 * index + 1] = value;
+            System.arraycopy(content, 2 * index, newContent, 2 * index + 2, content.length - 2 * index);
+            return new BitmapIndexedNode(dataMap | bit, nodeMap, newContent);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                if (!key.equals(content[2 * index])) {
+                    return this;
+                }
+                change.removed = true;
+                Object[] newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, 2 * index);
+                System.arraycopy(content, 2 * index + 2, newContent, 2 * index, content.length - 2 * index - 2);
+                return new BitmapIndexedNode(dataMap ^ bit, nodeMap, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subNode = nodeAt(bit);
+                Node newSubNode = subNode.remove(key, hash, shift + BITS_PER_LEVEL, change);
+                if (!change.removed) {
+                    return this;
+                }
+                if (!newSubNode.hasNodes() && newSubNode.payloadArity() == 1) {
+                    // A sub node left with a single entry is inlined, which keeps the tree compact.
+                    return copyAndMigrateToInline(bit, newSubNode.getKey(0), newSubNode.getValue(0));
+                }
+                return copyAndSetNode(bit, newSubNode);
+            }
+            return this;
+        }
+
+        @Override
+        boolean hasNodes() {
+
+            return nodeMap != 0;
+        }
+
+        @Override
+        int nodeArity() {
+
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node getNode(int index) {
+
+            return (Node) content[content.length - 1 - index];
+        }
+
+        @Override
+        int payloadArity() {
+
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        Object getKey(int index) {
+
+            return content[2 * index];
+        }
+
+        @Override
+        Object getValue(int index) {
+
+            return content[2 * index + 1];
+        }
+
+        private int dataIndex(int bit) {
+
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+
+            return Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        private Node nodeAt(int bit) {
+
+            return getNode(nodeIndex(bit));
+        }
+
+        private Node copyAndSetNode(int bit, Node node) {
+
+            Object[] newContent = content.clone();
+            newContent[content.length - 1 - nodeIndex(bit)] = node;
+            return new BitmapIndexedNode(dataMap, nodeMap, newContent);
+        }
+
+        private Node copyAndMigrateToNode(int bit, Node node) {
+
+            int oldIndex = 2 * dataIndex(bit);
+            int newIndex = content.length - 2 - nodeIndex(bit);
+            Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, oldIndex);
+            System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+            newContent[newIndex] = node;
+            System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+            return new BitmapIndexedNode(dataMap ^ bit, nodeMap | bit, newContent);
+        }
+
+        private Node copyAndMigrateToInline(int bit, Object key, Object value) {
+
+            int oldIndex = content.length - 1 - nodeIndex(bit);
+            int newIndex = 2 * Integer.bitCount(dataMap & (bit - 1));
+            Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, newIndex);
+            newContent[newIndex] = key;
+            newContent[newIndex + 1] = value;
+            System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+            System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+            return new BitmapIndexedNode(dataMap | bit, nodeMap ^ bit, newContent);
+        }
+    }
+
+    /**
+     * Node holding the entries whose keys have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final Object[] content;
+
+        CollisionNode(Object[] content) {
+
+            this.content = content;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : content[index + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (content[index + 1] == value) {
+                    return this;
+                }
+                Object[] newContent = content.clone();
+                newContent[index + 1] = value;
+                return new CollisionNode(newContent);
+            }
+            change.added = true;
+            Object[] newContent = Arrays.copyOf(content, content.length + 2);
+            newContent[content.length] = key;
+            newContent[content.length + 1] = value;
+            return new CollisionNode(newContent);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            change.removed = true;
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+            return new CollisionNode(newContent);
+        }
+
+        @Override
+        boolean hasNodes() {
+
+            return false;
+        }
+
+        @Override
+        int nodeArity() {
+
+            return 0;
+        }
+
+        @Override
+        Node getNode(int index) {
+
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        int payloadArity() {
+
+            return content.length / 2;
+        }
+
+        @Override
+        Object getKey(int index) {
+
+            return content[2 * index];
+        }
+
+        @Override
+        Object getValue(int index) {
+
+            return content[2 * index + 1];
+        }
+
+        private int indexOf(Object key) {
+
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static Node mergeTwo(Object key0, Object value0, int hash0, Object key1, Object value1, int hash1,
+                                 int shift) {
+
+        if (shift >= HASH_BITS) {
+            return new CollisionNode(new Object[]{key0, value0, key1, value1});
+        }
+        int mask0 = mask(hash0, shift);
+        int mask1 = mask(hash1, shift);
+        if (mask0 != mask1) {
+            int dataMap = (1 << mask0) | (1 << mask1);
+            Object[] content = mask0 < mask1 ? new Object[]{key0, value0, key1, value1}
+                    : new Object[]{key1, value1, key0, value0};
+            return new BitmapIndexedNode(dataMap, 0, content);
+        }
+        Node subNode = mergeTwo(key0, value0, hash0, key1, value1, hash1, shift + BITS_PER_LEVEL);
+        return new BitmapIndexedNode(0, 1 << mask0, new Object[]{subNode});
+    }
+
+    /**
+     * Depth first iterator over the entries of the tree.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Deque<Node> pending = new ArrayDeque<>();
+        private Node current;
+        private int index;
+
+        EntryIterator(Node root) {
+
+            pending.push(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            while (current == null || index >= current.payloadArity()) {
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                current = pending.pop();
+                index = 0;
+                for (int i = 0; i < current.nodeArity(); i++) {
+                    pending.push(current.getNode(i));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<>((K) current.getKey(index),
+                    (V) current.getValue(index));
+            index++;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics;
+
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import io.envoyproxy.envoy.data.accesslog.v3.AccessLogCommon;
+import io.envoyproxy.envoy.data.accesslog.v3.HTTPAccessLogEntry;
+import io.envoyproxy.envoy.data.accesslog.v3.HTTPResponseProperties;
+import io.envoyproxy.envoy.config.core.v3.Metadata;
+import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.constants.AnalyticsConstants;
+import org.wso2.apk.enforcer.constants.MetadataConstants;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AccessLogIngestControllerTest {
+
+    @Test
+    public void testStreamsAreHeldBackWhenBusy() {
+        AccessLogIngestController controller = new AccessLogIngestController(1, 1, () -> 0);
+        AtomicInteger requestsA = new AtomicInteger();
+        AtomicInteger requestsB = new AtomicInteger();
+        AccessLogIngestController.IngestStream streamA = controller.openStream(requestsA::incrementAndGet);
+        AccessLogIngestController.IngestStream streamB = controller.openStream(requestsB::incrementAndGet);
+        Assert.assertEquals(1, requestsA.get());
+        Assert.assertEquals(1, requestsB.get());
+
+        // Both streams deliver a message, B completes while A is still being processed.
+        controller.messageReceived();
+        controller.messageReceived();
+        controller.messageProcessed(streamB);
+        Assert.assertEquals(1, requestsB.get());
+        Assert.assertTrue(controller.isOverloaded());
+
+        // Completing A resumes B, and A as well since nothing is being processed.
+        controller.messageProcessed(streamA);
+        Assert.assertEquals(2, requestsB.get());
+        Assert.assertEquals(2, requestsA.get());
+        Assert.assertFalse(controller.isOverloaded());
+
+        // A closed stream is not resumed.
+        controller.messageReceived();
+        controller.messageReceived();
+        controller.messageProcessed(streamB);
+        controller.closeStream(streamB);
+        controller.messageProcessed(streamA);
+        Assert.assertEquals(2, requestsB.get());
+        Assert.assertEquals(3, requestsA.get());
+        Assert.assertEquals(0, controller.getWaitingStreamCount());
+    }
+
+    @Test
+    public void testSamplingKeepsFaults() {
+        AtomicLong droppedEvents = new AtomicLong();
+        AccessLogIngestController controller = new AccessLogIngestController(1, 0, droppedEvents::get);
+        StreamAccessLogsMessage message = StreamAccessLogsMessage.newBuilder()
+                .setHttpLogs(StreamAccessLogsMessage.HTTPAccessLogEntries.newBuilder()
+                        .addLogEntry(entry("api1", AnalyticsConstants.UPSTREAM_SUCCESS_RESPONSE_DETAIL))
+                        .addLogEntry(entry("api1", "upstream_reset_before_response_started"))
+                        .addLogEntry(entry("api2", AnalyticsConstants.UPSTREAM_SUCCESS_RESPONSE_DETAIL)))
+                .build();
+
+        // Not overloaded, hence every entry is kept.
+        Assert.assertSame(message, controller.admit(message));
+        Assert.assertEquals(Long.valueOf(2), controller.getAcceptedCounts().get("api1"));
+
+        // Hold a stream back to overload the controller.
+        AccessLogIngestController.IngestStream busy = controller.openStream(() -> { });
+        AccessLogIngestController.IngestStream waiting = controller.openStream(() -> { });
+        controller.messageReceived();
+        controller.messageReceived();
+        controller.messageProcessed(waiting);
+        Assert.assertTrue(controller.isOverloaded());
+
+        StreamAccessLogsMessage admitted = controller.admit(message);
+        Assert.assertEquals(1, admitted.getHttpLogs().getLogEntryCount());
+        Assert.assertEquals("api1", admitted.getHttpLogs().getLogEntry(0).getCommonProperties().getMetadata()
+                .getFilterMetadataMap().get(MetadataConstants.EXT_AUTH_METADATA_CONTEXT_KEY).getFieldsMap()
+                .get(MetadataConstants.API_ID_KEY).getStringValue());
+        Assert.assertEquals(Long.valueOf(1), controller.getSampledCounts().get("api1"));
+        Assert.assertEquals(Long.valueOf(1), controller.getSampledCounts().get("api2"));
+
+        // Successful requests are dropped while the publisher drops events.
+        droppedEvents.incrementAndGet();
+        Assert.assertEquals(1, controller.admit(message).getHttpLogs().getLogEntryCount());
+        Assert.assertEquals(Long.valueOf(1), controller.getDroppedCounts().get("api2"));
+        Assert.assertEquals(Long.valueOf(4), controller.getAcceptedCounts().get("api1"));
+        controller.messageProcessed(busy);
+    }
+
+    private static HTTPAccessLogEntry entry(String apiId, String responseCodeDetails) {
+        Struct metadata = Struct.newBuilder()
+                .putFields(MetadataConstants.API_ID_KEY, Value.newBuilder().setStringValue(apiId).build())
+                .build();
+        return HTTPAccessLogEntry.newBuilder()
+                .setCommonProperties(AccessLogCommon.newBuilder().setMetadata(Metadata.newBuilder()
+                        .putFilterMetadata(MetadataConstants.EXT_AUTH_METADATA_CONTEXT_KEY, metadata)))
+                .setResponse(HTTPResponseProperties.newBuilder().setResponseCodeDetails(responseCodeDetails))
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.api;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.Filter;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.discovery.api.Api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+public class APIIndexTest {
+
+    private final API factoryAPI = api("apiindex.test", "/pets", "v1");
+
+    private static API api(String vhost, String basePath, String version) {
+        return new TestAPI(new APIConfig.Builder("test").vhost(vhost).basePath(basePath).version(version)
+                .apiDefinition((vhost + basePath + version).getBytes(StandardCharsets.UTF_8)).build());
+    }
+
+    @Test
+    public void testAdd() {
+        API petsV1 = api("localhost", "/pets", "v1");
+        API petsV2 = api("localhost", "/pets", "v2");
+        API orders = api("example.com", "/orders", "v1");
+        APIIndex index = APIIndex.EMPTY.toBuilder().add(petsV1).add(petsV2).build().toBuilder().add(orders).build();
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertSame(petsV1, index.get("localhost", "/pets", "v1"));
+        Assert.assertSame(petsV2, index.get("localhost", "/pets", "v2"));
+        Assert.assertSame(orders, index.get("example.com", "/orders", "v1"));
+        Assert.assertNull(index.get("example.com", "/pets", "v1"));
+        Assert.assertNull(index.get("localhost", "/orders", "v1"));
+        Assert.assertNull(index.get("localhost", "/pets", "v3"));
+        Assert.assertEquals(0, APIIndex.EMPTY.size());
+    }
+
+    @Test
+    public void testReplace() {
+        API petsV1 = api("localhost", "/pets", "v1");
+        API updatedPetsV1 = api("localhost", "/pets", "v1");
+        APIIndex index = new APIIndex.Builder().add(petsV1).build();
+        APIIndex updatedIndex = index.toBuilder().add(updatedPetsV1).build();
+
+        Assert.assertEquals(1, updatedIndex.size());
+        Assert.assertSame(updatedPetsV1, updatedIndex.get("localhost", "/pets", "v1"));
+        // Published indexes are never modified.
+        Assert.assertSame(petsV1, index.get("localhost", "/pets", "v1"));
+    }
+
+    @Test
+    public void testRemovePrunesEmptyMaps() {
+        API petsV1 = api("localhost", "/pets", "v1");
+        API petsV2 = api("localhost", "/pets", "v2");
+        API orders = api("localhost", "/orders", "v1");
+        APIIndex index = new APIIndex.Builder().add(petsV1).add(petsV2).add(orders).build();
+
+        APIIndex withoutPetsV1 = index.toBuilder().remove(petsV1).build();
+        Assert.assertNull(withoutPetsV1.get("localhost", "/pets", "v1"));
+        Assert.assertSame(petsV2, withoutPetsV1.get("localhost", "/pets", "v2"));
+        Assert.assertEquals(2, withoutPetsV1.size());
+
+        APIIndex withoutPets = withoutPetsV1.toBuilder().remove(petsV2).build();
+        Assert.assertNull(withoutPets.get("localhost", "/pets", "v2"));
+        Assert.assertEquals(Collections.singletonList(orders), withoutPets.values());
+
+        APIIndex emptyIndex = withoutPets.toBuilder().remove(orders).build();
+        Assert.assertNull(emptyIndex.get("localhost", "/orders", "v1"));
+        Assert.assertEquals(0, emptyIndex.size());
+        Assert.assertTrue(emptyIndex.values().isEmpty());
+
+        // Removing an API which is not in the index leaves the index as it is.
+        APIIndex unchanged = withoutPets.toBuilder().remove(petsV1).remove(api("example.com", "/pets", "v1"))
+                .build();
+        Assert.assertSame(orders, unchanged.get("localhost", "/orders", "v1"));
+        Assert.assertEquals(1, unchanged.size());
+    }
+
+    @Test
+    public void testAPIFactoryAddAndRemove() {
+        APIFactory.getInstance().addApi(factoryAPI);
+        Assert.assertArrayEquals(factoryAPI.getAPIConfig().getApiDefinition(),
+                APIFactory.getInstance().getAPIDefinition("/pets", "v1", "apiindex.test"));
+
+        APIFactory.getInstance().removeApi(factoryAPI);
+        Assert.assertNull(APIFactory.getInstance().getAPIDefinition("/pets", "v1", "apiindex.test"));
+    }
+
+    @After
+    public void removeFactoryAPI() {
+        // The factory is shared by the tests, hence the API is removed even if an assertion fails.
+        APIFactory.getInstance().removeApi(factoryAPI);
+    }
+
+    private static class TestAPI implements API {
+
+        private final APIConfig apiConfig;
+
+        TestAPI(APIConfig apiConfig) {
+            this.apiConfig = apiConfig;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String init(Api api) {
+            return apiConfig.getBasePath();
+        }
+
+        @Override
+        public ResponseObject process(RequestContext requestContext) {
+            return null;
+        }
+
+        @Override
+        public APIConfig getAPIConfig() {
+            return apiConfig;
+        }
+
+        @Override
+        public ResourceIndex getResourceIndex() {
+            return null;
+        }
+    }
+}
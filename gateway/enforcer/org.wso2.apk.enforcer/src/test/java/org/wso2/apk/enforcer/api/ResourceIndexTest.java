@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResourceIndexTest {
+
+    private static ResourceConfig resource(String path, ResourceConfig.HttpMethods method) {
+        ResourceConfig resourceConfig = new ResourceConfig();
+        resourceConfig.setPath(path);
+        resourceConfig.setMethod(method);
+        return resourceConfig;
+    }
+
+    @Test
+    public void testGetMatchedResource() {
+        List<ResourceConfig> resources = new ArrayList<>();
+        ResourceConfig getPets = resource("/pets", ResourceConfig.HttpMethods.GET);
+        ResourceConfig postPets = resource("/pets", ResourceConfig.HttpMethods.POST);
+        ResourceConfig getPet = resource("/pets/{petId}", ResourceConfig.HttpMethods.GET);
+        resources.add(getPets);
+        resources.add(postPets);
+        resources.add(getPet);
+        ResourceIndex resourceIndex = ResourceIndex.build(resources);
+
+        Assert.assertSame(getPets, resourceIndex.getMatchedResource("/pets", "GET"));
+        Assert.assertSame(postPets, resourceIndex.getMatchedResource("/pets", "POST"));
+        Assert.assertSame(getPet, resourceIndex.getMatchedResource("/pets/{petId}", "GET"));
+        Assert.assertNull(resourceIndex.getMatchedResource("/pets/{petId}", "DELETE"));
+        Assert.assertNull(resourceIndex.getMatchedResource("/owners", "GET"));
+        Assert.assertNull(resourceIndex.getMatchedResource(null, "GET"));
+    }
+
+    @Test
+    public void testGetMatchedResourceWithoutMethod() {
+        List<ResourceConfig> resources = new ArrayList<>();
+        ResourceConfig postPets = resource("/pets", ResourceConfig.HttpMethods.POST);
+        resources.add(postPets);
+        resources.add(resource("/pets", ResourceConfig.HttpMethods.GET));
+        ResourceIndex resourceIndex = ResourceIndex.build(resources);
+
+        Assert.assertSame(postPets, resourceIndex.getMatchedResource("/pets", null));
+    }
+
+    @Test
+    public void testGetMatchedResourceWithUnknownMethod() {
+        List<ResourceConfig> resources = new ArrayList<>();
+        resources.add(resource("/pets", ResourceConfig.HttpMethods.GET));
+        ResourceIndex resourceIndex = ResourceIndex.build(resources);
+
+        Assert.assertNull(resourceIndex.getMatchedResource("/pets", "TRACE"));
+    }
+}
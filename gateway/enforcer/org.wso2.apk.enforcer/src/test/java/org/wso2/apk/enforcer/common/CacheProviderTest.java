@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.google.common.cache.Cache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
+import org.wso2.apk.enforcer.config.dto.CacheDto;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CacheProviderTest {
+
+    private static final int CACHE_SIZE = 1000;
+    private static final int VALID_TOKENS = 5000;
+    private static final int REQUESTS = 200000;
+
+    /**
+     * Replays a trace of valid tokens with a Zipf distribution, with and without random invalid tokens mixed in, and
+     * checks that the invalid tokens do not lower the hit ratio of the valid ones.
+     */
+    @Test
+    public void testInvalidTokensDoNotEvictValidTokens() {
+        double hitRatio = replay(0);
+        double hitRatioUnderFlood = replay(0.5);
+        Assert.assertTrue("Hit ratio " + hitRatio, hitRatio > 0.6);
+        Assert.assertEquals(hitRatio, hitRatioUnderFlood, 0.02);
+    }
+
+    @Test
+    public void testPerCacheSettings() {
+        CacheDto cacheDto = new CacheDto();
+        cacheDto.setMaximumSize(CACHE_SIZE);
+        cacheDto.setExpiryTime(15);
+        cacheDto.setNegativeCacheMaximumSize(CACHE_SIZE);
+        cacheDto.setNegativeCacheExpiryTime(5);
+        cacheDto.setMaximumSize(CacheProvider.GATEWAY_API_KEY_CACHE, 10);
+        cacheDto.setExpiryTime(CacheProvider.INVALID_TOKEN_CACHE, 1);
+        CacheProvider cacheProvider = new CacheProvider();
+        cacheProvider.init(cacheDto);
+        for (int i = 0; i < 100; i++) {
+            cacheProvider.getGatewayAPIKeyCache().put("key-" + i, "value");
+            cacheProvider.getGatewayInternalKeyCache().put("key-" + i, "value");
+        }
+
+        Assert.assertTrue(cacheProvider.getSizes().get(CacheProvider.GATEWAY_API_KEY_CACHE) <= 10);
+        Assert.assertEquals(100, cacheProvider.getSizes().get(CacheProvider.GATEWAY_INTERNAL_KEY_CACHE).longValue());
+        Assert.assertEquals(10, cacheDto.getMaximumSize(CacheProvider.GATEWAY_API_KEY_CACHE));
+        Assert.assertEquals(CACHE_SIZE, cacheDto.getMaximumSize(CacheProvider.GATEWAY_KEY_CACHE));
+        Assert.assertEquals(1, cacheDto.getNegativeCacheExpiryTime(CacheProvider.INVALID_TOKEN_CACHE));
+        Assert.assertEquals(5, cacheDto.getNegativeCacheExpiryTime(CacheProvider.INVALID_GATEWAY_API_KEY_CACHE));
+    }
+
+    private static double replay(double invalidTokenRatio) {
+        CacheDto cacheDto = new CacheDto();
+        cacheDto.setMaximumSize(CACHE_SIZE);
+        cacheDto.setExpiryTime(15);
+        cacheDto.setNegativeCacheMaximumSize(CACHE_SIZE);
+        cacheDto.setNegativeCacheExpiryTime(5);
+        CacheProvider cacheProvider = new CacheProvider();
+        cacheProvider.init(cacheDto);
+        Cache<String, JWTValidationInfo> validCache = cacheProvider.getGatewayKeyCache();
+        Cache<String, Boolean> invalidCache = cacheProvider.getInvalidTokenCache();
+
+        double[] cumulativeWeights = new double[VALID_TOKENS];
+        double total = 0;
+        for (int i = 0; i < VALID_TOKENS; i++) {
+            total += 1.0 / (i + 1);
+            cumulativeWeights[i] = total;
+        }
+        Random random = new Random(42);
+        long validRequests = 0;
+        long validHits = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (random.nextDouble() < invalidTokenRatio) {
+                String token = "invalid-" + random.nextLong();
+                if (validCache.getIfPresent(token) == null && invalidCache.getIfPresent(token) == null) {
+                    invalidCache.put(token, true);
+                }
+                continue;
+            }
+            int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * total);
+            String token = "valid-" + (index < 0 ? -index - 1 : index);
+            validRequests++;
+            if (validCache.getIfPresent(token) != null) {
+                validHits++;
+            } else {
+                validCache.put(token, new JWTValidationInfo());
+            }
+        }
+        Assert.assertTrue(cacheProvider.getSizes().get(CacheProvider.INVALID_TOKEN_CACHE) <= CACHE_SIZE);
+        Assert.assertEquals(validHits, cacheProvider.getStats().get(CacheProvider.GATEWAY_KEY_CACHE).hitCount());
+        return (double) validHits / validRequests;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.graphql;
+
+import com.google.common.hash.Hashing;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.commons.model.GraphQLSchemaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class GraphQLPersistedQueryStoreTest {
+
+    private static final String QUERY = "{ book { title } }";
+
+    @Test
+    public void testQueriesAreResolvedByHash() throws EnforcerException {
+        GraphQLQueryCache queryCache = queryCache();
+        GraphQLPersistedQueryStore store = new GraphQLPersistedQueryStore(queryCache);
+        Assert.assertNull(store.get(sha256(QUERY)));
+
+        store.register(sha256(QUERY), QUERY);
+        Assert.assertEquals(QUERY, store.get(sha256(QUERY)));
+        Assert.assertEquals(QUERY, store.get(sha256(QUERY).toUpperCase()));
+        // The query was analysed on registration.
+        Assert.assertEquals(1, queryCache.size());
+    }
+
+    @Test
+    public void testOnlyVerifiedValidQueriesAreRegistered() throws EnforcerException {
+        GraphQLPersistedQueryStore store = new GraphQLPersistedQueryStore(queryCache());
+        try {
+            store.register(sha256("{ book { id } }"), QUERY);
+            Assert.fail("A query with a mismatching hash must be rejected");
+        } catch (EnforcerException e) {
+            Assert.assertEquals(0, store.size());
+        }
+        store.register(sha256("{ book { id } }"), "{ book { id } }");
+        store.register(sha256("{ book { "), "{ book { ");
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testStoreIsBoundedByQueryLength() throws EnforcerException {
+        GraphQLPersistedQueryStore store = new GraphQLPersistedQueryStore(queryCache(), QUERY.length());
+        String otherQuery = "{ book { title title } }";
+        store.register(sha256(QUERY), QUERY);
+        store.register(sha256(otherQuery), otherQuery);
+        Assert.assertNull(store.get(sha256(otherQuery)));
+        Assert.assertEquals(QUERY, store.get(sha256(QUERY)));
+    }
+
+    @Test
+    public void testNotFoundResponseIsGraphQLError() {
+        JSONObject error = new JSONObject(GraphQLPayloadUtils.getPersistedQueryNotFoundResponse())
+                .getJSONArray("errors").getJSONObject(0);
+        Assert.assertEquals("PersistedQueryNotFound", error.getString("message"));
+        Assert.assertEquals("PERSISTED_QUERY_NOT_FOUND", error.getJSONObject("extensions").getString("code"));
+    }
+
+    private static String sha256(String query) {
+        return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+    }
+
+    private static GraphQLQueryCache queryCache() {
+        TypeDefinitionRegistry registry = new SchemaParser().parse(
+                "type Query { book: Book } type Book { title: String }");
+        return new GraphQLQueryCache(new GraphQLSchemaDTO(
+                UnExecutableSchemaGenerator.makeUnExecutableSchema(registry), registry, Collections.emptyList()));
+    }
+}
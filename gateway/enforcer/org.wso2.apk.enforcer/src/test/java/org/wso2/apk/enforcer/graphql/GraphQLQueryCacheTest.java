@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.graphql;
+
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.graphql.FieldComplexityCalculatorImpl;
+import org.wso2.apk.enforcer.commons.graphql.QueryAnalyzer;
+import org.wso2.apk.enforcer.commons.model.GraphQLCustomComplexityInfoDTO;
+import org.wso2.apk.enforcer.commons.model.GraphQLSchemaDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class GraphQLQueryCacheTest {
+
+    private static final String SCHEMA = "type Query { hero(first: Int): [Character] book(id: ID!): Book }\n"
+            + "type Mutation { addBook(title: String): Book }\n"
+            + "type Character { name: String friends(limit: Int): [Character] }\n"
+            + "type Book { title: String }";
+    private static final String QUERY = "query { hero(first: 5) { name friends(limit: 2) { name friends { name } } } }";
+    private static final List<GraphQLCustomComplexityInfoDTO> COMPLEXITIES = Collections.singletonList(
+            new GraphQLCustomComplexityInfoDTO("Character", "friends", 3));
+
+    @Test
+    public void testDepthAndComplexityMatchInstrumentation() {
+        GraphQLSchemaDTO schemaDTO = schemaDTO();
+        GraphQLQueryCache.AnalyzedQuery analyzedQuery = new GraphQLQueryCache(schemaDTO).get(QUERY);
+        Assert.assertNull(analyzedQuery.getValidationErrors());
+        Assert.assertNull(analyzedQuery.getAnalysisError());
+        Assert.assertEquals("QUERY", analyzedQuery.getOperationType());
+        Assert.assertEquals(Collections.singletonList("hero"), analyzedQuery.getOperationList());
+        Assert.assertEquals(4, analyzedQuery.getDepth());
+        Assert.assertEquals(90, analyzedQuery.getComplexity());
+
+        // The limits are exceeded exactly where the graphql-java instrumentations start rejecting the query.
+        QueryAnalyzer queryAnalyzer = new QueryAnalyzer(schemaDTO.getGraphQLSchema());
+        Assert.assertTrue(queryAnalyzer.analyseQueryDepth(4, QUERY).isSuccess());
+        Assert.assertFalse(queryAnalyzer.analyseQueryDepth(3, QUERY).isSuccess());
+        Assert.assertTrue(queryAnalyzer.analyseQueryComplexity(90, QUERY,
+                new FieldComplexityCalculatorImpl(COMPLEXITIES)).isSuccess());
+        Assert.assertFalse(queryAnalyzer.analyseQueryComplexity(89, QUERY,
+                new FieldComplexityCalculatorImpl(COMPLEXITIES)).isSuccess());
+    }
+
+    @Test
+    public void testQueriesDifferingInFormattingShareEntry() {
+        GraphQLQueryCache queryCache = new GraphQLQueryCache(schemaDTO());
+        GraphQLQueryCache.AnalyzedQuery analyzedQuery = queryCache.get(QUERY);
+        Assert.assertSame(analyzedQuery, queryCache.get("query {\n  hero(first: 5) {\n    name, # the name\n"
+                + "    friends(limit: 2) {name friends {name}}\n  }\n}\n"));
+        Assert.assertNotSame(analyzedQuery, queryCache.get(QUERY.replace("first: 5", "first: 6")));
+        Assert.assertEquals(2, queryCache.size());
+
+        // White space in string values is significant.
+        Assert.assertEquals("mutation{addBook(title:\"a  b\"){title}}",
+                GraphQLQueryCache.normalize("mutation { addBook(title: \"a  b\") { title } }"));
+        Assert.assertEquals("{a(x:\"\\\" ,\" y:1 2)}", GraphQLQueryCache.normalize("{ a(x: \"\\\" ,\", y: 1, 2) }"));
+    }
+
+    @Test
+    public void testInvalidQueriesAreCached() {
+        GraphQLSchemaDTO schemaDTO = schemaDTO();
+        GraphQLQueryCache queryCache = new GraphQLQueryCache(schemaDTO);
+        GraphQLQueryCache.AnalyzedQuery invalidQuery = queryCache.get("{ villain { name } }");
+        Assert.assertNotNull(invalidQuery.getValidationErrors());
+        Assert.assertSame(invalidQuery, queryCache.get("{villain{name}}"));
+
+        // As with the instrumentations, a query requiring variables cannot be measured without them.
+        String query = "query ($id: ID!) { book(id: $id) { title } }";
+        GraphQLQueryCache.AnalyzedQuery analyzedQuery = queryCache.get(query);
+        Assert.assertNull(analyzedQuery.getValidationErrors());
+        Assert.assertNotNull(analyzedQuery.getAnalysisError());
+        Assert.assertFalse(new QueryAnalyzer(schemaDTO.getGraphQLSchema()).analyseQueryDepth(10, query).isSuccess());
+    }
+
+    private static GraphQLSchemaDTO schemaDTO() {
+        TypeDefinitionRegistry registry = new SchemaParser().parse(SCHEMA);
+        GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
+        return new GraphQLSchemaDTO(schema, registry, Arrays.asList(COMPLEXITIES.get(0)));
+    }
+}
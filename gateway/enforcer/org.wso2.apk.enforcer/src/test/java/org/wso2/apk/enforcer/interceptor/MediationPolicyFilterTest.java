@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.Policy;
+import org.wso2.apk.enforcer.commons.model.PolicyConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MediationPolicyFilterTest {
+
+    @Test
+    public void testChainedPoliciesApplied() {
+        ArrayList<Policy> policies = new ArrayList<>();
+        policies.add(policy("RENAME_HEADER", "currentHeaderName", "X-Old-Header", "updatedHeaderName", "x-new-header"));
+        policies.add(policy("ADD_QUERY", "queryParamName", "version", "queryParamValue", "v2"));
+        policies.add(policy("REMOVE_QUERY", "queryParamName", "debug"));
+        policies.add(policy("REWRITE_RESOURCE_PATH", "x-uri-mapping",
+                "/pets?petId={uri.var.petId}&source=gateway&owner={uri.var.ownerId}"));
+        policies.add(policy("REWRITE_RESOURCE_METHOD", "updatedMethod", "POST"));
+        ResourceConfig resourceConfig = resource("/pets/{petId}", policies);
+        APIConfig apiConfig = new APIConfig.Builder("PetStore").basePath("/petstore")
+                .resources(Collections.singletonList(resourceConfig)).build();
+        MediationPolicyFilter filter = new MediationPolicyFilter();
+        filter.init(apiConfig, null);
+
+        for (int i = 0; i < 2; i++) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("x-old-header", "value");
+            RequestContext requestContext = new RequestContext.Builder("/petstore/pets/42?debug=true")
+                    .matchedAPI(apiConfig).matchedResourceConfigs(new ArrayList<>(Collections.singletonList(
+                            resourceConfig))).pathTemplate("/pets/{petId}").requestMethod("GET").headers(headers)
+                    .build();
+            Assert.assertTrue(filter.handleRequest(requestContext));
+
+            Assert.assertEquals(Collections.singletonList("x-old-header"), requestContext.getRemoveHeaders());
+            Assert.assertEquals("value", requestContext.getAddHeaders().get("x-new-header"));
+            Assert.assertEquals("POST", requestContext.getAddHeaders().get(":method"));
+            Assert.assertEquals(Collections.singletonList("debug"), requestContext.getQueryParamsToRemove());
+            Assert.assertTrue(requestContext.isRemoveAllQueryParams());
+            Map<String, String> expectedQueryParams = new HashMap<>();
+            expectedQueryParams.put("version", "v2");
+            expectedQueryParams.put("petId", "42");
+            expectedQueryParams.put("source", "gateway");
+            Assert.assertEquals(expectedQueryParams, requestContext.getQueryParamsToAdd());
+            Assert.assertEquals("GET_to_POST", requestContext.getMetadataMap().get("method-rewrite"));
+        }
+    }
+
+    @Test
+    public void testUnsupportedPolicyRejectsRequest() {
+        ArrayList<Policy> policies = new ArrayList<>();
+        policies.add(policy("UNKNOWN_ACTION"));
+        policies.add(policy("ADD_QUERY", "queryParamName", "version", "queryParamValue", "v2"));
+        ResourceConfig resourceConfig = resource("/pets", policies);
+        APIConfig apiConfig = new APIConfig.Builder("PetStore").basePath("/petstore")
+                .resources(Collections.singletonList(resourceConfig)).build();
+        MediationPolicyFilter filter = new MediationPolicyFilter();
+        filter.init(apiConfig, null);
+
+        RequestContext requestContext = new RequestContext.Builder("/petstore/pets").matchedAPI(apiConfig)
+                .matchedResourceConfigs(new ArrayList<>(Collections.singletonList(resourceConfig)))
+                .pathTemplate("/pets").requestMethod("GET").headers(new HashMap<>()).build();
+        Assert.assertFalse(filter.handleRequest(requestContext));
+        Assert.assertTrue(requestContext.getQueryParamsToAdd().isEmpty());
+    }
+
+    private static ResourceConfig resource(String path, ArrayList<Policy> requestPolicies) {
+        ResourceConfig resourceConfig = new ResourceConfig();
+        resourceConfig.setPath(path);
+        resourceConfig.setMethod(ResourceConfig.HttpMethods.GET);
+        PolicyConfig policyConfig = new PolicyConfig();
+        policyConfig.setRequest(requestPolicies);
+        resourceConfig.setPolicyConfig(policyConfig);
+        return resourceConfig;
+    }
+
+    private static Policy policy(String action, String... parameters) {
+        Map<String, String> parameterMap = new HashMap<>();
+        for (int i = 0; i < parameters.length; i += 2) {
+            parameterMap.put(parameters[i], parameters[i + 1]);
+        }
+        return new Policy(action, parameterMap);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor.opa;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.opa.OPASecurityException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OPADecisionCacheTest {
+
+    private static final String POLICY_URL = "https://opa.example.com/v1/data/authz/allow";
+    private static final String PAYLOAD = "{\"input\":{\"path\":\"/pets\",\"method\":\"GET\"}}";
+    private static final String RESPONSE = "{\"result\":true}";
+
+    @Test
+    public void testResponsesExpireWithTTL() {
+        AtomicLong now = new AtomicLong(1000);
+        OPADecisionCache cache = new OPADecisionCache(100, now::get);
+        cache.put(POLICY_URL, PAYLOAD, RESPONSE, 500);
+        Assert.assertEquals(RESPONSE, cache.get(POLICY_URL, PAYLOAD));
+        Assert.assertNull(cache.get(POLICY_URL, "{\"input\":{\"path\":\"/pets\",\"method\":\"POST\"}}"));
+        Assert.assertNull(cache.get(POLICY_URL + "/deny", PAYLOAD));
+
+        now.set(1499);
+        Assert.assertEquals(RESPONSE, cache.get(POLICY_URL, PAYLOAD));
+        now.set(1500);
+        Assert.assertNull(cache.get(POLICY_URL, PAYLOAD));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, cache.stats().hitCount());
+        Assert.assertEquals(3, cache.stats().missCount());
+    }
+
+    @Test
+    public void testDefaultRequestGeneratorHitsCacheAcrossRequests() throws OPASecurityException {
+        OPADefaultRequestGenerator generator = new OPADefaultRequestGenerator();
+        OPADecisionCache cache = new OPADecisionCache(100, () -> 1000);
+        Map<String, String> additionalParameters = new HashMap<>();
+
+        RequestContext first = requestContext("1b4e28ba-2fa1-11d2-883f-0016d3cca427", "alice");
+        String firstRequest = generator.generateRequest("authz", "allow", additionalParameters, first);
+        Assert.assertTrue(firstRequest.contains("1b4e28ba-2fa1-11d2-883f-0016d3cca427"));
+        cache.put(POLICY_URL, generator.generateDecisionCacheKey("authz", "allow", additionalParameters, first,
+                firstRequest), RESPONSE, 500);
+
+        // The request ID and trace headers of each request are left out of the key.
+        RequestContext second = requestContext("6fa459ea-ee8a-3ca4-894e-db77e160355e", "alice");
+        String secondRequest = generator.generateRequest("authz", "allow", additionalParameters, second);
+        Assert.assertNotEquals(firstRequest, secondRequest);
+        Assert.assertEquals(RESPONSE, cache.get(POLICY_URL, generator.generateDecisionCacheKey("authz", "allow",
+                additionalParameters, second, secondRequest)));
+
+        // Other headers are part of the key, as the policy may decide on them.
+        RequestContext other = requestContext("6fa459ea-ee8a-3ca4-894e-db77e160355e", "bob");
+        Assert.assertNull(cache.get(POLICY_URL, generator.generateDecisionCacheKey("authz", "allow",
+                additionalParameters, other, generator.generateRequest("authz", "allow", additionalParameters,
+                        other))));
+        Assert.assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    public void testResponsesNotCachedWithoutTTL() {
+        OPADecisionCache cache = new OPADecisionCache(100, () -> 1000);
+        cache.put(POLICY_URL, PAYLOAD, RESPONSE, 0);
+        Assert.assertNull(cache.get(POLICY_URL, PAYLOAD));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static RequestContext requestContext(String requestId, String user) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-request-id", requestId);
+        headers.put("traceparent", "00-" + requestId.replace("-", "") + "-b7ad6b7169203331-01");
+        headers.put("x-user", user);
+        APIConfig apiConfig = new APIConfig.Builder("PetStore").version("1.0.0").basePath("/petstore").build();
+        return new RequestContext.Builder("/petstore/pets").matchedAPI(apiConfig).pathTemplate("/pets")
+                .requestMethod("GET").headers(headers).build();
+    }
+}
@@ -49,13 +49,13 @@ import org.wso2.apk.enforcer.constants.APISecurityConstants;
 import org.wso2.apk.enforcer.security.KeyValidator;
 import org.wso2.apk.enforcer.security.jwt.Oauth2Authenticator;
 import org.wso2.apk.enforcer.security.jwt.validator.JWTValidator;
+import org.wso2.apk.enforcer.server.RevokedTokenIndex;
 import org.wso2.apk.enforcer.server.RevokedTokenRedisClient;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataHolder;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStore;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.UUID;
 
@@ -64,7 +64,7 @@ public class Oauth2ValidatorTest {
     @Before
     public void setup() {
 
-        RevokedTokenRedisClient.setRevokedTokens(new HashSet<>());
+        RevokedTokenRedisClient.setRevokedTokens(new RevokedTokenIndex());
     }
 
     @Test
@@ -164,9 +164,9 @@ public class Oauth2ValidatorTest {
 
     @Test
     public void testRevokedToken() throws APISecurityException, EnforcerException {
-        HashSet<String> revokedTokens = new HashSet<>();
+        RevokedTokenIndex revokedTokens = new RevokedTokenIndex();
         String revokedTokenJTI = "b8938768-23fd-4dec-8b70-bed45eb7c33d";
-        revokedTokens.add(revokedTokenJTI);
+        revokedTokens.add(revokedTokenJTI, System.currentTimeMillis() / 1000L + 3600);
         RevokedTokenRedisClient.setRevokedTokens(revokedTokens);
         String organization = "org1";
         String environment = "development";
@@ -262,7 +262,7 @@ public class Oauth2ValidatorTest {
                         APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
             }
         } finally {
-            RevokedTokenRedisClient.setRevokedTokens(new HashSet<>());
+            RevokedTokenRedisClient.setRevokedTokens(new RevokedTokenIndex());
         }
     }
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.apk.enforcer.util.JWKSClient;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JWKSCacheTest {
+
+    @Test
+    public void testKeyIDMissRateLimit() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("key1").generate();
+        JWKSClient jwksClient = Mockito.mock(JWKSClient.class);
+        Mockito.when(jwksClient.getJWKSResponse())
+                .thenReturn(new JWKSClient.JWKSResponse(new JWKSet(rsaKey.toPublicJWK()), -1));
+        AtomicLong clock = new AtomicLong(1000);
+        JWKSCache jwksCache = new JWKSCache(jwksClient, clock::get);
+
+        Assert.assertNotNull(jwksCache.getVerifier("key1"));
+        Assert.assertNull(jwksCache.getVerifier("unknown"));
+        Assert.assertNull(jwksCache.getVerifier("unknown"));
+        Assert.assertNotNull(jwksCache.getVerifier("key1"));
+        Mockito.verify(jwksClient, Mockito.times(1)).getJWKSResponse();
+
+        clock.addAndGet(JWKSCache.MIN_REFRESH_INTERVAL_MILLIS);
+        Assert.assertNull(jwksCache.getVerifier("unknown"));
+        Mockito.verify(jwksClient, Mockito.times(2)).getJWKSResponse();
+    }
+
+    @Test
+    public void testKeyIDMissDoesNotWaitForBackgroundRefresh() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("key1").generate();
+        JWKSClient.JWKSResponse response = new JWKSClient.JWKSResponse(new JWKSet(rsaKey.toPublicJWK()), -1);
+        CountDownLatch release = new CountDownLatch(1);
+        JWKSClient jwksClient = Mockito.mock(JWKSClient.class);
+        Mockito.when(jwksClient.getJWKSResponse()).thenReturn(response).thenAnswer(invocation -> {
+            release.await();
+            return response;
+        });
+        AtomicLong clock = new AtomicLong(1000);
+        JWKSCache jwksCache = new JWKSCache(jwksClient, clock::get);
+        Assert.assertNotNull(jwksCache.getVerifier("key1"));
+
+        // The TTL has passed, so this lookup starts a background refresh which blocks until released.
+        clock.addAndGet(JWKSCache.DEFAULT_TTL_MILLIS);
+        Assert.assertNotNull(jwksCache.getVerifier("key1"));
+        try {
+            long startTime = System.nanoTime();
+            Assert.assertNull(jwksCache.getVerifier("unknown"));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 1000);
+        } finally {
+            release.countDown();
+        }
+        Mockito.verify(jwksClient, Mockito.timeout(5000).times(2)).getJWKSResponse();
+    }
+
+    @Test
+    public void testTTL() {
+        Assert.assertEquals(JWKSCache.DEFAULT_TTL_MILLIS, JWKSCache.getTTLMillis(-1));
+        Assert.assertEquals(JWKSCache.MIN_REFRESH_INTERVAL_MILLIS, JWKSCache.getTTLMillis(0));
+        Assert.assertEquals(TimeUnit.HOURS.toMillis(1), JWKSCache.getTTLMillis(3600));
+        Assert.assertEquals(JWKSCache.MAX_TTL_MILLIS, JWKSCache.getTTLMillis(TimeUnit.DAYS.toSeconds(7)));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.oauth;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IntrospectionCacheTest {
+
+    private static final String TOKEN = "c2e4b1f0-6a1d-3c8f-9e52-7d4a0b6f1e23";
+
+    @Test
+    public void testActiveTokensExpireWithToken() throws IOException {
+        AtomicLong now = new AtomicLong(1000);
+        AtomicInteger introspections = new AtomicInteger();
+        IntrospectionCache cache = new IntrospectionCache(100, 60000, 1000, now::get);
+        IntrospectionCache.Introspector introspector = token -> {
+            introspections.incrementAndGet();
+            return introspectInfo(true, 3);
+        };
+        Assert.assertTrue(cache.get(TOKEN, introspector).isActive());
+        now.set(2999);
+        Assert.assertTrue(cache.get(TOKEN, introspector).isActive());
+        Assert.assertEquals(1, introspections.get());
+
+        now.set(3000);
+        cache.get(TOKEN, introspector);
+        Assert.assertEquals(2, introspections.get());
+        Assert.assertEquals(1, cache.stats().hitCount());
+        Assert.assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    public void testInactiveTokensCachedForNegativeTTL() throws IOException {
+        AtomicLong now = new AtomicLong(1000);
+        AtomicInteger introspections = new AtomicInteger();
+        IntrospectionCache cache = new IntrospectionCache(100, 60000, 500, now::get);
+        IntrospectionCache.Introspector introspector = token -> {
+            introspections.incrementAndGet();
+            return introspectInfo(false, 0);
+        };
+        Assert.assertFalse(cache.get(TOKEN, introspector).isActive());
+        now.set(1499);
+        Assert.assertFalse(cache.get(TOKEN, introspector).isActive());
+        Assert.assertEquals(1, introspections.get());
+        now.set(1500);
+        cache.get(TOKEN, introspector);
+        Assert.assertEquals(2, introspections.get());
+    }
+
+    @Test
+    public void testFailuresNotCached() throws IOException {
+        IntrospectionCache cache = new IntrospectionCache(100, 60000, 500, () -> 1000);
+        try {
+            cache.get(TOKEN, token -> {
+                throw new IOException("Connection refused");
+            });
+            Assert.fail("Expected the introspection failure to be thrown");
+        } catch (IOException e) {
+            Assert.assertEquals("Connection refused", e.getMessage());
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertTrue(cache.get(TOKEN, token -> introspectInfo(true, 0)).isActive());
+    }
+
+    @Test
+    public void testConcurrentLookupsShareIntrospection() throws Exception {
+        IntrospectionCache cache = new IntrospectionCache(100, 60000, 500, System::currentTimeMillis);
+        AtomicInteger introspections = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IntrospectionCache.Introspector introspector = token -> {
+            introspections.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return introspectInfo(true, 0);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IntrospectInfo> first = executor.submit(() -> cache.get(TOKEN, introspector));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<IntrospectInfo> second = executor.submit(() -> cache.get(TOKEN, introspector));
+            Future<IntrospectInfo> third = executor.submit(() -> cache.get(TOKEN, introspector));
+            // Gives the other lookups time to join the running introspection.
+            Thread.sleep(100);
+            release.countDown();
+            Assert.assertSame(first.get(), second.get());
+            Assert.assertSame(first.get(), third.get());
+            Assert.assertEquals(1, introspections.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static IntrospectInfo introspectInfo(boolean active, long expiry) {
+        IntrospectInfo introspectInfo = new IntrospectInfo();
+        introspectInfo.setActive(active);
+        introspectInfo.setClientId("client");
+        introspectInfo.setExpiry(expiry);
+        return introspectInfo;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RevokedTokenIndexTest {
+
+    @Test
+    public void testExpiry() {
+        RevokedTokenIndex index = new RevokedTokenIndex(1000);
+        index.add("token1", 1010);
+        index.add("token2", 1020);
+        index.add("token3", 900);
+        Assert.assertTrue(index.isRevoked("token1"));
+        Assert.assertTrue(index.isRevoked("token3"));
+        Assert.assertFalse(index.isRevoked("token4"));
+        Assert.assertFalse(index.isRevoked(null));
+
+        Assert.assertEquals(1, index.expire(1001));
+        Assert.assertFalse(index.isRevoked("token3"));
+        Assert.assertEquals(1, index.expire(1015));
+        Assert.assertFalse(index.isRevoked("token1"));
+        Assert.assertTrue(index.isRevoked("token2"));
+        Assert.assertEquals(1, index.expire(100000));
+        Assert.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testReAddWithNewExpiry() {
+        RevokedTokenIndex index = new RevokedTokenIndex(1000);
+        index.add("token1", 1010);
+        index.add("token1", 1030);
+        Assert.assertEquals(0, index.expire(1020));
+        Assert.assertTrue(index.isRevoked("token1"));
+        Assert.assertEquals(1, index.expire(1030));
+        Assert.assertFalse(index.isRevoked("token1"));
+    }
+}
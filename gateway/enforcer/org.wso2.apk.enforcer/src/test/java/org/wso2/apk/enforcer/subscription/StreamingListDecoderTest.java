@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamingListDecoderTest {
+
+    @Test
+    public void testDecodeList() throws IOException {
+        String json = "{\"total\": 2, \"list\": [{\"uuid\": \"app1\", \"organizationId\": \"org1\"}, " +
+                "{\"uuid\": \"app2\", \"organizationId\": \"org2\", \"attributes\": {\"k\": \"v\"}}], \"next\": null}";
+        List<ApplicationDto> applications = new ArrayList<>();
+        int count = StreamingListDecoder.decode(new StringReader(json), ApplicationDto.class, applications::add);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals("app1", applications.get(0).getUuid());
+        Assert.assertEquals("org2", applications.get(1).getOrganizationId());
+        Assert.assertEquals("v", applications.get(1).getAttributes().get("k"));
+    }
+
+    @Test
+    public void testDecodeEmptyList() throws IOException {
+        List<ApplicationDto> applications = new ArrayList<>();
+        Assert.assertEquals(0, StreamingListDecoder.decode(new StringReader("{\"list\": []}"), ApplicationDto.class,
+                applications::add));
+        Assert.assertEquals(0, StreamingListDecoder.decode(new StringReader("{\"list\": null}"), ApplicationDto.class,
+                applications::add));
+        Assert.assertTrue(applications.isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.models.Application;
+import org.wso2.apk.enforcer.models.ApplicationMapping;
+
+public class SubscriptionDataSnapshotTest {
+
+    private static ApplicationMapping applicationMapping(String applicationUUID, String subscriptionUUID) {
+        ApplicationMapping applicationMapping = new ApplicationMapping();
+        applicationMapping.setUuid(applicationUUID + "-" + subscriptionUUID);
+        applicationMapping.setApplicationUUID(applicationUUID);
+        applicationMapping.setSubscriptionUUID(subscriptionUUID);
+        applicationMapping.setOrganization("org1");
+        return applicationMapping;
+    }
+
+    @Test
+    public void testApplicationMappingIndex() {
+        ApplicationMapping mapping1 = applicationMapping("app1", "sub1");
+        ApplicationMapping mapping2 = applicationMapping("app1", "sub2");
+        ApplicationMapping mapping3 = applicationMapping("app2", "sub3");
+        SubscriptionDataSnapshot snapshot = SubscriptionDataSnapshot.EMPTY.toBuilder()
+                .putApplicationMapping(mapping1).putApplicationMapping(mapping2).putApplicationMapping(mapping3)
+                .build();
+
+        Assert.assertEquals(2, snapshot.getApplicationMappings("app1").size());
+        Assert.assertEquals(1, snapshot.getApplicationMappings("app2").size());
+        Assert.assertTrue(snapshot.getApplicationMappings("app3").isEmpty());
+
+        SubscriptionDataSnapshot updated = snapshot.toBuilder()
+                .removeApplicationMapping(mapping1.getCacheKey()).build();
+        Assert.assertEquals(1, updated.getApplicationMappings("app1").size());
+        Assert.assertTrue(updated.getApplicationMappings("app1").contains(mapping2));
+        Assert.assertEquals(2, updated.getApplicationMappingCount());
+        // The previous snapshot is not affected by the update
+        Assert.assertEquals(2, snapshot.getApplicationMappings("app1").size());
+        Assert.assertEquals(3, snapshot.getApplicationMappingCount());
+    }
+
+    @Test
+    public void testVersionAndCopyOnWrite() {
+        Application application = new Application();
+        application.setUUID("app1");
+        SubscriptionDataSnapshot snapshot = SubscriptionDataSnapshot.EMPTY.toBuilder()
+                .putApplication(application).build();
+        SubscriptionDataSnapshot updated = snapshot.toBuilder().removeApplication("app1").build();
+
+        Assert.assertEquals(SubscriptionDataSnapshot.EMPTY.getVersion() + 1, snapshot.getVersion());
+        Assert.assertEquals(snapshot.getVersion() + 1, updated.getVersion());
+        Assert.assertSame(application, snapshot.getApplication("app1"));
+        Assert.assertNull(updated.getApplication("app1"));
+    }
+}
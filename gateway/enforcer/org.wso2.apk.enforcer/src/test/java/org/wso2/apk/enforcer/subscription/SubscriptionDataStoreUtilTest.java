@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SubscriptionDataStoreUtilTest {
+
+    @Test
+    public void testRetryDelayIsBackedOffAndBounded() {
+        Assert.assertEquals(SubscriptionDataStoreUtil.INITIAL_RETRY_DELAY_MILLIS,
+                SubscriptionDataStoreUtil.getRetryDelayMillis(1));
+        Assert.assertEquals(2 * SubscriptionDataStoreUtil.INITIAL_RETRY_DELAY_MILLIS,
+                SubscriptionDataStoreUtil.getRetryDelayMillis(2));
+        long previous = 0;
+        for (int attempt = 1; attempt <= 64; attempt++) {
+            long delay = SubscriptionDataStoreUtil.getRetryDelayMillis(attempt);
+            Assert.assertTrue(delay >= previous);
+            Assert.assertTrue(delay <= SubscriptionDataStoreUtil.MAX_RETRY_DELAY_MILLIS);
+            previous = delay;
+        }
+        Assert.assertEquals(SubscriptionDataStoreUtil.MAX_RETRY_DELAY_MILLIS, previous);
+    }
+}
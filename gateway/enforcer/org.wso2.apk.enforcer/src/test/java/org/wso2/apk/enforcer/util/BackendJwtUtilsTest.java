@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.common.BackendJWTToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class BackendJwtUtilsTest {
+
+    @Test
+    public void testCacheEntryExpiry() {
+        String token = token("{\"sub\":\"admin\",\"exp\":1100}");
+        BackendJWTToken entry = BackendJwtUtils.toCacheEntry(token, 1000000, 5000);
+        Assert.assertNotNull(entry);
+        Assert.assertSame(token, entry.getToken());
+        Assert.assertEquals(1095000, entry.getUsableUntil());
+        Assert.assertEquals(1076000, entry.getRefreshAt());
+        Assert.assertTrue(entry.isUsable(1094999));
+        Assert.assertFalse(entry.isUsable(1095000));
+        Assert.assertFalse(entry.isRefreshDue(1075999));
+        Assert.assertTrue(entry.isRefreshDue(1076000));
+    }
+
+    @Test
+    public void testTokensNotCachedWithoutUsableExpiry() {
+        Assert.assertNull(BackendJwtUtils.toCacheEntry(token("{\"sub\":\"admin\"}"), 1000000, 5000));
+        Assert.assertNull(BackendJwtUtils.toCacheEntry(token("{\"sub\":\"admin\",\"exp\":1004}"), 1000000, 5000));
+        Assert.assertNull(BackendJwtUtils.toCacheEntry("not-a-jwt", 1000000, 5000));
+    }
+
+    private static String token(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".c2lnbmF0dXJl";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentHashMapTest {
+
+    /**
+     * Key with a configurable hash code, used to force collisions.
+     */
+    private static final class Key {
+
+        private final String name;
+        private final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void testPlusAndMinusMatchHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testPreviousVersionIsNotAffected() {
+        PersistentHashMap<String, String> first = PersistentHashMap.<String, String>empty().plus("a", "1");
+        PersistentHashMap<String, String> second = first.plus("a", "2").plus("b", "3");
+        PersistentHashMap<String, String> third = second.minus("a");
+
+        Assert.assertEquals("1", first.get("a"));
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals("2", second.get("a"));
+        Assert.assertEquals(2, second.size());
+        Assert.assertFalse(third.containsKey("a"));
+        Assert.assertEquals(1, third.size());
+        Assert.assertSame(third, third.minus("missing"));
+    }
+
+    @Test
+    public void testCollisions() {
+        Key key1 = new Key("key1", 7);
+        Key key2 = new Key("key2", 7);
+        Key key3 = new Key("key3", 7);
+        PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String>empty()
+                .plus(key1, "1").plus(key2, "2").plus(key3, "3");
+
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("2", map.get(new Key("key2", 7)));
+        Assert.assertNull(map.get(new Key("key4", 7)));
+
+        PersistentHashMap<Key, String> removed = map.minus(key2).minus(key1);
+        Assert.assertEquals(1, removed.size());
+        Assert.assertEquals("3", removed.get(key3));
+        Assert.assertTrue(removed.minus(key3).isEmpty());
+    }
+
+    @Test
+    public void testCopyOf() {
+        Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            source.put("key" + i, i);
+        }
+        PersistentHashMap<String, Integer> map = PersistentHashMap.copyOf(source);
+
+        Assert.assertEquals(source, map);
+        Assert.assertSame(map, PersistentHashMap.copyOf(map));
+    }
+}
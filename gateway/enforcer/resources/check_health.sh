@@ -17,10 +17,15 @@
 
 ENFORCER_PORT="${ENFORCER_PORT:-8081}"
 ENFORCER_SERVER_NAME="${ENFORCER_SERVER_NAME:-enforcer}"
+# Pass "ready" to check the readiness of the enforcer, which also requires the subscription data to be loaded.
+SERVICE_ARGS=""
+if [ "$1" = "ready" ]; then
+    SERVICE_ARGS="-service readiness"
+fi
 grpc_health_probe -addr "127.0.0.1:${ENFORCER_PORT}" \
     -tls \
     -tls-ca-cert "${ENFORCER_PUBLIC_CERT_PATH}" \
     -tls-client-cert "${ENFORCER_PUBLIC_CERT_PATH}" \
     -tls-client-key "${ENFORCER_PRIVATE_KEY_PATH}" \
     -tls-server-name ${ENFORCER_SERVER_NAME} \
-    -connect-timeout=3s
+    -connect-timeout=3s ${SERVICE_ARGS}